@@ -11,23 +11,21 @@
 
 package org.jboss.tools.ws.jaxrs.core;
 
-import java.util.HashSet;
-import java.util.Set;
-
 import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.Plugin;
 import org.eclipse.jdt.core.JavaCore;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.JavaElementChangedListener;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.JaxrsMetamodelSaveParticipant;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.ResourceChangedListener;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodelEventBus;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsEndpoint;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsMetamodel;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsMetamodelChangedListener;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.JaxrsElementDelta;
-import org.jboss.tools.ws.jaxrs.core.metamodel.domain.JaxrsEndpointDelta;
-import org.jboss.tools.ws.jaxrs.core.metamodel.domain.JaxrsMetamodelDelta;
 import org.osgi.framework.BundleContext;
 
 /**
@@ -47,8 +45,11 @@ public class JBossJaxrsCorePlugin extends Plugin {
 	/** The resource changes listener. */
 	private final ResourceChangedListener resourceChangedListener = new ResourceChangedListener();
 
-	/** The Listeners for JAX-RS Metamodel changes. */
-	private final Set<IJaxrsMetamodelChangedListener> metamodelChangedListeners = new HashSet<IJaxrsMetamodelChangedListener>();
+	/** The workspace save participant, which saves the JAX-RS Metamodels snapshots. */
+	private final JaxrsMetamodelSaveParticipant saveParticipant = new JaxrsMetamodelSaveParticipant();
+
+	/** The bus that delivers the JAX-RS Metamodel changes to the registered listeners. */
+	private final JaxrsMetamodelEventBus eventBus = JaxrsMetamodelEventBus.getInstance();
 
 	/**
 	 * The constructor.
@@ -74,6 +75,7 @@ public class JBossJaxrsCorePlugin extends Plugin {
 	public void stop(BundleContext context) throws Exception {
 		plugin = null;
 		unregisterListeners();
+		eventBus.removeAllListeners();
 		super.stop(context);
 	}
 
@@ -81,7 +83,7 @@ public class JBossJaxrsCorePlugin extends Plugin {
 	/**
 	 * Register the elementChangedListeners.
 	 */
-	private void registerListeners() {
+	private void registerListeners() throws CoreException {
 		// the java changes are only captured during POST_RECONCILE (ie, during
 		// live coding)
 		JavaCore.addElementChangedListener(javaElementChangedListener);
@@ -89,7 +91,9 @@ public class JBossJaxrsCorePlugin extends Plugin {
 		// the resource is saved, whatever the mean of changes in the file -
 		// editor, refactoring, etc.)
 		ResourcesPlugin.getWorkspace().addResourceChangeListener(resourceChangedListener,
-				IResourceChangeEvent.PRE_CLOSE);
+				IResourceChangeEvent.PRE_CLOSE | IResourceChangeEvent.PRE_DELETE);
+		// the JAX-RS Metamodels snapshots are saved along with the workspace
+		ResourcesPlugin.getWorkspace().addSaveParticipant(PLUGIN_ID, saveParticipant);
 	}
 
 	/**
@@ -98,6 +102,7 @@ public class JBossJaxrsCorePlugin extends Plugin {
 	private void unregisterListeners() {
 		JavaCore.removeElementChangedListener(javaElementChangedListener);
 		ResourcesPlugin.getWorkspace().removeResourceChangeListener(resourceChangedListener);
+		ResourcesPlugin.getWorkspace().removeSaveParticipant(PLUGIN_ID);
 	}
 
 	/**
@@ -127,15 +132,13 @@ public class JBossJaxrsCorePlugin extends Plugin {
 	
 	/**
 	 * Registers the given listener for further notifications when JAX-RS
-	 * Endpoints changed in this metamodel.
+	 * Endpoints changed in this metamodel. The listener is notified in its own
+	 * thread (see {@link JaxrsMetamodelEventBus}).
 	 * 
 	 * @param listener
 	 */
 	public void addJaxrsMetamodelChangedListener(final IJaxrsMetamodelChangedListener listener) {
-		if(!metamodelChangedListeners.contains(listener)) { 
-			Logger.debug("Registering JaxrsMetamodelChangedListener");
-			metamodelChangedListeners.add(listener);
-		}
+		eventBus.addListener(listener);
 	}
 
 	/**
@@ -145,7 +148,7 @@ public class JBossJaxrsCorePlugin extends Plugin {
 	 * @param listener
 	 */
 	public void removeListener(final IJaxrsMetamodelChangedListener listener) {
-		metamodelChangedListeners.remove(listener);
+		eventBus.removeListener(listener);
 	}
 
 	/**
@@ -160,14 +163,8 @@ public class JBossJaxrsCorePlugin extends Plugin {
 	 *            no change occurred)
 	 */
 	public static void notifyEndpointChanged(final IJaxrsEndpoint endpoint, final int deltaKind) {
-		if (endpoint != null && !getDefault().metamodelChangedListeners.isEmpty()) {
-			final JaxrsEndpointDelta delta = new JaxrsEndpointDelta(endpoint, deltaKind);
-			Logger.trace("Notify elementChangedListeners after {}", delta);
-			for (IJaxrsMetamodelChangedListener listener : getDefault().metamodelChangedListeners) {
-				listener.notifyEndpointChanged(delta);
-			}
-		} else if(getDefault().metamodelChangedListeners.isEmpty()) {
-			Logger.trace(" No Listener to notify about endpoint changed (type={}): {}", deltaKind, endpoint);
+		if (endpoint != null) {
+			getDefault().eventBus.postEndpointChanged(endpoint, deltaKind);
 		}
 	}
 
@@ -181,35 +178,21 @@ public class JBossJaxrsCorePlugin extends Plugin {
 	public static void notifyEndpointProblemLevelChanged(final IJaxrsEndpoint endpoint) {
 		Logger.debug("Notifying that problem severity changed to {} for endpoint {} {}", endpoint.getProblemLevel(),
 				endpoint.getHttpMethod().getHttpVerb(), endpoint.getUriPathTemplate());
-		for (IJaxrsMetamodelChangedListener listener : getDefault().metamodelChangedListeners) {
-			listener.notifyEndpointProblemLevelChanged(endpoint);
-		}
+		getDefault().eventBus.postEndpointProblemLevelChanged(endpoint);
 	}
 
 	/**
 	 * Notifies all registered listeners that the problem level of this {@link JaxrsMetamodel} changed
 	 */
 	public static void notifyMetamodelProblemLevelChanged(final IJaxrsMetamodel metamodel) {
-		if(getDefault().metamodelChangedListeners.isEmpty()) {
-			Logger.debug("No metamodelChangedListeners to notify that the metamodel problem level changed :(");
-			return;
-		}
-		for (IJaxrsMetamodelChangedListener listener : getDefault().metamodelChangedListeners) {
-			listener.notifyMetamodelProblemLevelChanged(metamodel);
-		}
+		getDefault().eventBus.postMetamodelProblemLevelChanged(metamodel);
 	}
 
 	/**
 	 * Notifies all registered listeners that this {@link JaxrsMetamodel} changed
 	 */
 	public static void notifyMetamodelChanged(final IJaxrsMetamodel metamodel, final int deltaKind) {
-		if(getDefault().metamodelChangedListeners.isEmpty()) {
-			Logger.debug("No metamodelChangedListener to notify of the metamodel changed :(");
-			return;
-		}
-		for (IJaxrsMetamodelChangedListener listener : getDefault().metamodelChangedListeners) {
-			listener.notifyMetamodelChanged(new JaxrsMetamodelDelta(metamodel, deltaKind));
-		}
+		getDefault().eventBus.postMetamodelChanged(metamodel, deltaKind);
 	}
 
 
@@ -12,9 +12,13 @@ package org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder;
 
 import static org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.JaxrsMetamodelBuilder.SCALE;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -25,37 +29,69 @@ import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 import org.jboss.tools.ws.jaxrs.core.JBossJaxrsCorePlugin;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodelEventBus;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.JobMonitor;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.JaxrsMetamodelLocator;
+import org.jboss.tools.ws.jaxrs.core.metrics.JaxrsMetrics;
 
 /** @author xcoulon */
 public class JavaElementChangedBuildJob extends Job {
 
+	/** The single event to process, or null if this job processes the events of a queue. */
 	private final ElementChangedEvent event;
 	
+	/** The queue whose events are processed by this job, or null if this job processes a single event. */
+	private final JavaElementChangedBuildQueue queue;
+	
 	public JavaElementChangedBuildJob(final ElementChangedEvent event) {
 		super("Processing JAX-RS changes...");
 		Logger.debug("Kicking a JavaElementChangedBuildJob (#{}) to process {}", JobMonitor.getJobId(this), event);
 		this.setPriority(Job.SHORT);
 		this.event = event;
+		this.queue = null;
 		this.addJobChangeListener(new JobMonitor());
 	}
 	
+	/**
+	 * Constructor for a job that processes all events of the given queue each
+	 * time it runs.
+	 * 
+	 * @param queue
+	 *            the queue of events
+	 */
+	JavaElementChangedBuildJob(final JavaElementChangedBuildQueue queue) {
+		super("Processing JAX-RS changes...");
+		this.setPriority(Job.SHORT);
+		this.event = null;
+		this.queue = queue;
+		this.addJobChangeListener(new JobMonitor());
+	}
+	
+	@Override
+	public boolean belongsTo(final Object family) {
+		return queue != null && family == JavaElementChangedBuildQueue.FAMILY;
+	}
+	
 	
 	protected IStatus run(final IProgressMonitor progressMonitor) {
 		final long startTime = new Date().getTime();
+		final long start = System.nanoTime();
 		IJavaElement element = null;
+		// the metamodels whose view must be published at the end of the build
+		final Set<JaxrsMetamodel> changedMetamodels = new LinkedHashSet<JaxrsMetamodel>();
+		// notifications are delivered once the views are published
+		JaxrsMetamodelEventBus.getInstance().beginBatch();
 		try {
 			progressMonitor.beginTask("Building JAX-RS Metamodel", 3 * SCALE);
 			progressMonitor.worked(SCALE);
-			Logger.debug("Building JAX-RS Metamodel after: {}", event);
+			Logger.debug("Building JAX-RS Metamodel after: {}", queue != null ? queue : event);
 			if (progressMonitor.isCanceled()) {
 				return Status.CANCEL_STATUS;
 			}
 			// scan and filter delta, retrieve a list of java changes
-			final List<JavaElementChangedEvent> affectedJavaElements = new JavaElementDeltaScanner().scanAndFilterEvent(event,
-					new SubProgressMonitor(progressMonitor, SCALE));
+			final List<JavaElementChangedEvent> affectedJavaElements = scanAndFilterEvents(new SubProgressMonitor(
+					progressMonitor, SCALE));
 			if(affectedJavaElements.isEmpty()) {
 				Logger.debug("* No relevant affected element to process *");
 				return Status.OK_STATUS;
@@ -69,6 +105,7 @@ public class JavaElementChangedBuildJob extends Job {
 				final JaxrsMetamodel metamodel = JaxrsMetamodelLocator.get(javaProject, true);
 				// prevent NPE when opening a closed project (ie, there's no metamodel yet).
 				if(metamodel != null) {
+					changedMetamodels.add(metamodel);
 					try {
 						metamodel.processJavaElementChange(delta, progressMonitor);
 						if (progressMonitor.isCanceled()) {
@@ -97,7 +134,12 @@ public class JavaElementChangedBuildJob extends Job {
 						e);
 			}
 		} finally {
+			for (JaxrsMetamodel changedMetamodel : changedMetamodels) {
+				changedMetamodel.publishView();
+			}
+			JaxrsMetamodelEventBus.getInstance().commitBatch();
 			progressMonitor.done();
+			JaxrsMetrics.JAVA_ELEMENT_CHANGED_BUILD_DURATION.recordSince(start);
 			long endTime = new Date().getTime();
 			if (Logger.isDebugEnabled()) {
 				Logger.debug("Java element changes processed in {} ms.", (endTime - startTime));
@@ -106,4 +148,35 @@ public class JavaElementChangedBuildJob extends Job {
 		}
 		return Status.OK_STATUS;
 	}
+
+	/**
+	 * Scans and filters the event of this job, or all pending events of its
+	 * queue (in which case the resulting changes are coalesced).
+	 * 
+	 * @param progressMonitor
+	 *            the progress monitor
+	 * @return the Java changes to process
+	 * @throws CoreException
+	 */
+	private List<JavaElementChangedEvent> scanAndFilterEvents(final IProgressMonitor progressMonitor)
+			throws CoreException {
+		final JavaElementDeltaScanner scanner = new JavaElementDeltaScanner();
+		if (queue == null) {
+			return scanner.scanAndFilterEvent(event, progressMonitor);
+		}
+		final List<ElementChangedEvent> events = queue.drain();
+		try {
+			progressMonitor.beginTask("Analysing changes", events.size());
+			final List<JavaElementChangedEvent> affectedJavaElements = new ArrayList<JavaElementChangedEvent>();
+			for (ElementChangedEvent pendingEvent : events) {
+				affectedJavaElements.addAll(scanner.scanAndFilterEvent(pendingEvent, new SubProgressMonitor(
+						progressMonitor, 1)));
+			}
+			Logger.debug("Processing {} Java element changes from {} events", affectedJavaElements.size(),
+					events.size());
+			return queue.coalesce(affectedJavaElements);
+		} finally {
+			progressMonitor.done();
+		}
+	}
 }
@@ -0,0 +1,311 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder;
+
+import static org.eclipse.jdt.core.IJavaElementDelta.ADDED;
+import static org.eclipse.jdt.core.IJavaElementDelta.CHANGED;
+import static org.eclipse.jdt.core.IJavaElementDelta.REMOVED;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
+import org.jboss.tools.ws.jaxrs.core.jdt.Flags;
+import org.jboss.tools.ws.jaxrs.core.metrics.JaxrsMetrics;
+
+/**
+ * Per-project queue of {@link ElementChangedEvent}s, processed by a single
+ * {@link JavaElementChangedBuildJob}.
+ * <p>
+ * The job is scheduled after a short debounce delay, so that all events
+ * received in a burst (eg: while typing or during a refactoring) are processed
+ * at once. Once scanned, the changes of a burst are coalesced per Java
+ * element: successive changes on the same element are merged, and changes that
+ * are superseded by later ones are dropped (see {@link #coalesce(List)}).
+ * </p>
+ * 
+ * @author xcoulon
+ * 
+ */
+public class JavaElementChangedBuildQueue {
+
+	/** The family of the jobs that process the queued events. */
+	public static final Object FAMILY = JavaElementChangedBuildQueue.class;
+
+	/** Delay (in milliseconds) before the queued events are processed. */
+	public static final long DEBOUNCE_DELAY = 150;
+
+	/** The queues, indexed by project, until the project is closed or deleted. */
+	private static final ConcurrentMap<IProject, JavaElementChangedBuildQueue> queues = new ConcurrentHashMap<IProject, JavaElementChangedBuildQueue>();
+
+	/** The project whose events are queued. */
+	private final IProject project;
+
+	/** The events waiting to be processed. */
+	private final List<ElementChangedEvent> pendingEvents = new ArrayList<ElementChangedEvent>();
+
+	/** The job that processes the queued events. */
+	private final JavaElementChangedBuildJob job;
+
+	/** Number of events received. */
+	private final AtomicLong receivedEventsCount = new AtomicLong();
+
+	/** Number of events that joined a burst which already had pending events. */
+	private final AtomicLong mergedEventsCount = new AtomicLong();
+
+	/** Number of element changes merged into another one, or dropped. */
+	private final AtomicLong mergedChangesCount = new AtomicLong();
+
+	/** Number of bursts of events processed. */
+	private final AtomicLong burstsCount = new AtomicLong();
+
+	/** Time at which the first pending event was received (guarded by the pending events). */
+	private long firstPendingEventTime;
+
+	/**
+	 * Returns the queue associated with the given project, creating it if
+	 * necessary.
+	 * 
+	 * @param project
+	 *            the project
+	 * @return the queue
+	 */
+	public static JavaElementChangedBuildQueue getQueue(final IProject project) {
+		final JavaElementChangedBuildQueue queue = queues.get(project);
+		if (queue != null) {
+			return queue;
+		}
+		final JavaElementChangedBuildQueue newQueue = new JavaElementChangedBuildQueue(project);
+		final JavaElementChangedBuildQueue existingQueue = queues.putIfAbsent(project, newQueue);
+		return existingQueue != null ? existingQueue : newQueue;
+	}
+
+	/**
+	 * Removes the queue associated with the given project, if any, dropping
+	 * its pending events. Called when the project is closed or deleted.
+	 * 
+	 * @param project
+	 *            the project
+	 */
+	public static void removeQueue(final IProject project) {
+		final JavaElementChangedBuildQueue queue = queues.remove(project);
+		if (queue != null) {
+			synchronized (queue.pendingEvents) {
+				queue.pendingEvents.clear();
+			}
+			queue.job.cancel();
+		}
+	}
+
+	private JavaElementChangedBuildQueue(final IProject project) {
+		this.project = project;
+		this.job = new JavaElementChangedBuildJob(this);
+		this.job.setRule(project.getWorkspace().getRuleFactory().buildRule());
+		// events received while the job was running are processed in a new
+		// burst
+		this.job.addJobChangeListener(new JobChangeAdapter() {
+			@Override
+			public void done(final IJobChangeEvent event) {
+				if (hasPendingEvents()) {
+					job.schedule(DEBOUNCE_DELAY);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Adds the given event to this queue, and schedules the job that will
+	 * process it along with the other events of the same burst.
+	 * 
+	 * @param event
+	 *            the event to queue
+	 */
+	public void enqueue(final ElementChangedEvent event) {
+		receivedEventsCount.incrementAndGet();
+		synchronized (pendingEvents) {
+			if (!pendingEvents.isEmpty()) {
+				mergedEventsCount.incrementAndGet();
+			} else {
+				firstPendingEventTime = System.nanoTime();
+			}
+			pendingEvents.add(event);
+		}
+		job.schedule(DEBOUNCE_DELAY);
+	}
+
+	/**
+	 * @return {@code true} if some events are waiting to be processed,
+	 *         {@code false} otherwise
+	 */
+	boolean hasPendingEvents() {
+		synchronized (pendingEvents) {
+			return !pendingEvents.isEmpty();
+		}
+	}
+
+	/**
+	 * Removes and returns all the events waiting to be processed.
+	 * 
+	 * @return the pending events, in the order in which they were received
+	 */
+	List<ElementChangedEvent> drain() {
+		final List<ElementChangedEvent> events;
+		synchronized (pendingEvents) {
+			events = new ArrayList<ElementChangedEvent>(pendingEvents);
+			pendingEvents.clear();
+			if (!events.isEmpty()) {
+				JaxrsMetrics.BUILD_QUEUE_WAIT.recordSince(firstPendingEventTime);
+			}
+		}
+		if (!events.isEmpty()) {
+			burstsCount.incrementAndGet();
+		}
+		return events;
+	}
+
+	/**
+	 * Coalesces the given changes per Java element, keeping each resulting
+	 * change at the position of the latest change on its element:
+	 * <ul>
+	 * <li>a change on a Java project or on a package fragment root (which
+	 * triggers a full build of the project) supersedes all previous changes in
+	 * the same project,</li>
+	 * <li>an element that was added then removed is ignored,</li>
+	 * <li>an element that was added then changed is added with the latest AST,</li>
+	 * <li>an element that was changed then changed again or removed results in
+	 * a single change or removal with the latest AST and the combined flags,</li>
+	 * <li>other sequences (eg: an element that was removed then added) are kept
+	 * as is.</li>
+	 * </ul>
+	 * 
+	 * @param changes
+	 *            the changes to coalesce, in the order in which they occurred
+	 * @return the coalesced changes
+	 */
+	public List<JavaElementChangedEvent> coalesce(final List<JavaElementChangedEvent> changes) {
+		final List<JavaElementChangedEvent> coalescedChanges = new ArrayList<JavaElementChangedEvent>(changes.size());
+		// position of the latest change for each element
+		final Map<String, Integer> latestPositions = new HashMap<String, Integer>();
+		for (JavaElementChangedEvent change : changes) {
+			final IJavaElement element = change.getElement();
+			final String key = element.getHandleIdentifier();
+			if (element.getElementType() == IJavaElement.JAVA_PROJECT
+					|| element.getElementType() == IJavaElement.PACKAGE_FRAGMENT_ROOT) {
+				discardChanges(coalescedChanges, latestPositions, element.getJavaProject());
+			} else {
+				final Integer latestPosition = latestPositions.get(key);
+				if (latestPosition != null) {
+					final JavaElementChangedEvent previousChange = coalescedChanges.get(latestPosition);
+					if (previousChange.getKind() == ADDED && change.getKind() == REMOVED) {
+						coalescedChanges.set(latestPosition, null);
+						latestPositions.remove(key);
+						continue;
+					} else if (previousChange.getKind() == ADDED && change.getKind() == CHANGED) {
+						coalescedChanges.set(latestPosition, null);
+						latestPositions.put(key, coalescedChanges.size());
+						coalescedChanges.add(merge(previousChange, change, ADDED));
+						continue;
+					} else if (previousChange.getKind() == CHANGED
+							&& (change.getKind() == CHANGED || change.getKind() == REMOVED)) {
+						coalescedChanges.set(latestPosition, null);
+						latestPositions.put(key, coalescedChanges.size());
+						coalescedChanges.add(merge(previousChange, change, change.getKind()));
+						continue;
+					}
+				}
+			}
+			latestPositions.put(key, coalescedChanges.size());
+			coalescedChanges.add(change);
+		}
+		for (Iterator<JavaElementChangedEvent> iterator = coalescedChanges.iterator(); iterator.hasNext();) {
+			if (iterator.next() == null) {
+				iterator.remove();
+			}
+		}
+		final int mergedChanges = changes.size() - coalescedChanges.size();
+		if (mergedChanges > 0) {
+			mergedChangesCount.addAndGet(mergedChanges);
+			Logger.debug("Coalesced {} Java element changes into {}", changes.size(), coalescedChanges.size());
+		}
+		return coalescedChanges;
+	}
+
+	/**
+	 * Discards all changes in the given project.
+	 */
+	private static void discardChanges(final List<JavaElementChangedEvent> changes,
+			final Map<String, Integer> latestPositions, final IJavaProject javaProject) {
+		for (int i = 0; i < changes.size(); i++) {
+			final JavaElementChangedEvent change = changes.get(i);
+			if (change != null && (javaProject == null || javaProject.equals(change.getElement().getJavaProject()))) {
+				changes.set(i, null);
+			}
+		}
+		for (Iterator<Entry<String, Integer>> iterator = latestPositions.entrySet().iterator(); iterator.hasNext();) {
+			if (changes.get(iterator.next().getValue()) == null) {
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * @return a new change of the given kind, with the AST of the latest
+	 *         change and the flags of both changes
+	 */
+	private static JavaElementChangedEvent merge(final JavaElementChangedEvent previousChange,
+			final JavaElementChangedEvent latestChange, final int deltaKind) {
+		final Flags flags = new Flags(previousChange.getFlags().getValue());
+		flags.addFlags(latestChange.getFlags());
+		return new JavaElementChangedEvent(latestChange.getElement(), deltaKind, latestChange.getEventType(),
+				latestChange.getCompilationUnitAST(), flags);
+	}
+
+	/** @return the number of events received */
+	public long getReceivedEventsCount() {
+		return receivedEventsCount.get();
+	}
+
+	/** @return the number of events that were processed along with others, in the same burst */
+	public long getMergedEventsCount() {
+		return mergedEventsCount.get();
+	}
+
+	/** @return the number of element changes that were merged into another one, or dropped */
+	public long getMergedChangesCount() {
+		return mergedChangesCount.get();
+	}
+
+	/** @return the number of bursts of events that were processed */
+	public long getBurstsCount() {
+		return burstsCount.get();
+	}
+
+	@Override
+	public String toString() {
+		return "JavaElementChangedBuildQueue [project=" + project.getName() + ", received=" + receivedEventsCount
+				+ ", merged=" + mergedEventsCount + ", mergedChanges=" + mergedChangesCount + ", bursts="
+				+ burstsCount + "]";
+	}
+
+}
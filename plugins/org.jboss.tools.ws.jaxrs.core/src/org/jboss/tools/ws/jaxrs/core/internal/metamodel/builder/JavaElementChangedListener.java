@@ -29,7 +29,8 @@ import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
 import org.jboss.tools.ws.jaxrs.core.jdt.Flags;
 
 /**
- * Listens to all change events (Java elements and resources) and triggers a new job for each change.<br>
+ * Listens to all change events (Java elements and resources) and queues them in the
+ * {@link JavaElementChangedBuildQueue} of their project, which processes them by bursts.<br>
  * Yet, it avoids trigger new Jobs for high level changes (JavaModel, WorkspaceRoot, etc.)
  * 
  * @author xcoulon
@@ -67,9 +68,7 @@ public class JavaElementChangedListener implements IElementChangedListener {
 			final IProject project = getProject(event.getDelta());
 			if (ProjectNatureUtils.isProjectNatureInstalled(project, ProjectNatureUtils.JAXRS_NATURE_ID)) {
 				logDelta(event.getDelta(), event.getType());
-				final JavaElementChangedBuildJob job = new JavaElementChangedBuildJob(event);
-				job.setRule(project.getWorkspace().getRuleFactory().buildRule());
-				job.schedule();
+				JavaElementChangedBuildQueue.getQueue(project).enqueue(event);
 			}
 		} catch (CoreException e) {
 			Logger.error("Failed to process Java Element change", e);
@@ -46,6 +46,7 @@ import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JavaMethodSignature;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.ConstantUtils;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
+import org.jboss.tools.ws.jaxrs.core.jdt.CompilationUnitsRepository;
 import org.jboss.tools.ws.jaxrs.core.jdt.Flags;
 import org.jboss.tools.ws.jaxrs.core.jdt.JdtUtils;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJavaMethodSignature;
@@ -114,19 +115,31 @@ public class JavaElementDeltaScanner {
 				return events;
 			}
 		}
-		final CompilationUnit compilationUnitAST = getCompilationUnitAST(delta);
 		if (elementKind == COMPILATION_UNIT) {
 			final ICompilationUnit compilationUnit = (ICompilationUnit) element;
-			// compilationUnitAST is null when the given compilation unit'w
-			// working copy is being commited (ie, Java Editor is being closed
-			// for the given compilation unit, etc.)
+			final CompilationUnitsRepository compilationUnitsRepository = CompilationUnitsRepository.getInstance();
 			if (compilationUnit.exists() // see https://issues.jboss.org/browse/JBIDE-12760: compilationUnit may not exist
-					&& compilationUnit.isWorkingCopy() && compilationUnitAST != null) {
+					&& compilationUnit.isWorkingCopy() && requiresDiffsComputation(flags)) {
+				// changes that only affected method bodies leave the
+				// fingerprint unchanged, and the fingerprint is computed
+				// without resolving the bindings: in that case, the resolved
+				// AST and the method signatures diffs are not needed (the
+				// children deltas are still scanned below, though).
+				final boolean structuralChanges = compilationUnitsRepository.hasStructuralChanges(compilationUnit,
+						delta.getCompilationUnitAST());
+				if (!structuralChanges) {
+					Logger.debug("Skipping the analysis of {}'s method signatures: only method bodies changed",
+							compilationUnit.getElementName());
+				}
+				// compilationUnitAST is null when the given compilation unit'w
+				// working copy is being commited (ie, Java Editor is being closed
+				// for the given compilation unit, etc.)
+				final CompilationUnit compilationUnitAST = structuralChanges ? getCompilationUnitAST(delta) : null;
 				// assuming possible changes in the method signatures (return type,
 				// param types and param annotations). Other changes in methods
 				// (renaming, adding/removing params) result in add+remove
 				// events on the given method itself.
-				if(requiresDiffsComputation(flags)) {
+				if (compilationUnitAST != null) {
 					for(IType type : compilationUnit.getAllTypes()) {
 						for(IMethod javaMethod : type.getMethods()) {
 							final JavaElementChangedEvent event = new JavaElementChangedEvent(javaMethod, CHANGED, eventType,
@@ -137,14 +150,21 @@ public class JavaElementDeltaScanner {
 						}
 					}
 				}
+			} else {
+				// the compilation unit changed without its fingerprint being
+				// checked, so its next change must be fully analysed
+				compilationUnitsRepository.resetFingerprint(compilationUnit);
 			}
 		} 
 		// element is part of the compilation unit
-		else if(compilationUnitAST != null){
-			final JavaElementChangedEvent event = new JavaElementChangedEvent(element, deltaKind, eventType, compilationUnitAST,
-					flags);
-			if (javaElementChangedEventFilter.apply(event)) {
-				events.add(event);
+		else {
+			final CompilationUnit compilationUnitAST = getCompilationUnitAST(delta);
+			if (compilationUnitAST != null) {
+				final JavaElementChangedEvent event = new JavaElementChangedEvent(element, deltaKind, eventType, compilationUnitAST,
+						flags);
+				if (javaElementChangedEventFilter.apply(event)) {
+					events.add(event);
+				}
 			}
 		}
 		// continue with children elements, both on annotations and other java
@@ -38,7 +38,6 @@ import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsResource;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsResourceElement;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsResourceMethod;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsResourceProperty;
-import org.jboss.tools.ws.jaxrs.core.internal.metamodel.search.JavaElementsSearcher;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
 import org.jboss.tools.ws.jaxrs.core.jdt.Annotation;
 import org.jboss.tools.ws.jaxrs.core.jdt.Flags;
@@ -206,7 +205,7 @@ public class JaxrsElementChangedProcessorDelegate {
 			final Flags flags = computeAnnotationChangeFlags(resourceElement);
 			if(flags.hasValue()) {
 				for(JaxrsEndpoint endpoint : resourceEndpoints) {
-					endpoint.update(flags);
+					endpoint.update(resource, flags);
 				}
 			}
 		}
@@ -262,7 +261,7 @@ public class JaxrsElementChangedProcessorDelegate {
 	private static void processCascadeChange(final IAnnotatedSourceType parameterAggregatorElement, final JaxrsParameterAggregator parentAggregator, final Flags flags) throws CoreException {
 		final JaxrsMetamodel metamodel = parentAggregator.getMetamodel();
 		final List<IType> knownTypes = metamodel.getAllJavaElements(IJavaElement.TYPE);
-		final Set<IType> relatedTypes = JavaElementsSearcher.findRelatedTypes(parentAggregator.getJavaElement(), knownTypes, null);
+		final Set<IType> relatedTypes = metamodel.findRelatedTypes(parentAggregator.getJavaElement(), knownTypes, null);
 		final Set<JaxrsEndpoint> resourceEndpoints = new HashSet<JaxrsEndpoint>();
 		for(IType relatedType : relatedTypes) {
 			resourceEndpoints.addAll(parentAggregator.getMetamodel().findEndpoints(relatedType));
@@ -347,7 +346,7 @@ public class JaxrsElementChangedProcessorDelegate {
 		final JaxrsMetamodel metamodel = changedResourceElement.getMetamodel();
 		final Collection<JaxrsEndpoint> endpoints = metamodel.findEndpoints(changedResourceElement.getParentResource());
 		for (JaxrsEndpoint endpoint : endpoints) {
-			endpoint.update(flags);
+			endpoint.update(changedResourceElement.getParentResource(), flags);
 		}
 	}
 	
@@ -375,7 +374,7 @@ public class JaxrsElementChangedProcessorDelegate {
 			final Collection<JaxrsEndpoint> affectedEndpoints = metamodel.findEndpoints(resourceElement.getParentResource());
 			if(flags.hasValue()) {
 				for(JaxrsEndpoint endpoint : affectedEndpoints) {
-					endpoint.update(flags);
+					endpoint.update(resourceElement.getParentResource(), flags);
 				}
 			}
 		}
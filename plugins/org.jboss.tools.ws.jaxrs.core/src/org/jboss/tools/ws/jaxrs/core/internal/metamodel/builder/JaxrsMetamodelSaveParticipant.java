@@ -0,0 +1,80 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ISaveContext;
+import org.eclipse.core.resources.ISaveParticipant;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodelSnapshot;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.JaxrsMetamodelLocator;
+
+/**
+ * Saves a {@link JaxrsMetamodelSnapshot} of each JAX-RS Metamodel when the
+ * workspace (or a single project) is saved, so that the metamodels can be
+ * restored without a full build at the next workspace startup.
+ * 
+ * @author xcoulon
+ * 
+ */
+public class JaxrsMetamodelSaveParticipant implements ISaveParticipant {
+
+	@Override
+	public void prepareToSave(final ISaveContext context) throws CoreException {
+	}
+
+	@Override
+	public void saving(final ISaveContext context) throws CoreException {
+		switch (context.getKind()) {
+		case ISaveContext.FULL_SAVE:
+			for (IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects()) {
+				saveSnapshot(project);
+			}
+			break;
+		case ISaveContext.PROJECT_SAVE:
+			saveSnapshot(context.getProject());
+			break;
+		default:
+			// ignore workspace snapshots, which occur too frequently
+			break;
+		}
+	}
+
+	/**
+	 * Saves the snapshot of the JAX-RS Metamodel of the given {@link IProject},
+	 * if it has one and if it is not being initialized.
+	 * 
+	 * @param project
+	 *            the project
+	 */
+	private void saveSnapshot(final IProject project) {
+		try {
+			final JaxrsMetamodel metamodel = JaxrsMetamodelLocator.get(project);
+			if (metamodel != null && !metamodel.isInitializing()) {
+				metamodel.saveSnapshot();
+			}
+		} catch (CoreException e) {
+			Logger.error("Failed to save JAX-RS Metamodel snapshot for project " + project.getName(), e);
+		}
+	}
+
+	@Override
+	public void doneSaving(final ISaveContext context) {
+	}
+
+	@Override
+	public void rollback(final ISaveContext context) {
+	}
+
+}
@@ -28,10 +28,12 @@ import org.eclipse.core.runtime.SubProgressMonitor;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.core.IJavaProject;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodelEventBus;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.JobMonitor;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
 import org.jboss.tools.ws.jaxrs.core.jdt.Flags;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.JaxrsMetamodelLocator;
+import org.jboss.tools.ws.jaxrs.core.metrics.JaxrsMetrics;
 
 /** @author xcoulon */
 public class ResourceChangedBuildJob extends Job {
@@ -52,7 +54,10 @@ public class ResourceChangedBuildJob extends Job {
 	@Override
 	protected IStatus run(final IProgressMonitor progressMonitor) {
 		final long startTime = new Date().getTime();
+		final long start = System.nanoTime();
 		JaxrsMetamodel metamodel = null;
+		// notifications are delivered once the view is published
+		JaxrsMetamodelEventBus.getInstance().beginBatch();
 		try {
 			progressMonitor.beginTask("Building JAX-RS Metamodel", 3 * SCALE);
 			Logger.debug("Building JAX-RS Metamodel after resource changed...");
@@ -67,12 +72,13 @@ public class ResourceChangedBuildJob extends Job {
 			if (metamodel == null) {
 				metamodel = JaxrsMetamodelLocator.get(javaProject, true);
 				if(metamodel != null) {
-					metamodel.processProject(progressMonitor);
+					metamodel.restoreOrProcessProject(progressMonitor);
 				}
 			} else if (event.getBuildKind() == IncrementalProjectBuilder.FULL_BUILD
-					|| event.getBuildKind() == IncrementalProjectBuilder.CLEAN_BUILD
-					|| metamodel.isInitializing()) {
+					|| event.getBuildKind() == IncrementalProjectBuilder.CLEAN_BUILD) {
 				metamodel.processProject(progressMonitor);
+			} else if (metamodel.isInitializing()) {
+				metamodel.restoreOrProcessProject(progressMonitor);
 			} else {
 				metamodel.processAffectedResources(affectedResources, progressMonitor);
 			}
@@ -84,6 +90,11 @@ public class ResourceChangedBuildJob extends Job {
 			}
 			return status;
 		} finally {
+			if (metamodel != null) {
+				metamodel.publishView();
+			}
+			JaxrsMetamodelEventBus.getInstance().commitBatch();
+			JaxrsMetrics.RESOURCE_CHANGED_BUILD_DURATION.recordSince(start);
 			long endTime = new Date().getTime();
 			if (Logger.isDebugEnabled()) {
 				Logger.debug("JAX-RS Metamodel for project '{}' built in {} ms, ended with status {}.", javaProject
@@ -15,7 +15,9 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.JavaCore;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodelSnapshot;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.JaxrsMetamodelLocator;
 
@@ -49,6 +51,13 @@ public class ResourceChangedListener implements IResourceChangeListener {
 	 */
 	@Override
 	public void resourceChanged(final IResourceChangeEvent event) {
+		if ((event.getType() == IResourceChangeEvent.PRE_CLOSE || event.getType() == IResourceChangeEvent.PRE_DELETE)
+				&& event.getResource() != null && event.getResource().getType() == IResource.PROJECT) {
+			// the queue of Java changes and the snapshot of the metamodel are not
+			// needed anymore, even if this listener is paused
+			JavaElementChangedBuildQueue.removeQueue((IProject) event.getResource());
+			JaxrsMetamodelSnapshot.delete(JavaCore.create((IProject) event.getResource()));
+		}
 		if(!active) {
 			return;
 		}
@@ -18,6 +18,7 @@ import java.util.Map;
 import org.eclipse.core.resources.IResource;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.CollectionUtils;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.CollectionUtils.MapComparison;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.StringPool;
 import org.jboss.tools.ws.jaxrs.core.jdt.Annotation;
 import org.jboss.tools.ws.jaxrs.core.jdt.AnnotationUtils;
 import org.jboss.tools.ws.jaxrs.core.jdt.SourceType;
@@ -58,7 +59,7 @@ public class JavaMethodParameter implements IJavaMethodParameter {
 	 *            the parameter's relevant annotations
 	 */
 	public JavaMethodParameter(final String name, final SourceType type, final List<Annotation> annotations, final IResource resource) {
-		this.name = name;
+		this.name = StringPool.getInstance().intern(name);
 		this.type = type;
 		this.resource = resource;
 		this.annotations = new HashMap<String, Annotation>(annotations.size() * 2);
@@ -31,7 +31,6 @@ import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.dom.CompilationUnit;
-import org.jboss.tools.ws.jaxrs.core.internal.metamodel.search.JavaElementsSearcher;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.CollectionUtils;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
 import org.jboss.tools.ws.jaxrs.core.jdt.Annotation;
@@ -86,69 +85,84 @@ public class JaxrsElementFactory {
 			return Collections.emptySet();
 		}
 		final Set<IJaxrsElement> elements = new HashSet<IJaxrsElement>();
+		// search for all candidate types at once, then parse their compilation
+		// units chunk by chunk while the elements are created in this thread
+		final JaxrsElementsScanner scanner = new JaxrsElementsScanner(scope, ast, metamodel.getTypeReferences());
+		scanner.searchTypes(progressMonitor);
 		// let's see if the given scope contains JAX-RS Application
-		final Set<IType> matchingApplicationTypes = JavaElementsSearcher.findApplicationTypes(scope,
-				progressMonitor);
-		for (IType type : matchingApplicationTypes) {
-			final JaxrsJavaApplication application = JaxrsJavaApplication.from(type).withMetamodel(metamodel).build();
-			if (application != null) {
-				elements.add(application);
+		scanner.handleTypes(scanner.getApplicationTypes(), new JaxrsElementsScanner.TypeHandler() {
+			@Override
+			public void handle(final IType type, final CompilationUnit typeAst) throws CoreException {
+				final JaxrsJavaApplication application = JaxrsJavaApplication.from(type, typeAst).withMetamodel(metamodel).build();
+				if (application != null) {
+					elements.add(application);
+				}
 			}
-		}
+		}, progressMonitor);
 		// let's see if the given scope contains JAX-RS HTTP Methods
-		final Set<IType> matchingHttpMethodTypes = JavaElementsSearcher.findHttpMethodTypes(scope,
-				progressMonitor);
-		for (IType type : matchingHttpMethodTypes) {
-			final JaxrsHttpMethod httpMethod = JaxrsHttpMethod.from(type).withMetamodel(metamodel).build();
-			if (httpMethod != null) {
-				elements.add(httpMethod);
+		scanner.handleTypes(scanner.getHttpMethodTypes(), new JaxrsElementsScanner.TypeHandler() {
+			@Override
+			public void handle(final IType type, final CompilationUnit typeAst) throws CoreException {
+				final JaxrsHttpMethod httpMethod = JaxrsHttpMethod.from(type, typeAst).withMetamodel(metamodel).build();
+				if (httpMethod != null) {
+					elements.add(httpMethod);
+				}
 			}
-		}
+		}, progressMonitor);
 		// let's see if the given scope contains JAX-RS Name Bindings
-		final Set<IType> matchingNameBindingsTypes = JavaElementsSearcher.findNameBindingTypes(scope,
-				progressMonitor);
-		for (IType type : matchingNameBindingsTypes) {
-			final JaxrsNameBinding nameBinding = JaxrsNameBinding.from(type).withMetamodel(metamodel).build();
-			if (nameBinding != null) {
-				elements.add(nameBinding);
+		scanner.handleTypes(scanner.getNameBindingTypes(), new JaxrsElementsScanner.TypeHandler() {
+			@Override
+			public void handle(final IType type, final CompilationUnit typeAst) throws CoreException {
+				final JaxrsNameBinding nameBinding = JaxrsNameBinding.from(type, typeAst).withMetamodel(metamodel).build();
+				if (nameBinding != null) {
+					elements.add(nameBinding);
+				}
 			}
-		}
+		}, progressMonitor);
 		// let's see if the given scope contains JAX-RS Resources
-		final Set<IType> matchingResourceTypes = JavaElementsSearcher.findResourceTypes(scope, progressMonitor);
-		for (IType type : matchingResourceTypes) {
-			final JaxrsResource resource = JaxrsResource.from(type, metamodel.findAllHttpMethodNames()).withMetamodel(metamodel).build();
-			if (resource != null) {
-				elements.add(resource);
-				elements.addAll(resource.getAllMethods());
-				elements.addAll(resource.getAllFields());
+		scanner.handleTypes(scanner.getResourceTypes(), new JaxrsElementsScanner.TypeHandler() {
+			@Override
+			public void handle(final IType type, final CompilationUnit typeAst) throws CoreException {
+				final JaxrsResource resource = JaxrsResource.from(type, typeAst, metamodel.findAllHttpMethodNames()).withMetamodel(metamodel).build();
+				if (resource != null) {
+					elements.add(resource);
+					elements.addAll(resource.getAllMethods());
+					elements.addAll(resource.getAllFields());
+				}
 			}
-		}
+		}, progressMonitor);
 		// now,let's see if the given type can be a ParamConverterProvider
-		final Set<IType> matchingParamConverterProviderTypes = JavaElementsSearcher.findParamConverterProviderTypes(scope, progressMonitor);
-		for (IType type : matchingParamConverterProviderTypes) {
-			final JaxrsParamConverterProvider paramConverterProvider = JaxrsParamConverterProvider.from(type).withMetamodel(metamodel).build();
-			if (paramConverterProvider != null) {
-				elements.add(paramConverterProvider);
+		scanner.handleTypes(scanner.getParamConverterProviderTypes(), new JaxrsElementsScanner.TypeHandler() {
+			@Override
+			public void handle(final IType type, final CompilationUnit typeAst) throws CoreException {
+				final JaxrsParamConverterProvider paramConverterProvider = JaxrsParamConverterProvider.from(type, typeAst).withMetamodel(metamodel).build();
+				if (paramConverterProvider != null) {
+					elements.add(paramConverterProvider);
+				}
 			}
-		}
+		}, progressMonitor);
 		// now,let's see if the given type can be a Parameter Aggregator
-		final Set<IType> matchingParameterAggregatorTypes = JavaElementsSearcher.findParameterAggregatorTypes(scope, progressMonitor);
-		for (IType type : matchingParameterAggregatorTypes) {
-			final JaxrsParameterAggregator parameterAggregator = JaxrsParameterAggregator.from(type).buildInMetamodel(metamodel);
-			if (parameterAggregator != null) {
-				elements.add(parameterAggregator);
-				elements.addAll(parameterAggregator.getAllProperties());
-				elements.addAll(parameterAggregator.getAllFields());
+		scanner.handleTypes(scanner.getParameterAggregatorTypes(), new JaxrsElementsScanner.TypeHandler() {
+			@Override
+			public void handle(final IType type, final CompilationUnit typeAst) throws CoreException {
+				final JaxrsParameterAggregator parameterAggregator = JaxrsParameterAggregator.from(type, typeAst).buildInMetamodel(metamodel);
+				if (parameterAggregator != null) {
+					elements.add(parameterAggregator);
+					elements.addAll(parameterAggregator.getAllProperties());
+					elements.addAll(parameterAggregator.getAllFields());
+				}
 			}
-		}
+		}, progressMonitor);
 		// let's see if the given scope contains JAX-RS Providers
-		final Set<IType> matchingProviderTypes = JavaElementsSearcher.findProviderTypes(scope, progressMonitor);
-		for (IType type : matchingProviderTypes) {
-			final JaxrsProvider provider = JaxrsProvider.from(type).withMetamodel(metamodel).build();
-			if (provider != null) {
-				elements.add(provider);
+		scanner.handleTypes(scanner.getProviderTypes(), new JaxrsElementsScanner.TypeHandler() {
+			@Override
+			public void handle(final IType type, final CompilationUnit typeAst) throws CoreException {
+				final JaxrsProvider provider = JaxrsProvider.from(type, typeAst).withMetamodel(metamodel).build();
+				if (provider != null) {
+					elements.add(provider);
+				}
 			}
-		}
+		}, progressMonitor);
 		return elements;
 	}
 
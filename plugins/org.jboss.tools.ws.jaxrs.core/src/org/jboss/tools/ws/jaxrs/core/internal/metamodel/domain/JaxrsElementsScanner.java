@@ -0,0 +1,409 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.jboss.tools.ws.jaxrs.core.JBossJaxrsCorePlugin;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.search.JavaElementsSearcher;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.search.TypeReferenceGraph;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
+import org.jboss.tools.ws.jaxrs.core.jdt.JdtUtils;
+
+/**
+ * Scans a given scope for the Java types that may become JAX-RS elements, in
+ * two stages:
+ * <ol>
+ * <li>the JDT searches for the candidate types (applications, HTTP methods,
+ * name bindings, resources, etc.) are independent from each other, and run
+ * concurrently,</li>
+ * <li>the compilation units of the candidate types are parsed concurrently, in
+ * chunks of bounded size to keep a limited number of ASTs in memory, and then
+ * handed to a {@link TypeHandler} in the calling thread.</li>
+ * </ol>
+ * Only the searches and the parsing are performed in the worker threads: the
+ * JAX-RS elements are created and added into the metamodel by the calling
+ * thread, one at a time, and in the same order as if the scan was sequential.
+ * The ASTs parsed during the scan are also recorded in the
+ * {@link TypeReferenceGraph} of the metamodel.
+ * Scopes that are smaller than a package fragment (ie, compilation units and
+ * their members) are scanned in the calling thread only.
+ * 
+ * @author xcoulon
+ * 
+ */
+final class JaxrsElementsScanner {
+
+	/** The maximum number of concurrent searches or parsing tasks. */
+	static final int PARALLELISM = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+	/** The maximum number of ASTs parsed in a single chunk. */
+	private static final int CHUNK_SIZE = PARALLELISM * 4;
+
+	/**
+	 * The bounded pool of worker threads, shared by all metamodels. Idle
+	 * threads are discarded after a few seconds, so the pool does not hold
+	 * any thread between two builds.
+	 */
+	private static final ThreadPoolExecutor executor = createExecutor();
+
+	/** The scope to scan. */
+	private final IJavaElement scope;
+
+	/** The AST of the scope, if already available. */
+	private final CompilationUnit scopeAst;
+
+	/** The graph in which the type references of the parsed ASTs are recorded. */
+	private final TypeReferenceGraph typeReferences;
+
+	/** Whether the scan is performed in the worker threads or not. */
+	private final boolean parallel;
+
+	/** The candidate types for each kind of JAX-RS element. */
+	private Set<IType> applicationTypes;
+	private Set<IType> httpMethodTypes;
+	private Set<IType> nameBindingTypes;
+	private Set<IType> resourceTypes;
+	private Set<IType> paramConverterProviderTypes;
+	private Set<IType> parameterAggregatorTypes;
+	private Set<IType> providerTypes;
+
+	/**
+	 * Handles a candidate type along with its AST, in the calling thread.
+	 */
+	interface TypeHandler {
+		void handle(final IType type, final CompilationUnit ast) throws CoreException;
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param scope
+	 *            the scope to scan
+	 * @param scopeAst
+	 *            the AST associated with the given scope, or {@code null}
+	 * @param typeReferences
+	 *            the graph in which the type references of the parsed ASTs
+	 *            are recorded
+	 */
+	JaxrsElementsScanner(final IJavaElement scope, final CompilationUnit scopeAst,
+			final TypeReferenceGraph typeReferences) {
+		this(scope, scopeAst, typeReferences, PARALLELISM > 1 && isLargeScope(scope));
+	}
+
+	/**
+	 * Full constructor
+	 * 
+	 * @param scope
+	 *            the scope to scan
+	 * @param scopeAst
+	 *            the AST associated with the given scope, or {@code null}
+	 * @param typeReferences
+	 *            the graph in which the type references of the parsed ASTs
+	 *            are recorded
+	 * @param parallel
+	 *            whether the scan should be performed in the worker threads
+	 *            or not
+	 */
+	JaxrsElementsScanner(final IJavaElement scope, final CompilationUnit scopeAst,
+			final TypeReferenceGraph typeReferences, final boolean parallel) {
+		this.scope = scope;
+		this.scopeAst = scopeAst;
+		this.typeReferences = typeReferences;
+		this.parallel = parallel;
+	}
+
+	/**
+	 * @return true if the given scope is a package fragment or larger
+	 */
+	private static boolean isLargeScope(final IJavaElement scope) {
+		switch (scope.getElementType()) {
+		case IJavaElement.JAVA_PROJECT:
+		case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+		case IJavaElement.PACKAGE_FRAGMENT:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	private static ThreadPoolExecutor createExecutor() {
+		final ThreadFactory threadFactory = new ThreadFactory() {
+			private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+			@Override
+			public Thread newThread(final Runnable runnable) {
+				final Thread thread = new Thread(runnable, "JAX-RS Metamodel Scanner #" + threadNumber.getAndIncrement());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(PARALLELISM, PARALLELISM, 5, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), threadFactory);
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * Runs all the JDT searches for candidate types on the scope.
+	 * 
+	 * @param progressMonitor
+	 *            the progress monitor
+	 * @throws CoreException
+	 */
+	void searchTypes(final IProgressMonitor progressMonitor) throws CoreException {
+		final long start = System.currentTimeMillis();
+		// progress monitors are not meant to be shared between threads
+		final IProgressMonitor searchMonitor = parallel ? new NullProgressMonitor() : progressMonitor;
+		final List<Callable<Set<IType>>> searches = new ArrayList<Callable<Set<IType>>>(7);
+		searches.add(new Callable<Set<IType>>() {
+			@Override
+			public Set<IType> call() throws CoreException {
+				return JavaElementsSearcher.findApplicationTypes(scope, searchMonitor);
+			}
+		});
+		searches.add(new Callable<Set<IType>>() {
+			@Override
+			public Set<IType> call() throws CoreException {
+				return JavaElementsSearcher.findHttpMethodTypes(scope, searchMonitor);
+			}
+		});
+		searches.add(new Callable<Set<IType>>() {
+			@Override
+			public Set<IType> call() throws CoreException {
+				return JavaElementsSearcher.findNameBindingTypes(scope, searchMonitor);
+			}
+		});
+		searches.add(new Callable<Set<IType>>() {
+			@Override
+			public Set<IType> call() throws CoreException {
+				return JavaElementsSearcher.findResourceTypes(scope, searchMonitor);
+			}
+		});
+		searches.add(new Callable<Set<IType>>() {
+			@Override
+			public Set<IType> call() throws CoreException {
+				return JavaElementsSearcher.findParamConverterProviderTypes(scope, searchMonitor);
+			}
+		});
+		searches.add(new Callable<Set<IType>>() {
+			@Override
+			public Set<IType> call() throws CoreException {
+				return JavaElementsSearcher.findParameterAggregatorTypes(scope, searchMonitor);
+			}
+		});
+		searches.add(new Callable<Set<IType>>() {
+			@Override
+			public Set<IType> call() throws CoreException {
+				return JavaElementsSearcher.findProviderTypes(scope, searchMonitor);
+			}
+		});
+		final List<Set<IType>> results = invokeAll(searches);
+		this.applicationTypes = results.get(0);
+		this.httpMethodTypes = results.get(1);
+		this.nameBindingTypes = results.get(2);
+		this.resourceTypes = results.get(3);
+		this.paramConverterProviderTypes = results.get(4);
+		this.parameterAggregatorTypes = results.get(5);
+		this.providerTypes = results.get(6);
+		final long end = System.currentTimeMillis();
+		Logger.tracePerf("Searched for candidate types in {} in {}ms (parallel: {})", scope.getElementName(),
+				(end - start), parallel);
+	}
+
+	Set<IType> getApplicationTypes() {
+		return applicationTypes;
+	}
+
+	Set<IType> getHttpMethodTypes() {
+		return httpMethodTypes;
+	}
+
+	Set<IType> getNameBindingTypes() {
+		return nameBindingTypes;
+	}
+
+	Set<IType> getResourceTypes() {
+		return resourceTypes;
+	}
+
+	Set<IType> getParamConverterProviderTypes() {
+		return paramConverterProviderTypes;
+	}
+
+	Set<IType> getParameterAggregatorTypes() {
+		return parameterAggregatorTypes;
+	}
+
+	Set<IType> getProviderTypes() {
+		return providerTypes;
+	}
+
+	/**
+	 * Parses the compilation units of the given types (concurrently, chunk by
+	 * chunk) and passes each type along with its AST to the given handler, in
+	 * the calling thread and in the iteration order of the given types.
+	 * 
+	 * @param types
+	 *            the types to handle
+	 * @param handler
+	 *            the handler
+	 * @param progressMonitor
+	 *            the progress monitor
+	 * @throws CoreException
+	 */
+	void handleTypes(final Collection<IType> types, final TypeHandler handler, final IProgressMonitor progressMonitor)
+			throws CoreException {
+		final List<IType> chunk = new ArrayList<IType>(CHUNK_SIZE);
+		for (IType type : types) {
+			chunk.add(type);
+			if (chunk.size() == CHUNK_SIZE) {
+				handleChunk(chunk, handler, progressMonitor);
+				chunk.clear();
+			}
+		}
+		if (!chunk.isEmpty()) {
+			handleChunk(chunk, handler, progressMonitor);
+		}
+	}
+
+	private void handleChunk(final List<IType> types, final TypeHandler handler,
+			final IProgressMonitor progressMonitor) throws CoreException {
+		final Map<ICompilationUnit, CompilationUnit> asts = parse(types, progressMonitor);
+		for (IType type : types) {
+			handler.handle(type, asts.get(type.getCompilationUnit()));
+		}
+	}
+
+	/**
+	 * Parses the distinct compilation units of the given types.
+	 * 
+	 * @param types
+	 *            the types whose compilation unit should be parsed
+	 * @param progressMonitor
+	 *            the progress monitor
+	 * @return the ASTs, indexed by compilation unit
+	 * @throws CoreException
+	 */
+	private Map<ICompilationUnit, CompilationUnit> parse(final List<IType> types,
+			final IProgressMonitor progressMonitor) throws CoreException {
+		final long start = System.currentTimeMillis();
+		final ICompilationUnit scopeCompilationUnit = (ICompilationUnit) scope
+				.getAncestor(IJavaElement.COMPILATION_UNIT);
+		final Map<ICompilationUnit, CompilationUnit> asts = new HashMap<ICompilationUnit, CompilationUnit>();
+		final Map<ICompilationUnit, Callable<CompilationUnit>> parsings = new LinkedHashMap<ICompilationUnit, Callable<CompilationUnit>>();
+		for (IType type : types) {
+			final ICompilationUnit compilationUnit = type.getCompilationUnit();
+			// binary types have no compilation unit
+			if (compilationUnit == null || asts.containsKey(compilationUnit)
+					|| parsings.containsKey(compilationUnit)) {
+				continue;
+			}
+			if (scopeAst != null && compilationUnit.equals(scopeCompilationUnit)) {
+				asts.put(compilationUnit, scopeAst);
+				continue;
+			}
+			final IProgressMonitor parseMonitor = parallel ? new NullProgressMonitor() : progressMonitor;
+			parsings.put(compilationUnit, new Callable<CompilationUnit>() {
+				@Override
+				public CompilationUnit call() throws CoreException {
+					return JdtUtils.parse(compilationUnit, parseMonitor);
+				}
+			});
+		}
+		final List<CompilationUnit> parsedAsts = invokeAll(new ArrayList<Callable<CompilationUnit>>(parsings.values()));
+		int i = 0;
+		for (Entry<ICompilationUnit, Callable<CompilationUnit>> entry : parsings.entrySet()) {
+			final CompilationUnit parsedAst = parsedAsts.get(i++);
+			asts.put(entry.getKey(), parsedAst);
+			typeReferences.update(parsedAst);
+		}
+		final long end = System.currentTimeMillis();
+		Logger.tracePerf("Parsed {} compilation units in {}ms (parallel: {})", parsings.size(), (end - start),
+				parallel);
+		return asts;
+	}
+
+	/**
+	 * Executes the given tasks, in the worker threads if this scan is parallel,
+	 * or in the calling thread otherwise.
+	 * 
+	 * @param tasks
+	 *            the tasks to execute
+	 * @return the results of the tasks, in the same order as the tasks
+	 * @throws CoreException
+	 *             if one of the tasks failed, or if the calling thread was
+	 *             interrupted while waiting for the results
+	 */
+	private <T> List<T> invokeAll(final List<Callable<T>> tasks) throws CoreException {
+		final List<T> results = new ArrayList<T>(tasks.size());
+		try {
+			if (!parallel || tasks.size() < 2) {
+				for (Callable<T> task : tasks) {
+					results.add(task.call());
+				}
+				return results;
+			}
+			for (Future<T> future : executor.invokeAll(tasks)) {
+				results.add(future.get());
+			}
+			return results;
+		} catch (CoreException e) {
+			throw e;
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CoreException(new Status(IStatus.ERROR, JBossJaxrsCorePlugin.PLUGIN_ID,
+					"Interrupted while scanning " + scope.getElementName(), e));
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof CoreException) {
+				throw (CoreException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new CoreException(new Status(IStatus.ERROR, JBossJaxrsCorePlugin.PLUGIN_ID, "Failed to scan "
+					+ scope.getElementName(), cause));
+		} catch (Exception e) {
+			throw new CoreException(new Status(IStatus.ERROR, JBossJaxrsCorePlugin.PLUGIN_ID, "Failed to scan "
+					+ scope.getElementName(), e));
+		}
+	}
+
+}
@@ -29,7 +29,6 @@ import static org.jboss.tools.ws.jaxrs.core.utils.JaxrsClassnames.QUERY_PARAM;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
@@ -44,6 +43,7 @@ import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IMethod;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.ObjectUtils;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.StringPool;
 import org.jboss.tools.ws.jaxrs.core.jdt.Annotation;
 import org.jboss.tools.ws.jaxrs.core.jdt.AnnotationUtils;
 import org.jboss.tools.ws.jaxrs.core.jdt.Flags;
@@ -57,9 +57,13 @@ import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsHttpMethod;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsMetamodel;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsResource;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsResourceMethod;
+import org.jboss.tools.ws.jaxrs.core.metrics.JaxrsMetrics;
 
 public class JaxrsEndpoint implements IJaxrsEndpoint {
 
+	/** The media types of endpoints without any {@code @Consumes} or {@code @Produces} annotation, shared by all endpoints. */
+	private static final List<String> ANY_MEDIA_TYPE = StringPool.getInstance().internList(Arrays.asList("*/*"));
+
 	/** Unique identifier. */
 	private final String identifier;
 
@@ -84,6 +88,21 @@ public class JaxrsEndpoint implements IJaxrsEndpoint {
 	 */
 	private String uriPathTemplate = null;
 
+	/**
+	 * The displayable path segment of the first resource method's parent
+	 * resource, cached until one of its inputs changes.
+	 */
+	private final Segment resourcePathSegment = new Segment();
+
+	/**
+	 * The displayable segments of each resource method, in the same order as
+	 * the {@link #resourceMethods}, cached until one of their inputs changes.
+	 */
+	private final List<ResourceMethodSegments> resourceMethodSegments;
+
+	/** The builder in which the URI Path Template is assembled. */
+	private final StringBuilder uriPathTemplateBuilder = new StringBuilder();
+
 	/** The media-types consumed by this endpoint.*/
 	private List<String> consumedMediaTypes = null;
 
@@ -103,6 +122,10 @@ public class JaxrsEndpoint implements IJaxrsEndpoint {
 		this.application = (metamodel != null ? metamodel.findApplication() : null);
 		this.httpMethod = httpMethod;
 		this.resourceMethods = resourceMethods;
+		this.resourceMethodSegments = new ArrayList<ResourceMethodSegments>(resourceMethods.size());
+		for (int i = 0; i < resourceMethods.size(); i++) {
+			this.resourceMethodSegments.add(new ResourceMethodSegments());
+		}
 		refreshUriPathTemplate();
 		refreshConsumedMediaTypes();
 		refreshProducedMediaTypes();
@@ -238,8 +261,31 @@ public class JaxrsEndpoint implements IJaxrsEndpoint {
 	 * @throws CoreException
 	 */
 	public void update(final JaxrsResourceMethod changedResourceMethod, final Flags flags) throws CoreException {
-		updateResourceElement(changedResourceMethod);
-		update(flags);
+		final int index = updateResourceElement(changedResourceMethod);
+		if (index == -1) {
+			invalidateAllSegments(flags);
+		} else {
+			invalidateSegments(index, flags);
+		}
+		refresh(flags);
+	}
+
+	/**
+	 * Triggers a refresh when changes occurred on the fields or properties of
+	 * the given {@link JaxrsResource}. Only the segments of the resource
+	 * methods declared in this resource are recomputed.
+	 * 
+	 * @param changedResource the {@link JaxrsResource} whose fields or properties changed
+	 * @param flags flags to qualify the changes that occurred in the given {@link JaxrsResource} 
+	 * @throws CoreException
+	 */
+	public void update(final JaxrsResource changedResource, final Flags flags) throws CoreException {
+		for (int i = 0; i < resourceMethods.size(); i++) {
+			if (resourceMethods.get(i).getParentResource().equals(changedResource)) {
+				invalidateSegments(i, flags);
+			}
+		}
+		refresh(flags);
 	}
 
 	/**
@@ -250,23 +296,36 @@ public class JaxrsEndpoint implements IJaxrsEndpoint {
 	 * @throws CoreException
 	 */
 	public void update(final Flags flags) throws CoreException {
+		invalidateAllSegments(flags);
+		refresh(flags);
+	}
+
+	/**
+	 * Refreshes the HTTP Method, URI Path Template and media types of this
+	 * endpoint, depending on the given flags, and notifies the metamodel if
+	 * anything changed.
+	 * 
+	 * @param flags flags to qualify the changes
+	 * @throws CoreException
+	 */
+	private void refresh(final Flags flags) throws CoreException {
 		boolean changed = false;
 		if (flags.hasValue(F_HTTP_METHOD_ANNOTATION)) {
-			changed = changed || refreshHttpMethod();
+			changed |= refreshHttpMethod();
 		}
 		
 		if (flags.hasValue(F_PATH_ANNOTATION, F_PATH_PARAM_ANNOTATION, F_QUERY_PARAM_ANNOTATION, F_MATRIX_PARAM_ANNOTATION, F_BEAN_PARAM_ANNOTATION, 
 				F_DEFAULT_VALUE_ANNOTATION, F_METHOD_PARAMETERS)) {
-			changed = changed || refreshUriPathTemplate();
+			changed |= refreshUriPathTemplate();
 		}
 		
 		// look for mediatype capabilities at the method level, then fall back
 		// at the type level, then "any" otherwise
 		if (flags.hasValue(F_CONSUMES_ANNOTATION)) {
-			changed = changed || refreshConsumedMediaTypes();
+			changed |= refreshConsumedMediaTypes();
 		}
 		if (flags.hasValue(F_PRODUCES_ANNOTATION)) {
-			changed = changed || refreshProducedMediaTypes();
+			changed |= refreshProducedMediaTypes();
 		}
 		if (changed) {
 			metamodel.update(this);
@@ -276,18 +335,20 @@ public class JaxrsEndpoint implements IJaxrsEndpoint {
 	/**
 	 * Updates the reference to the given {@code changedResourceMethod} using the underlying {@link IJavaElement#getHandleIdentifier()}
 	 * @param changedResourceMethod the {@link JaxrsResourceMethod} that changed
+	 * @return the position of the given {@code changedResourceMethod} in the chain, or {@code -1} if it was not found
 	 */
-	private void updateResourceElement(final JaxrsResourceMethod changedResourceMethod) {
+	private int updateResourceElement(final JaxrsResourceMethod changedResourceMethod) {
 		if(changedResourceMethod == null) {
-			return;
+			return -1;
 		}
 		for(ListIterator<JaxrsResourceMethod> iterator = this.resourceMethods.listIterator(); iterator.hasNext();) {
 			final JaxrsResourceMethod resourceMethod = iterator.next();
 			if(resourceMethod.getIdentifier().equals(changedResourceMethod.getIdentifier())) {
 				iterator.set(changedResourceMethod); 
-				return;
+				return iterator.previousIndex();
 			}
 		}
+		return -1;
 	}
 
 	private boolean refreshHttpMethod() throws CoreException {
@@ -315,7 +376,7 @@ public class JaxrsEndpoint implements IJaxrsEndpoint {
 		} else if (notNullNorEmpty(resourceMethod.getParentResource().getProducedMediaTypes())) {
 			return setProducedMediaTypes(resource.getProducedMediaTypes());
 		} else {
-			return setProducedMediaTypes(Arrays.asList("*/*"));
+			return setProducedMediaTypes(ANY_MEDIA_TYPE);
 		}
 	}
 
@@ -335,7 +396,7 @@ public class JaxrsEndpoint implements IJaxrsEndpoint {
 		} else if (notNullNorEmpty(resourceMethod.getParentResource().getConsumedMediaTypes())) {
 			return setConsumedMediaTypes(resource.getConsumedMediaTypes());
 		} else {
-			return setConsumedMediaTypes(Arrays.asList("*/*"));
+			return setConsumedMediaTypes(ANY_MEDIA_TYPE);
 		}
 	}
 
@@ -348,47 +409,123 @@ public class JaxrsEndpoint implements IJaxrsEndpoint {
 	}
 
 	/**
-	 * Refresh the URI Path Template
+	 * Marks the segments of the resource method at the given position in the
+	 * chain as stale, depending on the given flags. The path segment of the
+	 * first resource method's parent resource also depends on the path
+	 * parameters of the first resource method.
+	 * 
+	 * @param index
+	 *            the position of the resource method in the chain
+	 * @param flags
+	 *            the flags qualifying the changes
+	 */
+	private void invalidateSegments(final int index, final Flags flags) {
+		final boolean pathChanged = flags.hasValue(F_PATH_ANNOTATION, F_PATH_PARAM_ANNOTATION,
+				F_MATRIX_PARAM_ANNOTATION, F_BEAN_PARAM_ANNOTATION, F_DEFAULT_VALUE_ANNOTATION, F_METHOD_PARAMETERS);
+		final boolean queryChanged = flags.hasValue(F_QUERY_PARAM_ANNOTATION, F_BEAN_PARAM_ANNOTATION,
+				F_DEFAULT_VALUE_ANNOTATION, F_METHOD_PARAMETERS);
+		final ResourceMethodSegments segments = resourceMethodSegments.get(index);
+		segments.pathStale |= pathChanged;
+		segments.queryStale |= queryChanged;
+		if (index == 0) {
+			resourcePathSegment.stale |= pathChanged;
+		}
+	}
+
+	/**
+	 * Marks the segments of all resource methods in the chain as stale,
+	 * depending on the given flags.
+	 * 
+	 * @param flags
+	 *            the flags qualifying the changes
+	 */
+	private void invalidateAllSegments(final Flags flags) {
+		for (int i = 0; i < resourceMethodSegments.size(); i++) {
+			invalidateSegments(i, flags);
+		}
+	}
+
+	/**
+	 * Refresh the URI Path Template, recomputing only the stale segments and
+	 * reusing the other ones.
 	 * 
 	 * @return {@code true} if the internal URI Path Template was modified,
 	 *         {@code false} otherwise.
 	 */
 	private boolean refreshUriPathTemplate() {
-		relatedElements.clear();
-		// compute the URI Path Template from the chain of Methods/Resources
-		final StringBuilder uriPathTemplateBuilder = new StringBuilder();
-		final List<String> queryParams = new ArrayList<String>();
-		if (application != null && application.getApplicationPath() != null) {
-			uriPathTemplateBuilder.append(application.getApplicationPath());
-		}
+		int recomputedSegments = 0;
 		// first resource method's parent resource has a @Path annotation, too
 		final JaxrsResourceMethod firstResourceMethod = resourceMethods.get(0);
-		final String displayableResourcePathTemplate = getDisplayablePathTemplate(firstResourceMethod.getParentResource(), firstResourceMethod);
-		if (!displayableResourcePathTemplate.isEmpty()) {
-			uriPathTemplateBuilder.append(displayableResourcePathTemplate);
-		}
-		for (JaxrsResourceMethod resourceMethod : resourceMethods) {
-			final String displayableResourceMethodPathTemplate = getDisplayablePathTemplate(resourceMethod);
-			if (!displayableResourceMethodPathTemplate.isEmpty()) {
-				uriPathTemplateBuilder.append(displayableResourceMethodPathTemplate);
+		if (resourcePathSegment.stale) {
+			resourcePathSegment.relatedElements.clear();
+			resourcePathSegment.value = getDisplayablePathTemplate(firstResourceMethod.getParentResource(),
+					firstResourceMethod, resourcePathSegment.relatedElements);
+			resourcePathSegment.stale = false;
+			recomputedSegments++;
+		}
+		for (int i = 0; i < resourceMethods.size(); i++) {
+			final JaxrsResourceMethod resourceMethod = resourceMethods.get(i);
+			final ResourceMethodSegments segments = resourceMethodSegments.get(i);
+			if (segments.pathStale) {
+				segments.pathRelatedElements.clear();
+				segments.path = getDisplayablePathTemplate(resourceMethod, segments.pathRelatedElements);
+				segments.pathStale = false;
+				recomputedSegments++;
 			}
-			final List<String> displayableResourceMethodQueryParameters = getDisplayableQueryParameters(resourceMethod);
-			queryParams.addAll(displayableResourceMethodQueryParameters);
-		}
-		if (!queryParams.isEmpty()) {
-			uriPathTemplateBuilder.append('?');
-			for (Iterator<String> iterator = queryParams.iterator(); iterator.hasNext();) {
-				uriPathTemplateBuilder.append(iterator.next());
-				if (iterator.hasNext()) {
-					uriPathTemplateBuilder.append('&');
-				}
+			if (segments.queryStale) {
+				segments.queryRelatedElements.clear();
+				segments.queryParameters = getDisplayableQueryParameters(resourceMethod,
+						segments.queryRelatedElements);
+				segments.queryStale = false;
+				recomputedSegments++;
+			}
+		}
+		JaxrsMetrics.ENDPOINT_SEGMENTS_RECOMPUTED.add(recomputedSegments);
+		JaxrsMetrics.ENDPOINT_SEGMENTS_REUSED.add(1 + 2 * resourceMethodSegments.size() - recomputedSegments);
+		// related elements, in the order in which they appear in the template
+		relatedElements.clear();
+		relatedElements.addAll(resourcePathSegment.relatedElements);
+		for (ResourceMethodSegments segments : resourceMethodSegments) {
+			relatedElements.addAll(segments.pathRelatedElements);
+			relatedElements.addAll(segments.queryRelatedElements);
+		}
+		// assemble the URI Path Template from the chain of Methods/Resources
+		uriPathTemplateBuilder.setLength(0);
+		if (application != null && application.getApplicationPath() != null) {
+			appendCollapsingSlashes(application.getApplicationPath());
+		}
+		appendCollapsingSlashes(resourcePathSegment.value);
+		for (ResourceMethodSegments segments : resourceMethodSegments) {
+			appendCollapsingSlashes(segments.path);
+		}
+		char separator = '?';
+		for (ResourceMethodSegments segments : resourceMethodSegments) {
+			for (String queryParameter : segments.queryParameters) {
+				uriPathTemplateBuilder.append(separator);
+				appendCollapsingSlashes(queryParameter);
+				separator = '&';
 			}
 		}
-		String template = uriPathTemplateBuilder.toString();
-		while (template.indexOf("//") > -1) {
-			template = template.replace("//", "/");
+		return setUriPathTemplate(uriPathTemplateBuilder.toString());
+	}
+
+	/**
+	 * Appends the given value to the URI Path Template builder, replacing any
+	 * sequence of consecutive slashes (including one that spans the previous
+	 * content of the builder) with a single slash.
+	 * 
+	 * @param value
+	 *            the value to append
+	 */
+	private void appendCollapsingSlashes(final String value) {
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			final int length = uriPathTemplateBuilder.length();
+			if (c == '/' && length > 0 && uriPathTemplateBuilder.charAt(length - 1) == '/') {
+				continue;
+			}
+			uriPathTemplateBuilder.append(c);
 		}
-		return setUriPathTemplate(template);
 	}
 	
 	/**
@@ -398,9 +535,12 @@ public class JaxrsEndpoint implements IJaxrsEndpoint {
 	 * @param resource the parent resource
 	 * @param resourceMethod
 	 *            the JAX-RS Resource Method
+	 * @param relatedElements
+	 *            the list in which the related JAX-RS elements are collected
 	 * @return the displayable URI Path Template as a {@link String}
 	 */
-	private String getDisplayablePathTemplate(final JaxrsResource resource, final JaxrsResourceMethod resourceMethod) {
+	private String getDisplayablePathTemplate(final JaxrsResource resource, final JaxrsResourceMethod resourceMethod,
+			final List<IJaxrsElement> relatedElements) {
 		// skip if the resource's path annotation value is invalid
 		if(!AnnotationUtils.isValidAnnotationValue(resource.getPathTemplate())) {
 			return "";
@@ -441,7 +581,7 @@ public class JaxrsEndpoint implements IJaxrsEndpoint {
 						pathTemplateBuilder.append('}');
 						// add the queryParam as a related element if it is a JaxrsElement
 						if(parameterType instanceof IJaxrsElement) {
-							this.relatedElements.add((IJaxrsElement) parameterType);
+							relatedElements.add((IJaxrsElement) parameterType);
 						}
 					} else {
 						pathTemplateBuilder.append('{').append(pathArg).append(":.*").append('}');
@@ -457,10 +597,12 @@ public class JaxrsEndpoint implements IJaxrsEndpoint {
 	 * Substitute the given Path Template parameters with a syntax that reveals
 	 * their associated java types in the displayable form.
 	 * 
-	 * @param pathTemplate
 	 * @param resourceMethod
+	 * @param relatedElements
+	 *            the list in which the related JAX-RS elements are collected
 	 */
-	private String getDisplayablePathTemplate(final JaxrsResourceMethod resourceMethod) {
+	private String getDisplayablePathTemplate(final JaxrsResourceMethod resourceMethod,
+			final List<IJaxrsElement> relatedElements) {
 		// skip if the resource method's path annotation value is invalid
 		if(!AnnotationUtils.isValidAnnotationValue(resourceMethod.getPathTemplate())) {
 			return "";
@@ -509,7 +651,7 @@ public class JaxrsEndpoint implements IJaxrsEndpoint {
 						pathTemplateBuilder.append('}');
 						// add the queryParam as a related element if it is a JaxrsElement
 						if(parameterType instanceof IJaxrsElement) {
-							this.relatedElements.add((IJaxrsElement) parameterType);
+							relatedElements.add((IJaxrsElement) parameterType);
 						}
 					} else {
 						pathTemplateBuilder.append('{').append(pathArg).append(":.*").append('}');
@@ -534,7 +676,7 @@ public class JaxrsEndpoint implements IJaxrsEndpoint {
 			pathTemplateBuilder.append('}');
 			// add the matrixParam as a related element if it is a JaxrsElement
 			if(matrixParam instanceof IJaxrsElement) {
-				this.relatedElements.add((IJaxrsElement) matrixParam);
+				relatedElements.add((IJaxrsElement) matrixParam);
 			}
 		}
 		return pathTemplateBuilder.toString();
@@ -546,9 +688,12 @@ public class JaxrsEndpoint implements IJaxrsEndpoint {
 	 *
 	 * @param resourceMethod
 	 *            the JAX-RS Resource Method
+	 * @param relatedElements
+	 *            the list in which the related JAX-RS elements are collected
 	 * @return the ordered list of query parameters as they should appear in the UI.
 	 */
-	private List<String> getDisplayableQueryParameters(final JaxrsResourceMethod resourceMethod) {
+	private List<String> getDisplayableQueryParameters(final JaxrsResourceMethod resourceMethod,
+			final List<IJaxrsElement> relatedElements) {
 		final Set<String> queryParamValues = new HashSet<String>();
 		final List<String> displayableQueryParams = new ArrayList<String>();
 		final List<IAnnotatedSourceType> queryParams = resourceMethod.getRelatedTypesAnnotatedWith(QUERY_PARAM);
@@ -563,7 +708,7 @@ public class JaxrsEndpoint implements IJaxrsEndpoint {
 			displayableQueryParams.add(annotationDisplayableValue);
 			// add the queryParam as a related element if it is a JaxrsElement
 			if(queryParam instanceof IJaxrsElement) {
-				this.relatedElements.add((IJaxrsElement) queryParam);
+				relatedElements.add((IJaxrsElement) queryParam);
 			}
 
 		}
@@ -678,4 +823,28 @@ public class JaxrsEndpoint implements IJaxrsEndpoint {
 
 	}
 
+	/**
+	 * A displayable segment of the URI Path Template, along with the JAX-RS
+	 * elements it was computed from.
+	 */
+	private static class Segment {
+		String value = "";
+		final List<IJaxrsElement> relatedElements = new ArrayList<IJaxrsElement>();
+		boolean stale = true;
+	}
+
+	/**
+	 * The displayable path (including matrix parameters) and query parameters
+	 * segments of a resource method, along with the JAX-RS elements they were
+	 * computed from.
+	 */
+	private static class ResourceMethodSegments {
+		String path = "";
+		final List<IJaxrsElement> pathRelatedElements = new ArrayList<IJaxrsElement>();
+		boolean pathStale = true;
+		List<String> queryParameters = new ArrayList<String>();
+		final List<IJaxrsElement> queryRelatedElements = new ArrayList<IJaxrsElement>();
+		boolean queryStale = true;
+	}
+
 }
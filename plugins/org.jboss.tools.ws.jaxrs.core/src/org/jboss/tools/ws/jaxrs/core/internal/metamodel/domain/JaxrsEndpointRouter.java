@@ -0,0 +1,690 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
+import org.jboss.tools.ws.jaxrs.core.jdt.AnnotationUtils;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsApplication;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsEndpoint;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsHttpMethod;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsResourceMethod;
+import org.jboss.tools.ws.jaxrs.core.metrics.JaxrsMetrics;
+
+/**
+ * Routing table of the JAX-RS Endpoints of a metamodel, which finds the
+ * endpoint that serves a given HTTP request, following the JAX-RS request
+ * matching algorithm (JAX-RS 2.0, section 3.7.2).
+ * 
+ * Each endpoint is compiled into a route, from the same inputs as its URI Path
+ * Template (application path, resource path and resource methods paths) but
+ * keeping the regular expressions of the template parameters, since the
+ * displayable URI Path Template replaces them with the Java type of the
+ * parameters. Routes are stored in a trie of literal path segments: a route is
+ * attached to the node of its leading literal segments, and the rest of its
+ * template is compiled into a regular expression. A lookup walks down the
+ * trie along the requested path and only tries the routes found on the way.
+ * 
+ * Routes are updated incrementally, as endpoints are added, changed or removed.
+ * This class is thread-safe.
+ * 
+ * @author Xavier Coulon
+ *
+ */
+final class JaxrsEndpointRouter {
+
+	/** The regular expression of a template parameter without explicit regular expression. */
+	private static final String DEFAULT_PARAMETER_REGEX = "[^/]+?";
+
+	/** The root of the trie of literal path segments. */
+	private final Node root = new Node();
+
+	/** The routes indexed by the identifier of their endpoint. */
+	private final Map<String, Route> routes = new HashMap<String, Route>();
+
+	/**
+	 * Adds or updates the route of the given endpoint. The route is only
+	 * recompiled if its template, HTTP method or media types changed.
+	 * 
+	 * @param endpoint
+	 *            the endpoint to add or update
+	 */
+	void put(final IJaxrsEndpoint endpoint) {
+		final RouteKey key = RouteKey.from(endpoint);
+		synchronized (this) {
+			final Route existingRoute = routes.get(endpoint.getIdentifier());
+			if (existingRoute != null && existingRoute.key.equals(key)) {
+				return;
+			}
+		}
+		final Route route = Route.compile(endpoint, key);
+		synchronized (this) {
+			remove(endpoint.getIdentifier());
+			if (route != null) {
+				routes.put(endpoint.getIdentifier(), route);
+				root.attach(route, 0);
+			}
+		}
+	}
+
+	/**
+	 * Removes the route of the given endpoint.
+	 * 
+	 * @param endpoint
+	 *            the endpoint to remove
+	 */
+	synchronized void remove(final IJaxrsEndpoint endpoint) {
+		remove(endpoint.getIdentifier());
+	}
+
+	private void remove(final String endpointIdentifier) {
+		final Route previousRoute = routes.remove(endpointIdentifier);
+		if (previousRoute != null) {
+			root.detach(previousRoute, 0);
+		}
+	}
+
+	/**
+	 * Removes all routes.
+	 */
+	synchronized void clear() {
+		routes.clear();
+		root.children.clear();
+		root.routes.clear();
+	}
+
+	/**
+	 * @return the number of routes
+	 */
+	synchronized int size() {
+		return routes.size();
+	}
+
+	/**
+	 * Finds the endpoint that serves the given request.
+	 * 
+	 * @param httpMethod
+	 *            the HTTP method of the request (eg: {@code GET})
+	 * @param path
+	 *            the path of the request, including the application path,
+	 *            and optionally the matrix and query parameters
+	 * @param contentType
+	 *            the {@code Content-Type} of the request, or {@code null} if
+	 *            the request has no body
+	 * @param accept
+	 *            the value of the {@code Accept} header of the request, or
+	 *            {@code null} to accept any media type
+	 * @return the matching endpoint, or {@code null} if none matches
+	 */
+	IJaxrsEndpoint findEndpoint(final String httpMethod, final String path, final String contentType,
+			final String accept) {
+		if (httpMethod == null || path == null) {
+			return null;
+		}
+		final long start = System.nanoTime();
+		try {
+			final List<String> segments = splitPath(normalizePath(path));
+			final List<Candidate> candidates = new ArrayList<Candidate>();
+			synchronized (this) {
+				root.collect(segments, 0, candidates);
+			}
+			// step 1 and 2: select the routes whose template matches the path,
+			// and keep those with the template of the highest precedence
+			final List<Route> matchingRoutes = new ArrayList<Route>();
+			for (Candidate candidate : candidates) {
+				if (candidate.route.suffixPattern.matcher(joinSegments(segments, candidate.depth)).matches()) {
+					matchingRoutes.add(candidate.route);
+				}
+			}
+			if (matchingRoutes.isEmpty()) {
+				return null;
+			}
+			Collections.sort(matchingRoutes, PRECEDENCE);
+			final String selectedTemplate = matchingRoutes.get(0).template;
+			final List<Route> selectedRoutes = new ArrayList<Route>();
+			for (Route route : matchingRoutes) {
+				if (route.template.equals(selectedTemplate)) {
+					selectedRoutes.add(route);
+				}
+			}
+			// step 3: select by HTTP method, then by consumed and produced
+			// media types
+			List<Route> methodRoutes = filterByHttpMethod(selectedRoutes, httpMethod);
+			if (methodRoutes.isEmpty() && "HEAD".equalsIgnoreCase(httpMethod)) {
+				methodRoutes = filterByHttpMethod(selectedRoutes, "GET");
+			}
+			final List<Route> consumingRoutes = filterByContentType(methodRoutes, contentType);
+			return selectByAccept(consumingRoutes, accept);
+		} finally {
+			JaxrsMetrics.ENDPOINT_LOOKUP_DURATION.recordSince(start);
+		}
+	}
+
+	private static List<Route> filterByHttpMethod(final List<Route> routes, final String httpMethod) {
+		final List<Route> matchingRoutes = new ArrayList<Route>();
+		for (Route route : routes) {
+			if (httpMethod.equalsIgnoreCase(route.key.httpVerb)) {
+				matchingRoutes.add(route);
+			}
+		}
+		return matchingRoutes;
+	}
+
+	private static List<Route> filterByContentType(final List<Route> routes, final String contentType) {
+		if (contentType == null) {
+			return routes;
+		}
+		final MediaType requestType = MediaType.parse(contentType);
+		final List<Route> matchingRoutes = new ArrayList<Route>();
+		for (Route route : routes) {
+			for (MediaType consumedType : route.consumedTypes) {
+				if (consumedType.isCompatible(requestType)) {
+					matchingRoutes.add(route);
+					break;
+				}
+			}
+		}
+		return matchingRoutes;
+	}
+
+	/**
+	 * Selects the route whose produced media types best match the given
+	 * {@code Accept} header: highest quality factor first, then most specific
+	 * acceptable media type, then most specific produced media type.
+	 */
+	private static IJaxrsEndpoint selectByAccept(final List<Route> routes, final String accept) {
+		final List<MediaType> acceptableTypes = MediaType.parseList(accept == null ? "*/*" : accept);
+		Route bestRoute = null;
+		int[] bestScore = null;
+		for (Route route : routes) {
+			for (MediaType acceptableType : acceptableTypes) {
+				if (acceptableType.quality == 0) {
+					continue;
+				}
+				for (MediaType producedType : route.producedTypes) {
+					if (!acceptableType.isCompatible(producedType)) {
+						continue;
+					}
+					final int[] score = new int[] { acceptableType.quality, acceptableType.getSpecificity(),
+							producedType.getSpecificity() };
+					if (bestScore == null || compare(score, bestScore) > 0) {
+						bestScore = score;
+						bestRoute = route;
+					}
+				}
+			}
+		}
+		return bestRoute != null ? bestRoute.endpoint : null;
+	}
+
+	private static int compare(final int[] score, final int[] otherScore) {
+		for (int i = 0; i < score.length; i++) {
+			if (score[i] != otherScore[i]) {
+				return score[i] < otherScore[i] ? -1 : 1;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Removes the query and matrix parameters from the given path, and makes
+	 * sure it starts with a single slash, without consecutive or trailing
+	 * slashes.
+	 */
+	static String normalizePath(final String path) {
+		final StringBuilder normalizedPath = new StringBuilder(path.length() + 1);
+		boolean inMatrixParameters = false;
+		for (int i = 0; i < path.length(); i++) {
+			final char c = path.charAt(i);
+			if (c == '?' || c == '#') {
+				break;
+			} else if (c == '/') {
+				inMatrixParameters = false;
+			} else if (c == ';') {
+				inMatrixParameters = true;
+			}
+			if (inMatrixParameters) {
+				continue;
+			}
+			appendPathChar(normalizedPath, c);
+		}
+		if (normalizedPath.length() == 0) {
+			normalizedPath.append('/');
+		} else if (normalizedPath.charAt(0) != '/') {
+			normalizedPath.insert(0, '/');
+		}
+		if (normalizedPath.length() > 1 && normalizedPath.charAt(normalizedPath.length() - 1) == '/') {
+			normalizedPath.setLength(normalizedPath.length() - 1);
+		}
+		return normalizedPath.toString();
+	}
+
+	private static void appendPathChar(final StringBuilder builder, final char c) {
+		if (c == '/' && builder.length() > 0 && builder.charAt(builder.length() - 1) == '/') {
+			return;
+		}
+		builder.append(c);
+	}
+
+	/**
+	 * Splits the given normalized path on slashes (the leading slash is
+	 * skipped).
+	 */
+	private static List<String> splitPath(final String normalizedPath) {
+		final List<String> segments = new ArrayList<String>();
+		int start = 1;
+		while (start < normalizedPath.length()) {
+			int end = normalizedPath.indexOf('/', start);
+			if (end == -1) {
+				end = normalizedPath.length();
+			}
+			segments.add(normalizedPath.substring(start, end));
+			start = end + 1;
+		}
+		return segments;
+	}
+
+	private static String joinSegments(final List<String> segments, final int fromIndex) {
+		if (fromIndex >= segments.size()) {
+			return "";
+		}
+		final StringBuilder builder = new StringBuilder();
+		for (int i = fromIndex; i < segments.size(); i++) {
+			if (i > fromIndex) {
+				builder.append('/');
+			}
+			builder.append(segments.get(i));
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Sorts the routes by descending number of literal characters, then by
+	 * descending number of template parameters, then by descending number of
+	 * template parameters with an explicit regular expression. The template
+	 * itself is used last, so that the order is stable.
+	 */
+	private static final Comparator<Route> PRECEDENCE = new Comparator<Route>() {
+		@Override
+		public int compare(final Route route, final Route otherRoute) {
+			if (route.literalCharacters != otherRoute.literalCharacters) {
+				return otherRoute.literalCharacters - route.literalCharacters;
+			}
+			if (route.parameters != otherRoute.parameters) {
+				return otherRoute.parameters - route.parameters;
+			}
+			if (route.regexParameters != otherRoute.regexParameters) {
+				return otherRoute.regexParameters - route.regexParameters;
+			}
+			return route.template.compareTo(otherRoute.template);
+		}
+	};
+
+	/**
+	 * A node in the trie of literal path segments.
+	 */
+	private static class Node {
+		final Map<String, Node> children = new HashMap<String, Node>();
+		final List<Route> routes = new ArrayList<Route>(1);
+
+		void attach(final Route route, final int depth) {
+			if (depth == route.literalSegments.size()) {
+				routes.add(route);
+				return;
+			}
+			final String segment = route.literalSegments.get(depth);
+			Node child = children.get(segment);
+			if (child == null) {
+				child = new Node();
+				children.put(segment, child);
+			}
+			child.attach(route, depth + 1);
+		}
+
+		void detach(final Route route, final int depth) {
+			if (depth == route.literalSegments.size()) {
+				routes.remove(route);
+				return;
+			}
+			final String segment = route.literalSegments.get(depth);
+			final Node child = children.get(segment);
+			if (child != null) {
+				child.detach(route, depth + 1);
+				if (child.routes.isEmpty() && child.children.isEmpty()) {
+					children.remove(segment);
+				}
+			}
+		}
+
+		void collect(final List<String> segments, final int depth, final List<Candidate> candidates) {
+			for (Route route : routes) {
+				candidates.add(new Candidate(route, depth));
+			}
+			if (depth < segments.size()) {
+				final Node child = children.get(segments.get(depth));
+				if (child != null) {
+					child.collect(segments, depth + 1, candidates);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A route found in the trie, along with the number of path segments
+	 * already matched by the trie.
+	 */
+	private static class Candidate {
+		final Route route;
+		final int depth;
+
+		Candidate(final Route route, final int depth) {
+			this.route = route;
+			this.depth = depth;
+		}
+	}
+
+	/**
+	 * The inputs of a {@link Route}, used to detect when a route needs to be
+	 * recompiled.
+	 */
+	private static class RouteKey {
+		final String template;
+		final String httpVerb;
+		final List<String> consumedMediaTypes;
+		final List<String> producedMediaTypes;
+
+		private RouteKey(final String template, final String httpVerb, final List<String> consumedMediaTypes,
+				final List<String> producedMediaTypes) {
+			this.template = template;
+			this.httpVerb = httpVerb;
+			this.consumedMediaTypes = consumedMediaTypes;
+			this.producedMediaTypes = producedMediaTypes;
+		}
+
+		static RouteKey from(final IJaxrsEndpoint endpoint) {
+			final IJaxrsHttpMethod httpMethod = endpoint.getHttpMethod();
+			return new RouteKey(getTemplate(endpoint), httpMethod != null ? httpMethod.getHttpVerb() : null,
+					copyOf(endpoint.getConsumedMediaTypes()), copyOf(endpoint.getProducedMediaTypes()));
+		}
+
+		private static List<String> copyOf(final List<String> mediaTypes) {
+			if (mediaTypes == null || mediaTypes.isEmpty()) {
+				return Collections.singletonList("*/*");
+			}
+			return new ArrayList<String>(mediaTypes);
+		}
+
+		/**
+		 * @return the normalized path template of the given endpoint, with the
+		 *         regular expressions of its parameters, or {@code null} if
+		 *         one of the paths is not a valid template
+		 */
+		private static String getTemplate(final IJaxrsEndpoint endpoint) {
+			final LinkedList<IJaxrsResourceMethod> resourceMethods = endpoint.getResourceMethods();
+			if (resourceMethods.isEmpty()) {
+				return null;
+			}
+			final List<String> paths = new ArrayList<String>();
+			final IJaxrsApplication application = endpoint.getApplication();
+			if (application != null) {
+				paths.add(application.getApplicationPath());
+			}
+			paths.add(resourceMethods.getFirst().getParentResource().getPathTemplate());
+			for (IJaxrsResourceMethod resourceMethod : resourceMethods) {
+				paths.add(resourceMethod.getPathTemplate());
+			}
+			final StringBuilder template = new StringBuilder();
+			for (String path : paths) {
+				if (path == null || path.isEmpty()) {
+					continue;
+				}
+				if (!AnnotationUtils.isValidAnnotationValue(path)) {
+					return null;
+				}
+				appendPathChar(template, '/');
+				for (int i = 0; i < path.length(); i++) {
+					appendPathChar(template, path.charAt(i));
+				}
+			}
+			if (template.length() > 1 && template.charAt(template.length() - 1) == '/') {
+				template.setLength(template.length() - 1);
+			}
+			if (template.length() == 0) {
+				template.append('/');
+			}
+			return template.toString();
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((template == null) ? 0 : template.hashCode());
+			result = prime * result + ((httpVerb == null) ? 0 : httpVerb.hashCode());
+			result = prime * result + consumedMediaTypes.hashCode();
+			result = prime * result + producedMediaTypes.hashCode();
+			return result;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof RouteKey)) {
+				return false;
+			}
+			final RouteKey other = (RouteKey) obj;
+			return (template == null ? other.template == null : template.equals(other.template))
+					&& (httpVerb == null ? other.httpVerb == null : httpVerb.equals(other.httpVerb))
+					&& consumedMediaTypes.equals(other.consumedMediaTypes)
+					&& producedMediaTypes.equals(other.producedMediaTypes);
+		}
+	}
+
+	/**
+	 * The compiled route of an endpoint.
+	 */
+	private static class Route {
+		final IJaxrsEndpoint endpoint;
+		final RouteKey key;
+		/** The normalized path template. */
+		final String template;
+		/** The leading path segments of the template that have no parameter. */
+		final List<String> literalSegments;
+		/** The pattern of the remaining path segments. */
+		final Pattern suffixPattern;
+		final int literalCharacters;
+		final int parameters;
+		final int regexParameters;
+		final List<MediaType> consumedTypes;
+		final List<MediaType> producedTypes;
+
+		private Route(final IJaxrsEndpoint endpoint, final RouteKey key, final List<String> literalSegments,
+				final Pattern suffixPattern, final int literalCharacters, final int parameters,
+				final int regexParameters) {
+			this.endpoint = endpoint;
+			this.key = key;
+			this.template = key.template;
+			this.literalSegments = literalSegments;
+			this.suffixPattern = suffixPattern;
+			this.literalCharacters = literalCharacters;
+			this.parameters = parameters;
+			this.regexParameters = regexParameters;
+			this.consumedTypes = MediaType.parseAll(key.consumedMediaTypes);
+			this.producedTypes = MediaType.parseAll(key.producedMediaTypes);
+		}
+
+		/**
+		 * Compiles the route of the given endpoint.
+		 * 
+		 * @return the route, or {@code null} if the endpoint has no valid
+		 *         template or no HTTP method
+		 */
+		static Route compile(final IJaxrsEndpoint endpoint, final RouteKey key) {
+			if (key.template == null || key.httpVerb == null) {
+				return null;
+			}
+			final String template = key.template;
+			final List<String> literalSegments = new ArrayList<String>();
+			// the leading segments without any parameter go into the trie
+			int suffixStart = 1;
+			while (suffixStart < template.length()) {
+				int end = template.indexOf('/', suffixStart);
+				if (end == -1) {
+					end = template.length();
+				}
+				final String segment = template.substring(suffixStart, end);
+				if (segment.indexOf('{') != -1) {
+					break;
+				}
+				literalSegments.add(segment);
+				suffixStart = end + 1;
+			}
+			// the remaining segments are compiled into a regular expression
+			final StringBuilder suffixRegex = new StringBuilder();
+			int literalCharacters = Math.min(suffixStart, template.length());
+			int parameters = 0;
+			int regexParameters = 0;
+			int index = suffixStart;
+			while (index < template.length()) {
+				final char c = template.charAt(index);
+				if (c != '{') {
+					suffixRegex.append(Pattern.quote(String.valueOf(c)));
+					literalCharacters++;
+					index++;
+					continue;
+				}
+				// look for the matching closing bracket, since regular
+				// expressions may contain brackets, too
+				int depth = 0;
+				int end = index;
+				for (; end < template.length(); end++) {
+					if (template.charAt(end) == '{') {
+						depth++;
+					} else if (template.charAt(end) == '}' && --depth == 0) {
+						break;
+					}
+				}
+				if (end == template.length()) {
+					return null;
+				}
+				final String parameter = template.substring(index + 1, end);
+				final int colonIndex = parameter.indexOf(':');
+				parameters++;
+				if (colonIndex == -1) {
+					suffixRegex.append('(').append(DEFAULT_PARAMETER_REGEX).append(')');
+				} else {
+					regexParameters++;
+					suffixRegex.append('(').append(parameter.substring(colonIndex + 1).trim()).append(')');
+				}
+				index = end + 1;
+			}
+			try {
+				return new Route(endpoint, key, literalSegments, Pattern.compile(suffixRegex.toString()),
+						literalCharacters, parameters, regexParameters);
+			} catch (PatternSyntaxException e) {
+				Logger.debug("Skipping endpoint {} with invalid path template '{}': {}", endpoint.getIdentifier(),
+						template, e.getMessage());
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * A media type, with its quality factor (in thousandths) when it comes
+	 * from an {@code Accept} header.
+	 */
+	private static class MediaType {
+		private static final String WILDCARD = "*";
+		final String type;
+		final String subtype;
+		final int quality;
+
+		private MediaType(final String type, final String subtype, final int quality) {
+			this.type = type;
+			this.subtype = subtype;
+			this.quality = quality;
+		}
+
+		static MediaType parse(final String value) {
+			final String[] parts = value.split(";");
+			final String fullType = parts[0].trim().toLowerCase();
+			int quality = 1000;
+			for (int i = 1; i < parts.length; i++) {
+				final String parameter = parts[i].trim();
+				if (parameter.startsWith("q=")) {
+					try {
+						quality = (int) (Double.parseDouble(parameter.substring(2)) * 1000);
+					} catch (NumberFormatException e) {
+						quality = 0;
+					}
+				}
+			}
+			final int slashIndex = fullType.indexOf('/');
+			if (slashIndex == -1) {
+				return new MediaType(fullType.isEmpty() ? WILDCARD : fullType, WILDCARD, quality);
+			}
+			return new MediaType(fullType.substring(0, slashIndex), fullType.substring(slashIndex + 1), quality);
+		}
+
+		static List<MediaType> parseList(final String values) {
+			final List<MediaType> mediaTypes = new ArrayList<MediaType>();
+			for (String value : values.split(",")) {
+				if (!value.trim().isEmpty()) {
+					mediaTypes.add(parse(value));
+				}
+			}
+			return mediaTypes;
+		}
+
+		static List<MediaType> parseAll(final List<String> values) {
+			final List<MediaType> mediaTypes = new ArrayList<MediaType>(values.size());
+			for (String value : values) {
+				mediaTypes.addAll(parseList(value));
+			}
+			return mediaTypes;
+		}
+
+		boolean isCompatible(final MediaType other) {
+			if (type.equals(WILDCARD) || other.type.equals(WILDCARD)) {
+				return true;
+			}
+			if (!type.equals(other.type)) {
+				return false;
+			}
+			return subtype.equals(WILDCARD) || other.subtype.equals(WILDCARD) || subtype.equals(other.subtype);
+		}
+
+		/**
+		 * @return {@code 2} for a concrete type, {@code 1} for a type with a
+		 *         wildcard subtype and {@code 0} for the {@code *}{@code /*}
+		 *         type
+		 */
+		int getSpecificity() {
+			if (type.equals(WILDCARD)) {
+				return 0;
+			}
+			return subtype.equals(WILDCARD) ? 1 : 2;
+		}
+	}
+
+}
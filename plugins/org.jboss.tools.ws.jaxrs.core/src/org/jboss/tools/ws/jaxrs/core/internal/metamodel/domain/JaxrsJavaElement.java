@@ -48,6 +48,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
@@ -82,9 +83,11 @@ public abstract class JaxrsJavaElement<T extends IMember> extends JaxrsBaseEleme
 
 	/**
 	 * Map of Annotations on the associated Java Element, indexed by the
-	 * annotation class name.
+	 * annotation class name. Changes are applied while holding the metamodel
+	 * shared state lock, but the map may still be read without any lock (eg:
+	 * from the UI), hence the concurrent implementation.
 	 */
-	private final Map<String, Annotation> annotations = new HashMap<String, Annotation>();
+	private final Map<String, Annotation> annotations = new ConcurrentHashMap<String, Annotation>();
 
 	/**
 	 * Full constructor for element with multiple annotations.
@@ -103,7 +106,11 @@ public abstract class JaxrsJavaElement<T extends IMember> extends JaxrsBaseEleme
 		super(metamodel, primaryCopy);
 		this.javaElement = element;
 		if (annotations != null) {
-			this.annotations.putAll(annotations);
+			for (Entry<String, Annotation> entry : annotations.entrySet()) {
+				if (entry.getKey() != null && entry.getValue() != null) {
+					this.annotations.put(entry.getKey(), entry.getValue());
+				}
+			}
 		}
 	}
 
@@ -137,6 +144,9 @@ public abstract class JaxrsJavaElement<T extends IMember> extends JaxrsBaseEleme
 	 *         otherwise.
 	 */
 	public Annotation getAnnotation(final String className) {
+		if (className == null) {
+			return null;
+		}
 		return annotations.get(className);
 	}
 
@@ -147,7 +157,7 @@ public abstract class JaxrsJavaElement<T extends IMember> extends JaxrsBaseEleme
 	 *         java fully qualified name, false otherwise.
 	 */
 	public boolean hasAnnotation(final String className) {
-		return annotations.get(className) != null;
+		return className != null && annotations.get(className) != null;
 	}
 
 	/** @return the underlying java element */
@@ -189,7 +199,10 @@ public abstract class JaxrsJavaElement<T extends IMember> extends JaxrsBaseEleme
 			final EnumElementKind previousKind = getElementKind();
 			final String annotationName = annotation.getFullyQualifiedName();
 			if (annotations.containsKey(annotationName)) {
-				changed = annotations.get(annotationName).update(annotation);
+				changed = !annotations.get(annotationName).equals(annotation);
+				if (changed) {
+					annotations.put(annotationName, annotation);
+				}
 			} else {
 				annotations.put(annotationName, annotation);
 				changed = true;
@@ -266,7 +279,8 @@ public abstract class JaxrsJavaElement<T extends IMember> extends JaxrsBaseEleme
 		}
 		final EnumElementKind previousKind = getElementKind();
 		final String annotationName = annotation.getFullyQualifiedName();
-		if (annotations.get(annotationName).update(annotation)) {
+		if (!annotations.get(annotationName).equals(annotation)) {
+			annotations.put(annotationName, annotation);
 			return qualifyChange(annotationName, previousKind);
 		}
 		return Flags.NONE;
@@ -274,6 +288,11 @@ public abstract class JaxrsJavaElement<T extends IMember> extends JaxrsBaseEleme
 
 	Flags updateAnnotations(final Map<String, Annotation> otherAnnotations) {
 		final Flags flags = new Flags();
+		// annotations are compared by their precomputed hash first, which
+		// makes this check cheap in the common case where nothing changed
+		if (this.annotations.equals(otherAnnotations)) {
+			return flags;
+		}
 		final MapComparison<String, Annotation> annotationsComparison = CollectionUtils.compare(this.annotations, otherAnnotations);
 		// added annotations (ie: found in 'otherAnnotation' but not
 		// this.annotations)
@@ -32,19 +32,17 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
 
-import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.Term;
-import org.apache.lucene.store.LockObtainFailedException;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
@@ -73,7 +71,9 @@ import org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.JaxrsHttpMethodC
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.ResourceDelta;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.search.JaxrsElementsIndexationDelegate;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.search.LuceneDocumentFactory;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.search.TypeReferenceGraph;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.PersistentHashMap;
 import org.jboss.tools.ws.jaxrs.core.jdt.Annotation;
 import org.jboss.tools.ws.jaxrs.core.jdt.Flags;
 import org.jboss.tools.ws.jaxrs.core.jdt.FlagsUtils;
@@ -87,6 +87,7 @@ import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsEndpoint;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsHttpMethod;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsJavaApplication;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsMetamodelView;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsNameBinding;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsParamConverterProvider;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsProvider;
@@ -94,6 +95,7 @@ import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsResource;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsResourceMethod;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsStatus;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.JaxrsElementDelta;
+import org.jboss.tools.ws.jaxrs.core.metrics.JaxrsMetrics;
 import org.jboss.tools.ws.jaxrs.core.wtp.WtpUtils;
 
 /**
@@ -121,32 +123,75 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 * Internal store of all the JAX-RS elements of this metamodel (elements are
 	 * indexed by the handleIdentifier of their associated java element).
 	 */
-	private final Map<String, JaxrsBaseElement> elements = new HashMap<String, JaxrsBaseElement>();
+	private final Map<String, JaxrsBaseElement> elements = new ConcurrentHashMap<String, JaxrsBaseElement>();
 
 	/**
 	 * Internal store of all the JAX-RS Endpoints, indexed by their unique
 	 * indentified.
 	 */
-	private final Map<String, JaxrsEndpoint> endpoints = new HashMap<String, JaxrsEndpoint>();
+	private final Map<String, JaxrsEndpoint> endpoints = new ConcurrentHashMap<String, JaxrsEndpoint>();
+
+	/**
+	 * The elements of the next {@link IJaxrsMetamodelView}, updated along with
+	 * the internal store (guarded by the shared state lock).
+	 */
+	private PersistentHashMap<String, IJaxrsElement> viewElements = PersistentHashMap.empty();
+
+	/**
+	 * The endpoints of the next {@link IJaxrsMetamodelView}, updated along with
+	 * the internal store (guarded by the shared state lock).
+	 */
+	private PersistentHashMap<String, IJaxrsEndpoint> viewEndpoints = PersistentHashMap.empty();
+
+	/**
+	 * Whether an element of the next {@link IJaxrsMetamodelView} changed
+	 * since the last publication, in which case the view must be published
+	 * again to index the new annotations (guarded by the shared state lock).
+	 */
+	private boolean viewElementsChanged = false;
+
+	/** The routing table of the endpoints, to find the endpoint that serves a given request. */
+	private final JaxrsEndpointRouter endpointRouter = new JaxrsEndpointRouter();
+
+	/** The last published view, read without any lock. */
+	private volatile JaxrsMetamodelView view = new JaxrsMetamodelView(this, 0, true, viewElements, viewEndpoints);
 
 	/** The JAX-RS Elements and Endpoint indexation delegate. */
 	private final JaxrsElementsIndexationDelegate indexationService;
 
+	/** The references between the source types of the project. */
+	private final TypeReferenceGraph typeReferences = new TypeReferenceGraph();
+
 	/** The Listeners for JAX-RS Element changes. */
-	private final Set<IJaxrsElementChangedListener> elementChangedListeners = new HashSet<IJaxrsElementChangedListener>();
+	private final Set<IJaxrsElementChangedListener> elementChangedListeners = new CopyOnWriteArraySet<IJaxrsElementChangedListener>();
 
 	/** A boolean marker that indicates if the metamodel is being initialized (ie, first/full build).*/
-	private boolean initializing=true;
+	private volatile boolean initializing=true;
+
+	/**
+	 * A boolean marker that indicates if the last full build or restore of
+	 * this metamodel processed the whole project, ie, it was neither canceled
+	 * nor failed. The snapshot of an incomplete metamodel must not be saved.
+	 */
+	private volatile boolean buildComplete = false;
 
 	/** The last known build status for this metamodel. */
-	private IStatus buildStatus = Status.OK_STATUS;
+	private volatile IStatus buildStatus = Status.OK_STATUS;
 
-	/** A Read/Write Lock to avoid concurrent access to the elements while changes are being processed. */
-	private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock(true);
+	/**
+	 * The locks to avoid concurrent access to the elements while changes are
+	 * being processed: a global lock for the changes on the whole metamodel, and
+	 * lock stripes per compilation unit (or package fragment root) for the
+	 * changes on a single resource.
+	 */
+	private final JaxrsMetamodelLocks locks = new JaxrsMetamodelLocks();
 	
 	/** A temporary cache for removed elements, so that they can be consumed during validation.*/
 	private JaxrsShadowElementsCache shadowElementsCache = new JaxrsShadowElementsCache();
 
+	/** The dependencies between resources recorded during the validation.*/
+	private final JaxrsValidationDependencies validationDependencies = new JaxrsValidationDependencies();
+
 	/**
 	 * Full constructor.
 	 * 
@@ -154,9 +199,6 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 *            the enclosing java project
 	 * @throws CoreException
 	 *             in case of underlying exception
-	 * @throws IOException
-	 * @throws LockObtainFailedException
-	 * @throws CorruptIndexException
 	 */
 	private JaxrsMetamodel(final IJavaProject javaProject) throws CoreException {
 		this.javaProject = javaProject;
@@ -195,6 +237,22 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	public boolean isInitializing() {
 		return this.initializing;
 	}
+
+	/**
+	 * @return the locks guarding the elements and endpoints of this metamodel
+	 */
+	JaxrsMetamodelLocks getLocks() {
+		return this.locks;
+	}
+
+	/**
+	 * @return {@code true} if the last full build or restore of this
+	 *         metamodel processed the whole project, {@code false} if it was
+	 *         canceled or failed, or if there was none yet.
+	 */
+	public boolean isBuildComplete() {
+		return this.buildComplete;
+	}
 	
 
 	/**
@@ -285,15 +343,14 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	/**
 	 * @throws CoreException
 	 *             in case of underlying exception
-	 * @throws IOException
-	 * @throws CorruptIndexException
 	 */
 	public final void remove() throws CoreException {
 		try {
-			readWriteLock.writeLock().lock();
+			locks.lockAll();
 			JBossJaxrsCorePlugin.notifyMetamodelChanged(this, REMOVED);
 			this.elementChangedListeners.clear();
 			indexationService.dispose();
+			typeReferences.clear();
 			final IProject project = getProject();
 			if(project.exists() && project.isOpen()) {
 				project.setSessionProperty(METAMODEL_QUALIFIED_NAME, null);
@@ -301,10 +358,8 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 					project.deleteMarkers(JAXRS_PROBLEM_MARKER_ID, true, IResource.DEPTH_INFINITE);
 				}
 			}
-		} catch (IOException e) {
-			Logger.error("Failed to remove JAX-RS Metamodel for project " + javaProject.getElementName(), e);
 		} finally {
-			readWriteLock.writeLock().unlock();
+			locks.unlockAll();
 			Logger.debug("JAX-RS Metamodel removed for project " + javaProject.getElementName());
 		}
 	}
@@ -342,7 +397,8 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	}
 
 	/**
-	 * Notify that a JAX-RS Element changed
+	 * Notify that a JAX-RS Element changed. The listeners are notified once
+	 * the current thread has released the metamodel locks.
 	 * 
 	 * @param delta
 	 *            the delta including the element that changed, the kind of
@@ -352,10 +408,7 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 * @see {@link JaxrsElementDelta}
 	 */
 	private void notifyListeners(final JaxrsElementDelta delta) {
-		Logger.debug("Notify elementChangedListeners after {}", delta);
-		for (IJaxrsElementChangedListener listener : elementChangedListeners) {
-			listener.notifyElementChanged(delta);
-		}
+		JaxrsMetamodelEventBus.getInstance().post(delta, elementChangedListeners);
 	}
 
 	// ********************************************************************************
@@ -371,34 +424,53 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 */
 	public void processJavaElementChange(final JavaElementChangedEvent delta, final IProgressMonitor progressMonitor)
 			throws CoreException {
+		final IJavaElement element = delta.getElement();
+		switch(element.getElementType()) {
+		case IJavaElement.JAVA_PROJECT:
+		case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+			// changes on the whole metamodel
+			processProject(progressMonitor);
+			return;
+		}
+		Logger.debug("Processing {}", delta);
+		// changes limited to the compilation unit of the changed element
+		locks.lockStripeForWrite(element);
+		indexationService.beginBatch();
 		try {
-			Logger.debug("Processing {}", delta);
-			readWriteLock.writeLock().lock();
-			final IJavaElement element = delta.getElement();
 			final CompilationUnit ast = delta.getCompilationUnitAST();
 			final int deltaKind = delta.getKind();
-			switch(element.getElementType()) {
-			case IJavaElement.JAVA_PROJECT:
-			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
-				processProject(progressMonitor);
-				break;
-			case IJavaElement.ANNOTATION:
-				processJavaAnnotationChange((IAnnotation) element, deltaKind, ast, progressMonitor);
-				break;
-			case IJavaElement.COMPILATION_UNIT:
-			case IJavaElement.TYPE:
-			case IJavaElement.METHOD:
-			case IJavaElement.FIELD:
-				processJavaElementChange(element, deltaKind, ast, progressMonitor);
-				break;
-			default:
-				// ignore
-				break;
+			if (deltaKind == REMOVED && element.getElementType() == IJavaElement.COMPILATION_UNIT) {
+				typeReferences.remove((ICompilationUnit) element);
+			} else {
+				typeReferences.update(ast);
+			}
+			// the elements of this compilation unit are also read by the cascades,
+			// the endpoints and the validators of other compilation units, so they
+			// are changed while holding the shared state lock
+			locks.lockSharedState();
+			try {
+				switch(element.getElementType()) {
+				case IJavaElement.ANNOTATION:
+					processJavaAnnotationChange((IAnnotation) element, deltaKind, ast, progressMonitor);
+					break;
+				case IJavaElement.COMPILATION_UNIT:
+				case IJavaElement.TYPE:
+				case IJavaElement.METHOD:
+				case IJavaElement.FIELD:
+					processJavaElementChange(element, deltaKind, ast, progressMonitor);
+					break;
+				default:
+					// ignore
+					break;
+				}
+			} finally {
+				locks.unlockSharedState();
 			}
 		} finally {
 			this.initializing = false;
 			progressMonitor.done();
-			readWriteLock.writeLock().unlock();
+			indexationService.commitBatch();
+			locks.unlockStripe();
 			setBuildStatus(Status.OK_STATUS);
 			Logger.debug("Done processing Java changes: " + getStatus());
 		}
@@ -486,8 +558,9 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 * @throws CoreException
 	 */
 	public void processProject(final IProgressMonitor progressMonitor) throws CoreException {
-		final WriteLock writeLock = readWriteLock.writeLock();
-		writeLock.lock();
+		locks.lockAll();
+		indexationService.beginBatch();
+		this.buildComplete = false;
 		try {
 			progressMonitor.beginTask("Processing project '" + getProject().getName() + "'...", 1);
 			Logger.debug("Processing full project '{}'", getProject().getName());
@@ -496,7 +569,13 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			// start with a fresh new metamodel
 			this.elements.clear();
 			this.endpoints.clear();
+			this.viewElements = PersistentHashMap.empty();
+			this.viewEndpoints = PersistentHashMap.empty();
+			this.endpointRouter.clear();
 			this.indexationService.clear();
+			// the dependencies are recorded again by the next full validation
+			this.validationDependencies.clear();
+			this.typeReferences.clear();
 			addBuiltinHttpMethods();
 			Logger.debug("Processing project '" + getProject().getName() + "'...");
 			if (WtpUtils.hasWebDeploymentDescriptor(getProject())) {
@@ -505,17 +584,117 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			}
 			processResourceChange(new ResourceDelta(getProject(), ADDED, Flags.NONE), progressMonitor);
 			progressMonitor.worked(1);
+			this.buildComplete = !progressMonitor.isCanceled();
 		} catch (CoreException e) {
 			Logger.error("Failed while processing resource results", e);
 		} finally {
 			this.initializing = false;
 			progressMonitor.done();
-			writeLock.unlock();
+			indexationService.commitBatch();
 			setBuildStatus(Status.OK_STATUS);
+			// published before the notifications of the build are delivered
+			publishView();
+			locks.unlockAll();
 			Logger.debug("Done processing resource results.");
 		}
 	}
 
+	/**
+	 * Restores the metamodel from the {@link JaxrsMetamodelSnapshot} that was
+	 * saved during the previous session, if it exists and if the project
+	 * classpath did not change in the mean time. In that case, only the
+	 * compilation units that were recorded in the snapshot or that were added
+	 * or changed since the snapshot was taken are processed, which avoids
+	 * searching the whole project. Otherwise, the whole project is processed
+	 * (see {@link JaxrsMetamodel#processProject(IProgressMonitor)}).
+	 * 
+	 * @param progressMonitor
+	 *            the progress monitor
+	 * @throws CoreException
+	 */
+	public void restoreOrProcessProject(final IProgressMonitor progressMonitor) throws CoreException {
+		final JaxrsMetamodelSnapshot snapshot = JaxrsMetamodelSnapshot.load(javaProject);
+		if (snapshot == null || !snapshot.isValid(javaProject)) {
+			Logger.debug("No valid snapshot to restore JAX-RS Metamodel for project '{}'", getProject().getName());
+			processProject(progressMonitor);
+			return;
+		}
+		final long start = System.currentTimeMillis();
+		locks.lockAll();
+		indexationService.beginBatch();
+		this.buildComplete = false;
+		try {
+			final List<ICompilationUnit> compilationUnits = snapshot.getCompilationUnitsToProcess(javaProject);
+			progressMonitor.beginTask("Restoring project '" + getProject().getName() + "'...",
+					compilationUnits.size() + 1);
+			// start with a fresh new metamodel
+			this.elements.clear();
+			this.endpoints.clear();
+			this.viewElements = PersistentHashMap.empty();
+			this.viewEndpoints = PersistentHashMap.empty();
+			this.endpointRouter.clear();
+			this.indexationService.clear();
+			// the dependencies are recorded again by the next full validation
+			this.validationDependencies.clear();
+			this.typeReferences.clear();
+			addBuiltinHttpMethods();
+			if (WtpUtils.hasWebDeploymentDescriptor(getProject())) {
+				processWebDeploymentDescriptorChange(
+						new ResourceDelta(WtpUtils.getWebDeploymentDescriptor(getProject()), ADDED, Flags.NONE));
+			}
+			progressMonitor.worked(1);
+			for (ICompilationUnit compilationUnit : compilationUnits) {
+				if (progressMonitor.isCanceled()) {
+					break;
+				}
+				processJavaElement(compilationUnit, ADDED, progressMonitor);
+				progressMonitor.worked(1);
+			}
+			this.buildComplete = !progressMonitor.isCanceled();
+		} catch (CoreException e) {
+			Logger.error("Failed to restore JAX-RS Metamodel from snapshot, processing the whole project instead", e);
+			JaxrsMetamodelSnapshot.delete(javaProject);
+			processProject(progressMonitor);
+		} finally {
+			this.initializing = false;
+			progressMonitor.done();
+			indexationService.commitBatch();
+			setBuildStatus(Status.OK_STATUS);
+			// published before the notifications of the restoration are delivered
+			publishView();
+			locks.unlockAll();
+			final long end = System.currentTimeMillis();
+			Logger.tracePerf("Restored JAX-RS Metamodel from snapshot in {}ms", (end - start));
+		}
+	}
+
+	/**
+	 * Saves a {@link JaxrsMetamodelSnapshot} of this metamodel in the plugin
+	 * state location, so that it can be restored during the next session
+	 * (see {@link JaxrsMetamodel#restoreOrProcessProject(IProgressMonitor)}).
+	 * If the last full build or restore was canceled or failed, the existing
+	 * snapshot is deleted instead, since the compilation units that were not
+	 * processed would be missing from the restored metamodel.
+	 */
+	public void saveSnapshot() {
+		locks.lockStripeForRead(null);
+		try {
+			if (!buildComplete) {
+				Logger.debug("Not saving the snapshot of the incomplete JAX-RS Metamodel for project '{}'",
+						getProject().getName());
+				JaxrsMetamodelSnapshot.delete(javaProject);
+				return;
+			}
+			JaxrsMetamodelSnapshot.from(this, elements.values()).save(javaProject);
+		} catch (JavaModelException e) {
+			Logger.error("Failed to compute JAX-RS Metamodel snapshot for project " + javaProject.getElementName(), e);
+		} catch (IOException e) {
+			Logger.error("Failed to save JAX-RS Metamodel snapshot for project " + javaProject.getElementName(), e);
+		} finally {
+			locks.unlockStripe();
+		}
+	}
+
 	/**
 	 * Removes the JAX-RS markers of the JAX-RS elements. This operation *must
 	 * be performed in a separate job, because the resource tree is locked for
@@ -561,8 +740,7 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 */
 	public void processAffectedResources(final List<ResourceDelta> affectedResources,
 			final IProgressMonitor progressMonitor) {
-		final WriteLock writeLock = readWriteLock.writeLock();
-		writeLock.lock();
+		indexationService.beginBatch();
 		try {
 			progressMonitor.beginTask("Processing Resource " + affectedResources.size() + " change(s)...",
 					affectedResources.size());
@@ -571,7 +749,13 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 				if (event.getResource().getType() == IResource.PROJECT) {
 					processProject(progressMonitor);
 				} else {
-					processResourceChange(event, progressMonitor);
+					// only lock the stripe of the changed resource
+					locks.lockStripeForWrite(event.getResource());
+					try {
+						processResourceChange(event, progressMonitor);
+					} finally {
+						locks.unlockStripe();
+					}
 				}
 				progressMonitor.worked(1);
 			}
@@ -580,7 +764,7 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 		} finally {
 			this.initializing = false;
 			progressMonitor.done();
-			writeLock.unlock();
+			indexationService.commitBatch();
 			setBuildStatus(Status.OK_STATUS);
 			Logger.debug("Done processing Resource results.");
 		}
@@ -622,14 +806,25 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 */
 	private void processJavaElement(final IJavaElement javaElement, final int deltaKind, 
 			final IProgressMonitor progressMonitor) throws CoreException, JavaModelException {
+		// parse before acquiring the shared state lock, which is then held while
+		// the elements are changed (see processJavaElementChange)
+		final CompilationUnit ast = deltaKind != REMOVED ? JdtUtils.parse(javaElement, progressMonitor) : null;
+		locks.lockSharedState();
+		try {
+			processJavaElement(javaElement, deltaKind, ast, progressMonitor);
+		} finally {
+			locks.unlockSharedState();
+		}
+	}
+
+	private void processJavaElement(final IJavaElement javaElement, final int deltaKind, final CompilationUnit ast,
+			final IProgressMonitor progressMonitor) throws CoreException, JavaModelException {
 		final Set<JaxrsJavaElement<?>> matchingElements = findElements(javaElement);
 		switch (deltaKind) {
 		case ADDED:
-			JaxrsElementFactory.createElements(javaElement, JdtUtils.parse(javaElement, progressMonitor), this,
-					progressMonitor);
+			JaxrsElementFactory.createElements(javaElement, ast, this, progressMonitor);
 			break;
 		case CHANGED:
-			final CompilationUnit ast = JdtUtils.parse(javaElement, progressMonitor);
 			if (matchingElements.isEmpty()) {
 				JaxrsElementFactory.createElements(javaElement, ast, this, progressMonitor);
 			} else {
@@ -668,6 +863,7 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	private void processWebDeploymentDescriptorChange(final ResourceDelta delta)
 			throws CoreException {
 		final long start = System.currentTimeMillis(); 
+		locks.lockSharedState();
 		try {
 			final IResource webxmlResource = delta.getResource();
 			final JaxrsWebxmlApplication webxmlElement = (JaxrsWebxmlApplication) findElement(webxmlResource);
@@ -689,6 +885,7 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 				break;
 			}
 		} finally {
+			locks.unlockSharedState();
 			final long end = System.currentTimeMillis();
 			Logger.tracePerf("Processed web.xml in {}ms", (end - start));
 		}
@@ -707,19 +904,19 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 * @throws CoreException
 	 */
 	public void add(final JaxrsBaseElement element) throws CoreException {
-		final WriteLock writeLock = readWriteLock.writeLock();
-		writeLock.lock();
+		locks.lockSharedState();
 		try {
 			if (element == null || findElementByIdentifier(element) != null) {
 				return;
 			}
 			this.elements.put(element.getIdentifier(), element);
+			this.viewElements = viewElements.put(element.getIdentifier(), element);
 			indexationService.indexElement(element);
 			final JaxrsElementDelta delta = new JaxrsElementDelta(element, ADDED, FlagsUtils.computeElementFlags(element));
 			notifyListeners(delta);
 			processElementChange(delta);
 		} finally {
-			writeLock.unlock();
+			locks.unlockSharedState();
 		}
 	}
 	
@@ -745,12 +942,11 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 */
 	public void processElementChange(final JaxrsElementDelta delta) throws CoreException {
 		final long start = System.currentTimeMillis();
-		final WriteLock writeLock = readWriteLock.writeLock();
-		writeLock.lock();
+		locks.lockSharedState();
 		try {
 			JaxrsElementChangedProcessorDelegate.processEvent(delta);
 		} finally {
-			writeLock.unlock();
+			locks.unlockSharedState();
 			this.initializing = false;
 			final long end = System.currentTimeMillis();
 			Logger.tracePerf("JAX-RS Element change processed in {}ms", (end - start));
@@ -767,14 +963,14 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 */
 	public void update(final JaxrsElementDelta delta) throws CoreException {
 		if (delta.isRelevant()) {
-			final WriteLock writeLock = readWriteLock.writeLock();
-			writeLock.lock();
+			locks.lockSharedState();
 			try {
 				indexationService.reindexElement(delta.getElement());
+				this.viewElementsChanged = true;
 				notifyListeners(delta);
 				processElementChange(delta);
 			} finally {
-				writeLock.unlock();
+				locks.unlockSharedState();
 			}
 		} else {
 			Logger.trace("{} is not relevant. No propagation amongst other elements is happening", delta);
@@ -792,13 +988,14 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 		if (endpoint == null) {
 			return;
 		}
-		final WriteLock writeLock = readWriteLock.writeLock();
-		writeLock.lock();
+		JaxrsMetrics.ENDPOINT_RECOMPUTATIONS.increment();
+		locks.lockSharedState();
 		try {
 			indexationService.reindexElement(endpoint);
+			endpointRouter.put(endpoint);
 			JBossJaxrsCorePlugin.notifyEndpointChanged(endpoint, CHANGED);
 		} finally {
-			writeLock.unlock();
+			locks.unlockSharedState();
 		}
 	}
 
@@ -816,16 +1013,17 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			return;
 		}
 		try {
-			readWriteLock.writeLock().lock();
+			locks.lockSharedState();
 			processElementChange(new JaxrsElementDelta(element, REMOVED, flags));
 			// actual removal and unindexing should be done at the end
 			elements.remove(element.getIdentifier());
+			viewElements = viewElements.remove(element.getIdentifier());
 			indexationService.unindexElement(element);
 			// index the element in the validation cache because we may need it during validation
 			shadowElementsCache.index(element);
 			notifyListeners(new JaxrsElementDelta(element, REMOVED, flags));
 		} finally {
-			readWriteLock.writeLock().unlock();
+			locks.unlockSharedState();
 		}
 	}
 
@@ -842,12 +1040,14 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			return;
 		}
 		try {
-			readWriteLock.writeLock().lock();
+			locks.lockSharedState();
 			endpoints.remove(endpoint.getIdentifier());
+			viewEndpoints = viewEndpoints.remove(endpoint.getIdentifier());
 			indexationService.unindexEndpoint(endpoint);
+			endpointRouter.remove(endpoint);
 			JBossJaxrsCorePlugin.notifyEndpointChanged(endpoint, REMOVED);
 		} finally {
-			readWriteLock.writeLock().unlock();
+			locks.unlockSharedState();
 		}
 	}
 
@@ -870,7 +1070,7 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			return Collections.emptyList();
 		}
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(getStripeScope(element));
 			final List<IJaxrsElement> result = new ArrayList<IJaxrsElement>();
 			final Term javaElementTerm = new Term(FIELD_JAVA_ELEMENT, Boolean.TRUE.toString());
 			switch (element.getElementType()) {
@@ -899,11 +1099,25 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			}
 			return result;
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 
 	}
 
+	/**
+	 * @param javaElement
+	 *            the java element to search for
+	 * @return the scope of the lock stripe to acquire before searching for the
+	 *         given {@link IJavaElement}, or {@code null} if the search covers
+	 *         the whole project.
+	 */
+	private static IJavaElement getStripeScope(final IJavaElement javaElement) {
+		if (javaElement.getElementType() == IJavaElement.JAVA_PROJECT) {
+			return null;
+		}
+		return javaElement;
+	}
+
 	/**
 	 * Retrieves the JAX-RS Elements whose identifier matches the given temrs.
 	 * 
@@ -914,10 +1128,10 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 */
 	private <T extends IJaxrsElement> Set<T> searchJaxrsElements(final Term... terms) {
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			return indexationService.searchElements(terms);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
@@ -936,7 +1150,7 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	@SuppressWarnings("unchecked")
 	private <T extends IJaxrsStatus> T searchJaxrsElement(Term... terms) {
 		final String matchingIdentifier = indexationService.searchElement(terms);
-		final T element = (T) this.elements.get(matchingIdentifier);
+		final T element = (T) getElement(matchingIdentifier);
 		if (element == null) {
 			Logger.traceIndexing("No element matching terms", (Object[]) terms);
 		}
@@ -953,6 +1167,72 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 		return new ArrayList<IJaxrsElement>(elements.values());
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @return the last published view, without acquiring any lock
+	 * @see JaxrsMetamodel#publishView()
+	 */
+	@Override
+	public IJaxrsMetamodelView getView() {
+		return view;
+	}
+
+	/**
+	 * Publishes a new {@link IJaxrsMetamodelView} with the current elements and
+	 * endpoints, unless they did not change since the last published view.
+	 * Called at the end of each build. Listeners are notified with a
+	 * {@code CHANGED} metamodel delta once the new view is published, so that
+	 * readers refresh against the new view rather than against the previous
+	 * one.
+	 */
+	public void publishView() {
+		final long start = System.nanoTime();
+		locks.lockSharedState();
+		try {
+			final JaxrsMetamodelView previousView = this.view;
+			if (previousView.getElements() == viewElements && previousView.getEndpoints() == viewEndpoints
+					&& previousView.isInitializing() == initializing && !viewElementsChanged) {
+				return;
+			}
+			this.viewElementsChanged = false;
+			final JaxrsMetamodelView nextView = new JaxrsMetamodelView(this, previousView.getVersion() + 1,
+					initializing, viewElements, viewEndpoints);
+			this.view = nextView;
+			// delivered once the shared state lock is released
+			JBossJaxrsCorePlugin.notifyMetamodelChanged(this, CHANGED);
+			final int retainedNodes = viewElements.countNodesNotSharedWith(previousView.getElements())
+					+ viewEndpoints.countNodesNotSharedWith(previousView.getEndpoints());
+			JaxrsMetrics.VIEW_VERSIONS.increment();
+			JaxrsMetrics.VIEW_RETAINED_NODES.add(retainedNodes);
+			JaxrsMetrics.VIEW_PUBLICATION_DURATION.recordSince(start);
+			Logger.tracePerf("Published {} ({} new nodes) in {}ms", nextView, retainedNodes,
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		} finally {
+			locks.unlockSharedState();
+		}
+	}
+
+	/**
+	 * Prevents any change of this metamodel until
+	 * {@link JaxrsMetamodel#endConsistentRead()} is called, waiting for the
+	 * changes in progress to complete. Meanwhile, the elements and endpoints
+	 * can be searched and read from any thread (eg: by the parallel
+	 * validators) without seeing a change in progress.
+	 */
+	public void beginConsistentRead() {
+		locks.lockChanges();
+	}
+
+	/**
+	 * Allows the changes of this metamodel again.
+	 * 
+	 * @see JaxrsMetamodel#beginConsistentRead()
+	 */
+	public void endConsistentRead() {
+		locks.unlockChanges();
+	}
+
 	/**
 	 * @param elementType the element type to match
 	 * @return a collection of {@link IJavaElement} having the 
@@ -987,6 +1267,9 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 * @return the matching element or {@code null} if none matched.
 	 */
 	public IJaxrsElement getElement(final String identifier) {
+		if (identifier == null) {
+			return null;
+		}
 		return this.elements.get(identifier);
 	}
 
@@ -1004,11 +1287,11 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			return Collections.emptySet();
 		}
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(resource);
 			final Term resourcePathTerm = new Term(FIELD_RESOURCE_PATH, resource.getFullPath().toPortableString());
 			return searchJaxrsElements(resourcePathTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
@@ -1021,7 +1304,12 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 * @return
 	 */
 	public Set<EnumElementKind> getShadowElementKinds(final IResource changedResource) {
-		return shadowElementsCache.lookup(changedResource);
+		locks.lockSharedState();
+		try {
+			return shadowElementsCache.lookup(changedResource);
+		} finally {
+			locks.unlockSharedState();
+		}
 	}
 	
 	/**
@@ -1029,7 +1317,12 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 * @param changedResource the resource to remove
 	 */
 	public void removeShadowedElement(final IFile changedResource) {
-		shadowElementsCache.unindex(changedResource);
+		locks.lockSharedState();
+		try {
+			shadowElementsCache.unindex(changedResource);
+		} finally {
+			locks.unlockSharedState();
+		}
 	}
 
 	/**
@@ -1037,7 +1330,20 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 * @param changedElement the {@link IJaxrsElement} to add
 	 */
 	public void addShadowedElement(final IJaxrsElement changedElement) {
-		shadowElementsCache.index(changedElement);
+		locks.lockSharedState();
+		try {
+			shadowElementsCache.index(changedElement);
+		} finally {
+			locks.unlockSharedState();
+		}
+	}
+
+	/**
+	 * @return the {@link JaxrsValidationDependencies} in which the validation
+	 *         records which resources depend on which others.
+	 */
+	public JaxrsValidationDependencies getValidationDependencies() {
+		return validationDependencies;
 	}
 
 	/**
@@ -1069,7 +1375,7 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			return Collections.emptySet();
 		}
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(getStripeScope(javaElement));
 			final String identifier = javaElement.getHandleIdentifier();
 			switch (javaElement.getElementType()) {
 			case IJavaElement.JAVA_PROJECT:
@@ -1082,7 +1388,7 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 				return searchJaxrsElements(LuceneDocumentFactory.getIdentifierTerm(javaElement));
 			}
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 	
@@ -1101,10 +1407,10 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			return null;
 		}
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(resource);
 			return searchJaxrsElement(LuceneDocumentFactory.getResourcePathTerm(resource));
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 	
@@ -1125,10 +1431,10 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			return null;
 		}
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(getStripeScope(javaElement));
 			return searchJaxrsElement(LuceneDocumentFactory.getIdentifierTerm(javaElement));
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
@@ -1139,10 +1445,10 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 */
 	public IJaxrsElement findElement(final String className, final EnumElementCategory expectedCategory) {
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			return searchJaxrsElement(LuceneDocumentFactory.getJavaClassNameTerm(className), LuceneDocumentFactory.getElementCategoryTerm(expectedCategory));
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
@@ -1157,10 +1463,10 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			return false;
 		}
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			return this.elements.containsKey(element.getIdentifier());
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
@@ -1170,11 +1476,11 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 */
 	public final Set<IJaxrsApplication> findAllApplications() {
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.APPLICATION.toString());
 			return searchJaxrsElements(categoryTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 	/**
@@ -1189,13 +1495,13 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			return Collections.emptySet();
 		}
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term projectTerm = new Term(FIELD_JAVA_PROJECT_IDENTIFIER, getJavaProject().getHandleIdentifier());
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.APPLICATION.toString());
 			final Term typeTerm = new Term(FIELD_ANNOTATION_NAME, annotationClassName);
 			return searchJaxrsElements(projectTerm, categoryTerm, typeTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 	
@@ -1213,7 +1519,7 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 */
 	public final IJaxrsApplication findApplication() {
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			// try to return pure web.xml first
 			final JaxrsWebxmlApplication webxmlApplication = findWebxmlApplication();
 			if (webxmlApplication != null && webxmlApplication.exists()) {
@@ -1228,7 +1534,7 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			}
 			return null;
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
@@ -1243,12 +1549,12 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 */
 	public final Set<JaxrsJavaApplication> findJavaApplications() {
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.APPLICATION.toString());
 			final Term kindTerm = new Term(FIELD_JAVA_APPLICATION, Boolean.TRUE.toString());
 			return searchJaxrsElements(categoryTerm, kindTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
@@ -1261,14 +1567,14 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			return null;
 		}
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term classNameTerm = new Term(FIELD_JAVA_CLASS_NAME, typeName);
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.APPLICATION.toString());
 			final Term kindTerm = new Term(FIELD_JAVA_APPLICATION, Boolean.TRUE.toString());
 			final String matchingIdentifier = indexationService.searchElement(classNameTerm, categoryTerm, kindTerm);
-			return (JaxrsJavaApplication) elements.get(matchingIdentifier);
+			return (JaxrsJavaApplication) getElement(matchingIdentifier);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
@@ -1278,12 +1584,12 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 */
 	public final Set<JaxrsWebxmlApplication> findWebxmlApplications() {
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.APPLICATION.toString());
 			final Term kindTerm = new Term(FIELD_WEBXML_APPLICATION, Boolean.TRUE.toString());
 			return searchJaxrsElements(categoryTerm, kindTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
@@ -1297,13 +1603,13 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 */
 	public final JaxrsWebxmlApplication findWebxmlApplication() {
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.APPLICATION.toString());
 			final Term kindTerm = new Term(FIELD_WEBXML_APPLICATION, Boolean.TRUE.toString());
 			final String elementIdentifier = indexationService.searchElement(categoryTerm, kindTerm);
-			return (JaxrsWebxmlApplication) elements.get(elementIdentifier);
+			return (JaxrsWebxmlApplication) getElement(elementIdentifier);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
@@ -1316,14 +1622,14 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			return null;
 		}
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term classNameTerm = new Term(FIELD_JAVA_CLASS_NAME, className);
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.APPLICATION.toString());
 			final Term kindTerm = new Term(FIELD_WEBXML_APPLICATION, Boolean.TRUE.toString());
 			final String matchingIdentifier = indexationService.searchElement(classNameTerm, categoryTerm, kindTerm);
-			return (JaxrsWebxmlApplication) elements.get(matchingIdentifier);
+			return (JaxrsWebxmlApplication) getElement(matchingIdentifier);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
@@ -1332,11 +1638,11 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 */
 	public final Set<IJaxrsHttpMethod> findAllHttpMethods() {
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.HTTP_METHOD.toString());
 			return searchJaxrsElements(categoryTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 	
@@ -1358,11 +1664,11 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 */
 	public final Set<IJaxrsNameBinding> findAllNameBindings() {
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.NAME_BINDING.toString());
 			return searchJaxrsElements(categoryTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
@@ -1377,12 +1683,12 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 */
 	public IJaxrsNameBinding findNameBinding(final String className) {
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term classNameTerm = new Term(FIELD_JAVA_CLASS_NAME, className);
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.NAME_BINDING.toString());
 			return searchJaxrsElement(classNameTerm, categoryTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 	
@@ -1398,12 +1704,12 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 */
 	public JaxrsParameterAggregator findParameterAggregator(final String className) {
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term classNameTerm = new Term(FIELD_JAVA_CLASS_NAME, className);
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.PARAMETER_AGGREGATOR.toString());
 			return searchJaxrsElement(classNameTerm, categoryTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
@@ -1423,12 +1729,12 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			return null;
 		}
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.HTTP_METHOD.toString());
 			final Term typeTerm = new Term(FIELD_JAVA_CLASS_NAME, className);
 			return searchJaxrsElement(categoryTerm, typeTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
@@ -1461,13 +1767,13 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			return null;
 		}
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term projectTerm = new Term(FIELD_JAVA_PROJECT_IDENTIFIER, getJavaProject().getHandleIdentifier());
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.PROVIDER.toString());
 			final Term typeTerm = new Term(FIELD_JAVA_CLASS_NAME, providerName);
 			return searchJaxrsElement(projectTerm, categoryTerm, typeTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 	
@@ -1483,13 +1789,13 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			return Collections.emptySet();
 		}
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term projectTerm = new Term(FIELD_JAVA_PROJECT_IDENTIFIER, getJavaProject().getHandleIdentifier());
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.PROVIDER.toString());
 			final Term typeTerm = new Term(FIELD_ANNOTATION_NAME, annotationClassName);
 			return searchJaxrsElements(projectTerm, categoryTerm, typeTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
@@ -1505,12 +1811,12 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			return Collections.emptySet();
 		}
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term projectTerm = new Term(FIELD_JAVA_PROJECT_IDENTIFIER, getJavaProject().getHandleIdentifier());
 			final Term typeTerm = new Term(FIELD_ANNOTATION_NAME, annotationClassName);
 			return searchJaxrsElements(projectTerm, typeTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
@@ -1536,13 +1842,13 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			return Collections.emptySet();
 		}
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term projectTerm = new Term(FIELD_JAVA_PROJECT_IDENTIFIER, getJavaProject().getHandleIdentifier());
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.PROVIDER.toString());
 			final Term providerKindTerm = new Term(FIELD_PROVIDER_KIND + providerKind.toString(), providedClassName);
 			return searchJaxrsElements(projectTerm, categoryTerm, providerKindTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
@@ -1553,12 +1859,12 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 */
 	public Set<IJaxrsProvider> findAllProviders() {
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term projectTerm = new Term(FIELD_JAVA_PROJECT_IDENTIFIER, getJavaProject().getHandleIdentifier());
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.PROVIDER.toString());
 			return searchJaxrsElements(projectTerm, categoryTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 	
@@ -1569,12 +1875,12 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 */
 	public Set<IJaxrsParamConverterProvider> findAllParamConverterProviders() {
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term projectTerm = new Term(FIELD_JAVA_PROJECT_IDENTIFIER, getJavaProject().getHandleIdentifier());
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.PARAM_CONVERTER_PROVIDER.toString());
 			return searchJaxrsElements(projectTerm, categoryTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
@@ -1590,16 +1896,82 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			return null;
 		}
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term projectTerm = new Term(FIELD_JAVA_PROJECT_IDENTIFIER, getJavaProject().getHandleIdentifier());
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.RESOURCE.toString());
 			final Term typeTerm = new Term(FIELD_JAVA_CLASS_NAME, resourceType.getFullyQualifiedName());
 			return searchJaxrsElement(projectTerm, categoryTerm, typeTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
+	/**
+	 * Returns the {@link IType}s among the given {@code otherTypes} that
+	 * reference the given {@code sourceType} or that are referenced by it,
+	 * excluding the given {@code sourceType} itself. The references are
+	 * looked-up in the {@link TypeReferenceGraph} of this metamodel, which is
+	 * completed on the fly with the compilation units that were not parsed
+	 * yet (eg: after the metamodel was restored from its snapshot). Binary
+	 * types are never parsed, since they cannot reference the source types of
+	 * the project.
+	 * 
+	 * @param sourceType
+	 *            the type whose related types are searched
+	 * @param otherTypes
+	 *            the other types that may be related to the given
+	 *            {@code sourceType}
+	 * @param progressMonitor
+	 *            the progress monitor
+	 * @return the related types
+	 * @throws CoreException
+	 */
+	public Set<IType> findRelatedTypes(final IType sourceType, final List<IType> otherTypes,
+			final IProgressMonitor progressMonitor) throws CoreException {
+		if (sourceType == null || otherTypes == null || otherTypes.isEmpty()) {
+			return Collections.emptySet();
+		}
+		recordTypeReferences(sourceType, progressMonitor);
+		for (IType otherType : otherTypes) {
+			recordTypeReferences(otherType, progressMonitor);
+		}
+		final Set<String> relatedTypeNames = typeReferences.getRelatedTypes(sourceType.getFullyQualifiedName('.'));
+		final Set<IType> relatedTypes = new HashSet<IType>();
+		for (IType otherType : otherTypes) {
+			if (!otherType.equals(sourceType) && relatedTypeNames.contains(otherType.getFullyQualifiedName('.'))) {
+				relatedTypes.add(otherType);
+			}
+		}
+		return relatedTypes;
+	}
+
+	/**
+	 * Records the type references of the compilation unit of the given type in
+	 * the {@link TypeReferenceGraph}, unless they are already known.
+	 * 
+	 * @param type
+	 *            the type
+	 * @param progressMonitor
+	 *            the progress monitor
+	 * @throws JavaModelException
+	 */
+	private void recordTypeReferences(final IType type, final IProgressMonitor progressMonitor)
+			throws JavaModelException {
+		if (type.isBinary() || type.getCompilationUnit() == null
+				|| typeReferences.isKnown(type.getFullyQualifiedName('.'))) {
+			return;
+		}
+		typeReferences.update(JdtUtils.parse(type.getCompilationUnit(), progressMonitor));
+	}
+
+	/**
+	 * @return the graph of the references between the source types of the
+	 *         project
+	 */
+	public TypeReferenceGraph getTypeReferences() {
+		return typeReferences;
+	}
+
 	/**
 	 * Search for a JAX-RS Resource Methods matching the given Returned SourceType.
 	 * 
@@ -1612,13 +1984,13 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			return Collections.emptySet();
 		}
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term projectTerm = new Term(FIELD_JAVA_PROJECT_IDENTIFIER, getJavaProject().getHandleIdentifier());
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.RESOURCE_METHOD.toString());
 			final Term typeTerm = new Term(FIELD_RETURNED_TYPE_NAME, returnedType.getFullyQualifiedName());
 			return searchJaxrsElements(projectTerm, categoryTerm, typeTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 	
@@ -1634,13 +2006,13 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			return Collections.emptySet();
 		}
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term projectTerm = new Term(FIELD_JAVA_PROJECT_IDENTIFIER, getJavaProject().getHandleIdentifier());
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.RESOURCE_METHOD.toString());
 			final Term typeTerm = new Term(FIELD_ANNOTATION_NAME, annotationClassName);
 			return searchJaxrsElements(projectTerm, categoryTerm, typeTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
@@ -1656,13 +2028,13 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			return Collections.emptySet();
 		}
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term projectTerm = new Term(FIELD_JAVA_PROJECT_IDENTIFIER, getJavaProject().getHandleIdentifier());
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.RESOURCE.toString());
 			final Term typeTerm = new Term(FIELD_ANNOTATION_NAME, annotationClassName);
 			return searchJaxrsElements(projectTerm, categoryTerm, typeTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
@@ -1680,13 +2052,13 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			return Collections.emptySet();
 		}
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term projectTerm = new Term(FIELD_JAVA_PROJECT_IDENTIFIER, getJavaProject().getHandleIdentifier());
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.ENDPOINT.toString());
 			final Term jaxrsElementTerm = new Term(FIELD_JAXRS_ELEMENT, element.getIdentifier());
 			return searchJaxrsEndpoints(projectTerm, categoryTerm, jaxrsElementTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
@@ -1704,13 +2076,13 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			return Collections.emptySet();
 		}
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(getStripeScope(element));
 			final Term projectTerm = new Term(FIELD_JAVA_PROJECT_IDENTIFIER, getJavaProject().getHandleIdentifier());
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.ENDPOINT.toString());
 			final Term javaElementTerm = new Term(FIELD_JAVA_ELEMENT, element.getHandleIdentifier());
 			return searchJaxrsEndpoints(projectTerm, categoryTerm, javaElementTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
@@ -1721,27 +2093,29 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 */
 	public final Set<IJaxrsResource> findAllResources() {
 		try {
-			readWriteLock.readLock().lock();
+			locks.lockStripeForRead(null);
 			final Term categoryTerm = new Term(FIELD_TYPE, EnumElementCategory.RESOURCE.toString());
 			return searchJaxrsElements(categoryTerm);
 		} finally {
-			readWriteLock.readLock().unlock();
+			locks.unlockStripe();
 		}
 	}
 
 	public boolean add(JaxrsEndpoint endpoint) {
 		try {
-			readWriteLock.writeLock().lock();
+			locks.lockSharedState();
 			// skip
 			if (endpoint == null || this.endpoints.containsValue(endpoint)) {
 				return false;
 			}
 			this.endpoints.put(endpoint.getIdentifier(), endpoint);
+			this.viewEndpoints = viewEndpoints.put(endpoint.getIdentifier(), endpoint);
 			indexationService.indexElement(endpoint);
+			endpointRouter.put(endpoint);
 			JBossJaxrsCorePlugin.notifyEndpointChanged(endpoint, ADDED);
 			return true;
 		} finally {
-			readWriteLock.writeLock().unlock();
+			locks.unlockSharedState();
 		}
 	}
 
@@ -1750,6 +2124,17 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 		return new ArrayList<IJaxrsEndpoint>(this.endpoints.values());
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The lookup does not acquire any metamodel lock.
+	 */
+	@Override
+	public IJaxrsEndpoint findEndpoint(final String httpMethod, final String path, final String contentType,
+			final String accept) {
+		return endpointRouter.findEndpoint(httpMethod, path, contentType, accept);
+	}
+
 	/**
 	 * Returns the endpoint identified by the given identifier.
 	 * 
@@ -1758,6 +2143,9 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 * @return the endpoint or {@code null} if none exists.
 	 */
 	public JaxrsEndpoint getEndpoint(String identifier) {
+		if (identifier == null) {
+			return null;
+		}
 		return this.endpoints.get(identifier);
 	}
 
@@ -1771,13 +2159,13 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 */
 	public void removeEndpoints(final IJaxrsElement removedElement) {
 		try {
-			readWriteLock.writeLock().lock();
+			locks.lockSharedState();
 			final Set<JaxrsEndpoint> elementEndpoints = findEndpoints(removedElement);
 			for (JaxrsEndpoint endpoint : elementEndpoints) {
 				endpoint.remove();
 			}
 		} finally {
-			readWriteLock.writeLock().unlock();
+			locks.unlockSharedState();
 		}
 	}
 
@@ -0,0 +1,629 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain;
+
+import static org.eclipse.jdt.core.IJavaElementDelta.ADDED;
+import static org.eclipse.jdt.core.IJavaElementDelta.CHANGED;
+import static org.eclipse.jdt.core.IJavaElementDelta.REMOVED;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsElementChangedListener;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsEndpoint;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsMetamodelChangedListener;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.JaxrsElementDelta;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.JaxrsEndpointDelta;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.JaxrsMetamodelDelta;
+import org.jboss.tools.ws.jaxrs.core.metrics.JaxrsMetrics;
+
+/**
+ * Delivers the notifications of changes in the JAX-RS Metamodels to the
+ * registered listeners, outside of the metamodel locks.
+ * <p>
+ * Notifications posted while the current thread holds a metamodel lock are
+ * queued in a batch that is bound to the current thread, and they are only
+ * delivered when the outermost lock is released (see
+ * {@link JaxrsMetamodelLocks}), so that slow listeners never lengthen the
+ * critical sections of the metamodel. Within a batch, the successive
+ * {@link JaxrsEndpointDelta}s on the same endpoint are merged into a single
+ * one, and the problem level changes of the same endpoint are only notified
+ * once.
+ * </p>
+ * <p>
+ * The {@link IJaxrsElementChangedListener}s are notified in the thread that
+ * committed the batch, since they take part in the build. Each
+ * {@link IJaxrsMetamodelChangedListener} is notified in its own delivery
+ * thread, which takes the notifications from a bounded queue: a slow listener
+ * only delays its own notifications, and it slows down the metamodel changes
+ * only when its queue is full.
+ * </p>
+ * 
+ * @author xcoulon
+ * 
+ */
+public final class JaxrsMetamodelEventBus {
+
+	/** The maximum number of pending notifications per listener. */
+	static final int QUEUE_CAPACITY = 1024;
+
+	/** Interval at which a producer waiting for room in a full queue checks that the listener is still registered. */
+	private static final long ENQUEUE_POLL_INTERVAL_MILLIS = 100;
+
+	/** The singleton instance. */
+	private static final JaxrsMetamodelEventBus instance = new JaxrsMetamodelEventBus();
+
+	/** Counter used to name the delivery threads. */
+	private static final AtomicInteger threadNumber = new AtomicInteger(1);
+
+	/** The delivery threads of the registered listeners. */
+	private final Map<IJaxrsMetamodelChangedListener, ListenerDispatcher> dispatchers = new ConcurrentHashMap<IJaxrsMetamodelChangedListener, ListenerDispatcher>();
+
+	/** The batch of notifications of the current thread. */
+	private final ThreadLocal<Batch> batch = new ThreadLocal<Batch>() {
+		@Override
+		protected Batch initialValue() {
+			return new Batch();
+		}
+	};
+
+	/**
+	 * Package-private constructor: the singleton instance is returned by
+	 * {@link JaxrsMetamodelEventBus#getInstance()}.
+	 */
+	JaxrsMetamodelEventBus() {
+		super();
+	}
+
+	/**
+	 * @return the singleton instance
+	 */
+	public static JaxrsMetamodelEventBus getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Registers the given listener, along with its delivery thread. Does
+	 * nothing if the listener was already registered.
+	 * 
+	 * @param listener
+	 *            the listener to register
+	 */
+	public synchronized void addListener(final IJaxrsMetamodelChangedListener listener) {
+		if (!dispatchers.containsKey(listener)) {
+			Logger.debug("Registering JaxrsMetamodelChangedListener");
+			final ListenerDispatcher dispatcher = new ListenerDispatcher(listener);
+			dispatchers.put(listener, dispatcher);
+			dispatcher.start();
+		}
+	}
+
+	/**
+	 * Unregisters the given listener and stops its delivery thread. Pending
+	 * notifications are discarded.
+	 * 
+	 * @param listener
+	 *            the listener to unregister
+	 */
+	public synchronized void removeListener(final IJaxrsMetamodelChangedListener listener) {
+		final ListenerDispatcher dispatcher = dispatchers.remove(listener);
+		if (dispatcher != null) {
+			dispatcher.stop();
+		}
+	}
+
+	/**
+	 * Unregisters all the listeners and stops their delivery threads.
+	 */
+	public synchronized void removeAllListeners() {
+		for (ListenerDispatcher dispatcher : dispatchers.values()) {
+			dispatcher.stop();
+		}
+		dispatchers.clear();
+	}
+
+	/**
+	 * Starts a batch of notifications, which ends with the matching call to
+	 * {@link JaxrsMetamodelEventBus#commitBatch()}. Batches can be nested, and
+	 * are bound to the current thread. Besides the metamodel locks, the build
+	 * jobs open a batch for their whole run, so that the notifications are
+	 * only delivered once the new view of the metamodel is published.
+	 */
+	public void beginBatch() {
+		batch.get().depth++;
+	}
+
+	/**
+	 * Ends the current batch of notifications, and delivers them if this was
+	 * the outermost batch.
+	 */
+	public void commitBatch() {
+		final Batch currentBatch = batch.get();
+		if (currentBatch.depth == 0) {
+			Logger.warn("Attempting to commit a notification batch that was not started");
+			return;
+		}
+		currentBatch.depth--;
+		if (currentBatch.depth == 0) {
+			// listeners may post other notifications, which go in a new batch
+			batch.remove();
+			deliver(currentBatch);
+		}
+	}
+
+	/**
+	 * Notifies the given listeners that a JAX-RS Element changed.
+	 * 
+	 * @param delta
+	 *            the element delta
+	 * @param listeners
+	 *            the listeners to notify
+	 */
+	public void post(final JaxrsElementDelta delta, final Iterable<IJaxrsElementChangedListener> listeners) {
+		final List<IJaxrsElementChangedListener> recipients = new ArrayList<IJaxrsElementChangedListener>();
+		for (IJaxrsElementChangedListener listener : listeners) {
+			recipients.add(listener);
+		}
+		if (recipients.isEmpty()) {
+			return;
+		}
+		final Batch currentBatch = batch.get();
+		currentBatch.elementNotifications.add(new ElementNotification(delta, recipients));
+		commitIfNotInBatch(currentBatch);
+	}
+
+	/**
+	 * Notifies the registered listeners that a JAX-RS Endpoint was
+	 * added/changed/removed.
+	 * 
+	 * @param endpoint
+	 *            the endpoint that was added/changed/removed
+	 * @param deltaKind
+	 *            the kind of change
+	 */
+	public void postEndpointChanged(final IJaxrsEndpoint endpoint, final int deltaKind) {
+		if (dispatchers.isEmpty()) {
+			Logger.trace(" No Listener to notify about endpoint changed (type={}): {}", deltaKind, endpoint);
+			return;
+		}
+		final Batch currentBatch = batch.get();
+		final EndpointChanged previous = currentBatch.endpointChanges.get(endpoint);
+		if (previous == null || !previous.merge(deltaKind)) {
+			final EndpointChanged notification = new EndpointChanged(endpoint, deltaKind);
+			currentBatch.endpointChanges.put(endpoint, notification);
+			currentBatch.notifications.add(notification);
+		} else {
+			JaxrsMetrics.ENDPOINT_NOTIFICATIONS_MERGED.increment();
+		}
+		commitIfNotInBatch(currentBatch);
+	}
+
+	/**
+	 * Notifies the registered listeners that the problem level of the given
+	 * {@link IJaxrsEndpoint} changed.
+	 * 
+	 * @param endpoint
+	 *            the endpoint whose problem level changed
+	 */
+	public void postEndpointProblemLevelChanged(final IJaxrsEndpoint endpoint) {
+		if (dispatchers.isEmpty()) {
+			return;
+		}
+		final Batch currentBatch = batch.get();
+		if (!currentBatch.endpointProblemLevelChanges.containsKey(endpoint)) {
+			currentBatch.endpointProblemLevelChanges.put(endpoint, Boolean.TRUE);
+			currentBatch.notifications.add(new EndpointProblemLevelChanged(endpoint));
+		}
+		commitIfNotInBatch(currentBatch);
+	}
+
+	/**
+	 * Notifies the registered listeners that the given metamodel was
+	 * added/removed.
+	 * 
+	 * @param metamodel
+	 *            the metamodel
+	 * @param deltaKind
+	 *            the kind of change
+	 */
+	public void postMetamodelChanged(final IJaxrsMetamodel metamodel, final int deltaKind) {
+		if (dispatchers.isEmpty()) {
+			Logger.debug("No metamodelChangedListener to notify of the metamodel changed :(");
+			return;
+		}
+		final Batch currentBatch = batch.get();
+		currentBatch.notifications.add(new MetamodelChanged(new JaxrsMetamodelDelta(metamodel, deltaKind)));
+		commitIfNotInBatch(currentBatch);
+	}
+
+	/**
+	 * Notifies the registered listeners that the problem level of the given
+	 * metamodel changed.
+	 * 
+	 * @param metamodel
+	 *            the metamodel
+	 */
+	public void postMetamodelProblemLevelChanged(final IJaxrsMetamodel metamodel) {
+		if (dispatchers.isEmpty()) {
+			Logger.debug("No metamodelChangedListeners to notify that the metamodel problem level changed :(");
+			return;
+		}
+		final Batch currentBatch = batch.get();
+		currentBatch.notifications.add(new MetamodelProblemLevelChanged(metamodel));
+		commitIfNotInBatch(currentBatch);
+	}
+
+	/**
+	 * Waits until all the notifications queued so far have been delivered to
+	 * the registered listeners.
+	 * 
+	 * @param timeout
+	 *            the maximum time to wait
+	 * @param unit
+	 *            the unit of the timeout
+	 * @return {@code true} if all notifications were delivered, {@code false}
+	 *         if the timeout elapsed before
+	 * @throws InterruptedException
+	 *             if the current thread was interrupted while waiting
+	 */
+	public boolean awaitDelivery(final long timeout, final TimeUnit unit) throws InterruptedException {
+		final long deadline = System.nanoTime() + unit.toNanos(timeout);
+		for (ListenerDispatcher dispatcher : dispatchers.values()) {
+			if (!dispatcher.awaitIdle(deadline)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Delivers the given notification immediately if the current thread is not
+	 * in a batch.
+	 */
+	private void commitIfNotInBatch(final Batch currentBatch) {
+		if (currentBatch.depth == 0) {
+			batch.remove();
+			deliver(currentBatch);
+		}
+	}
+
+	private void deliver(final Batch completedBatch) {
+		for (ElementNotification elementNotification : completedBatch.elementNotifications) {
+			elementNotification.deliver();
+		}
+		if (completedBatch.notifications.isEmpty()) {
+			return;
+		}
+		final List<Notification> notifications = new ArrayList<Notification>(completedBatch.notifications.size());
+		for (Notification notification : completedBatch.notifications) {
+			if (!notification.isCancelled()) {
+				notifications.add(notification);
+			}
+		}
+		for (ListenerDispatcher dispatcher : dispatchers.values()) {
+			dispatcher.enqueue(notifications);
+		}
+	}
+
+	/**
+	 * The notifications posted by a thread while it holds a metamodel lock.
+	 */
+	private static class Batch {
+		/** the nesting depth of the batch. */
+		int depth;
+		/** the notifications for the element listeners, in posting order. */
+		final List<ElementNotification> elementNotifications = new ArrayList<ElementNotification>();
+		/** the notifications for the metamodel listeners, in posting order. */
+		final List<Notification> notifications = new ArrayList<Notification>();
+		/** the last endpoint change of each endpoint, to merge the successive changes. */
+		final Map<IJaxrsEndpoint, EndpointChanged> endpointChanges = new IdentityHashMap<IJaxrsEndpoint, EndpointChanged>();
+		/** the endpoints whose problem level change was already notified. */
+		final Map<IJaxrsEndpoint, Boolean> endpointProblemLevelChanges = new IdentityHashMap<IJaxrsEndpoint, Boolean>();
+	}
+
+	/**
+	 * A {@link JaxrsElementDelta} and the element listeners to notify.
+	 */
+	private static class ElementNotification {
+
+		private final JaxrsElementDelta delta;
+
+		private final List<IJaxrsElementChangedListener> listeners;
+
+		ElementNotification(final JaxrsElementDelta delta, final List<IJaxrsElementChangedListener> listeners) {
+			this.delta = delta;
+			this.listeners = listeners;
+		}
+
+		void deliver() {
+			Logger.debug("Notify elementChangedListeners after {}", delta);
+			for (IJaxrsElementChangedListener listener : listeners) {
+				try {
+					listener.notifyElementChanged(delta);
+				} catch (RuntimeException e) {
+					Logger.error("Failed to notify listener after " + delta, e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A notification for the {@link IJaxrsMetamodelChangedListener}s.
+	 */
+	private static abstract class Notification {
+
+		/**
+		 * @return {@code true} if this notification was cancelled by a later
+		 *         one in the same batch
+		 */
+		boolean isCancelled() {
+			return false;
+		}
+
+		abstract void deliver(final IJaxrsMetamodelChangedListener listener);
+	}
+
+	/**
+	 * The change of an endpoint, merged with the subsequent changes of the
+	 * same endpoint in the same batch.
+	 */
+	private static class EndpointChanged extends Notification {
+
+		private final IJaxrsEndpoint endpoint;
+
+		private int deltaKind;
+
+		private boolean cancelled = false;
+
+		private JaxrsEndpointDelta delta;
+
+		EndpointChanged(final IJaxrsEndpoint endpoint, final int deltaKind) {
+			this.endpoint = endpoint;
+			this.deltaKind = deltaKind;
+		}
+
+		/**
+		 * Merges the given subsequent change of the same endpoint into this
+		 * notification:
+		 * <ul>
+		 * <li>ADDED then CHANGED: ADDED</li>
+		 * <li>ADDED then REMOVED: nothing to notify</li>
+		 * <li>CHANGED then CHANGED: CHANGED</li>
+		 * <li>CHANGED then REMOVED: REMOVED</li>
+		 * </ul>
+		 * 
+		 * @param nextDeltaKind
+		 *            the kind of the subsequent change
+		 * @return {@code true} if the change was merged, {@code false} if it
+		 *         must be notified separately (eg: after a removal)
+		 */
+		boolean merge(final int nextDeltaKind) {
+			if (cancelled || deltaKind == REMOVED) {
+				return false;
+			}
+			switch (nextDeltaKind) {
+			case CHANGED:
+				return true;
+			case REMOVED:
+				if (deltaKind == ADDED) {
+					cancelled = true;
+				} else {
+					deltaKind = REMOVED;
+				}
+				return true;
+			default:
+				return deltaKind == ADDED;
+			}
+		}
+
+		@Override
+		boolean isCancelled() {
+			return cancelled;
+		}
+
+		@Override
+		void deliver(final IJaxrsMetamodelChangedListener listener) {
+			if (delta == null) {
+				delta = new JaxrsEndpointDelta(endpoint, deltaKind);
+			}
+			listener.notifyEndpointChanged(delta);
+		}
+	}
+
+	private static class EndpointProblemLevelChanged extends Notification {
+
+		private final IJaxrsEndpoint endpoint;
+
+		EndpointProblemLevelChanged(final IJaxrsEndpoint endpoint) {
+			this.endpoint = endpoint;
+		}
+
+		@Override
+		void deliver(final IJaxrsMetamodelChangedListener listener) {
+			listener.notifyEndpointProblemLevelChanged(endpoint);
+		}
+	}
+
+	private static class MetamodelChanged extends Notification {
+
+		private final JaxrsMetamodelDelta delta;
+
+		MetamodelChanged(final JaxrsMetamodelDelta delta) {
+			this.delta = delta;
+		}
+
+		@Override
+		void deliver(final IJaxrsMetamodelChangedListener listener) {
+			listener.notifyMetamodelChanged(delta);
+		}
+	}
+
+	private static class MetamodelProblemLevelChanged extends Notification {
+
+		private final IJaxrsMetamodel metamodel;
+
+		MetamodelProblemLevelChanged(final IJaxrsMetamodel metamodel) {
+			this.metamodel = metamodel;
+		}
+
+		@Override
+		void deliver(final IJaxrsMetamodelChangedListener listener) {
+			listener.notifyMetamodelProblemLevelChanged(metamodel);
+		}
+	}
+
+	/**
+	 * The delivery thread of a single listener, which takes the notifications
+	 * from a bounded queue and delivers them in batches.
+	 */
+	private static class ListenerDispatcher implements Runnable {
+
+		private final IJaxrsMetamodelChangedListener listener;
+
+		private final BlockingQueue<Notification> queue = new ArrayBlockingQueue<Notification>(QUEUE_CAPACITY);
+
+		private final Thread thread;
+
+		/** Number of notifications enqueued but not delivered yet (guarded by this). */
+		private int pending = 0;
+
+		private volatile boolean running = true;
+
+		ListenerDispatcher(final IJaxrsMetamodelChangedListener listener) {
+			this.listener = listener;
+			this.thread = new Thread(this, "JAX-RS Metamodel Notifier #" + threadNumber.getAndIncrement());
+			this.thread.setDaemon(true);
+		}
+
+		void start() {
+			thread.start();
+		}
+
+		void stop() {
+			running = false;
+			thread.interrupt();
+			queue.clear();
+			synchronized (this) {
+				pending = 0;
+				notifyAll();
+			}
+		}
+
+		/**
+		 * Enqueues the given notifications, waiting for some room in the queue
+		 * if necessary. Notifications posted from the delivery thread itself
+		 * (ie, by the listener) are delivered immediately. Notifications are
+		 * discarded once this dispatcher is stopped, so that a producer never
+		 * waits for a listener that was unregistered in the meantime.
+		 */
+		void enqueue(final List<Notification> notifications) {
+			if (Thread.currentThread() == thread) {
+				deliver(notifications);
+				return;
+			}
+			synchronized (this) {
+				pending += notifications.size();
+			}
+			for (int i = 0; i < notifications.size(); i++) {
+				try {
+					while (!queue.offer(notifications.get(i), ENQUEUE_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+						if (!running) {
+							break;
+						}
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					Logger.warn("Interrupted while queuing notifications, " + (notifications.size() - i)
+							+ " notifications were discarded");
+					delivered(notifications.size() - i);
+					return;
+				}
+				if (!running) {
+					// the notifications already queued were cleared when this dispatcher was stopped
+					queue.clear();
+					delivered(notifications.size() - i);
+					return;
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			final List<Notification> notifications = new ArrayList<Notification>();
+			while (running) {
+				try {
+					notifications.add(queue.take());
+				} catch (InterruptedException e) {
+					// stopped
+					return;
+				}
+				queue.drainTo(notifications);
+				try {
+					deliver(notifications);
+				} finally {
+					delivered(notifications.size());
+					notifications.clear();
+				}
+			}
+		}
+
+		private void deliver(final List<Notification> notifications) {
+			for (Notification notification : notifications) {
+				if (!running) {
+					return;
+				}
+				try {
+					notification.deliver(listener);
+				} catch (RuntimeException e) {
+					Logger.error("Failed to notify listener " + listener, e);
+				}
+			}
+		}
+
+		private synchronized void delivered(final int count) {
+			pending = Math.max(0, pending - count);
+			if (pending == 0) {
+				notifyAll();
+			}
+		}
+
+		/**
+		 * Waits until all enqueued notifications have been delivered, or until
+		 * the given deadline.
+		 * 
+		 * @param deadline
+		 *            the deadline, in terms of {@link System#nanoTime()}
+		 * @return {@code true} if all notifications were delivered
+		 * @throws InterruptedException
+		 */
+		synchronized boolean awaitIdle(final long deadline) throws InterruptedException {
+			while (pending > 0) {
+				final long remaining = deadline - System.nanoTime();
+				if (remaining <= 0) {
+					return false;
+				}
+				TimeUnit.NANOSECONDS.timedWait(this, remaining);
+			}
+			return true;
+		}
+	}
+
+}
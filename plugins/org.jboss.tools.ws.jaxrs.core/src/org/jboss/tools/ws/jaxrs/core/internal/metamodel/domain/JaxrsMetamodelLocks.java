@@ -0,0 +1,354 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain;
+
+import java.util.LinkedList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.JavaCore;
+import org.jboss.tools.ws.jaxrs.core.metrics.JaxrsMetrics;
+
+/**
+ * The locks of a {@link JaxrsMetamodel}:
+ * <ul>
+ * <li>a changes lock, whose read lock is held by all the operations that
+ * change the metamodel (ie, along with the global write lock, a stripe write
+ * lock or the shared state lock below), and whose write lock is held during a
+ * consistent read, such as a validation pass: no change can start or be in
+ * progress while the consistent read lasts, but any thread can still search
+ * the metamodel, since the searches only acquire read locks that no writer can
+ * hold or wait for in the meantime,</li>
+ * <li>a global read/write lock. Its write lock is only held by the operations
+ * that affect the whole metamodel (eg: processing the whole project), while all
+ * other operations hold its read lock,</li>
+ * <li>a set of read/write lock stripes, keyed by compilation unit (or by
+ * package fragment root for binary elements, or by resource path for non-Java
+ * resources such as the {@code web.xml}). The processing of a change holds the
+ * write lock of the stripe of the changed element, while the searches related
+ * to a given element hold the read lock of its stripe, so that changes on
+ * unrelated resources do not block each other, nor block unrelated searches,</li>
+ * <li>a lock on the state that is shared by all stripes (elements, endpoints
+ * and index), held while the elements of a compilation unit are created,
+ * updated or removed (including the changes of their annotations, methods and
+ * fields) and while the change is cascaded onto the other elements and the
+ * endpoints, since those elements are also read by the cascades and the
+ * validators of other compilation units. This lock is exclusive: the changes
+ * on unrelated compilation units only proceed in parallel while they are being
+ * scanned and parsed, and all their writes to the metamodel are applied one
+ * after the other. Besides, the build jobs themselves run under the workspace
+ * build rule.</li>
+ * </ul>
+ * Locks are always acquired in that order, and a thread never holds more than
+ * one stripe: a thread that already holds a stripe (or the shared state lock)
+ * does not acquire any other stripe, since it is already protected by the
+ * global read lock and by the shared state lock for its changes.
+ * <p>
+ * Each acquisition opens a batch in the {@link JaxrsMetamodelEventBus}, which
+ * is closed when the lock is released: the notifications posted while the
+ * current thread holds any metamodel lock are delivered once the outermost
+ * lock is released.
+ * </p>
+ * <p>
+ * The hold times of the exclusive locks (global write lock, stripe write locks
+ * and shared state lock) are recorded in the {@link JaxrsMetrics}.
+ * </p>
+ * 
+ * @author xcoulon
+ * 
+ */
+final class JaxrsMetamodelLocks {
+
+	/** Number of lock stripes. Must be a power of 2. */
+	private static final int STRIPES_COUNT = 32;
+
+	/** Interval at which a consistent read polls the changes lock. */
+	private static final long CHANGES_LOCK_POLL_INTERVAL_MILLIS = 10;
+
+	/** The lock shared by all changes, and held exclusively during a consistent read. */
+	private final ReentrantReadWriteLock changesLock = new ReentrantReadWriteLock(true);
+
+	/** The global lock. */
+	private final ReentrantReadWriteLock globalLock = new ReentrantReadWriteLock(true);
+
+	/** The lock stripes. */
+	private final ReentrantReadWriteLock[] stripes = new ReentrantReadWriteLock[STRIPES_COUNT];
+
+	/** The lock on the state that is shared by all stripes. */
+	private final ReentrantLock sharedStateLock = new ReentrantLock();
+
+	/** The bus that delivers the change notifications once the locks are released. */
+	private final JaxrsMetamodelEventBus eventBus = JaxrsMetamodelEventBus.getInstance();
+
+	/** Time at which the global write lock was acquired (guarded by that lock). */
+	private long globalLockStartTime;
+
+	/** Time at which the shared state lock was acquired (guarded by that lock). */
+	private long sharedStateLockStartTime;
+
+	/** Number of consistent reads that the current thread did not lock, since it was changing the metamodel. */
+	private final ThreadLocal<Integer> consistentReadSkipped = new ThreadLocal<Integer>() {
+		@Override
+		protected Integer initialValue() {
+			return 0;
+		}
+	};
+
+	/** The stripe held by the current thread, if any. */
+	private final ThreadLocal<StripeHold> stripeHold = new ThreadLocal<StripeHold>() {
+		@Override
+		protected StripeHold initialValue() {
+			return new StripeHold();
+		}
+	};
+
+	JaxrsMetamodelLocks() {
+		for (int i = 0; i < STRIPES_COUNT; i++) {
+			stripes[i] = new ReentrantReadWriteLock(true);
+		}
+	}
+
+	/**
+	 * Acquires the global write lock, for operations that affect the whole
+	 * metamodel.
+	 */
+	void lockAll() {
+		changesLock.readLock().lock();
+		eventBus.beginBatch();
+		globalLock.writeLock().lock();
+		if (globalLock.getWriteHoldCount() == 1) {
+			globalLockStartTime = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Releases the global write lock.
+	 */
+	void unlockAll() {
+		if (globalLock.getWriteHoldCount() == 1) {
+			JaxrsMetrics.METAMODEL_GLOBAL_LOCK_HOLD.recordSince(globalLockStartTime);
+		}
+		globalLock.writeLock().unlock();
+		eventBus.commitBatch();
+		changesLock.readLock().unlock();
+	}
+
+	/**
+	 * @return {@code true} if the current thread holds the global write lock.
+	 */
+	boolean isLockedAll() {
+		return globalLock.isWriteLockedByCurrentThread();
+	}
+
+	/**
+	 * Acquires the global read lock and the write lock of the stripe of the
+	 * given scope.
+	 * 
+	 * @param scope
+	 *            the {@link IJavaElement} or {@link IResource} that is about to
+	 *            change, or {@code null} to only acquire the global read lock
+	 * @see JaxrsMetamodelLocks#unlockStripe()
+	 */
+	void lockStripeForWrite(final Object scope) {
+		changesLock.readLock().lock();
+		eventBus.beginBatch();
+		globalLock.readLock().lock();
+		acquireStripe(scope, true);
+	}
+
+	/**
+	 * Acquires the global read lock and the read lock of the stripe of the
+	 * given scope.
+	 * 
+	 * @param scope
+	 *            the {@link IJavaElement} or {@link IResource} that is about to
+	 *            be searched, or {@code null} to only acquire the global read
+	 *            lock
+	 * @see JaxrsMetamodelLocks#unlockStripe()
+	 */
+	void lockStripeForRead(final Object scope) {
+		eventBus.beginBatch();
+		globalLock.readLock().lock();
+		acquireStripe(scope, false);
+	}
+
+	/**
+	 * Releases the stripe lock and the global read lock acquired with
+	 * {@link JaxrsMetamodelLocks#lockStripeForRead(Object)} or
+	 * {@link JaxrsMetamodelLocks#lockStripeForWrite(Object)}.
+	 */
+	void unlockStripe() {
+		final StripeHold hold = stripeHold.get();
+		final boolean write = hold.writes.removeLast();
+		hold.count--;
+		if (hold.count == 0) {
+			if (hold.lock != null) {
+				if (hold.write) {
+					JaxrsMetrics.METAMODEL_STRIPE_LOCK_HOLD.recordSince(hold.startTime);
+				}
+				hold.lock.unlock();
+				hold.lock = null;
+			}
+			stripeHold.remove();
+		}
+		globalLock.readLock().unlock();
+		eventBus.commitBatch();
+		if (write) {
+			changesLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Acquires the global read lock and the lock on the state shared by all
+	 * stripes.
+	 */
+	void lockSharedState() {
+		changesLock.readLock().lock();
+		eventBus.beginBatch();
+		globalLock.readLock().lock();
+		sharedStateLock.lock();
+		if (sharedStateLock.getHoldCount() == 1) {
+			sharedStateLockStartTime = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Releases the locks acquired with
+	 * {@link JaxrsMetamodelLocks#lockSharedState()}.
+	 */
+	void unlockSharedState() {
+		if (sharedStateLock.getHoldCount() == 1) {
+			JaxrsMetrics.METAMODEL_SHARED_STATE_LOCK_HOLD.recordSince(sharedStateLockStartTime);
+		}
+		sharedStateLock.unlock();
+		globalLock.readLock().unlock();
+		eventBus.commitBatch();
+		changesLock.readLock().unlock();
+	}
+
+	/**
+	 * Prevents any change of the metamodel until
+	 * {@link JaxrsMetamodelLocks#unlockChanges()} is called, waiting for the
+	 * changes in progress to complete. The metamodel can still be searched
+	 * from any thread in the meantime. Does nothing but counting if the current
+	 * thread is itself changing the metamodel, since it cannot wait for its own
+	 * changes to complete, or if it is interrupted while waiting.
+	 * <p>
+	 * The lock is polled rather than queued for: a queued exclusive waiter would
+	 * block the new readers of the changes lock, including a searching thread
+	 * that holds a stripe needed by one of the changes in progress.
+	 * </p>
+	 */
+	void lockChanges() {
+		if (changesLock.getReadHoldCount() > 0) {
+			consistentReadSkipped.set(consistentReadSkipped.get() + 1);
+			return;
+		}
+		while (!changesLock.writeLock().tryLock()) {
+			try {
+				Thread.sleep(CHANGES_LOCK_POLL_INTERVAL_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				consistentReadSkipped.set(consistentReadSkipped.get() + 1);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Releases the lock acquired with
+	 * {@link JaxrsMetamodelLocks#lockChanges()}.
+	 */
+	void unlockChanges() {
+		final int skipped = consistentReadSkipped.get();
+		if (skipped > 0) {
+			consistentReadSkipped.set(skipped - 1);
+			return;
+		}
+		changesLock.writeLock().unlock();
+	}
+
+	private void acquireStripe(final Object scope, final boolean write) {
+		final StripeHold hold = stripeHold.get();
+		if (hold.count == 0 && scope != null && !globalLock.isWriteLockedByCurrentThread()
+				&& !sharedStateLock.isHeldByCurrentThread()) {
+			final ReentrantReadWriteLock stripe = stripes[getStripeIndex(scope)];
+			final Lock lock = write ? stripe.writeLock() : stripe.readLock();
+			lock.lock();
+			hold.lock = lock;
+			hold.write = write;
+			hold.startTime = System.nanoTime();
+		}
+		hold.count++;
+		hold.writes.add(write);
+	}
+
+	/**
+	 * @return the index of the stripe for the given scope
+	 */
+	static int getStripeIndex(final Object scope) {
+		final String key = getStripeKey(scope);
+		int hash = key.hashCode();
+		// spread the higher bits, since only the lower bits are used
+		hash ^= (hash >>> 20) ^ (hash >>> 12);
+		hash ^= (hash >>> 7) ^ (hash >>> 4);
+		return hash & (STRIPES_COUNT - 1);
+	}
+
+	/**
+	 * @return the key of the stripe for the given scope: the handle identifier
+	 *         of the enclosing compilation unit or package fragment root for an
+	 *         {@link IJavaElement} (or an {@link IResource} that is a Java
+	 *         element), or the path of any other {@link IResource}.
+	 */
+	private static String getStripeKey(final Object scope) {
+		if (scope instanceof IResource) {
+			final IJavaElement javaElement = JavaCore.create((IResource) scope);
+			if (javaElement != null) {
+				return getStripeKey(javaElement);
+			}
+			return ((IResource) scope).getFullPath().toPortableString();
+		} else if (scope instanceof IJavaElement) {
+			final IJavaElement javaElement = (IJavaElement) scope;
+			final IJavaElement compilationUnit = javaElement.getAncestor(IJavaElement.COMPILATION_UNIT);
+			if (compilationUnit != null) {
+				return compilationUnit.getHandleIdentifier();
+			}
+			final IJavaElement packageFragmentRoot = javaElement.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+			if (packageFragmentRoot != null) {
+				return packageFragmentRoot.getHandleIdentifier();
+			}
+			return javaElement.getHandleIdentifier();
+		}
+		return String.valueOf(scope);
+	}
+
+	/**
+	 * The stripe lock held by a thread, and the number of times it was
+	 * (re)entered.
+	 */
+	private static class StripeHold {
+		/** the stripe lock actually acquired, or null if the thread was already protected. */
+		Lock lock;
+		/** whether the stripe lock is a write lock. */
+		boolean write;
+		/** the time at which the stripe lock was acquired. */
+		long startTime;
+		int count;
+		/** whether each (re)entrance was for a write, in order. */
+		final LinkedList<Boolean> writes = new LinkedList<Boolean>();
+	}
+
+}
@@ -0,0 +1,406 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.jboss.tools.ws.jaxrs.core.JBossJaxrsCorePlugin;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.EnumElementCategory;
+
+/**
+ * A lightweight, persistent snapshot of a {@link JaxrsMetamodel}, stored under
+ * the plugin state location. The snapshot records the project resolved
+ * classpath and each {@link ICompilationUnit} that contained JAX-RS elements
+ * when it was saved, so that the metamodel can be restored at workspace
+ * startup without searching the whole project again. The JAX-RS elements
+ * themselves are not persisted: restoring the metamodel still costs one
+ * resolved parse of each recorded compilation unit.
+ *
+ * @author xcoulon
+ *
+ */
+public class JaxrsMetamodelSnapshot {
+
+	/** Version of the snapshot format. Snapshots with another version are ignored. */
+	private static final String VERSION = "3";
+
+	private static final String KEY_VERSION = "@version";
+
+	private static final String KEY_CLASSPATH = "@classpath";
+
+	private static final String KEY_TIMESTAMP = "@timestamp";
+
+	/** Name of the folder containing the snapshots, under the plugin state location. */
+	private static final String SNAPSHOTS_FOLDER = "metamodels";
+
+	/** Extension of the snapshot files. */
+	private static final String SNAPSHOT_EXTENSION = ".snapshot";
+
+	/** The resolved classpath of the project when this snapshot was taken. */
+	private final String classpathStamp;
+
+	/** The time when this snapshot was taken. */
+	private final long timestamp;
+
+	/**
+	 * The recorded compilation units, indexed by their handle identifier, with
+	 * their category of JAX-RS element.
+	 */
+	private final Map<String, CompilationUnitEntry> compilationUnits;
+
+	/**
+	 * Full constructor.
+	 *
+	 * @param classpathStamp
+	 *            the project resolved classpath stamp
+	 * @param timestamp
+	 *            the time when the snapshot was taken
+	 * @param compilationUnits
+	 *            the recorded compilation units
+	 */
+	private JaxrsMetamodelSnapshot(final String classpathStamp, final long timestamp,
+			final Map<String, CompilationUnitEntry> compilationUnits) {
+		this.classpathStamp = classpathStamp;
+		this.timestamp = timestamp;
+		this.compilationUnits = compilationUnits;
+	}
+
+	/**
+	 * Creates a snapshot of the given {@link JaxrsMetamodel} elements. The
+	 * caller is expected to hold the metamodel read lock.
+	 *
+	 * @param metamodel
+	 *            the metamodel to snapshot
+	 * @param elements
+	 *            the metamodel elements
+	 * @return the snapshot
+	 * @throws JavaModelException
+	 */
+	static JaxrsMetamodelSnapshot from(final JaxrsMetamodel metamodel, final Iterable<JaxrsBaseElement> elements)
+			throws JavaModelException {
+		final Map<String, CompilationUnitEntry> compilationUnits = new HashMap<String, CompilationUnitEntry>();
+		for (JaxrsBaseElement element : elements) {
+			if (!(element instanceof JaxrsJavaElement)) {
+				continue;
+			}
+			final IJavaElement javaElement = ((JaxrsJavaElement<?>) element).getJavaElement();
+			if (javaElement == null || javaElement.getElementType() != IJavaElement.TYPE) {
+				continue;
+			}
+			final ICompilationUnit compilationUnit = (ICompilationUnit) javaElement
+					.getAncestor(IJavaElement.COMPILATION_UNIT);
+			if (compilationUnit == null || compilationUnit.getResource() == null) {
+				continue;
+			}
+			final String identifier = compilationUnit.getHandleIdentifier();
+			final EnumElementCategory category = element.getElementKind().getCategory();
+			final CompilationUnitEntry existingEntry = compilationUnits.get(identifier);
+			if (existingEntry == null || CompilationUnitEntry.rank(category) < existingEntry.getRank()) {
+				compilationUnits.put(identifier, new CompilationUnitEntry(identifier, category));
+			}
+		}
+		return new JaxrsMetamodelSnapshot(getClasspathStamp(metamodel.getJavaProject()), System.currentTimeMillis(),
+				compilationUnits);
+	}
+
+	/**
+	 * Loads the snapshot of the given {@link IJavaProject} from the plugin
+	 * state location.
+	 *
+	 * @param javaProject
+	 *            the java project
+	 * @return the snapshot or {@code null} if none exists or if it could not
+	 *         be read.
+	 */
+	public static JaxrsMetamodelSnapshot load(final IJavaProject javaProject) {
+		final File snapshotFile = getSnapshotFile(javaProject);
+		if (snapshotFile == null || !snapshotFile.exists()) {
+			return null;
+		}
+		InputStream inputStream = null;
+		try {
+			inputStream = new BufferedInputStream(new FileInputStream(snapshotFile));
+			final Properties properties = new Properties();
+			properties.load(inputStream);
+			if (!VERSION.equals(properties.getProperty(KEY_VERSION))) {
+				Logger.debug("Ignoring JAX-RS Metamodel snapshot for project {} (unsupported version)",
+						javaProject.getElementName());
+				return null;
+			}
+			final Map<String, CompilationUnitEntry> compilationUnits = new HashMap<String, CompilationUnitEntry>();
+			for (Entry<Object, Object> entry : properties.entrySet()) {
+				final String key = (String) entry.getKey();
+				if (key.startsWith("@")) {
+					continue;
+				}
+				final EnumElementCategory category = EnumElementCategory.valueOf((String) entry.getValue());
+				compilationUnits.put(key, new CompilationUnitEntry(key, category));
+			}
+			return new JaxrsMetamodelSnapshot(properties.getProperty(KEY_CLASSPATH), Long.parseLong(properties
+					.getProperty(KEY_TIMESTAMP)), compilationUnits);
+		} catch (IOException e) {
+			Logger.error("Failed to read the JAX-RS Metamodel snapshot for project " + javaProject.getElementName(), e);
+		} catch (RuntimeException e) {
+			Logger.error("Ignoring invalid JAX-RS Metamodel snapshot for project " + javaProject.getElementName(), e);
+		} finally {
+			close(inputStream);
+		}
+		return null;
+	}
+
+	/**
+	 * Saves this snapshot for the given {@link IJavaProject} in the plugin
+	 * state location.
+	 *
+	 * @param javaProject
+	 *            the java project
+	 * @throws IOException
+	 */
+	public void save(final IJavaProject javaProject) throws IOException {
+		final File snapshotFile = getSnapshotFile(javaProject);
+		if (snapshotFile == null) {
+			return;
+		}
+		snapshotFile.getParentFile().mkdirs();
+		final Properties properties = new Properties();
+		properties.setProperty(KEY_VERSION, VERSION);
+		properties.setProperty(KEY_CLASSPATH, classpathStamp);
+		properties.setProperty(KEY_TIMESTAMP, Long.toString(timestamp));
+		for (CompilationUnitEntry entry : compilationUnits.values()) {
+			properties.setProperty(entry.getIdentifier(), entry.getCategory().toString());
+		}
+		OutputStream outputStream = null;
+		try {
+			outputStream = new BufferedOutputStream(new FileOutputStream(snapshotFile));
+			properties.store(outputStream, "JAX-RS Metamodel snapshot for project " + javaProject.getElementName());
+		} finally {
+			close(outputStream);
+		}
+		Logger.debug("Saved JAX-RS Metamodel snapshot for project {} with {} compilation units",
+				javaProject.getElementName(), compilationUnits.size());
+	}
+
+	/**
+	 * Deletes the snapshot of the given {@link IJavaProject}, if it exists.
+	 *
+	 * @param javaProject
+	 *            the java project
+	 */
+	public static void delete(final IJavaProject javaProject) {
+		final File snapshotFile = getSnapshotFile(javaProject);
+		if (snapshotFile != null && snapshotFile.exists() && !snapshotFile.delete()) {
+			Logger.warn("Failed to delete the JAX-RS Metamodel snapshot for project " + javaProject.getElementName());
+		}
+	}
+
+	/**
+	 * @param javaProject
+	 *            the java project
+	 * @return {@code true} if this snapshot can be used to restore the
+	 *         metamodel of the given {@link IJavaProject}, ie, if the project
+	 *         resolved classpath did not change since the snapshot was taken.
+	 * @throws JavaModelException
+	 */
+	public boolean isValid(final IJavaProject javaProject) throws JavaModelException {
+		return classpathStamp != null && classpathStamp.equals(getClasspathStamp(javaProject));
+	}
+
+	/**
+	 * Returns the {@link ICompilationUnit}s to process in order to restore the
+	 * metamodel: the ones recorded in this snapshot that still exist (all of
+	 * them are parsed again, since their elements are not persisted) and the
+	 * ones that were added or modified since the
+	 * snapshot was taken, in the source folders of the project and of its
+	 * referenced projects (as searched during a full build). Compilation units
+	 * declaring HTTP Methods come first, since resource methods depend on
+	 * them.
+	 *
+	 * @param javaProject
+	 *            the java project
+	 * @return the compilation units to process
+	 * @throws JavaModelException
+	 */
+	public List<ICompilationUnit> getCompilationUnitsToProcess(final IJavaProject javaProject)
+			throws JavaModelException {
+		final List<CompilationUnitEntry> recordedEntries = new ArrayList<CompilationUnitEntry>(
+				compilationUnits.values());
+		Collections.sort(recordedEntries, new Comparator<CompilationUnitEntry>() {
+			@Override
+			public int compare(final CompilationUnitEntry entry, final CompilationUnitEntry otherEntry) {
+				return entry.getRank() - otherEntry.getRank();
+			}
+		});
+		final List<ICompilationUnit> result = new ArrayList<ICompilationUnit>();
+		for (CompilationUnitEntry entry : recordedEntries) {
+			final IJavaElement javaElement = JavaCore.create(entry.getIdentifier());
+			if (javaElement == null || !javaElement.exists()
+					|| javaElement.getElementType() != IJavaElement.COMPILATION_UNIT) {
+				continue;
+			}
+			result.add((ICompilationUnit) javaElement);
+		}
+		// also include the compilation units that were added or changed since
+		// the snapshot was taken, since they may now contain JAX-RS elements
+		int addedCompilationUnits = 0;
+		for (IPackageFragmentRoot packageFragmentRoot : javaProject.getAllPackageFragmentRoots()) {
+			if (packageFragmentRoot.getKind() != IPackageFragmentRoot.K_SOURCE) {
+				continue;
+			}
+			for (IJavaElement child : packageFragmentRoot.getChildren()) {
+				for (ICompilationUnit compilationUnit : ((IPackageFragment) child).getCompilationUnits()) {
+					if (compilationUnits.containsKey(compilationUnit.getHandleIdentifier())) {
+						continue;
+					}
+					final IResource resource = compilationUnit.getResource();
+					if (resource != null && resource.getLocalTimeStamp() >= timestamp) {
+						result.add(compilationUnit);
+						addedCompilationUnits++;
+					}
+				}
+			}
+		}
+		Logger.debug("Restoring JAX-RS Metamodel for project {} from snapshot: {} recorded compilation units "
+				+ "and {} new or modified compilation units", javaProject.getElementName(), recordedEntries.size(),
+				addedCompilationUnits);
+		return result;
+	}
+
+	/**
+	 * @return the number of compilation units recorded in this snapshot.
+	 */
+	public int size() {
+		return compilationUnits.size();
+	}
+
+	/**
+	 * Computes a stamp for the resolved classpath of the given
+	 * {@link IJavaProject}: the kind and path of all its entries, in order, once
+	 * the variables and containers are resolved, so that a change in a
+	 * container (eg: a new library version) also invalidates the snapshot.
+	 *
+	 * @param javaProject
+	 *            the java project
+	 * @return the classpath stamp
+	 * @throws JavaModelException
+	 */
+	private static String getClasspathStamp(final IJavaProject javaProject) throws JavaModelException {
+		final StringBuilder classpath = new StringBuilder();
+		for (IClasspathEntry classpathEntry : javaProject.getResolvedClasspath(true)) {
+			classpath.append(classpathEntry.getEntryKind()).append(':').append(classpathEntry.getPath()
+					.toPortableString()).append(';');
+		}
+		return classpath.toString();
+	}
+
+	/**
+	 * @param javaProject
+	 *            the java project
+	 * @return the snapshot file of the given {@link IJavaProject} in the
+	 *         plugin state location, or {@code null} if the plugin is not
+	 *         started.
+	 */
+	private static File getSnapshotFile(final IJavaProject javaProject) {
+		if (JBossJaxrsCorePlugin.getDefault() == null) {
+			return null;
+		}
+		final IPath stateLocation = JBossJaxrsCorePlugin.getDefault().getStateLocation();
+		return stateLocation.append(SNAPSHOTS_FOLDER).append(javaProject.getElementName() + SNAPSHOT_EXTENSION)
+				.toFile();
+	}
+
+	private static void close(final Closeable closeable) {
+		if (closeable != null) {
+			try {
+				closeable.close();
+			} catch (IOException e) {
+				Logger.warn("Failed to close JAX-RS Metamodel snapshot stream", e);
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "JAX-RS Metamodel snapshot with " + compilationUnits.size() + " compilation units (classpath="
+				+ classpathStamp + ")";
+	}
+
+	/**
+	 * A compilation unit recorded in the snapshot.
+	 */
+	static class CompilationUnitEntry {
+
+		/** The compilation unit handle identifier. */
+		private final String identifier;
+
+		/** The category of the main JAX-RS element in the compilation unit. */
+		private final EnumElementCategory category;
+
+		CompilationUnitEntry(final String identifier, final EnumElementCategory category) {
+			this.identifier = identifier;
+			this.category = category;
+		}
+
+		/**
+		 * @param category
+		 *            the element category
+		 * @return the rank of the given category when restoring the
+		 *         metamodel: HTTP Methods first, then all other categories in
+		 *         their natural order.
+		 */
+		static int rank(final EnumElementCategory category) {
+			if (category == EnumElementCategory.HTTP_METHOD) {
+				return -1;
+			}
+			return category.ordinal();
+		}
+
+		public String getIdentifier() {
+			return identifier;
+		}
+
+		public EnumElementCategory getCategory() {
+			return category;
+		}
+
+		public int getRank() {
+			return rank(category);
+		}
+	}
+
+}
@@ -0,0 +1,165 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.core.IJavaElement;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.PersistentHashMap;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsElement;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsEndpoint;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsMetamodelView;
+
+/**
+ * The {@link IJaxrsMetamodelView} published by a {@link JaxrsMetamodel}. The
+ * elements and endpoints are kept in {@link PersistentHashMap}s, so that two
+ * successive versions share all the entries that did not change in between.
+ * The annotations of the elements are indexed when the view is created, since
+ * the elements themselves keep changing after the view was published.
+ * 
+ * @author xcoulon
+ * 
+ */
+final class JaxrsMetamodelView implements IJaxrsMetamodelView {
+
+	private final JaxrsMetamodel metamodel;
+
+	private final long version;
+
+	private final boolean initializing;
+
+	private final PersistentHashMap<String, IJaxrsElement> elements;
+
+	private final PersistentHashMap<String, IJaxrsEndpoint> endpoints;
+
+	/** The elements indexed by the fully qualified names of their annotations. */
+	private final Map<String, Set<IJaxrsElement>> elementsByAnnotation;
+
+	/** The elements as a list. */
+	private final List<IJaxrsElement> allElements;
+
+	/** The endpoints as a list, computed on the first call. */
+	private volatile List<IJaxrsEndpoint> allEndpoints;
+
+	/**
+	 * Full constructor. The caller is expected to hold the metamodel shared
+	 * state lock, so that the annotations of the elements do not change while
+	 * they are indexed.
+	 */
+	JaxrsMetamodelView(final JaxrsMetamodel metamodel, final long version, final boolean initializing,
+			final PersistentHashMap<String, IJaxrsElement> elements,
+			final PersistentHashMap<String, IJaxrsEndpoint> endpoints) {
+		this.metamodel = metamodel;
+		this.version = version;
+		this.initializing = initializing;
+		this.elements = elements;
+		this.endpoints = endpoints;
+		this.allElements = Collections.unmodifiableList(elements.values());
+		this.elementsByAnnotation = indexAnnotations(allElements);
+	}
+
+	private static Map<String, Set<IJaxrsElement>> indexAnnotations(final List<IJaxrsElement> elements) {
+		final Map<String, Set<IJaxrsElement>> elementsByAnnotation = new HashMap<String, Set<IJaxrsElement>>();
+		for (IJaxrsElement element : elements) {
+			if (!(element instanceof JaxrsJavaElement)) {
+				continue;
+			}
+			for (String annotationName : ((JaxrsJavaElement<?>) element).getAnnotations().keySet()) {
+				Set<IJaxrsElement> annotatedElements = elementsByAnnotation.get(annotationName);
+				if (annotatedElements == null) {
+					annotatedElements = new HashSet<IJaxrsElement>();
+					elementsByAnnotation.put(annotationName, annotatedElements);
+				}
+				annotatedElements.add(element);
+			}
+		}
+		return elementsByAnnotation;
+	}
+
+	@Override
+	public long getVersion() {
+		return version;
+	}
+
+	@Override
+	public IJaxrsMetamodel getMetamodel() {
+		return metamodel;
+	}
+
+	@Override
+	public boolean isInitializing() {
+		return initializing;
+	}
+
+	PersistentHashMap<String, IJaxrsElement> getElements() {
+		return elements;
+	}
+
+	PersistentHashMap<String, IJaxrsEndpoint> getEndpoints() {
+		return endpoints;
+	}
+
+	@Override
+	public List<IJaxrsElement> getAllElements() {
+		return allElements;
+	}
+
+	@Override
+	public Collection<IJaxrsEndpoint> getAllEndpoints() {
+		if (allEndpoints == null) {
+			allEndpoints = Collections.unmodifiableList(endpoints.values());
+		}
+		return allEndpoints;
+	}
+
+	@Override
+	public IJaxrsElement getElement(final String identifier) {
+		if (identifier == null) {
+			return null;
+		}
+		return elements.get(identifier);
+	}
+
+	@Override
+	public IJaxrsElement findElement(final IJavaElement javaElement) {
+		if (javaElement == null) {
+			return null;
+		}
+		return elements.get(javaElement.getHandleIdentifier());
+	}
+
+	@Override
+	public Set<IJaxrsElement> findElementsByAnnotation(final String annotationClassName) {
+		if (annotationClassName == null) {
+			return Collections.emptySet();
+		}
+		final Set<IJaxrsElement> matchingElements = elementsByAnnotation.get(annotationClassName);
+		if (matchingElements == null) {
+			return Collections.emptySet();
+		}
+		return new HashSet<IJaxrsElement>(matchingElements);
+	}
+
+	@Override
+	public String toString() {
+		return "JAX-RS Metamodel View [project=" + metamodel.getProject().getName() + ", version=" + version
+				+ ", elements=" + elements.size() + ", endpoints=" + endpoints.size() + "]";
+	}
+
+}
@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -61,14 +62,20 @@ import org.jboss.tools.ws.jaxrs.core.metamodel.domain.JaxrsElementDelta;
  */
 public final class JaxrsResource extends JaxrsJavaElement<IType> implements IJaxrsResource {
 
+	/*
+	 * The maps below are changed while holding the metamodel shared state lock,
+	 * but are also read by the endpoints and the validators, hence the
+	 * concurrent implementations.
+	 */
+
 	/** The map of {@link JaxrsResourceField} indexed by the underlying java element identifier. */
-	private final Map<String, JaxrsResourceField> resourceFields = new HashMap<String, JaxrsResourceField>();
+	private final Map<String, JaxrsResourceField> resourceFields = new ConcurrentHashMap<String, JaxrsResourceField>();
 
 	/** The map of {@link JaxrsResourceProperty} indexed by the underlying java element identifier. */
-	private final Map<String, JaxrsResourceProperty> resourceProperties = new HashMap<String, JaxrsResourceProperty>();
+	private final Map<String, JaxrsResourceProperty> resourceProperties = new ConcurrentHashMap<String, JaxrsResourceProperty>();
 	
 	/** The map of {@link JaxrsResourceMethod} indexed by the underlying java element identifier. */
-	private final Map<String, JaxrsResourceMethod> resourceMethods = new HashMap<String, JaxrsResourceMethod>();
+	private final Map<String, JaxrsResourceMethod> resourceMethods = new ConcurrentHashMap<String, JaxrsResourceMethod>();
 
 	/**
 	 * Builder initializer
@@ -0,0 +1,209 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IResource;
+
+/**
+ * Records which resources read which parts of the metamodel while their
+ * JAX-RS elements were validated, so that a change on a resource triggers the
+ * validation of its actual dependents only (instead of all elements of the
+ * same categories).
+ * <p>
+ * The parts of the metamodel are identified by <em>topics</em> (eg, "the
+ * providers annotated with a given name binding"): the validator records the
+ * topics that it reads while validating an element, and each resource
+ * publishes the topics matching its own elements. The topics published during
+ * the previous validation are kept, so that the dependents of a removed
+ * annotation or element are revalidated, too.
+ * </p>
+ * <p>
+ * Like the {@link JaxrsShadowElementsCache}, this index is fed and consumed
+ * by the validation, which occurs *after* the project (re)build. All methods
+ * are synchronized since the elements are validated concurrently.
+ * </p>
+ * 
+ * @author xcoulon
+ *
+ */
+public class JaxrsValidationDependencies {
+
+	/** The resources that read each topic during their last validation. */
+	private final Map<String, Set<IResource>> dependents = new HashMap<String, Set<IResource>>();
+
+	/** The topics read by each resource during its last validation. */
+	private final Map<IResource, Set<String>> dependencies = new HashMap<IResource, Set<String>>();
+
+	/** The topics published by each resource during its last validation. */
+	private final Map<IResource, Set<String>> publishedTopics = new HashMap<IResource, Set<String>>();
+
+	/**
+	 * Whether all resources of the project have been validated (and thus
+	 * recorded) at least once.
+	 */
+	private boolean complete = false;
+
+	/**
+	 * Constructor
+	 */
+	protected JaxrsValidationDependencies() {
+		super();
+	}
+
+	/**
+	 * Removes the dependencies recorded for the given resource, before its
+	 * elements are validated again.
+	 * 
+	 * @param resource
+	 *            the resource about to be validated
+	 */
+	public synchronized void clearDependencies(final IResource resource) {
+		if (resource == null) {
+			return;
+		}
+		final Set<String> topics = dependencies.remove(resource);
+		if (topics == null) {
+			return;
+		}
+		for (String topic : topics) {
+			final Set<IResource> topicDependents = dependents.get(topic);
+			if (topicDependents != null) {
+				topicDependents.remove(resource);
+				if (topicDependents.isEmpty()) {
+					dependents.remove(topic);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Records that the validation of the given resource read the given topic.
+	 * 
+	 * @param resource
+	 *            the resource being validated
+	 * @param topic
+	 *            the topic that was read
+	 */
+	public synchronized void addDependency(final IResource resource, final String topic) {
+		if (resource == null || topic == null) {
+			return;
+		}
+		Set<String> topics = dependencies.get(resource);
+		if (topics == null) {
+			topics = new HashSet<String>();
+			dependencies.put(resource, topics);
+		}
+		topics.add(topic);
+		Set<IResource> topicDependents = dependents.get(topic);
+		if (topicDependents == null) {
+			topicDependents = new HashSet<IResource>();
+			dependents.put(topic, topicDependents);
+		}
+		topicDependents.add(resource);
+	}
+
+	/**
+	 * @param topics
+	 *            the topics that changed
+	 * @return the resources that read at least one of the given topics during
+	 *         their last validation
+	 */
+	public synchronized Set<IResource> getDependents(final Collection<String> topics) {
+		final Set<IResource> result = new HashSet<IResource>();
+		for (String topic : topics) {
+			final Set<IResource> topicDependents = dependents.get(topic);
+			if (topicDependents != null) {
+				result.addAll(topicDependents);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param resource
+	 *            the resource
+	 * @return the topics that the given resource published during its last
+	 *         validation, or an empty set if it was never validated
+	 */
+	public synchronized Set<String> getPublishedTopics(final IResource resource) {
+		final Set<String> topics = publishedTopics.get(resource);
+		if (topics == null) {
+			return Collections.emptySet();
+		}
+		return new HashSet<String>(topics);
+	}
+
+	/**
+	 * Sets the topics published by the given resource.
+	 * 
+	 * @param resource
+	 *            the resource
+	 * @param topics
+	 *            the topics matching the elements of the given resource
+	 */
+	public synchronized void setPublishedTopics(final IResource resource, final Set<String> topics) {
+		if (resource == null) {
+			return;
+		}
+		if (topics.isEmpty()) {
+			publishedTopics.remove(resource);
+		} else {
+			publishedTopics.put(resource, new HashSet<String>(topics));
+		}
+	}
+
+	/**
+	 * Removes everything known about the given resource (eg, after it was
+	 * deleted).
+	 * 
+	 * @param resource
+	 *            the resource to remove
+	 */
+	public synchronized void remove(final IResource resource) {
+		clearDependencies(resource);
+		publishedTopics.remove(resource);
+	}
+
+	/**
+	 * @return {@code true} if all resources of the project have been validated
+	 *         at least once, {@code false} otherwise
+	 */
+	public synchronized boolean isComplete() {
+		return complete;
+	}
+
+	/**
+	 * Marks this index as complete, after all resources of the project were
+	 * validated.
+	 */
+	public synchronized void setComplete() {
+		this.complete = true;
+	}
+
+	/**
+	 * Clears the whole index.
+	 */
+	public synchronized void clear() {
+		dependents.clear();
+		dependencies.clear();
+		publishedTopics.clear();
+		complete = false;
+	}
+
+}
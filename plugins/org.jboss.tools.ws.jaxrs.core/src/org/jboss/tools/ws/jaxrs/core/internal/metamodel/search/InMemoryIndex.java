@@ -0,0 +1,395 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Fieldable;
+import org.apache.lucene.index.Term;
+
+/**
+ * In-memory index of the JAX-RS Elements and Endpoints, dedicated to the
+ * exact-match queries on the {@link LuceneFields} that the
+ * {@link JaxrsElementsIndexationDelegate} performs.
+ * <p>
+ * Each distinct {@code field:value} pair found in the indexed {@link Document}s
+ * is interned into an {@code int} term id, and each term id is associated with
+ * the compact, sorted set of the {@code int} ids of the documents that contain
+ * it. Searching for {@link Term}s that must all occur is then an intersection
+ * of these postings, starting with the smallest one, and the identifiers of the
+ * matching documents are read from an array rather than from stored fields.
+ * </p>
+ * <p>
+ * Documents are keyed by their {@link LuceneFields#FIELD_IDENTIFIER} value:
+ * adding a document with the identifier of an existing one replaces it.
+ * </p>
+ * 
+ * @author xcoulon
+ * 
+ */
+public class InMemoryIndex {
+
+	private static final int[] NO_MATCH = new int[0];
+
+	/** Guards all the structures below. */
+	private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+
+	/** Term ids, indexed by field name, then by field value. */
+	private final Map<String, Map<String, Integer>> termIds = new HashMap<String, Map<String, Integer>>();
+
+	/** Postings, indexed by term id. */
+	private IntSet[] postings = new IntSet[64];
+
+	/** Field names and values of the terms, indexed by term id. */
+	private String[] termFields = new String[64];
+	private String[] termValues = new String[64];
+
+	/** Term ids released once their postings became empty, available for reuse. */
+	private final IntSet freeTermIds = new IntSet();
+
+	/** Next term id to allocate when no released id is available. */
+	private int nextTermId = 0;
+
+	/** Document ids, indexed by document identifier. */
+	private final Map<String, Integer> documentIds = new HashMap<String, Integer>();
+
+	/** Document identifiers, indexed by document id. */
+	private String[] documentIdentifiers = new String[64];
+
+	/** Term ids of each document, indexed by document id. */
+	private int[][] documentTerms = new int[64][];
+
+	/** Document ids released by removed documents, available for reuse. */
+	private final IntSet freeDocumentIds = new IntSet();
+
+	/** Next document id to allocate when no released id is available. */
+	private int nextDocumentId = 0;
+
+	/**
+	 * Adds the given {@link Document} to this index, replacing any previous
+	 * document with the same identifier.
+	 * 
+	 * @param document
+	 *            the document to index
+	 * @throws IllegalArgumentException
+	 *             if the given document has no
+	 *             {@link LuceneFields#FIELD_IDENTIFIER} field
+	 */
+	public void addDocument(final Document document) {
+		final String identifier = document.get(LuceneFields.FIELD_IDENTIFIER);
+		if (identifier == null) {
+			throw new IllegalArgumentException("Document has no '" + LuceneFields.FIELD_IDENTIFIER + "' field: "
+					+ document);
+		}
+		try {
+			readWriteLock.writeLock().lock();
+			internalDeleteDocument(identifier);
+			final int documentId = allocateDocumentId();
+			final List<Fieldable> fields = document.getFields();
+			final int[] terms = new int[fields.size()];
+			for (int i = 0; i < terms.length; i++) {
+				final Fieldable field = fields.get(i);
+				final int termId = internTerm(field.name(), field.stringValue());
+				postings[termId].add(documentId);
+				terms[i] = termId;
+			}
+			documentIds.put(identifier, documentId);
+			documentIdentifiers[documentId] = identifier;
+			documentTerms[documentId] = terms;
+		} finally {
+			readWriteLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes the document with the given identifier from this index.
+	 * 
+	 * @param identifier
+	 *            the value of the {@link LuceneFields#FIELD_IDENTIFIER} field of
+	 *            the document to remove
+	 * @return {@code true} if a document was removed, {@code false} otherwise
+	 */
+	public boolean deleteDocument(final String identifier) {
+		try {
+			readWriteLock.writeLock().lock();
+			return internalDeleteDocument(identifier);
+		} finally {
+			readWriteLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes all documents from this index.
+	 */
+	public void deleteAll() {
+		try {
+			readWriteLock.writeLock().lock();
+			termIds.clear();
+			Arrays.fill(postings, 0, nextTermId, null);
+			Arrays.fill(termFields, 0, nextTermId, null);
+			Arrays.fill(termValues, 0, nextTermId, null);
+			freeTermIds.clear();
+			nextTermId = 0;
+			documentIds.clear();
+			Arrays.fill(documentIdentifiers, 0, nextDocumentId, null);
+			Arrays.fill(documentTerms, 0, nextDocumentId, null);
+			freeDocumentIds.clear();
+			nextDocumentId = 0;
+		} finally {
+			readWriteLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the number of documents in this index
+	 */
+	public int getDocumentCount() {
+		try {
+			readWriteLock.readLock().lock();
+			return documentIds.size();
+		} finally {
+			readWriteLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Searches for the documents matching all the given {@link Term}s.
+	 * 
+	 * @param terms
+	 *            the terms that must all occur in the matching documents
+	 * @return the identifiers of the matching documents, or an empty list if
+	 *         no document matched (or no term was given)
+	 */
+	public List<String> search(final Term... terms) {
+		try {
+			readWriteLock.readLock().lock();
+			final int[] matches = match(terms);
+			if (matches.length == 0) {
+				return Collections.emptyList();
+			}
+			final List<String> identifiers = new ArrayList<String>(matches.length);
+			for (int documentId : matches) {
+				identifiers.add(documentIdentifiers[documentId]);
+			}
+			return identifiers;
+		} finally {
+			readWriteLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Searches for a single document matching all the given {@link Term}s.
+	 * 
+	 * @param terms
+	 *            the terms that must all occur in the matching document
+	 * @return the identifier of the first matching document, or {@code null}
+	 *         if no document matched
+	 */
+	public String searchFirst(final Term... terms) {
+		try {
+			readWriteLock.readLock().lock();
+			final IntSet[] candidates = getPostings(terms);
+			if (candidates == null) {
+				return null;
+			}
+			final IntSet smallest = candidates[0];
+			for (int i = 0; i < smallest.size(); i++) {
+				final int documentId = smallest.get(i);
+				if (containedInAll(documentId, candidates)) {
+					return documentIdentifiers[documentId];
+				}
+			}
+			return null;
+		} finally {
+			readWriteLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Counts the documents matching all the given {@link Term}s.
+	 * 
+	 * @param terms
+	 *            the terms that must all occur in the matching documents
+	 * @return the number of matching documents
+	 */
+	public int count(final Term... terms) {
+		try {
+			readWriteLock.readLock().lock();
+			return match(terms).length;
+		} finally {
+			readWriteLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Intersects the postings of the given {@link Term}s. Caller must hold
+	 * (at least) the read lock.
+	 * 
+	 * @param terms
+	 *            the terms to match
+	 * @return the ids of the matching documents
+	 */
+	private int[] match(final Term... terms) {
+		final IntSet[] candidates = getPostings(terms);
+		if (candidates == null) {
+			return NO_MATCH;
+		}
+		final IntSet smallest = candidates[0];
+		if (candidates.length == 1) {
+			return smallest.toArray();
+		}
+		final int[] matches = new int[smallest.size()];
+		int matchCount = 0;
+		for (int i = 0; i < smallest.size(); i++) {
+			final int documentId = smallest.get(i);
+			if (containedInAll(documentId, candidates)) {
+				matches[matchCount++] = documentId;
+			}
+		}
+		return matchCount == matches.length ? matches : Arrays.copyOf(matches, matchCount);
+	}
+
+	/**
+	 * Looks-up the postings of the given {@link Term}s, and sorts them by
+	 * increasing size.
+	 * 
+	 * @param terms
+	 *            the terms to look-up
+	 * @return the postings of all the given terms, or {@code null} if no term
+	 *         was given or if at least one of them matches no document
+	 */
+	private IntSet[] getPostings(final Term... terms) {
+		if (terms == null || terms.length == 0) {
+			return null;
+		}
+		final IntSet[] candidates = new IntSet[terms.length];
+		for (int i = 0; i < terms.length; i++) {
+			final Map<String, Integer> fieldTermIds = termIds.get(terms[i].field());
+			final Integer termId = (fieldTermIds != null) ? fieldTermIds.get(terms[i].text()) : null;
+			if (termId == null) {
+				return null;
+			}
+			// insertion sort: queries only have a handful of terms
+			int j = i;
+			while (j > 0 && candidates[j - 1].size() > postings[termId].size()) {
+				candidates[j] = candidates[j - 1];
+				j--;
+			}
+			candidates[j] = postings[termId];
+		}
+		return candidates;
+	}
+
+	private static boolean containedInAll(final int documentId, final IntSet[] candidates) {
+		for (int i = 1; i < candidates.length; i++) {
+			if (!candidates[i].contains(documentId)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Removes the document with the given identifier. Caller must hold the
+	 * write lock.
+	 */
+	private boolean internalDeleteDocument(final String identifier) {
+		final Integer documentId = documentIds.remove(identifier);
+		if (documentId == null) {
+			return false;
+		}
+		for (int termId : documentTerms[documentId]) {
+			if (postings[termId] != null && postings[termId].remove(documentId) && postings[termId].isEmpty()) {
+				releaseTerm(termId);
+			}
+		}
+		documentIdentifiers[documentId] = null;
+		documentTerms[documentId] = null;
+		freeDocumentIds.add(documentId);
+		return true;
+	}
+
+	/**
+	 * @return a document id, reusing the smallest released one if any. Caller
+	 *         must hold the write lock.
+	 */
+	private int allocateDocumentId() {
+		if (!freeDocumentIds.isEmpty()) {
+			final int documentId = freeDocumentIds.get(0);
+			freeDocumentIds.remove(documentId);
+			return documentId;
+		}
+		if (nextDocumentId == documentIdentifiers.length) {
+			documentIdentifiers = Arrays.copyOf(documentIdentifiers, nextDocumentId * 2);
+			documentTerms = Arrays.copyOf(documentTerms, nextDocumentId * 2);
+		}
+		return nextDocumentId++;
+	}
+
+	/**
+	 * @return the id of the term for the given field name and value, which is
+	 *         allocated (along with its postings) if needed. Caller must hold
+	 *         the write lock.
+	 */
+	private int internTerm(final String fieldName, final String fieldValue) {
+		Map<String, Integer> fieldTermIds = termIds.get(fieldName);
+		if (fieldTermIds == null) {
+			fieldTermIds = new HashMap<String, Integer>();
+			termIds.put(fieldName, fieldTermIds);
+		}
+		final Integer existingTermId = fieldTermIds.get(fieldValue);
+		if (existingTermId != null) {
+			return existingTermId;
+		}
+		final int termId;
+		if (!freeTermIds.isEmpty()) {
+			termId = freeTermIds.get(0);
+			freeTermIds.remove(termId);
+		} else {
+			if (nextTermId == postings.length) {
+				postings = Arrays.copyOf(postings, nextTermId * 2);
+				termFields = Arrays.copyOf(termFields, nextTermId * 2);
+				termValues = Arrays.copyOf(termValues, nextTermId * 2);
+			}
+			termId = nextTermId++;
+		}
+		postings[termId] = new IntSet();
+		termFields[termId] = fieldName;
+		termValues[termId] = fieldValue;
+		fieldTermIds.put(fieldValue, termId);
+		return termId;
+	}
+
+	/**
+	 * Removes the term with the given id from the dictionary once no document
+	 * contains it anymore, so that values of deleted documents (eg: former URI
+	 * templates) do not accumulate. Caller must hold the write lock.
+	 */
+	private void releaseTerm(final int termId) {
+		final Map<String, Integer> fieldTermIds = termIds.get(termFields[termId]);
+		if (fieldTermIds != null) {
+			fieldTermIds.remove(termValues[termId]);
+		}
+		postings[termId] = null;
+		termFields[termId] = null;
+		termValues[termId] = null;
+		freeTermIds.add(termId);
+	}
+
+}
@@ -0,0 +1,117 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.search;
+
+import java.util.Arrays;
+
+/**
+ * A compact set of {@code int} values, backed by a sorted array. Used as the
+ * postings list of a term in the {@link InMemoryIndex}: membership tests are
+ * binary searches and iteration follows the natural order of the values,
+ * without boxing.
+ *
+ * @author xcoulon
+ *
+ */
+final class IntSet {
+
+	private static final int[] EMPTY = new int[0];
+
+	private int[] values;
+
+	private int size;
+
+	IntSet() {
+		this.values = new int[4];
+	}
+
+	/**
+	 * Adds the given value to this set.
+	 *
+	 * @param value
+	 *            the value to add
+	 * @return {@code true} if the value was not already in this set
+	 */
+	boolean add(final int value) {
+		final int index = Arrays.binarySearch(values, 0, size, value);
+		if (index >= 0) {
+			return false;
+		}
+		final int insertionPoint = -(index + 1);
+		if (size == values.length) {
+			values = Arrays.copyOf(values, size * 2);
+		}
+		System.arraycopy(values, insertionPoint, values, insertionPoint + 1, size - insertionPoint);
+		values[insertionPoint] = value;
+		size++;
+		return true;
+	}
+
+	/**
+	 * Removes the given value from this set.
+	 *
+	 * @param value
+	 *            the value to remove
+	 * @return {@code true} if the value was in this set
+	 */
+	boolean remove(final int value) {
+		final int index = Arrays.binarySearch(values, 0, size, value);
+		if (index < 0) {
+			return false;
+		}
+		System.arraycopy(values, index + 1, values, index, size - index - 1);
+		size--;
+		return true;
+	}
+
+	boolean contains(final int value) {
+		return Arrays.binarySearch(values, 0, size, value) >= 0;
+	}
+
+	/**
+	 * @param index
+	 *            the position of the value to retrieve, in the natural order
+	 *            of the values in this set
+	 * @return the value at the given position
+	 */
+	int get(final int index) {
+		return values[index];
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	void clear() {
+		size = 0;
+	}
+
+	/**
+	 * @return a copy of the values of this set, in their natural order
+	 */
+	int[] toArray() {
+		if (size == 0) {
+			return EMPTY;
+		}
+		return Arrays.copyOf(values, size);
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(toArray());
+	}
+
+}
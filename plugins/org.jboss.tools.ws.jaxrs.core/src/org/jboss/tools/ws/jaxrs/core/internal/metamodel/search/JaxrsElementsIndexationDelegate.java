@@ -11,47 +11,28 @@
 
 package org.jboss.tools.ws.jaxrs.core.internal.metamodel.search;
 
-import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 
-import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
-import org.apache.lucene.document.Field;
-import org.apache.lucene.index.CorruptIndexException;
-import org.apache.lucene.index.IndexReader;
-import org.apache.lucene.index.IndexWriter;
-import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.Term;
-import org.apache.lucene.search.BooleanClause;
-import org.apache.lucene.search.BooleanClause.Occur;
-import org.apache.lucene.search.BooleanQuery;
-import org.apache.lucene.search.Collector;
-import org.apache.lucene.search.IndexSearcher;
-import org.apache.lucene.search.Query;
-import org.apache.lucene.search.Scorer;
-import org.apache.lucene.search.TermQuery;
-import org.apache.lucene.search.TopDocs;
-import org.apache.lucene.search.TotalHitCountCollector;
-import org.apache.lucene.store.Directory;
-import org.apache.lucene.store.LockObtainFailedException;
-import org.apache.lucene.store.RAMDirectory;
-import org.apache.lucene.util.Version;
-import org.eclipse.core.resources.IResource;
-import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.Path;
-import org.eclipse.core.runtime.Status;
-import org.jboss.tools.ws.jaxrs.core.JBossJaxrsCorePlugin;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsEndpoint;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodel;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsElement;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsEndpoint;
+import org.jboss.tools.ws.jaxrs.core.metrics.JaxrsMetrics;
 
 /**
+ * Indexes the JAX-RS Elements and Endpoints of a {@link JaxrsMetamodel} in an
+ * {@link InMemoryIndex}, using the {@link Document}s built by the
+ * {@link LuceneDocumentFactory}, and resolves the search results against the
+ * metamodel.
+ * 
  * @author xcoulon
  * 
  */
@@ -60,61 +41,99 @@ public class JaxrsElementsIndexationDelegate {
 	/** The metamodel associated with this indexation delegate.*/
 	private final JaxrsMetamodel metamodel;
 	
-	private final Directory index;
-	private final StandardAnalyzer analyzer;
-	private final IndexWriterConfig config;
-	private IndexWriter indexWriter;
-	private IndexReader indexReader;
-	private IndexSearcher indexSearcher;
+	/** The underlying index. */
+	private final InMemoryIndex index;
+	
+	/**
+	 * The indexing batch of the current thread, since changes on unrelated
+	 * compilation units can be processed concurrently.
+	 */
+	private final ThreadLocal<Batch> batch = new ThreadLocal<Batch>() {
+		@Override
+		protected Batch initialValue() {
+			return new Batch();
+		}
+	};
 
 	/**
 	 * Default constructor
 	 * 
-	 * @throws CoreException
-	 * 
-	 * @throws CorruptIndexException
-	 * @throws LockObtainFailedException
-	 * @throws IOException
+	 * @param metamodel
+	 *            the metamodel whose elements and endpoints are indexed
 	 */
-	public JaxrsElementsIndexationDelegate(final JaxrsMetamodel metamodel) throws CoreException {
-		try {
-			this.metamodel = metamodel;
-			analyzer = new StandardAnalyzer(Version.LUCENE_35);
-			config = new IndexWriterConfig(Version.LUCENE_35, analyzer);
-			config.setMaxBufferedDeleteTerms(1);
-			index = new RAMDirectory();
-			indexWriter = new IndexWriter(index, config);
-			indexReader = IndexReader.open(indexWriter, true);
-			indexSearcher = new IndexSearcher(indexReader);
-		} catch (Exception e) {
-			throw new CoreException(new Status(Status.ERROR, JBossJaxrsCorePlugin.PLUGIN_ID,
-					"Failed to initialize JAX-RS Elements Indexer", e));
-		}
+	public JaxrsElementsIndexationDelegate(final JaxrsMetamodel metamodel) {
+		this.metamodel = metamodel;
+		this.index = new InMemoryIndex();
 	}
 
 	/**
 	 * Method to call when the parent metamodel is closed.
-	 * 
-	 * @throws CorruptIndexException
-	 * @throws IOException
 	 */
-	public void dispose() throws CorruptIndexException, IOException {
-		indexWriter.close(true);
-		index.close();
+	public void dispose() {
+		index.deleteAll();
 	}
 
 	/**
 	 * Clear the whole index at once.
-	 * 
-	 * @throws CoreException
 	 */
-	public void clear() throws CoreException {
-		try {
-			indexWriter.deleteAll();
-			indexWriter.commit();
-		} catch (IOException e) {
-			final Status message = Logger.error("Failed to delete all documents in the JAX-RS Index", e);
-			throw new CoreException(message);
+	public void clear() {
+		index.deleteAll();
+		changed();
+	}
+
+	/**
+	 * Starts a batch of index changes, which ends with the matching call to
+	 * {@link #commitBatch()}. Changes are applied (and visible to searches)
+	 * immediately, but they are only reported once, at the end of the
+	 * outermost batch. Batches can be nested, and are bound to the current
+	 * thread.
+	 */
+	public void beginBatch() {
+		final Batch currentBatch = batch.get();
+		if (currentBatch.depth == 0) {
+			Logger.traceIndexing("Starting a new indexing batch");
+			currentBatch.startTime = System.nanoTime();
+		}
+		currentBatch.depth++;
+	}
+
+	/**
+	 * Ends the current batch of index changes.
+	 */
+	public void commitBatch() {
+		final Batch currentBatch = batch.get();
+		if (currentBatch.depth == 0) {
+			Logger.warn("Attempting to commit an indexing batch that was not started");
+			return;
+		}
+		currentBatch.depth--;
+		if (currentBatch.depth == 0) {
+			if (currentBatch.changes > 0) {
+				final long duration = System.nanoTime() - currentBatch.startTime;
+				JaxrsMetrics.INDEX_COMMIT_DURATION.record(duration);
+				JaxrsMetrics.INDEX_CHANGES.add(currentBatch.changes);
+				Logger.traceIndexingPerf("Applied {} index changes in {}ms (index now contains {} documents)",
+						currentBatch.changes, TimeUnit.NANOSECONDS.toMillis(duration), index.getDocumentCount());
+			}
+			batch.remove();
+		}
+	}
+
+	/**
+	 * @return {@code true} if an indexing batch is currently in progress in
+	 *         the current thread, {@code false} otherwise.
+	 */
+	public boolean isInBatch() {
+		return batch.get().depth > 0;
+	}
+
+	/**
+	 * Records an index change in the current batch, if any.
+	 */
+	private void changed() {
+		final Batch currentBatch = batch.get();
+		if (currentBatch.depth > 0) {
+			currentBatch.changes++;
 		}
 	}
 
@@ -124,10 +143,8 @@ public class JaxrsElementsIndexationDelegate {
 			Logger.traceIndexing("Indexing {} after addition...", element.getName());
 			final Document doc = LuceneDocumentFactory.createDocument(element);
 			Logger.debugIndexing("Adding JAX-RS Element into index with following fields: {}", doc.getFields());
-			indexWriter.addDocument(doc);
-			indexWriter.commit();
-		} catch (IOException e) {
-			Logger.error("Failed to index the JAX-RS Element " + element, e);
+			index.addDocument(doc);
+			changed();
 		} finally {
 			Logger.traceIndexing(" Done indexing {}.", element.getName());
 			final long end = System.currentTimeMillis();
@@ -136,49 +153,31 @@ public class JaxrsElementsIndexationDelegate {
 	}
 
 	public void indexElement(final IJaxrsEndpoint endpoint) {
-		try {
-			Logger.traceIndexing("Indexing {} after addition...", endpoint);
-			final Document doc = LuceneDocumentFactory.createDocument(endpoint);
-			Logger.debugIndexing("Adding JAX-RS Endpoint into index with following fields: {}", doc.getFields());
-			indexWriter.addDocument(doc);
-			indexWriter.commit();
-		} catch (IOException e) {
-			Logger.error("Failed to index the JAX-RS Endpoint " + endpoint, e);
-		} finally {
-			Logger.traceIndexing(" Done indexing {}.", endpoint);
-		}
+		Logger.traceIndexing("Indexing {} after addition...", endpoint);
+		final Document doc = LuceneDocumentFactory.createDocument(endpoint);
+		Logger.debugIndexing("Adding JAX-RS Endpoint into index with following fields: {}", doc.getFields());
+		index.addDocument(doc);
+		changed();
+		Logger.traceIndexing(" Done indexing {}.", endpoint);
 	}
 
 	public void reindexElement(final IJaxrsElement element) {
-		try {
-			Logger.traceIndexing("Re-indexing {} after some internal change...", element.getName());
-			final Document doc = LuceneDocumentFactory.createDocument(element);
-			final Term identifierTerm = LuceneDocumentFactory.getIdentifierTerm(element);
-			indexWriter.updateDocument(identifierTerm, doc);
-			indexWriter.commit();
-			Logger.debugIndexing("Updated JAX-RS Element index with following fields: {}. Writer.hasDeletions={}",
-					doc.getFields(), indexWriter.hasDeletions());
-		} catch (IOException e) {
-			Logger.error("Failed to re-index the JAX-RS Element " + element, e);
-		} finally {
-			Logger.traceIndexing(" Done re-indexing {}.", element);
-		}
+		Logger.traceIndexing("Re-indexing {} after some internal change...", element.getName());
+		final Document doc = LuceneDocumentFactory.createDocument(element);
+		// documents are keyed by their identifier: adding replaces the previous version
+		index.addDocument(doc);
+		changed();
+		Logger.debugIndexing("Updated JAX-RS Element index with following fields: {}", doc.getFields());
+		Logger.traceIndexing(" Done re-indexing {}.", element);
 	}
 
 	public void reindexElement(final IJaxrsEndpoint endpoint) {
-		try {
-			Logger.traceIndexing("Re-indexing {} after some internal change...", endpoint);
-			final Document doc = LuceneDocumentFactory.createDocument(endpoint);
-			final Term identifierTerm = LuceneDocumentFactory.getIdentifierTerm(endpoint);
-			indexWriter.updateDocument(identifierTerm, doc);
-			indexWriter.commit();
-			Logger.debugIndexing("Updated JAX-RS Endpoint index with following fields: {}. Writer.hasDeletions={}",
-					doc.getFields(), indexWriter.hasDeletions());
-		} catch (IOException e) {
-			Logger.error("Failed to re-index the JAX-RS Endpoint " + endpoint, e);
-		} finally {
-			Logger.traceIndexing(" Done re-indexing {}.", endpoint);
-		}
+		Logger.traceIndexing("Re-indexing {} after some internal change...", endpoint);
+		final Document doc = LuceneDocumentFactory.createDocument(endpoint);
+		index.addDocument(doc);
+		changed();
+		Logger.debugIndexing("Updated JAX-RS Endpoint index with following fields: {}", doc.getFields());
+		Logger.traceIndexing(" Done re-indexing {}.", endpoint);
 	}
 
 	/**
@@ -187,27 +186,8 @@ public class JaxrsElementsIndexationDelegate {
 	 * @param element
 	 */
 	public void unindexElement(final IJaxrsElement element) {
-		try {
-			final Term identifierTerm = LuceneDocumentFactory.getIdentifierTerm(element);
-			final Term markerTypeTerm = LuceneDocumentFactory.getMarkerTypeTerm();
-			if(Logger.isDebugIndexingEnabled()) {
-				Logger.debugIndexing("Unindexing {} after removal...", identifierTerm);
-				
-			}
-			final BooleanQuery deleteResourceMarkersQuery = new BooleanQuery();
-			deleteResourceMarkersQuery.add(new BooleanClause(new TermQuery(identifierTerm), Occur.MUST));
-			deleteResourceMarkersQuery.add(new BooleanClause(new TermQuery(markerTypeTerm), Occur.MUST_NOT));
-			
-			if(Logger.isDebugIndexingEnabled()) {
-				Logger.debugIndexing("Removing {} documents from index", count(deleteResourceMarkersQuery));
-			}
-			indexWriter.deleteDocuments(deleteResourceMarkersQuery);
-			indexWriter.commit();
-		} catch (IOException e) {
-			Logger.error("Failed to unindex the JAX-RS Element " + element, e);
-		} finally {
-			Logger.traceIndexing("Done unindexing {}.", element.getName());
-		}
+		unindex(LuceneDocumentFactory.getIdentifierTerm(element));
+		Logger.traceIndexing("Done unindexing {}.", element.getName());
 	}
 
 	/**
@@ -215,308 +195,117 @@ public class JaxrsElementsIndexationDelegate {
 	 * 
 	 * @param element
 	 */
-	// TODO: avoid code duplication with unindexElement(IJaxrsElement) above
 	public void unindexEndpoint(final IJaxrsEndpoint endpoint) {
-		try {
-			Logger.debugIndexing("Unindexing {} after removal...", endpoint);
-			final Term identifierTerm = LuceneDocumentFactory.getIdentifierTerm(endpoint);
-			indexWriter.deleteDocuments(identifierTerm);
-			indexWriter.commit();
-		} catch (IOException e) {
-			Logger.error("Failed to unindex the JAX-RS Element " + endpoint, e);
-		} finally {
-			Logger.traceIndexing("Done unindexing {}.", endpoint);
-		}
+		unindex(LuceneDocumentFactory.getIdentifierTerm(endpoint));
+		Logger.traceIndexing("Done unindexing {}.", endpoint);
 	}
 
-	/**
-	 * Join the given {@link Term}s using the {@link Occur#MUST} clause into a
-	 * {@link BooleanQuery}.
-	 * 
-	 * @param terms
-	 *            the search terms to join
-	 * @return the result query.
-	 */
-	public static BooleanQuery joinTerms(final Term... terms) {
-		final BooleanQuery query = new BooleanQuery();
-		if (terms != null) {
-			for (Term term : terms) {
-				query.add(new BooleanClause(new TermQuery(term), Occur.MUST));
-			}
+	private void unindex(final Term identifierTerm) {
+		Logger.debugIndexing("Unindexing {} after removal...", identifierTerm);
+		if (index.deleteDocument(identifierTerm.text())) {
+			changed();
 		}
-		return query;
 	}
-	
+
 	/**
-	 * Performs a {@link BooleanQuery} based on the given {@link TermQuery},
-	 * assuming that each query element is mandatory. This method returns a
-	 * single document identifier for an {@link IJaxrsElement}, or null if no
-	 * document matched.
+	 * Searches for a single {@link IJaxrsElement} matching all the given
+	 * {@link Term}s.
 	 * 
-	 * @param queries
-	 * @return the document identifier matching the query, or null if no
+	 * @param terms
+	 *            the search terms
+	 * @return the identifier of the element matching the query, or null if no
 	 *         document matched
 	 */
 	public String searchElement(final Term... terms) {
-		final BooleanQuery query = joinTerms(terms);
-		return searchSingle(query, IndexedObjectType.JAX_RS_ELEMENT);
-	}
-
-	private String searchSingle(final Query query, final IndexedObjectType type) {
-		try {
-			final IndexSearcher searcher = getNewIndexSearcherIfNeeded();
-			Logger.traceIndexing("Using IndexReader (current={} / hasDeletions={}) containing {} documents",
-					indexReader.isCurrent(), indexReader.hasDeletions(), indexReader.numDocs());
-			Logger.traceIndexing("Searching single document matching {}", query.toString());
-			final TopDocs result = searcher.search(query, 1);
-			if (result.totalHits >= 1) {
-				int docIndex = result.scoreDocs[0].doc;
-				final Document doc = searcher.doc(docIndex);
-				final String docIdentifier = doc.get(LuceneFields.FIELD_IDENTIFIER);
-				return docIdentifier.substring(type.getPrefix().length());
-			}
-		} catch (IOException e) {
-			Logger.error("Failed to search for JAX-RS element in index", e);
+		Logger.traceIndexing("Searching single document matching {}", Arrays.asList(terms));
+		final String docIdentifier = index.searchFirst(terms);
+		if (docIdentifier == null) {
+			Logger.traceIndexing(" Not document matched the query.");
+			return null;
 		}
-		Logger.traceIndexing(" Not document matched the query.");
-		return null;
+		return docIdentifier.substring(IndexedObjectType.JAX_RS_ELEMENT.getPrefix().length());
 	}
 
 	/**
-	 * Searches and returns a collection of elements matching the
-	 * {@link BooleanQuery} based on the given {@link TermQuery}, assuming that
-	 * each query term is MUST match.
+	 * Searches and returns a collection of elements matching all the given
+	 * {@link Term}s.
 	 * 
-	 * @param clazz the expected JAX-RS element type
 	 * @param terms the search terms
 	 * 
-	 * @return the {@link IJaxrsElement}s matching the query, or null if no
-	 *         document matched
+	 * @return the {@link IJaxrsElement}s matching the query, or an empty set
+	 *         if no document matched
 	 */
+	@SuppressWarnings("unchecked")
 	public <T> Set<T> searchElements(final Term... terms) {
-		try {
-			final IndexSearcher searcher = getNewIndexSearcherIfNeeded();
-			Logger.traceIndexing("Using IndexReader (current={} / hasDeletions={}) containing {} documents",
-					indexReader.isCurrent(), indexReader.hasDeletions(), indexReader.numDocs());
-			final BooleanQuery query = joinTerms(terms);
-			Logger.traceIndexing("Searching documents matching {}", query.toString());
-			final JaxrsElementsCollector<T> collector = new JaxrsElementsCollector<T>();
-			searcher.search(query, collector);
-			final Set<T> elements = collector.getResults();
-			Logger.traceIndexing(" Found {} matching elements", elements.size());
-			return elements;
-		} catch (IOException e) {
-			Logger.error("Failed to search for JAX-RS element in index", e);
+		Logger.traceIndexing("Searching documents matching {}", Arrays.asList(terms));
+		final List<String> docIdentifiers = index.search(terms);
+		if (docIdentifiers.isEmpty()) {
+			return Collections.emptySet();
 		}
-		return Collections.emptySet();
+		final String identifierPrefix = IndexedObjectType.JAX_RS_ELEMENT.getPrefix();
+		final Set<T> elements = new HashSet<T>(docIdentifiers.size() * 2);
+		for (String docIdentifier : docIdentifiers) {
+			if (!docIdentifier.startsWith(identifierPrefix)) {
+				continue;
+			}
+			final IJaxrsElement element = metamodel.getElement(docIdentifier.substring(identifierPrefix.length()));
+			if (element != null) {
+				elements.add((T) element);
+			}
+		}
+		Logger.traceIndexing(" Found {} matching elements", elements.size());
+		return elements;
 	}
 	
 	/**
-	 * Searches and returns a collection of {@link JaxrsEndpoint}s matching the
-	 * {@link BooleanQuery} based on the given {@link TermQuery}, assuming that
-	 * each query term is MUST match.
+	 * Searches and returns a collection of {@link JaxrsEndpoint}s matching all
+	 * the given {@link Term}s.
 	 * 
-	 * @param queries
-	 * @return the {@link JaxrsEndpoint}s matching the query, or null if no
-	 *         document matched
+	 * @param terms the search terms
+	 * @return the {@link JaxrsEndpoint}s matching the query, or an empty set
+	 *         if no document matched
 	 */
 	public Set<JaxrsEndpoint> searchEndpoints(final Term... terms) {
-		try {
-			Logger.debugIndexing("Searching for Endpoints with using: {}", Arrays.asList(terms));
-			final IndexSearcher searcher = getNewIndexSearcherIfNeeded();
-			Logger.traceIndexing("Using IndexReader (current={} / hasDeletions={}) containing {} documents",
-					indexReader.isCurrent(), indexReader.hasDeletions(), indexReader.numDocs());
-			final BooleanQuery query = joinTerms(terms);
-			Logger.traceIndexing("Searching documents matching {}", query.toString());
-			final JaxrsEndpointsCollector collector = new JaxrsEndpointsCollector();
-			searcher.search(query, collector);
-			final Set<JaxrsEndpoint> endpoints = collector.getResults();
-			Logger.traceIndexing(" Found {} matching endpoints", endpoints.size());
-			return endpoints;
-		} catch (IOException e) {
-			Logger.error("Failed to search for JAX-RS element in index", e);
+		Logger.debugIndexing("Searching for Endpoints with using: {}", Arrays.asList(terms));
+		final List<String> docIdentifiers = index.search(terms);
+		if (docIdentifiers.isEmpty()) {
+			return Collections.emptySet();
+		}
+		final String identifierPrefix = IndexedObjectType.JAX_RS_ENDPOINT.getPrefix();
+		final Set<JaxrsEndpoint> endpoints = new HashSet<JaxrsEndpoint>(docIdentifiers.size() * 2);
+		for (String docIdentifier : docIdentifiers) {
+			if (!docIdentifier.startsWith(identifierPrefix)) {
+				continue;
+			}
+			final JaxrsEndpoint endpoint = metamodel.getEndpoint(docIdentifier.substring(identifierPrefix.length()));
+			if (endpoint != null) {
+				endpoints.add(endpoint);
+			}
 		}
-		return Collections.emptySet();
+		Logger.traceIndexing(" Found {} matching endpoints", endpoints.size());
+		return endpoints;
 	}
 	
 	/**
-	 * Performs a {@link BooleanQuery} based on the given {@link TermQuery},
-	 * assuming that each element MUST occur, and return the number of matches.
+	 * Counts the documents matching all the given {@link Term}s.
 	 * 
 	 * @param terms
 	 * @return the number of matching documents
 	 */
-	public int count(final Query query) {
-		try {
-			Logger.traceIndexing("Using IndexReader (current={} / hasDeletions={}) containing {} documents",
-					indexReader.isCurrent(), indexReader.hasDeletions(), indexReader.numDocs());
-			final IndexSearcher searcher = getNewIndexSearcherIfNeeded();
-			final TotalHitCountCollector collector = new TotalHitCountCollector();
-			Logger.traceIndexing("Counting documents matching {}...", query.toString());
-			searcher.search(query, collector);
-			final int totalHits = collector.getTotalHits();
-			Logger.traceIndexing(" Found {} matching documents", totalHits);
-			return totalHits;
-		} catch (IOException e) {
-			Logger.error("Failed to search for JAX-RS element in index", e);
-		}
-		return 0;
-	}
-
-	private IndexSearcher getNewIndexSearcherIfNeeded() throws IOException {
-		final IndexReader newIndexReader = IndexReader.openIfChanged(indexReader, indexWriter, true);
-		if (newIndexReader != null) {
-			this.indexReader = newIndexReader;
-			Logger.traceIndexing("Reopening IndexReader (current={} / hasDeletions={}) now containing {} documents",
-					indexReader.isCurrent(), indexReader.hasDeletions(), indexReader.numDocs());
-			this.indexSearcher = new IndexSearcher(indexReader);
-		}
-		return this.indexSearcher;
+	public int count(final Term... terms) {
+		final int totalHits = index.count(terms);
+		Logger.traceIndexing("Found {} documents matching {}", totalHits, Arrays.asList(terms));
+		return totalHits;
 	}
 
 	/**
-	 * Document IDs Collector. Collectd the mathcing {@link Document}'s
-	 * {@code LuceneDocumentFactory#FIELD_IDENTIFIER} {@link Field} in a
-	 * {@link Set} to avoid duplicate results.
-	 * 
-	 * @author xcoulon
-	 * 
+	 * An indexing batch: its depth (since batches can be nested), the number of
+	 * changes it contains, and the time (in nanoseconds) at which it started.
 	 */
-	static abstract class AnyResultsCollector<T> extends Collector {
-
-		/** The current Lucene {@link IndexReader}. */
-		private IndexReader indexReader;
-		
-		/**
-		 * Set of doc identifiers matching the query. Using a {@link TreeSet} to
-		 * keep order of returned elements.
-		 */
-		final Set<T> results;
-
-		private int docBase;
-
-		public AnyResultsCollector(final Set<T> results) {
-			this.results = results;
-		}
-		
-		@Override
-		public void setScorer(Scorer scorer) throws IOException {
-		}
-
-		@Override
-		public void setNextReader(IndexReader indexReader, int docBase) throws IOException {
-			this.setIndexReader(indexReader);
-			this.setDocBase(docBase);
-		}
-
-		@Override
-		public boolean acceptsDocsOutOfOrder() {
-			return true;
-		}
-
-		public Set<T> getResults() throws CorruptIndexException, IOException {
-			return results;
-		}
-
-		/**
-		 * @return the indexReader
-		 */
-		public IndexReader getIndexReader() {
-			return indexReader;
-		}
-
-		/**
-		 * @param indexReader the indexReader to set
-		 */
-		public void setIndexReader(IndexReader indexReader) {
-			this.indexReader = indexReader;
-		}
-
-		/**
-		 * @return the docBase
-		 */
-		public int getDocBase() {
-			return docBase;
-		}
-
-		/**
-		 * @param docBase the docBase to set
-		 */
-		public void setDocBase(int docBase) {
-			this.docBase = docBase;
-		}
-
-	}
-	
-	class JaxrsElementsCollector<T> extends AnyResultsCollector<T> {
-
-		/** The prefix to strip off the result identifiers. */
-		private final String identifierPrefix;
-
-		public JaxrsElementsCollector() {
-			super(new HashSet<T>());
-			this.identifierPrefix = IndexedObjectType.JAX_RS_ELEMENT.getPrefix();
-		}
-		
-		@SuppressWarnings("unchecked")
-		@Override
-		public void collect(int docId) throws IOException {
-			Logger.traceIndexing("  Adding doc#{} (deleted={}) to search results", (getDocBase() + docId),
-					getIndexReader().isDeleted(docId));
-			final Document document = getIndexReader().document(docId);
-			final String docIdentifier = document.get(LuceneFields.FIELD_IDENTIFIER);
-			final String docCategory = document.get(LuceneFields.FIELD_TYPE);
-			Logger.traceIndexing("  Retrieved document #{} ({})", docIdentifier, docCategory);
-			final IJaxrsElement element = metamodel.getElement(docIdentifier.substring(identifierPrefix.length()));
-			if(element != null) {
-				results.add((T) element);
-			}
-		}
-	}
-
-	class JaxrsEndpointsCollector extends AnyResultsCollector<JaxrsEndpoint> {
-		
-		/** The prefix to strip off the result identifiers. */
-		private final String identifierPrefix;
-		
-		public JaxrsEndpointsCollector() {
-			super(new HashSet<JaxrsEndpoint>());
-			this.identifierPrefix = IndexedObjectType.JAX_RS_ENDPOINT.getPrefix();
-		}
-		
-		@Override
-		public void collect(int docId) throws IOException {
-			Logger.traceIndexing("  Adding doc#{} (deleted={}) to search results", (getDocBase() + docId),
-					getIndexReader().isDeleted(docId));
-			final Document document = getIndexReader().document(docId);
-			final String docIdentifier = document.get(LuceneFields.FIELD_IDENTIFIER);
-			final String docCategory = document.get(LuceneFields.FIELD_TYPE);
-			Logger.traceIndexing("  Retrieved document #{} ({})", docIdentifier, docCategory);
-			final JaxrsEndpoint endpoint = metamodel.getEndpoint(docIdentifier.substring(identifierPrefix.length()));
-			if(endpoint != null) {
-				results.add(endpoint);
-			}
-		}
-	}
-	
-	class ResourcesCollector extends AnyResultsCollector<IResource> {
-
-		public ResourcesCollector() {
-			super(new HashSet<IResource>());
-		}
-		@Override
-		public void collect(int docId) throws IOException {
-			Logger.traceIndexing("  Adding doc#{} (deleted={}) to search results", (getDocBase() + docId),
-					getIndexReader().isDeleted(docId));
-			final Document document = getIndexReader().document(docId);
-			final String identifier = document.get(LuceneFields.FIELD_IDENTIFIER);
-			final String resourcePath = document.get(LuceneFields.FIELD_RESOURCE_PATH);
-			Logger.traceIndexing("  Retrieved document #{} for resource at {}", identifier, resourcePath);
-			final IResource resource = metamodel.getProject().getWorkspace().getRoot().findMember(new Path(resourcePath));
-			if(resource != null) {
-				results.add(resource);
-			}
-		}
+	private static class Batch {
+		int depth;
+		int changes;
+		long startTime;
 	}
 
 }
@@ -0,0 +1,354 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.AnnotationTypeDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.EnumDeclaration;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.ImportDeclaration;
+import org.eclipse.jdt.core.dom.PackageDeclaration;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
+
+/**
+ * A graph of the references between the source types of a project, in both
+ * directions (the types referenced by a given type, and the types that
+ * reference a given type). The graph is fed with the ASTs of the compilation
+ * units that are parsed while the metamodel is built, and each compilation
+ * unit replaces the references that were previously recorded for the types it
+ * declares. Type names are mapped to {@code int} identifiers, and the
+ * adjacency lists are {@link IntSet}s.
+ * <p>
+ * A type reference is any name that resolves to the type within the
+ * declaration of another type (including in its member types, whose references
+ * are recorded for all their enclosing types), as would be found by a
+ * {@code SearchEngine} search of all occurrences of the type. References in
+ * the import declarations are ignored.
+ * </p>
+ * All operations are synchronized, since compilation units may be processed
+ * concurrently.
+ * 
+ * @author xcoulon
+ * 
+ */
+public class TypeReferenceGraph {
+
+	/** The identifiers of the type names. */
+	private final Map<String, Integer> typeIds = new HashMap<String, Integer>();
+
+	/** The type names, indexed by their identifier. */
+	private final List<String> typeNames = new ArrayList<String>();
+
+	/** The identifiers of the types referenced by each type. */
+	private final List<IntSet> references = new ArrayList<IntSet>();
+
+	/** The identifiers of the types that reference each type. */
+	private final List<IntSet> referrers = new ArrayList<IntSet>();
+
+	/** The identifiers of the types declared in a known compilation unit. */
+	private final IntSet knownTypes = new IntSet();
+
+	/**
+	 * The identifiers of the types declared in each known compilation unit,
+	 * indexed by the handle identifier of the compilation unit.
+	 */
+	private final Map<String, int[]> declaredTypes = new HashMap<String, int[]>();
+
+	/**
+	 * Records the type references of the given AST, replacing those that were
+	 * previously recorded for the same compilation unit. ASTs without binding
+	 * (such as some reconcile ASTs) are not used, and the previous references
+	 * of their compilation unit are discarded instead.
+	 * 
+	 * @param ast
+	 *            the AST of a compilation unit
+	 */
+	public void update(final CompilationUnit ast) {
+		if (ast == null || !(ast.getJavaElement() instanceof ICompilationUnit)) {
+			return;
+		}
+		final ICompilationUnit compilationUnit = (ICompilationUnit) ast.getJavaElement();
+		if (!ast.getAST().hasResolvedBindings()) {
+			remove(compilationUnit);
+			return;
+		}
+		final TypeReferencesCollector collector = new TypeReferencesCollector();
+		ast.accept(collector);
+		synchronized (this) {
+			internalRemove(compilationUnit.getHandleIdentifier());
+			final int[] ids = new int[collector.references.size()];
+			int i = 0;
+			for (Entry<String, Set<String>> entry : collector.references.entrySet()) {
+				final int typeId = getOrCreateId(entry.getKey());
+				ids[i++] = typeId;
+				knownTypes.add(typeId);
+				for (String referencedTypeName : entry.getValue()) {
+					final int referencedTypeId = getOrCreateId(referencedTypeName);
+					if (referencedTypeId != typeId) {
+						references.get(typeId).add(referencedTypeId);
+						referrers.get(referencedTypeId).add(typeId);
+					}
+				}
+			}
+			declaredTypes.put(compilationUnit.getHandleIdentifier(), ids);
+		}
+		Logger.traceIndexing("Recorded type references of {}", compilationUnit.getElementName());
+	}
+
+	/**
+	 * Removes the type references that were recorded for the given compilation
+	 * unit.
+	 * 
+	 * @param compilationUnit
+	 *            the compilation unit
+	 */
+	public synchronized void remove(final ICompilationUnit compilationUnit) {
+		internalRemove(compilationUnit.getHandleIdentifier());
+	}
+
+	/**
+	 * Removes all the recorded type references.
+	 */
+	public synchronized void clear() {
+		typeIds.clear();
+		typeNames.clear();
+		references.clear();
+		referrers.clear();
+		knownTypes.clear();
+		declaredTypes.clear();
+	}
+
+	/**
+	 * @param typeName
+	 *            the fully qualified name of a type
+	 * @return {@code true} if the references of the given type are known (ie,
+	 *         the AST of its compilation unit was recorded), {@code false}
+	 *         otherwise
+	 */
+	public synchronized boolean isKnown(final String typeName) {
+		final Integer typeId = typeIds.get(typeName);
+		return typeId != null && knownTypes.contains(typeId);
+	}
+
+	/**
+	 * @param typeName
+	 *            the fully qualified name of a type
+	 * @return the fully qualified names of the types that are referenced by
+	 *         the given type
+	 */
+	public synchronized Set<String> getReferencedTypes(final String typeName) {
+		final Integer typeId = typeIds.get(typeName);
+		if (typeId == null) {
+			return Collections.emptySet();
+		}
+		return toTypeNames(references.get(typeId));
+	}
+
+	/**
+	 * @param typeName
+	 *            the fully qualified name of a type
+	 * @return the fully qualified names of the known types that reference the
+	 *         given type
+	 */
+	public synchronized Set<String> getReferencingTypes(final String typeName) {
+		final Integer typeId = typeIds.get(typeName);
+		if (typeId == null) {
+			return Collections.emptySet();
+		}
+		return toTypeNames(referrers.get(typeId));
+	}
+
+	/**
+	 * @param typeName
+	 *            the fully qualified name of a type
+	 * @return the fully qualified names of the types that are referenced by
+	 *         the given type or that reference it, excluding the given type
+	 *         itself
+	 */
+	public synchronized Set<String> getRelatedTypes(final String typeName) {
+		final Integer typeId = typeIds.get(typeName);
+		if (typeId == null) {
+			return Collections.emptySet();
+		}
+		final Set<String> relatedTypes = toTypeNames(references.get(typeId));
+		relatedTypes.addAll(toTypeNames(referrers.get(typeId)));
+		return relatedTypes;
+	}
+
+	/**
+	 * @return the number of compilation units whose type references are known
+	 */
+	public synchronized int getCompilationUnitsCount() {
+		return declaredTypes.size();
+	}
+
+	private void internalRemove(final String compilationUnitIdentifier) {
+		final int[] ids = declaredTypes.remove(compilationUnitIdentifier);
+		if (ids == null) {
+			return;
+		}
+		for (int typeId : ids) {
+			final IntSet referencedTypeIds = references.get(typeId);
+			for (int i = 0; i < referencedTypeIds.size(); i++) {
+				referrers.get(referencedTypeIds.get(i)).remove(typeId);
+			}
+			referencedTypeIds.clear();
+			knownTypes.remove(typeId);
+		}
+	}
+
+	private int getOrCreateId(final String typeName) {
+		final Integer existingId = typeIds.get(typeName);
+		if (existingId != null) {
+			return existingId;
+		}
+		final int typeId = typeNames.size();
+		typeIds.put(typeName, typeId);
+		typeNames.add(typeName);
+		references.add(new IntSet());
+		referrers.add(new IntSet());
+		return typeId;
+	}
+
+	private Set<String> toTypeNames(final IntSet ids) {
+		final Set<String> names = new HashSet<String>(ids.size() * 2);
+		for (int i = 0; i < ids.size(); i++) {
+			names.add(typeNames.get(ids.get(i)));
+		}
+		return names;
+	}
+
+	/**
+	 * Collects the names of the types referenced in each type declaration of
+	 * a compilation unit.
+	 */
+	private static class TypeReferencesCollector extends ASTVisitor {
+
+		/** The referenced types, indexed by referencing type. */
+		final Map<String, Set<String>> references = new LinkedHashMap<String, Set<String>>();
+
+		/** The references of the enclosing type declarations. */
+		private final LinkedList<Set<String>> enclosingTypes = new LinkedList<Set<String>>();
+
+		@Override
+		public boolean visit(final PackageDeclaration node) {
+			return false;
+		}
+
+		@Override
+		public boolean visit(final ImportDeclaration node) {
+			return false;
+		}
+
+		@Override
+		public boolean visit(final TypeDeclaration node) {
+			return enterTypeDeclaration(node);
+		}
+
+		@Override
+		public void endVisit(final TypeDeclaration node) {
+			exitTypeDeclaration(node);
+		}
+
+		@Override
+		public boolean visit(final EnumDeclaration node) {
+			return enterTypeDeclaration(node);
+		}
+
+		@Override
+		public void endVisit(final EnumDeclaration node) {
+			exitTypeDeclaration(node);
+		}
+
+		@Override
+		public boolean visit(final AnnotationTypeDeclaration node) {
+			return enterTypeDeclaration(node);
+		}
+
+		@Override
+		public void endVisit(final AnnotationTypeDeclaration node) {
+			exitTypeDeclaration(node);
+		}
+
+		@Override
+		public boolean visit(final SimpleName node) {
+			if (enclosingTypes.isEmpty()) {
+				return false;
+			}
+			final String typeName = getTypeName(node.resolveBinding());
+			if (typeName != null) {
+				for (Set<String> enclosingTypeReferences : enclosingTypes) {
+					enclosingTypeReferences.add(typeName);
+				}
+			}
+			return false;
+		}
+
+		private boolean enterTypeDeclaration(final AbstractTypeDeclaration node) {
+			final String typeName = getTypeName(node.resolveBinding());
+			if (typeName != null) {
+				final Set<String> typeReferences = new HashSet<String>();
+				references.put(typeName, typeReferences);
+				enclosingTypes.addFirst(typeReferences);
+			}
+			return true;
+		}
+
+		private void exitTypeDeclaration(final AbstractTypeDeclaration node) {
+			if (getTypeName(node.resolveBinding()) != null) {
+				enclosingTypes.removeFirst();
+			}
+		}
+
+		/**
+		 * @return the fully qualified name of the given binding if it is a
+		 *         type binding with such a name, {@code null} otherwise (eg:
+		 *         local or anonymous types, type variables, primitive types).
+		 */
+		private static String getTypeName(final IBinding binding) {
+			if (!(binding instanceof ITypeBinding)) {
+				return null;
+			}
+			ITypeBinding typeBinding = (ITypeBinding) binding;
+			if (typeBinding.isArray()) {
+				typeBinding = typeBinding.getElementType();
+			}
+			if (typeBinding.isPrimitive() || typeBinding.isTypeVariable() || typeBinding.isWildcardType()
+					|| typeBinding.isCapture() || typeBinding.isNullType()) {
+				return null;
+			}
+			final String typeName = typeBinding.getErasure().getQualifiedName();
+			if (typeName == null || typeName.isEmpty()) {
+				return null;
+			}
+			return typeName;
+		}
+	}
+
+}
@@ -0,0 +1,490 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.internal.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable hash map, implemented as a hash array mapped trie: each
+ * {@link PersistentHashMap#put(Object, Object)} or
+ * {@link PersistentHashMap#remove(Object)} returns a new map that shares all
+ * the nodes of the previous map, except those on the path to the added or
+ * removed entry (at most 7 levels). Both maps remain valid and can be read
+ * concurrently without any synchronization.
+ * <p>
+ * Keys and values must not be {@code null}.
+ * </p>
+ * 
+ * @author xcoulon
+ * 
+ * @param <K>
+ *            the type of the keys
+ * @param <V>
+ *            the type of the values
+ */
+public final class PersistentHashMap<K, V> {
+
+	/** Number of bits of the hash consumed at each level of the trie. */
+	private static final int BITS = 5;
+
+	/** Mask to extract the index of a child at a given level. */
+	private static final int MASK = (1 << BITS) - 1;
+
+	@SuppressWarnings("rawtypes")
+	private static final PersistentHashMap EMPTY = new PersistentHashMap(null, 0);
+
+	/** The root node of the trie, or {@code null} if the map is empty. */
+	private final Node root;
+
+	/** The number of entries in the map. */
+	private final int size;
+
+	private PersistentHashMap(final Node root, final int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * @return the empty map
+	 */
+	@SuppressWarnings("unchecked")
+	public static <K, V> PersistentHashMap<K, V> empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * @return the number of entries in this map
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return {@code true} if this map has no entry
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @param key
+	 *            the key
+	 * @return the value associated with the given key, or {@code null} if
+	 *         there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(final Object key) {
+		if (root == null || key == null) {
+			return null;
+		}
+		return (V) root.get(key, hash(key), 0);
+	}
+
+	/**
+	 * @param key
+	 *            the key
+	 * @return {@code true} if this map contains the given key
+	 */
+	public boolean containsKey(final Object key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the value
+	 * @return a map that contains all entries of this map plus the given one
+	 *         (replacing the previous value of the given key, if any), or this
+	 *         map itself if it already contained the given entry
+	 */
+	public PersistentHashMap<K, V> put(final K key, final V value) {
+		if (key == null || value == null) {
+			throw new IllegalArgumentException("Null keys and values are not supported");
+		}
+		final int hash = hash(key);
+		if (root == null) {
+			return new PersistentHashMap<K, V>(new Leaf(hash, key, value), 1);
+		}
+		final boolean[] added = new boolean[1];
+		final Node newRoot = root.put(key, hash, value, 0, added);
+		if (newRoot == root) {
+			return this;
+		}
+		return new PersistentHashMap<K, V>(newRoot, added[0] ? size + 1 : size);
+	}
+
+	/**
+	 * @param key
+	 *            the key
+	 * @return a map that contains all entries of this map except the one with
+	 *         the given key, or this map itself if it did not contain the
+	 *         given key
+	 */
+	public PersistentHashMap<K, V> remove(final Object key) {
+		if (root == null || key == null) {
+			return this;
+		}
+		final Node newRoot = root.remove(key, hash(key), 0);
+		if (newRoot == root) {
+			return this;
+		}
+		if (newRoot == null) {
+			return empty();
+		}
+		return new PersistentHashMap<K, V>(newRoot, size - 1);
+	}
+
+	/**
+	 * @return a new list with the values of this map, in no particular order
+	 */
+	@SuppressWarnings("unchecked")
+	public List<V> values() {
+		final List<Object> values = new ArrayList<Object>(size);
+		if (root != null) {
+			root.collectValues(values);
+		}
+		return (List<V>) values;
+	}
+
+	/**
+	 * Counts the nodes of this map that are not shared with the given map, ie,
+	 * the nodes that are retained by this map only if the given map is
+	 * retained too. Comparing a map with its previous version gives the
+	 * memory cost of the new version.
+	 * 
+	 * @param other
+	 *            the other map (eg: the previous version of this map)
+	 * @return the number of nodes of this map that do not belong to the other
+	 *         map
+	 */
+	public int countNodesNotSharedWith(final PersistentHashMap<K, V> other) {
+		if (root == null) {
+			return 0;
+		}
+		return root.countNodesNotSharedWith(other.root);
+	}
+
+	private static int hash(final Object key) {
+		int hash = key.hashCode();
+		// spread the higher bits, since the lower bits are consumed first
+		hash ^= (hash >>> 20) ^ (hash >>> 12);
+		return hash ^ (hash >>> 7) ^ (hash >>> 4);
+	}
+
+	/**
+	 * A node of the trie. Nodes are immutable.
+	 */
+	private static abstract class Node {
+
+		abstract Object get(final Object key, final int hash, final int shift);
+
+		/**
+		 * @return the node with the given entry, or this node if it already
+		 *         contained the given entry. Sets {@code added[0]} to
+		 *         {@code true} if the key was not in the node yet.
+		 */
+		abstract Node put(final Object key, final int hash, final Object value, final int shift,
+				final boolean[] added);
+
+		/**
+		 * @return the node without the given key, this node if it did not
+		 *         contain the given key, or {@code null} if the node is empty
+		 *         after the removal.
+		 */
+		abstract Node remove(final Object key, final int hash, final int shift);
+
+		abstract void collectValues(final List<Object> values);
+
+		abstract int countNodesNotSharedWith(final Node other);
+	}
+
+	/**
+	 * A single entry. Its position in the trie does not depend on the level at
+	 * which it is stored.
+	 */
+	private static final class Leaf extends Node {
+
+		final int hash;
+
+		final Object key;
+
+		final Object value;
+
+		Leaf(final int hash, final Object key, final Object value) {
+			this.hash = hash;
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		Object get(final Object key, final int hash, final int shift) {
+			return (this.hash == hash && this.key.equals(key)) ? value : null;
+		}
+
+		@Override
+		Node put(final Object key, final int hash, final Object value, final int shift, final boolean[] added) {
+			if (this.hash == hash && this.key.equals(key)) {
+				return this.value == value ? this : new Leaf(hash, key, value);
+			}
+			added[0] = true;
+			final Leaf leaf = new Leaf(hash, key, value);
+			if (this.hash == hash) {
+				return new Collision(hash, new Leaf[] { this, leaf });
+			}
+			return Branch.of(this, this.hash, leaf, hash, shift);
+		}
+
+		@Override
+		Node remove(final Object key, final int hash, final int shift) {
+			return (this.hash == hash && this.key.equals(key)) ? null : this;
+		}
+
+		@Override
+		void collectValues(final List<Object> values) {
+			values.add(value);
+		}
+
+		@Override
+		int countNodesNotSharedWith(final Node other) {
+			return this == other ? 0 : 1;
+		}
+	}
+
+	/**
+	 * The entries whose keys have the same hash.
+	 */
+	private static final class Collision extends Node {
+
+		final int hash;
+
+		final Leaf[] leaves;
+
+		Collision(final int hash, final Leaf[] leaves) {
+			this.hash = hash;
+			this.leaves = leaves;
+		}
+
+		@Override
+		Object get(final Object key, final int hash, final int shift) {
+			if (this.hash != hash) {
+				return null;
+			}
+			for (Leaf leaf : leaves) {
+				if (leaf.key.equals(key)) {
+					return leaf.value;
+				}
+			}
+			return null;
+		}
+
+		@Override
+		Node put(final Object key, final int hash, final Object value, final int shift, final boolean[] added) {
+			if (this.hash != hash) {
+				added[0] = true;
+				return Branch.of(this, this.hash, new Leaf(hash, key, value), hash, shift);
+			}
+			for (int i = 0; i < leaves.length; i++) {
+				if (leaves[i].key.equals(key)) {
+					if (leaves[i].value == value) {
+						return this;
+					}
+					final Leaf[] newLeaves = leaves.clone();
+					newLeaves[i] = new Leaf(hash, key, value);
+					return new Collision(hash, newLeaves);
+				}
+			}
+			added[0] = true;
+			final Leaf[] newLeaves = new Leaf[leaves.length + 1];
+			System.arraycopy(leaves, 0, newLeaves, 0, leaves.length);
+			newLeaves[leaves.length] = new Leaf(hash, key, value);
+			return new Collision(hash, newLeaves);
+		}
+
+		@Override
+		Node remove(final Object key, final int hash, final int shift) {
+			if (this.hash != hash) {
+				return this;
+			}
+			for (int i = 0; i < leaves.length; i++) {
+				if (leaves[i].key.equals(key)) {
+					if (leaves.length == 2) {
+						return leaves[1 - i];
+					}
+					final Leaf[] newLeaves = new Leaf[leaves.length - 1];
+					System.arraycopy(leaves, 0, newLeaves, 0, i);
+					System.arraycopy(leaves, i + 1, newLeaves, i, leaves.length - i - 1);
+					return new Collision(hash, newLeaves);
+				}
+			}
+			return this;
+		}
+
+		@Override
+		void collectValues(final List<Object> values) {
+			for (Leaf leaf : leaves) {
+				values.add(leaf.value);
+			}
+		}
+
+		@Override
+		int countNodesNotSharedWith(final Node other) {
+			if (this == other) {
+				return 0;
+			}
+			int count = 1;
+			final Leaf[] otherLeaves = (other instanceof Collision) ? ((Collision) other).leaves : new Leaf[0];
+			for (Leaf leaf : leaves) {
+				boolean shared = false;
+				for (Leaf otherLeaf : otherLeaves) {
+					shared |= (leaf == otherLeaf);
+				}
+				if (!shared) {
+					count++;
+				}
+			}
+			return count;
+		}
+	}
+
+	/**
+	 * An inner node, with up to 32 children indexed by the next {@value #BITS}
+	 * bits of the hash. Only the present children are stored.
+	 */
+	private static final class Branch extends Node {
+
+		final int bitmap;
+
+		final Node[] children;
+
+		Branch(final int bitmap, final Node[] children) {
+			this.bitmap = bitmap;
+			this.children = children;
+		}
+
+		/**
+		 * @return a branch (or a chain of branches) at the given level
+		 *         containing the two given nodes, whose hashes differ.
+		 */
+		static Node of(final Node first, final int firstHash, final Node second, final int secondHash,
+				final int shift) {
+			final int firstIndex = (firstHash >>> shift) & MASK;
+			final int secondIndex = (secondHash >>> shift) & MASK;
+			if (firstIndex == secondIndex) {
+				return new Branch(1 << firstIndex, new Node[] { of(first, firstHash, second, secondHash,
+						shift + BITS) });
+			}
+			if (firstIndex < secondIndex) {
+				return new Branch((1 << firstIndex) | (1 << secondIndex), new Node[] { first, second });
+			}
+			return new Branch((1 << firstIndex) | (1 << secondIndex), new Node[] { second, first });
+		}
+
+		private int position(final int bit) {
+			return Integer.bitCount(bitmap & (bit - 1));
+		}
+
+		@Override
+		Object get(final Object key, final int hash, final int shift) {
+			final int bit = 1 << ((hash >>> shift) & MASK);
+			if ((bitmap & bit) == 0) {
+				return null;
+			}
+			return children[position(bit)].get(key, hash, shift + BITS);
+		}
+
+		@Override
+		Node put(final Object key, final int hash, final Object value, final int shift, final boolean[] added) {
+			final int bit = 1 << ((hash >>> shift) & MASK);
+			final int position = position(bit);
+			if ((bitmap & bit) == 0) {
+				added[0] = true;
+				final Node[] newChildren = new Node[children.length + 1];
+				System.arraycopy(children, 0, newChildren, 0, position);
+				newChildren[position] = new Leaf(hash, key, value);
+				System.arraycopy(children, position, newChildren, position + 1, children.length - position);
+				return new Branch(bitmap | bit, newChildren);
+			}
+			final Node child = children[position];
+			final Node newChild = child.put(key, hash, value, shift + BITS, added);
+			if (newChild == child) {
+				return this;
+			}
+			final Node[] newChildren = children.clone();
+			newChildren[position] = newChild;
+			return new Branch(bitmap, newChildren);
+		}
+
+		@Override
+		Node remove(final Object key, final int hash, final int shift) {
+			final int bit = 1 << ((hash >>> shift) & MASK);
+			if ((bitmap & bit) == 0) {
+				return this;
+			}
+			final int position = position(bit);
+			final Node child = children[position];
+			final Node newChild = child.remove(key, hash, shift + BITS);
+			if (newChild == child) {
+				return this;
+			}
+			if (newChild == null) {
+				if (children.length == 1) {
+					return null;
+				}
+				final Node[] newChildren = new Node[children.length - 1];
+				System.arraycopy(children, 0, newChildren, 0, position);
+				System.arraycopy(children, position + 1, newChildren, position, children.length - position - 1);
+				if (newChildren.length == 1 && !(newChildren[0] instanceof Branch)) {
+					// a single leaf (or collision) does not need a branch
+					return newChildren[0];
+				}
+				return new Branch(bitmap & ~bit, newChildren);
+			}
+			if (children.length == 1 && !(newChild instanceof Branch)) {
+				return newChild;
+			}
+			final Node[] newChildren = children.clone();
+			newChildren[position] = newChild;
+			return new Branch(bitmap, newChildren);
+		}
+
+		@Override
+		void collectValues(final List<Object> values) {
+			for (Node child : children) {
+				child.collectValues(values);
+			}
+		}
+
+		@Override
+		int countNodesNotSharedWith(final Node other) {
+			if (this == other) {
+				return 0;
+			}
+			int count = 1;
+			final Branch otherBranch = (other instanceof Branch) ? (Branch) other : null;
+			for (int i = 0, position = 0; i <= MASK; i++) {
+				final int bit = 1 << i;
+				if ((bitmap & bit) == 0) {
+					continue;
+				}
+				// a leaf of the other map may have been pushed down into a new branch
+				Node otherChild = (otherBranch == null) ? other : null;
+				if (otherBranch != null && (otherBranch.bitmap & bit) != 0) {
+					otherChild = otherBranch.children[otherBranch.position(bit)];
+				}
+				count += children[position++].countNodesNotSharedWith(otherChild);
+			}
+			return count;
+		}
+	}
+
+}
@@ -0,0 +1,175 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.core.internal.utils;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.WeakHashMap;
+
+import org.jboss.tools.ws.jaxrs.core.metrics.JaxrsMetrics;
+import org.jboss.tools.ws.jaxrs.core.utils.JaxrsClassnames;
+
+/**
+ * Pool of canonical instances of the strings and lists of strings (such as
+ * annotation names, annotation values, media types and type names) that are
+ * repeated across the elements of the JAX-RS metamodels.
+ * 
+ * Entries are weakly referenced: they are released once no element uses them
+ * anymore, so the pool never outlives the metamodels that fill it. The pool is
+ * seeded with the {@link JaxrsClassnames} constants, so that the canonical
+ * annotation names are the constants themselves.
+ * 
+ * This class is thread-safe.
+ * 
+ * @author Xavier Coulon
+ *
+ */
+public final class StringPool {
+
+	/** The singleton instance. */
+	private static final StringPool instance = new StringPool();
+
+	/** The canonical strings. */
+	private final Map<String, WeakReference<String>> strings = new WeakHashMap<String, WeakReference<String>>();
+
+	/** The canonical (unmodifiable) lists of strings. */
+	private final Map<List<String>, WeakReference<List<String>>> lists = new WeakHashMap<List<String>, WeakReference<List<String>>>();
+
+	/** The constants, strongly referenced so that they always remain canonical. */
+	private final Map<String, String> constants = new HashMap<String, String>();
+
+	/**
+	 * @return the singleton instance
+	 */
+	public static StringPool getInstance() {
+		return instance;
+	}
+
+	StringPool() {
+		for (Field field : JaxrsClassnames.class.getFields()) {
+			if (field.getType() == String.class && Modifier.isStatic(field.getModifiers())) {
+				try {
+					final String value = (String) field.get(null);
+					constants.put(value, value);
+				} catch (IllegalAccessException e) {
+					Logger.error("Failed to read constant " + field.getName(), e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param value
+	 *            the string to intern (may be {@code null})
+	 * @return the canonical instance of the given string, or {@code null} if
+	 *         the given value was {@code null}
+	 */
+	public String intern(final String value) {
+		if (value == null) {
+			return null;
+		}
+		final String constant = constants.get(value);
+		if (constant != null) {
+			JaxrsMetrics.STRING_POOL_HITS.increment();
+			return constant;
+		}
+		synchronized (strings) {
+			final WeakReference<String> reference = strings.get(value);
+			final String canonicalValue = (reference != null) ? reference.get() : null;
+			if (canonicalValue != null) {
+				JaxrsMetrics.STRING_POOL_HITS.increment();
+				return canonicalValue;
+			}
+			strings.put(value, new WeakReference<String>(value));
+			JaxrsMetrics.STRING_POOL_MISSES.increment();
+			return value;
+		}
+	}
+
+	/**
+	 * @param values
+	 *            the list of strings to intern (may be {@code null})
+	 * @return the canonical, unmodifiable instance of the given list, whose
+	 *         elements are interned, too, or {@code null} if the given list was
+	 *         {@code null}
+	 */
+	public List<String> internList(final List<String> values) {
+		if (values == null) {
+			return null;
+		}
+		if (values.isEmpty()) {
+			return Collections.emptyList();
+		}
+		synchronized (lists) {
+			final WeakReference<List<String>> reference = lists.get(values);
+			final List<String> canonicalValues = (reference != null) ? reference.get() : null;
+			if (canonicalValues != null) {
+				JaxrsMetrics.STRING_POOL_HITS.increment();
+				return canonicalValues;
+			}
+		}
+		final List<String> internedValues = new ArrayList<String>(values.size());
+		for (String value : values) {
+			internedValues.add(intern(value));
+		}
+		final List<String> canonicalValues = Collections.unmodifiableList(internedValues);
+		synchronized (lists) {
+			// another thread may have interned an equal list in the mean time
+			final WeakReference<List<String>> reference = lists.get(canonicalValues);
+			final List<String> existingValues = (reference != null) ? reference.get() : null;
+			if (existingValues != null) {
+				return existingValues;
+			}
+			lists.put(canonicalValues, new WeakReference<List<String>>(canonicalValues));
+			JaxrsMetrics.STRING_POOL_MISSES.increment();
+			return canonicalValues;
+		}
+	}
+
+	/**
+	 * @param elements
+	 *            the annotation elements to intern
+	 * @return a new map in which the keys are interned and the values are
+	 *         canonical lists
+	 */
+	public Map<String, List<String>> internElements(final Map<String, List<String>> elements) {
+		final Map<String, List<String>> internedElements = new HashMap<String, List<String>>(
+				Math.max(4, elements.size() * 2));
+		for (Entry<String, List<String>> entry : elements.entrySet()) {
+			internedElements.put(intern(entry.getKey()), internList(entry.getValue()));
+		}
+		return internedElements;
+	}
+
+	/**
+	 * @return the number of canonical strings and lists currently in this pool
+	 *         (including the constants)
+	 */
+	public int size() {
+		int size = constants.size();
+		synchronized (strings) {
+			size += strings.size();
+		}
+		synchronized (lists) {
+			size += lists.size();
+		}
+		return size;
+	}
+
+}
@@ -0,0 +1,324 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.jdt;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
+import org.jboss.tools.ws.jaxrs.core.metrics.JaxrsMetrics;
+
+/**
+ * A bounded cache of {@link CompilationUnit}s, in two tiers:
+ * <ul>
+ * <li>a strongly referenced tier, in LRU order, bounded by a maximum number of
+ * entries and by a maximum weight (the cumulated length of the source code of
+ * the ASTs),</li>
+ * <li>a softly referenced tier, which receives the entries that are evicted
+ * from the first tier, and which the garbage collector can clear when the heap
+ * runs low. An entry of this tier that is accessed again is promoted back into
+ * the first tier.</li>
+ * </ul>
+ * All operations are synchronized, since even reading an entry changes the
+ * access order of the first tier.
+ * 
+ * @author xcoulon
+ * 
+ */
+final class ASTCache {
+
+	/** The strongly referenced entries, in access order. */
+	private final LinkedHashMap<IPath, CompilationUnit> strongEntries = new LinkedHashMap<IPath, CompilationUnit>(16,
+			0.75f, true);
+
+	/** The softly referenced entries. */
+	private final Map<IPath, ASTReference> softEntries = new HashMap<IPath, ASTReference>();
+
+	/** The queue of the soft references cleared by the garbage collector. */
+	private final ReferenceQueue<CompilationUnit> collectedReferences = new ReferenceQueue<CompilationUnit>();
+
+	/** The maximum number of strongly referenced entries. */
+	private int maximumSize;
+
+	/** The maximum cumulated weight of the strongly referenced entries. */
+	private long maximumWeight;
+
+	/** The current cumulated weight of the strongly referenced entries. */
+	private long weight = 0;
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong softHitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	private final AtomicLong collectionCount = new AtomicLong();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param maximumSize
+	 *            the maximum number of strongly referenced entries
+	 * @param maximumWeight
+	 *            the maximum cumulated weight of the strongly referenced
+	 *            entries
+	 */
+	ASTCache(final int maximumSize, final long maximumWeight) {
+		this.maximumSize = maximumSize;
+		this.maximumWeight = maximumWeight;
+	}
+
+	/**
+	 * Returns the AST associated with the given path, from the strongly
+	 * referenced entries or from the softly referenced ones (in which case it is
+	 * promoted back into the strongly referenced entries).
+	 * 
+	 * @param path
+	 *            the path of the compilation unit
+	 * @return the AST or {@code null} if none was cached or if it was
+	 *         collected
+	 */
+	synchronized CompilationUnit get(final IPath path) {
+		purgeCollectedEntries();
+		final CompilationUnit ast = strongEntries.get(path);
+		if (ast != null) {
+			hitCount.incrementAndGet();
+			JaxrsMetrics.AST_CACHE_HITS.increment();
+			return ast;
+		}
+		final ASTReference reference = softEntries.remove(path);
+		if (reference != null) {
+			final CompilationUnit softAST = reference.get();
+			if (softAST != null) {
+				softHitCount.incrementAndGet();
+				JaxrsMetrics.AST_CACHE_HITS.increment();
+				putStrongEntry(path, softAST);
+				return softAST;
+			}
+			collectionCount.incrementAndGet();
+		}
+		missCount.incrementAndGet();
+		JaxrsMetrics.AST_CACHE_MISSES.increment();
+		return null;
+	}
+
+	/**
+	 * Returns the AST associated with the given path, without promoting it
+	 * from the softly referenced entries, nor changing the statistics.
+	 * 
+	 * @param path
+	 *            the path of the compilation unit
+	 * @return the AST or {@code null} if none was cached or if it was
+	 *         collected
+	 */
+	synchronized CompilationUnit peek(final IPath path) {
+		final CompilationUnit ast = strongEntries.get(path);
+		if (ast != null) {
+			return ast;
+		}
+		final ASTReference reference = softEntries.get(path);
+		return reference != null ? reference.get() : null;
+	}
+
+	/**
+	 * @return {@code true} if an AST is available for the given path (in
+	 *         either tier), {@code false} otherwise. This method does not
+	 *         change the access order of the entries, nor the statistics.
+	 */
+	synchronized boolean contains(final IPath path) {
+		if (strongEntries.containsKey(path)) {
+			return true;
+		}
+		final ASTReference reference = softEntries.get(path);
+		return reference != null && reference.get() != null;
+	}
+
+	/**
+	 * Puts the given AST in this cache, replacing the previous one for the
+	 * same path, if any.
+	 * 
+	 * @param path
+	 *            the path of the compilation unit
+	 * @param ast
+	 *            the AST
+	 */
+	synchronized void put(final IPath path, final CompilationUnit ast) {
+		purgeCollectedEntries();
+		softEntries.remove(path);
+		if (ast == null) {
+			removeStrongEntry(path);
+			return;
+		}
+		putStrongEntry(path, ast);
+	}
+
+	/**
+	 * Removes the AST associated with the given path from this cache.
+	 * 
+	 * @param path
+	 *            the path of the compilation unit
+	 */
+	synchronized void remove(final IPath path) {
+		softEntries.remove(path);
+		removeStrongEntry(path);
+	}
+
+	/**
+	 * Removes all ASTs from this cache. The statistics are not reset.
+	 */
+	synchronized void clear() {
+		strongEntries.clear();
+		softEntries.clear();
+		weight = 0;
+	}
+
+	/**
+	 * Changes the bounds of the strongly referenced entries, and evicts the
+	 * least recently used entries that no longer fit.
+	 * 
+	 * @param maximumSize
+	 *            the maximum number of strongly referenced entries
+	 * @param maximumWeight
+	 *            the maximum cumulated weight of the strongly referenced
+	 *            entries
+	 */
+	synchronized void setBounds(final int maximumSize, final long maximumWeight) {
+		this.maximumSize = maximumSize;
+		this.maximumWeight = maximumWeight;
+		evictIfNecessary();
+	}
+
+	/**
+	 * @return the number of strongly referenced entries
+	 */
+	synchronized int getSize() {
+		return strongEntries.size();
+	}
+
+	/**
+	 * @return the number of softly referenced entries, including those whose
+	 *         AST was collected but not purged yet
+	 */
+	synchronized int getSoftSize() {
+		return softEntries.size();
+	}
+
+	/**
+	 * @return the cumulated weight of the strongly referenced entries
+	 */
+	synchronized long getWeight() {
+		return weight;
+	}
+
+	long getHitCount() {
+		return hitCount.get();
+	}
+
+	long getSoftHitCount() {
+		return softHitCount.get();
+	}
+
+	long getMissCount() {
+		return missCount.get();
+	}
+
+	long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	long getCollectionCount() {
+		return collectionCount.get();
+	}
+
+	private void putStrongEntry(final IPath path, final CompilationUnit ast) {
+		final CompilationUnit previousAST = strongEntries.put(path, ast);
+		if (previousAST != null) {
+			weight -= weigh(previousAST);
+		}
+		weight += weigh(ast);
+		evictIfNecessary();
+	}
+
+	private void removeStrongEntry(final IPath path) {
+		final CompilationUnit previousAST = strongEntries.remove(path);
+		if (previousAST != null) {
+			weight -= weigh(previousAST);
+		}
+	}
+
+	/**
+	 * Moves the least recently used strongly referenced entries into the softly
+	 * referenced tier, until the bounds are satisfied. The most recently used
+	 * entry is always kept, even if it exceeds the maximum weight on its own.
+	 */
+	private void evictIfNecessary() {
+		final Iterator<Entry<IPath, CompilationUnit>> iterator = strongEntries.entrySet().iterator();
+		while ((strongEntries.size() > maximumSize || weight > maximumWeight) && strongEntries.size() > 1) {
+			final Entry<IPath, CompilationUnit> eldestEntry = iterator.next();
+			final IPath path = eldestEntry.getKey();
+			final CompilationUnit ast = eldestEntry.getValue();
+			iterator.remove();
+			weight -= weigh(ast);
+			softEntries.put(path, new ASTReference(path, ast, collectedReferences));
+			evictionCount.incrementAndGet();
+			JaxrsMetrics.AST_CACHE_EVICTIONS.increment();
+			Logger.trace("Evicted AST of {} into soft-reference tier", path);
+		}
+	}
+
+	/**
+	 * Removes the softly referenced entries whose AST was collected.
+	 */
+	private void purgeCollectedEntries() {
+		Reference<? extends CompilationUnit> reference;
+		while ((reference = collectedReferences.poll()) != null) {
+			final IPath path = ((ASTReference) reference).path;
+			// the entry may have been replaced in the meantime
+			if (softEntries.get(path) == reference) {
+				softEntries.remove(path);
+				collectionCount.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * @return the weight of the given AST, ie, the length of its source code
+	 */
+	private static long weigh(final CompilationUnit ast) {
+		return Math.max(1, ast.getLength());
+	}
+
+	/**
+	 * A soft reference to an AST, which retains the path of its compilation
+	 * unit so that its entry can be purged once the AST was collected.
+	 */
+	private static class ASTReference extends SoftReference<CompilationUnit> {
+
+		private final IPath path;
+
+		ASTReference(final IPath path, final CompilationUnit ast, final ReferenceQueue<CompilationUnit> queue) {
+			super(ast, queue);
+			this.path = path;
+		}
+	}
+
+}
@@ -10,19 +10,21 @@
  ******************************************************************************/
 package org.jboss.tools.ws.jaxrs.core.jdt;
 
-import java.util.ArrayList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 import org.eclipse.jdt.core.IAnnotation;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.internal.core.LocalVariable;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.CollectionUtils;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.StringPool;
 
 /**
  * Annotation wrapper for IAnnotation on types, fields, methods and method
@@ -31,15 +33,31 @@ import org.jboss.tools.ws.jaxrs.core.internal.utils.CollectionUtils;
  * the ILocalVariable wrapper (java method parameter), the Annotation maybe
  * destroy/re-created as the ILocalVariable is re-created, too.
  * 
+ * Annotations are immutable: the members are kept in two arrays sorted by
+ * member name, the names and values are canonical instances from the
+ * {@link StringPool}, and the hash code is computed once. Two annotations are
+ * equal if they have the same name and the same members, regardless of their
+ * underlying {@link IAnnotation}, so that comparing an unchanged annotation
+ * with its previous version is mostly a hash comparison. Since they are
+ * immutable, annotations are shared between the primary and the working
+ * copies of the JAX-RS elements.
+ * 
  * @author Xavier Coulon
  * 
  */
 @SuppressWarnings("restriction")
-public class Annotation {
+public final class Annotation {
 	
 	/** Default name of the attribute when it is alone in the annotation. */
 	public static final String VALUE = "value";
 
+	/** Empty array of member names, shared by annotations without members. */
+	private static final String[] NO_MEMBER_NAMES = new String[0];
+
+	/** Empty array of member values, shared by annotations without members. */
+	@SuppressWarnings("unchecked")
+	private static final List<String>[] NO_MEMBER_VALUES = new List[0];
+
 	/**
 	 * Underlying java annotation, which may change in the case of method
 	 * parameter annotation, which are managed by {@link LocalVariable} in JDT.
@@ -52,53 +70,44 @@ public class Annotation {
 	/** The Java annotation fully qualified name. */
 	private final String javaAnnotationName;
 
-	/** The java annotation member value pairs. */
-	private final Map<String, List<String>> javaAnnotationElements;
-	
-	/** the primary copy of this annotation, or {@code this}. */
-	private final Annotation primaryCopy;
+	/** The names of the java annotation members, in ascending order. */
+	private final String[] memberNames;
 
-	private final boolean isWorkingCopy;
-	
-	/** the working copy of this annotation, or {@code null} if none exists (yet). */
-	private Annotation workingCopy = null;
-	
 	/**
-	 * Full constructor
-	 * 
-	 * @param annotation the underlying {@link IAnnotation}
-	 * @param annotationName the fully qualified name of the underlying {@link IAnnotation} 
-	 * @param annotationElements the members of the annotation, indexed by their key.
-	 * @param sourceRange
-	 * @throws JavaModelException
+	 * The values of the java annotation members, in the same order as the
+	 * {@link #memberNames}.
 	 */
-	public Annotation(final IAnnotation javaAnnotation, final String javaAnnotationName,
-			final Map<String, List<String>> javaAnnotationElements) {
-		this.javaAnnotation = javaAnnotation;
-		this.javaAnnotationName = javaAnnotationName;
-		this.javaAnnotationElements = new HashMap<String, List<String>>(javaAnnotationElements);
-		this.primaryCopy = null;
-		this.isWorkingCopy = false;
-	}
+	private final List<String>[] memberValues;
+
+	/** The hash code, computed once from the name and the members. */
+	private final int hash;
 
 	/**
-	 * Full constructor for the working copy
+	 * Full constructor
 	 * 
 	 * @param annotation the underlying {@link IAnnotation}
 	 * @param annotationName the fully qualified name of the underlying {@link IAnnotation} 
 	 * @param annotationElements the members of the annotation, indexed by their key.
-	 * @param sourceRange
-	 * @throws JavaModelException
 	 */
-	private Annotation(final IAnnotation javaAnnotation, final String javaAnnotationName,
-			final Map<String, List<String>> javaAnnotationElements, final Annotation primaryCopy) {
+	@SuppressWarnings("unchecked")
+	public Annotation(final IAnnotation javaAnnotation, final String javaAnnotationName,
+			final Map<String, List<String>> javaAnnotationElements) {
+		final StringPool stringPool = StringPool.getInstance();
 		this.javaAnnotation = javaAnnotation;
-		this.javaAnnotationName = javaAnnotationName;
-		this.javaAnnotationElements = new HashMap<String, List<String>>(javaAnnotationElements);
-		this.primaryCopy = primaryCopy;
-		this.isWorkingCopy = true;
-		this.workingCopy = this;
-		primaryCopy.workingCopy = this;
+		this.javaAnnotationName = stringPool.intern(javaAnnotationName);
+		if (javaAnnotationElements.isEmpty()) {
+			this.memberNames = NO_MEMBER_NAMES;
+			this.memberValues = NO_MEMBER_VALUES;
+		} else {
+			this.memberNames = javaAnnotationElements.keySet().toArray(new String[javaAnnotationElements.size()]);
+			Arrays.sort(this.memberNames);
+			this.memberValues = new List[memberNames.length];
+			for (int i = 0; i < memberNames.length; i++) {
+				this.memberValues[i] = stringPool.internList(javaAnnotationElements.get(memberNames[i]));
+				this.memberNames[i] = stringPool.intern(memberNames[i]);
+			}
+		}
+		this.hash = computeHash();
 	}
 
 	/**
@@ -114,48 +123,15 @@ public class Annotation {
 		this(annotation, annotationName, CollectionUtils.toMap(VALUE, Arrays.asList(annotationValue)));
 	}
 
-	/**
-	 * @return a working copy of this Annotation.
-	 */
-	public Annotation createWorkingCopy() {
-		synchronized (this) {
-			final Map<String, List<String>> duplicateJavaAnnotationElements = new HashMap<String, List<String>>();
-			for(Entry<String, List<String>> entry : javaAnnotationElements.entrySet()) {
-				duplicateJavaAnnotationElements.put(entry.getKey(), new ArrayList<String>(entry.getValue()));
-			}
-			return new Annotation(javaAnnotation, javaAnnotationName, duplicateJavaAnnotationElements, this);
-		}
-	}
-
-	public Annotation getWorkingCopy() {
-		return workingCopy;
-	}
-	
-	public Annotation getPrimaryCopy() {
-		return primaryCopy;
-	}
-	
-	public boolean isWorkingCopy() {
-		return isWorkingCopy;
-	}
-
-
-	/**
-	 * Update this Annotation from the given other annotation.
-	 * 
-	 * @param otherAnnotation
-	 * @return true if some updates in the annotation elements (member pair
-	 *         values) were performed, false otherwise.
-	 */
-	public boolean update(final Annotation otherAnnotation) {
-		synchronized (this) {
-			if (otherAnnotation == null || !hasChanges(otherAnnotation)) {
-				return false;
-			}
-			this.javaAnnotationElements.clear();
-			this.javaAnnotationElements.putAll(otherAnnotation.getJavaAnnotationElements());
-			return true;
+	private int computeHash() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((javaAnnotationName == null) ? 0 : javaAnnotationName.hashCode());
+		for (int i = 0; i < memberNames.length; i++) {
+			result = prime * result + memberNames[i].hashCode();
+			result = prime * result + ((memberValues[i] == null) ? 0 : memberValues[i].hashCode());
 		}
+		return result;
 	}
 
 	/**
@@ -166,10 +142,7 @@ public class Annotation {
 	 * @return
 	 */
 	public boolean hasChanges(final Annotation otherAnnotation) {
-		if (this.javaAnnotationElements.equals(otherAnnotation.getJavaAnnotationElements())) {
-			return false;
-		}
-		return true;
+		return !equals(otherAnnotation);
 	}
 
 	public IAnnotation getJavaAnnotation() {
@@ -187,13 +160,21 @@ public class Annotation {
 		return javaAnnotationName;
 	}
 
+	/**
+	 * @return an unmodifiable view of the java annotation member value pairs,
+	 *         in ascending order of member names
+	 */
 	public Map<String, List<String>> getJavaAnnotationElements() {
-		return javaAnnotationElements;
+		return new MembersMap();
 	}
 
 	/** @return the value */
 	public List<String> getValues(final String elementName) {
-		return javaAnnotationElements.get(elementName);
+		if (elementName == null) {
+			return null;
+		}
+		final int index = Arrays.binarySearch(memberNames, elementName);
+		return index >= 0 ? memberValues[index] : null;
 	}
 
 	/** @return the default value when it is a single element*/
@@ -208,7 +189,7 @@ public class Annotation {
 
 	/** @return the value */
 	public String getValue(final String elementName) {
-		final List<String> values = javaAnnotationElements.get(elementName);
+		final List<String> values = getValues(elementName);
 		if (values != null) {
 			assert !(values.size() > 1);
 			if (values.size() == 1) {
@@ -227,17 +208,16 @@ public class Annotation {
 	public String toString() {
 		final StringBuilder builder = new StringBuilder();
 		builder.append('@').append(getFullyQualifiedName());
-		if(!javaAnnotationElements.isEmpty()) {
+		if(memberNames.length > 0) {
 			builder.append('(');
-			for(Iterator<Entry<String, List<String>>> iterator = javaAnnotationElements.entrySet().iterator(); iterator.hasNext();) {
-				final Entry<String, List<String>> entry = iterator.next();
-				builder.append(entry.getKey()).append('=');
-				if(entry.getValue().size() == 1) {
-					builder.append('\"').append(entry.getValue().get(0)).append('\"');
+			for(int i = 0; i < memberNames.length; i++) {
+				builder.append(memberNames[i]).append('=');
+				if(memberValues[i] != null && memberValues[i].size() == 1) {
+					builder.append('\"').append(memberValues[i].get(0)).append('\"');
 				} else {
-					builder.append(entry.getValue());
+					builder.append(memberValues[i]);
 				}
-				if(iterator.hasNext()) {
+				if(i < memberNames.length - 1) {
 					builder.append(", ");
 				}
 			}
@@ -253,12 +233,7 @@ public class Annotation {
 	 */
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + ((javaAnnotation == null) ? 0 : javaAnnotation.getHandleIdentifier().hashCode());
-		result = prime * result + ((javaAnnotationElements == null) ? 0 : javaAnnotationElements.hashCode());
-		result = prime * result + ((javaAnnotationName == null) ? 0 : javaAnnotationName.hashCode());
-		return result;
+		return hash;
 	}
 
 	/*
@@ -271,18 +246,11 @@ public class Annotation {
 		if (this == obj) {
 			return true;
 		}
-		if (obj == null) {
-			return false;
-		}
-		if (getClass() != obj.getClass()) {
+		if (!(obj instanceof Annotation)) {
 			return false;
 		}
-		Annotation other = (Annotation) obj;
-		if (javaAnnotationElements == null) {
-			if (other.javaAnnotationElements != null) {
-				return false;
-			}
-		} else if (!javaAnnotationElements.equals(other.javaAnnotationElements)) {
+		final Annotation other = (Annotation) obj;
+		if (hash != other.hash) {
 			return false;
 		}
 		if (javaAnnotationName == null) {
@@ -292,7 +260,68 @@ public class Annotation {
 		} else if (!javaAnnotationName.equals(other.javaAnnotationName)) {
 			return false;
 		}
-		return true;
+		// names and values are canonical instances, which makes these
+		// comparisons mostly identity checks
+		return Arrays.equals(memberNames, other.memberNames) && Arrays.equals(memberValues, other.memberValues);
+	}
+
+	/**
+	 * Unmodifiable {@link Map} view of the members of this annotation.
+	 */
+	private class MembersMap extends AbstractMap<String, List<String>> {
+
+		@Override
+		public int size() {
+			return memberNames.length;
+		}
+
+		@Override
+		public boolean containsKey(final Object key) {
+			return key instanceof String && getValues((String) key) != null;
+		}
+
+		@Override
+		public List<String> get(final Object key) {
+			return key instanceof String ? getValues((String) key) : null;
+		}
+
+		@Override
+		public Set<Entry<String, List<String>>> entrySet() {
+			return new AbstractSet<Entry<String, List<String>>>() {
+				@Override
+				public int size() {
+					return memberNames.length;
+				}
+
+				@Override
+				public Iterator<Entry<String, List<String>>> iterator() {
+					return new Iterator<Entry<String, List<String>>>() {
+						private int index = 0;
+
+						@Override
+						public boolean hasNext() {
+							return index < memberNames.length;
+						}
+
+						@Override
+						public Entry<String, List<String>> next() {
+							if (!hasNext()) {
+								throw new NoSuchElementException();
+							}
+							final Entry<String, List<String>> entry = new SimpleImmutableEntry<String, List<String>>(
+									memberNames[index], memberValues[index]);
+							index++;
+							return entry;
+						}
+
+						@Override
+						public void remove() {
+							throw new UnsupportedOperationException();
+						}
+					};
+				}
+			};
+		}
 	}
 
 }
@@ -15,7 +15,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import org.jboss.tools.ws.jaxrs.core.utils.JaxrsClassnames;
 
@@ -108,12 +107,15 @@ public class AnnotationUtils {
 		return true;
 	}
 	
+	/**
+	 * Annotations being immutable, the working copies share the original
+	 * instances: only the enclosing {@link Map} is copied.
+	 * 
+	 * @param originals the annotations to copy
+	 * @return a new {@link Map} with the same annotations
+	 */
 	public static Map<String, Annotation> createWorkingCopies(final Map<String, Annotation> originals) {
-		final Map<String, Annotation> workingCopies = new HashMap<String, Annotation>();
-		for(Entry<String, Annotation> entry : originals.entrySet()) {
-			workingCopies.put(entry.getKey(), entry.getValue().createWorkingCopy());
-		}
-		return workingCopies;
+		return new HashMap<String, Annotation>(originals);
 	}
 
 }
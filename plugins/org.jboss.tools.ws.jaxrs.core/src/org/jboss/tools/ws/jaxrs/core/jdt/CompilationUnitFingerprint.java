@@ -0,0 +1,205 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.core.jdt;
+
+import java.util.List;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AnnotationTypeDeclaration;
+import org.eclipse.jdt.core.dom.AnnotationTypeMemberDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.EnumConstantDeclaration;
+import org.eclipse.jdt.core.dom.EnumDeclaration;
+import org.eclipse.jdt.core.dom.FieldDeclaration;
+import org.eclipse.jdt.core.dom.ImportDeclaration;
+import org.eclipse.jdt.core.dom.Initializer;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.PackageDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+
+/**
+ * Computes a fingerprint of the declarations of a compilation unit that may
+ * affect the JAX-RS metamodel: package and import declarations, type, field
+ * and method declarations, including all their annotations, but excluding
+ * the method bodies and the initializer blocks. Two versions of a compilation
+ * unit that only differ in their method bodies (or in their formatting) have
+ * the same fingerprint.
+ * <p>
+ * The fingerprint only relies on the syntax of the declarations, so it can be
+ * computed on an AST without bindings, and even without method bodies (see
+ * {@link JdtUtils#parseWithoutBindings(org.eclipse.jdt.core.ICompilationUnit, org.eclipse.core.runtime.IProgressMonitor)}).
+ * </p>
+ * 
+ * @author xcoulon
+ * 
+ */
+public final class CompilationUnitFingerprint {
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	/** Private constructor of this utility class. */
+	private CompilationUnitFingerprint() {
+		super();
+	}
+
+	/**
+	 * Computes the fingerprint of the given AST.
+	 * 
+	 * @param compilationUnitAST
+	 *            the AST of the compilation unit, with or without bindings and
+	 *            method bodies
+	 * @return the fingerprint
+	 */
+	public static long compute(final CompilationUnit compilationUnitAST) {
+		final FingerprintVisitor visitor = new FingerprintVisitor();
+		compilationUnitAST.accept(visitor);
+		return visitor.hash;
+	}
+
+	/**
+	 * Hashes the declarations with the 64-bit FNV-1a algorithm, one node at
+	 * a time. Nested nodes are flattened with {@link ASTNode#toString()},
+	 * which ignores their positions in the source code.
+	 */
+	private static class FingerprintVisitor extends ASTVisitor {
+
+		long hash = FNV_OFFSET_BASIS;
+
+		private void append(final char kind) {
+			hash = (hash ^ kind) * FNV_PRIME;
+		}
+
+		private void append(final ASTNode node) {
+			if (node == null) {
+				append('\0');
+				return;
+			}
+			final String value = node.toString();
+			for (int i = 0; i < value.length(); i++) {
+				hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+			}
+			append('\0');
+		}
+
+		private void append(final List<?> nodes) {
+			for (Object node : nodes) {
+				append((ASTNode) node);
+			}
+			append('\1');
+		}
+
+		@Override
+		public boolean visit(final PackageDeclaration node) {
+			append('P');
+			append(node);
+			return false;
+		}
+
+		@Override
+		public boolean visit(final ImportDeclaration node) {
+			append('I');
+			append(node);
+			return false;
+		}
+
+		@Override
+		public boolean visit(final TypeDeclaration node) {
+			append('T');
+			append(node.modifiers());
+			append(node.getName());
+			append(node.typeParameters());
+			append(node.getSuperclassType());
+			append(node.superInterfaceTypes());
+			return true;
+		}
+
+		@Override
+		public void endVisit(final TypeDeclaration node) {
+			append('}');
+		}
+
+		@Override
+		public boolean visit(final EnumDeclaration node) {
+			append('E');
+			append(node.modifiers());
+			append(node.getName());
+			append(node.superInterfaceTypes());
+			return true;
+		}
+
+		@Override
+		public void endVisit(final EnumDeclaration node) {
+			append('}');
+		}
+
+		@Override
+		public boolean visit(final EnumConstantDeclaration node) {
+			append('C');
+			append(node.modifiers());
+			append(node.getName());
+			append(node.arguments());
+			return false;
+		}
+
+		@Override
+		public boolean visit(final AnnotationTypeDeclaration node) {
+			append('A');
+			append(node.modifiers());
+			append(node.getName());
+			return true;
+		}
+
+		@Override
+		public void endVisit(final AnnotationTypeDeclaration node) {
+			append('}');
+		}
+
+		@Override
+		public boolean visit(final AnnotationTypeMemberDeclaration node) {
+			append('D');
+			append(node);
+			return false;
+		}
+
+		@Override
+		public boolean visit(final FieldDeclaration node) {
+			// the initializers are included, since constants may be used in
+			// annotation values
+			append('F');
+			append(node);
+			return false;
+		}
+
+		@Override
+		public boolean visit(final MethodDeclaration node) {
+			append('M');
+			append(node.modifiers());
+			append(node.typeParameters());
+			append(node.getReturnType2());
+			append(node.getName());
+			append(node.parameters());
+			append((char) node.getExtraDimensions());
+			append(node.thrownExceptionTypes());
+			return false;
+		}
+
+		@Override
+		public boolean visit(final Initializer node) {
+			return false;
+		}
+
+	}
+
+}
@@ -13,6 +13,12 @@ package org.jboss.tools.ws.jaxrs.core.jdt;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.IPath;
@@ -20,6 +26,7 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.IAnnotation;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaModelStatusConstants;
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaModelException;
@@ -29,21 +36,81 @@ import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JavaMethodSignatu
 import org.jboss.tools.ws.jaxrs.core.internal.utils.CollectionUtils;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJavaMethodSignature;
+import org.jboss.tools.ws.jaxrs.core.metrics.JaxrsMetrics;
 
 /**
+ * Repository of the {@link CompilationUnit}s (ASTs), method signatures and
+ * problems of the compilation units that are being processed.
+ * <p>
+ * ASTs with resolved bindings are heavyweight, so they are kept in a bounded
+ * cache (see {@link ASTCache}) while the lightweight
+ * {@link JavaMethodSignature}s are retained even after the AST of their
+ * compilation unit was evicted, so that they remain available when computing
+ * the method signature diffs of a later change.
+ * </p>
+ * <p>
+ * This repository is shared by the build jobs, which may run concurrently: all
+ * its operations are thread-safe, and concurrent requests for the AST of the
+ * same compilation unit wait for a single parsing instead of each parsing the
+ * compilation unit on its own.
+ * </p>
+ * <p>
+ * The method signatures are recorded along with the
+ * {@link CompilationUnitFingerprint} of the AST they were resolved from, so
+ * that merging an AST that only differs in its method bodies skips their
+ * resolution. The fingerprints of the compilation units whose deltas were
+ * scanned are recorded as well (see
+ * {@link #hasStructuralChanges(ICompilationUnit, CompilationUnit)}).
+ * Since the bindings of a compilation unit depend on the declarations of
+ * other compilation units, both are also recorded along with the structure
+ * version of this repository, which changes each time the declarations of
+ * any compilation unit change: an unchanged fingerprint is not enough to
+ * skip the resolution once another compilation unit changed.
+ * </p>
  * 
  * @author xcoulon
  *
  */
 public class CompilationUnitsRepository {
 
+	/** Default maximum number of ASTs kept in the strongly referenced tier of the cache. */
+	public static final int DEFAULT_MAXIMUM_SIZE = 64;
+
+	/**
+	 * Default maximum cumulated length of the source code of the ASTs kept in
+	 * the strongly referenced tier of the cache.
+	 */
+	public static final long DEFAULT_MAXIMUM_WEIGHT = 4 * 1024 * 1024;
+
 	private static final CompilationUnitsRepository instance = new CompilationUnitsRepository();
 
-	private final Map<ICompilationUnit, Map<String, JavaMethodSignature>> methodDeclarationsMap = new HashMap<ICompilationUnit, Map<String, JavaMethodSignature>>();
+	private final ConcurrentMap<ICompilationUnit, MethodSignatures> methodDeclarationsMap = new ConcurrentHashMap<ICompilationUnit, MethodSignatures>();
+
+	/** The fingerprints of the compilation units when their last delta was scanned. */
+	private final ConcurrentMap<ICompilationUnit, ScannedFingerprint> scannedFingerprints = new ConcurrentHashMap<ICompilationUnit, ScannedFingerprint>();
+
+	private final ASTCache astCache = new ASTCache(DEFAULT_MAXIMUM_SIZE, DEFAULT_MAXIMUM_WEIGHT);
+
+	/** The ASTs being parsed, so that concurrent requests for the same AST share a single parsing. */
+	private final ConcurrentMap<IPath, FutureTask<CompilationUnit>> pendingASTs = new ConcurrentHashMap<IPath, FutureTask<CompilationUnit>>();
+
+	/**
+	 * Incremented each time the declarations of a compilation unit change in
+	 * this repository, since this may change the bindings resolved in the
+	 * other compilation units.
+	 */
+	private final AtomicLong structureVersion = new AtomicLong();
 
-	private final Map<IPath, CompilationUnit> astMap = new HashMap<IPath, CompilationUnit>();
+	/** Number of compilation units actually parsed by this repository. */
+	private final AtomicLong parseCount = new AtomicLong();
 
-	private final Map<ICompilationUnit, Map<Integer, Problem>> problemsMap = new HashMap<ICompilationUnit, Map<Integer, Problem>>();
+	/** Number of changes that were skipped because the fingerprint of their compilation unit did not change. */
+	private final AtomicLong fingerprintHitCount = new AtomicLong();
+
+	/** Number of changes that were processed because the fingerprint of their compilation unit changed. */
+	private final AtomicLong fingerprintMissCount = new AtomicLong();
+
+	private final ConcurrentMap<ICompilationUnit, Map<Integer, Problem>> problemsMap = new ConcurrentHashMap<ICompilationUnit, Map<Integer, Problem>>();
 
 	/** Singleton constructor */
 	private CompilationUnitsRepository() {
@@ -55,11 +122,33 @@ public class CompilationUnitsRepository {
 	}
 
 	public void clear() {
+		pendingASTs.clear();
 		methodDeclarationsMap.clear();
-		astMap.clear();
+		scannedFingerprints.clear();
+		astCache.clear();
 		problemsMap.clear();
 	}
 
+	/**
+	 * Changes the bounds of the strongly referenced tier of the AST cache.
+	 * ASTs that no longer fit are moved into the softly referenced tier.
+	 * 
+	 * @param maximumSize
+	 *            the maximum number of ASTs
+	 * @param maximumWeight
+	 *            the maximum cumulated length of the source code of the ASTs
+	 */
+	public void setCacheBounds(final int maximumSize, final long maximumWeight) {
+		astCache.setBounds(maximumSize, maximumWeight);
+	}
+
+	/**
+	 * @return a snapshot of the statistics of the AST cache
+	 */
+	public Statistics getStatistics() {
+		return new Statistics(astCache, parseCount.get(), fingerprintHitCount.get(), fingerprintMissCount.get());
+	}
+
 	/**
 	 * @param compilationUnit
 	 * @param methodsVisitor
@@ -72,15 +161,66 @@ public class CompilationUnitsRepository {
 		}
 		final IResource resource = compilationUnit.getResource();
 		final IPath resourcePath = resource.getFullPath();
-		if (!astMap.containsKey(resourcePath)) {
-			Logger.trace("Adding {}'s AST in CompilationUnitsRepository cache.", compilationUnit.getElementName());
-			recordAST(compilationUnit);
-		} else {
+		final CompilationUnit ast = astCache.get(resourcePath);
+		if (ast != null) {
 			Logger.trace("CompilationUnitsRepository cache contains {}'s AST.", compilationUnit.getElementName());
+			return ast;
 		}
+		Logger.trace("Adding {}'s AST in CompilationUnitsRepository cache.", compilationUnit.getElementName());
+		return computeAST(compilationUnit, resourcePath);
+	}
 
-		return astMap.get(resourcePath);
-
+	/**
+	 * Parses and records the AST of the given compilation unit, unless another
+	 * thread is already doing so, in which case this method waits for its
+	 * result.
+	 * 
+	 * @param compilationUnit
+	 *            the compilation unit to parse
+	 * @param resourcePath
+	 *            the path of the underlying resource
+	 * @return the AST
+	 * @throws JavaModelException
+	 */
+	private CompilationUnit computeAST(final ICompilationUnit compilationUnit, final IPath resourcePath)
+			throws JavaModelException {
+		final FutureTask<CompilationUnit> task = new FutureTask<CompilationUnit>(new Callable<CompilationUnit>() {
+			@Override
+			public CompilationUnit call() throws JavaModelException {
+				// the AST may have been recorded since the cache was looked-up
+				final CompilationUnit recordedAST = astCache.peek(resourcePath);
+				if (recordedAST != null) {
+					return recordedAST;
+				}
+				return recordAST(compilationUnit);
+			}
+		});
+		final FutureTask<CompilationUnit> pendingTask = pendingASTs.putIfAbsent(resourcePath, task);
+		try {
+			if (pendingTask == null) {
+				task.run();
+				return task.get();
+			}
+			Logger.trace("Waiting for {}'s AST being parsed by another thread.", compilationUnit.getElementName());
+			return pendingTask.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new JavaModelException(e, IJavaModelStatusConstants.INTERNAL_ERROR);
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof JavaModelException) {
+				throw (JavaModelException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new JavaModelException((Exception) cause, IJavaModelStatusConstants.INTERNAL_ERROR);
+		} finally {
+			if (pendingTask == null) {
+				pendingASTs.remove(resourcePath, task);
+			}
+		}
 	}
 
 	/**
@@ -109,43 +249,149 @@ public class CompilationUnitsRepository {
 			return null;
 		}
 		CompilationUnit compilationUnitAST = JdtUtils.parse(compilationUnit, new NullProgressMonitor());
-		astMap.put(compilationUnit.getResource().getFullPath(), compilationUnitAST);
+		parseCount.incrementAndGet();
+		astCache.put(compilationUnit.getResource().getFullPath(), compilationUnitAST);
 		final Map<String, JavaMethodSignature> methodSignatures = JdtUtils.resolveMethodSignatures(compilationUnit.findPrimaryType(), compilationUnitAST);
-		methodDeclarationsMap.put(compilationUnit, methodSignatures);
+		final long fingerprint = CompilationUnitFingerprint.compute(compilationUnitAST);
+		final MethodSignatures previousSignatures = methodDeclarationsMap.get(compilationUnit);
+		// the declarations may have changed since they were last recorded
+		final long version = previousSignatures != null && previousSignatures.getFingerprint() != fingerprint ? structureVersion
+				.incrementAndGet() : structureVersion.get();
+		methodDeclarationsMap.put(compilationUnit, new MethodSignatures(fingerprint, version, methodSignatures));
 		return compilationUnitAST;
 	}
 
+	/**
+	 * Merges the given AST of the given compilation unit into this
+	 * repository, and optionally returns the method signatures that changed.
+	 * The method signatures are not resolved again if the given AST has the
+	 * same {@link CompilationUnitFingerprint} as the one they were last
+	 * resolved from, and if the declarations of the other compilation units
+	 * did not change in the meantime.
+	 * 
+	 * @param compilationUnit
+	 *            the compilation unit
+	 * @param compilationUnitAST
+	 *            its new AST
+	 * @param computeDiffs
+	 *            true if the changed method signatures should be returned
+	 * @return the changed method signatures, indexed by the handle identifier
+	 *         of their method
+	 * @throws JavaModelException
+	 */
 	public Map<String, JavaMethodSignature> mergeAST(final ICompilationUnit compilationUnit,
 			final CompilationUnit compilationUnitAST, final boolean computeDiffs) throws JavaModelException {
 		final Map<String, JavaMethodSignature> diffs = new HashMap<String, JavaMethodSignature>();
+		final long fingerprint = CompilationUnitFingerprint.compute(compilationUnitAST);
+		final MethodSignatures recordedSignatures = methodDeclarationsMap.get(compilationUnit);
+		if (recordedSignatures != null && recordedSignatures.getFingerprint() == fingerprint
+				&& recordedSignatures.getStructureVersion() == structureVersion.get()) {
+			recordFingerprintHit();
+			Logger.trace("Skipping the resolution of {}'s method signatures: only method bodies changed",
+					compilationUnit.getElementName());
+			// the positions in the new AST may have changed, though
+			astCache.put(compilationUnit.getResource().getFullPath(), compilationUnitAST);
+			return diffs;
+		}
+		recordFingerprintMiss();
+		// the bindings resolved in the other compilation units may depend on
+		// the declarations of this one, unless only its dependencies changed
+		final long version = recordedSignatures != null && recordedSignatures.getFingerprint() == fingerprint ? structureVersion
+				.get() : structureVersion.incrementAndGet();
 		for(IType type : compilationUnit.getTypes()) {
-			diffs.putAll(mergeAST(type, compilationUnitAST, computeDiffs));
+			diffs.putAll(mergeAST(type, compilationUnitAST, fingerprint, version, computeDiffs));
 		}
 		return diffs;
 	}
 
 	private Map<String, JavaMethodSignature> mergeAST(final IType type,
-			final CompilationUnit compilationUnitAST, final boolean computeDiffs) throws JavaModelException {
+			final CompilationUnit compilationUnitAST, final long fingerprint, final long version,
+			final boolean computeDiffs)
+			throws JavaModelException {
 		final ICompilationUnit compilationUnit = type.getCompilationUnit();
 		final Map<String, JavaMethodSignature> methodSignatures = JdtUtils.resolveMethodSignatures(type, compilationUnitAST);
 		final Map<String, JavaMethodSignature> diffs = new HashMap<String, JavaMethodSignature>();
+		// replace old values in "cache" if the compilation is a working copy only
+		astCache.put(compilationUnit.getResource().getFullPath(), compilationUnitAST);
+		// TODO : improve performances here : do not override all method
+		// declaration, but only those that changed, because reparsing method
+		// signatures (annotated parameters, etc.) may be expensive.
+		// swapping the signatures atomically guarantees that concurrent merges
+		// each compute their diffs against a consistent previous state
+		final MethodSignatures controlSignatures = methodDeclarationsMap.put(compilationUnit,
+				new MethodSignatures(fingerprint, version, methodSignatures));
 		if (computeDiffs) {
+			final Map<String, JavaMethodSignature> controlDeclarations = controlSignatures != null ? controlSignatures
+					.getSignatures() : null;
 			Map<String, JavaMethodSignature> workingCopyDeclarations = methodSignatures;
-			Map<String, JavaMethodSignature> controlDeclarations = methodDeclarationsMap.get(compilationUnit);
 			diffs.putAll(CollectionUtils.difference(workingCopyDeclarations, controlDeclarations));
 			if (diffs.size() > 0) {
 				Logger.trace("Found diffs in method signatures:", diffs);
 			}
 		}
-		// replace old values in "cache" if the compilation is a working copy only
-		astMap.put(compilationUnit.getResource().getFullPath(), compilationUnitAST);
-		// TODO : improve performances here : do not override all method
-		// declaration, but only those that changed, because reparsing method
-		// signatures (annotated parameters, etc.) may be expensive.
-		methodDeclarationsMap.put(compilationUnit, methodSignatures);
 		return diffs;
 	}
 
+	/**
+	 * Checks whether the declarations of the given compilation unit changed
+	 * since its last delta was scanned, by comparing the
+	 * {@link CompilationUnitFingerprint}s of both versions. The fingerprint is
+	 * computed on the given AST if it is not null, or on an AST parsed without
+	 * bindings and method bodies otherwise, which is much cheaper than the
+	 * resolved AST needed to process the changes.
+	 * 
+	 * @param compilationUnit
+	 *            the (working copy of the) compilation unit
+	 * @param compilationUnitAST
+	 *            the AST of the compilation unit, or null if none is
+	 *            available yet
+	 * @return true if the fingerprint changed or was unknown, or if the
+	 *         declarations of another compilation unit changed since the last
+	 *         scan (so that the bindings must be resolved again), false if
+	 *         only method bodies (or formatting) changed
+	 * @throws JavaModelException
+	 */
+	public boolean hasStructuralChanges(final ICompilationUnit compilationUnit,
+			final CompilationUnit compilationUnitAST) throws JavaModelException {
+		final CompilationUnit fingerprintAST = compilationUnitAST != null ? compilationUnitAST : JdtUtils
+				.parseWithoutBindings(compilationUnit, new NullProgressMonitor());
+		if (fingerprintAST == null) {
+			return true;
+		}
+		final ScannedFingerprint fingerprint = new ScannedFingerprint(
+				CompilationUnitFingerprint.compute(fingerprintAST), structureVersion.get());
+		final ScannedFingerprint previousFingerprint = scannedFingerprints.put(compilationUnit, fingerprint);
+		if (fingerprint.equals(previousFingerprint)) {
+			recordFingerprintHit();
+			return false;
+		}
+		recordFingerprintMiss();
+		return true;
+	}
+
+	/**
+	 * Forgets the fingerprint of the given compilation unit recorded when its
+	 * last delta was scanned, so that its next change is fully processed. This
+	 * is needed when the compilation unit changed without being scanned (eg:
+	 * the underlying file was replaced).
+	 * 
+	 * @param compilationUnit
+	 *            the compilation unit
+	 */
+	public void resetFingerprint(final ICompilationUnit compilationUnit) {
+		scannedFingerprints.remove(compilationUnit);
+	}
+
+	private void recordFingerprintHit() {
+		fingerprintHitCount.incrementAndGet();
+		JaxrsMetrics.FINGERPRINT_HITS.increment();
+	}
+
+	private void recordFingerprintMiss() {
+		fingerprintMissCount.incrementAndGet();
+		JaxrsMetrics.FINGERPRINT_MISSES.increment();
+	}
+
 	/**
 	 * Returns the known {@link JavaMethodSignature} for the given {@link IMethod} in this repository, or null if it is unknown.
 	 * @param javaMethod the given Java Method
@@ -154,18 +400,26 @@ public class CompilationUnitsRepository {
 	 */
 	public IJavaMethodSignature getMethodSignature(final IMethod javaMethod) throws JavaModelException {
 		final ICompilationUnit compilationUnit = javaMethod.getCompilationUnit();
-		if (!methodDeclarationsMap.containsKey(compilationUnit)) {
-			recordAST(compilationUnit);
+		if (!methodDeclarationsMap.containsKey(compilationUnit) && compilationUnit != null
+				&& compilationUnit.getResource() != null) {
+			computeAST(compilationUnit, compilationUnit.getResource().getFullPath());
+		}
+		final MethodSignatures methodSignatures = methodDeclarationsMap.get(compilationUnit);
+		if (methodSignatures == null) {
+			return null;
 		}
-		final Map<String, JavaMethodSignature> methodSignatures = methodDeclarationsMap.get(compilationUnit);
-		return methodSignatures.get(javaMethod.getHandleIdentifier());
+		return methodSignatures.getSignatures().get(javaMethod.getHandleIdentifier());
 	}
 
 	public void removeAST(final ICompilationUnit compilationUnit) {
 		final IPath fullPath = compilationUnit.getResource().getFullPath();
 		Logger.trace("Removing {}'s AST from CompilationUnitsRepository (path={})", compilationUnit, fullPath);
-		methodDeclarationsMap.remove(compilationUnit);
-		astMap.remove(fullPath);
+		pendingASTs.remove(fullPath);
+		if (methodDeclarationsMap.remove(compilationUnit) != null) {
+			structureVersion.incrementAndGet();
+		}
+		scannedFingerprints.remove(compilationUnit);
+		astCache.remove(fullPath);
 		problemsMap.remove(compilationUnit);
 	}
 
@@ -184,7 +438,6 @@ public class CompilationUnitsRepository {
 	 */
 	public Map<IProblem, IJavaElement> mergeProblems(final ICompilationUnit compilationUnit, final IProblem[] problems)
 			throws JavaModelException {
-		final Map<Integer, Problem> lastProblems = problemsMap.get(compilationUnit);
 		final Map<Integer, Problem> newProblems = new HashMap<Integer, Problem>();
 		// convert array into map
 		for (IProblem p : problems) {
@@ -194,7 +447,8 @@ public class CompilationUnitsRepository {
 				newProblems.put(p.getID(), new Problem(p, element));
 			}
 		}
-		// computes diffs between last and new problems
+		// store new problems and computes diffs between last and new problems
+		final Map<Integer, Problem> lastProblems = problemsMap.put(compilationUnit, newProblems);
 		final Map<IProblem, IJavaElement> fixedProblems = new HashMap<IProblem, IJavaElement>();
 		if (lastProblems != null) {
 			for (Entry<Integer, Problem> entry : lastProblems.entrySet()) {
@@ -203,11 +457,196 @@ public class CompilationUnitsRepository {
 				}
 			}
 		}
-		// store new problems
-		problemsMap.put(compilationUnit, newProblems);
 		return fixedProblems;
 	}
 
+	/**
+	 * A snapshot of the statistics of the AST cache.
+	 */
+	public static class Statistics {
+
+		private final int size;
+
+		private final int softSize;
+
+		private final long weight;
+
+		private final long hitCount;
+
+		private final long softHitCount;
+
+		private final long missCount;
+
+		private final long evictionCount;
+
+		private final long collectionCount;
+
+		private final long parseCount;
+
+		private final long fingerprintHitCount;
+
+		private final long fingerprintMissCount;
+
+		Statistics(final ASTCache astCache, final long parseCount, final long fingerprintHitCount,
+				final long fingerprintMissCount) {
+			this.size = astCache.getSize();
+			this.softSize = astCache.getSoftSize();
+			this.weight = astCache.getWeight();
+			this.hitCount = astCache.getHitCount();
+			this.softHitCount = astCache.getSoftHitCount();
+			this.missCount = astCache.getMissCount();
+			this.evictionCount = astCache.getEvictionCount();
+			this.collectionCount = astCache.getCollectionCount();
+			this.parseCount = parseCount;
+			this.fingerprintHitCount = fingerprintHitCount;
+			this.fingerprintMissCount = fingerprintMissCount;
+		}
+
+		/** @return the number of ASTs in the strongly referenced tier */
+		public int getSize() {
+			return size;
+		}
+
+		/** @return the number of ASTs in the softly referenced tier */
+		public int getSoftSize() {
+			return softSize;
+		}
+
+		/** @return the cumulated length of the source code of the ASTs in the strongly referenced tier */
+		public long getWeight() {
+			return weight;
+		}
+
+		/** @return the number of ASTs found in the strongly referenced tier */
+		public long getHitCount() {
+			return hitCount;
+		}
+
+		/** @return the number of ASTs found in the softly referenced tier */
+		public long getSoftHitCount() {
+			return softHitCount;
+		}
+
+		/** @return the number of ASTs that were found in none of the tiers */
+		public long getMissCount() {
+			return missCount;
+		}
+
+		/** @return the number of ASTs moved from the strongly to the softly referenced tier */
+		public long getEvictionCount() {
+			return evictionCount;
+		}
+
+		/** @return the number of ASTs of the softly referenced tier that were collected */
+		public long getCollectionCount() {
+			return collectionCount;
+		}
+
+		/**
+		 * @return the number of compilation units that were parsed. Concurrent
+		 *         misses on the same compilation unit only count for a single
+		 *         parsing.
+		 */
+		public long getParseCount() {
+			return parseCount;
+		}
+
+		/**
+		 * @return the number of changes whose processing was skipped because
+		 *         only method bodies changed
+		 */
+		public long getFingerprintHitCount() {
+			return fingerprintHitCount;
+		}
+
+		/**
+		 * @return the number of changes that were processed because the
+		 *         declarations of their compilation unit changed
+		 */
+		public long getFingerprintMissCount() {
+			return fingerprintMissCount;
+		}
+
+		@Override
+		public String toString() {
+			return "AST cache statistics: size=" + size + ", softSize=" + softSize + ", weight=" + weight + ", hits="
+					+ hitCount + ", softHits=" + softHitCount + ", misses=" + missCount + ", evictions="
+					+ evictionCount + ", collections=" + collectionCount + ", parses=" + parseCount
+					+ ", fingerprintHits=" + fingerprintHitCount + ", fingerprintMisses=" + fingerprintMissCount;
+		}
+
+	}
+
+	/**
+	 * The method signatures of a compilation unit, along with the fingerprint
+	 * of the AST they were resolved from.
+	 */
+	static class MethodSignatures {
+
+		private final long fingerprint;
+
+		private final Map<String, JavaMethodSignature> signatures;
+
+		private final long structureVersion;
+
+		MethodSignatures(final long fingerprint, final long structureVersion,
+				final Map<String, JavaMethodSignature> signatures) {
+			this.fingerprint = fingerprint;
+			this.structureVersion = structureVersion;
+			this.signatures = signatures;
+		}
+
+		/** @return the fingerprint of the AST the signatures were resolved from */
+		long getFingerprint() {
+			return fingerprint;
+		}
+
+		/** @return the structure version of the repository when the signatures were resolved */
+		long getStructureVersion() {
+			return structureVersion;
+		}
+
+		/** @return the method signatures, indexed by the handle identifier of their method */
+		Map<String, JavaMethodSignature> getSignatures() {
+			return signatures;
+		}
+
+	}
+
+	/**
+	 * The fingerprint of a compilation unit when its last delta was scanned,
+	 * along with the structure version of the repository at that time.
+	 */
+	static class ScannedFingerprint {
+
+		private final long fingerprint;
+
+		private final long structureVersion;
+
+		ScannedFingerprint(final long fingerprint, final long structureVersion) {
+			this.fingerprint = fingerprint;
+			this.structureVersion = structureVersion;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) (fingerprint ^ (fingerprint >>> 32)) * 31 + (int) structureVersion;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ScannedFingerprint)) {
+				return false;
+			}
+			final ScannedFingerprint other = (ScannedFingerprint) obj;
+			return fingerprint == other.fingerprint && structureVersion == other.structureVersion;
+		}
+
+	}
+
 	static class Problem {
 
 		private final IProblem problem;
@@ -287,6 +287,34 @@ public final class JdtUtils {
 		return ast;
 	}
 
+	/**
+	 * Parse the DOM of the given compilation unit, without resolving the
+	 * bindings and without the method bodies. This is much cheaper than
+	 * {@link #parse(ICompilationUnit, IProgressMonitor)}, but the resulting
+	 * AST can only be used for syntactic checks.
+	 * 
+	 * @param compilationUnit
+	 *            the compilation unit to parse
+	 * @param progressMonitor
+	 *            the progress monitor
+	 * @return the DOM CompilationUnit, or null if the given compilation unit
+	 *         was null or does not exist.
+	 * @throws JavaModelException
+	 *             in case of exception underneath...
+	 */
+	public static CompilationUnit parseWithoutBindings(final ICompilationUnit compilationUnit,
+			final IProgressMonitor progressMonitor) throws JavaModelException {
+		if (compilationUnit == null || !compilationUnit.exists()) {
+			return null;
+		}
+		final ASTParser parser = ASTParser.newParser(AST.JLS8);
+		parser.setKind(ASTParser.K_COMPILATION_UNIT);
+		parser.setSource(compilationUnit);
+		parser.setResolveBindings(false);
+		parser.setIgnoreMethodBodies(true);
+		return (CompilationUnit) parser.createAST(progressMonitor);
+	}
+
 	/**
 	 * Parse the compilation unit of the given {@link IJavaElement} if it is a
 	 * {@link IMember} or a {@link ICompilationUnit}, null otherwise.
@@ -23,6 +23,7 @@ import org.eclipse.jdt.core.dom.FieldDeclaration;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.IVariableBinding;
 import org.eclipse.jdt.core.dom.VariableDeclaration;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.StringPool;
 
 /**
  * A Java SourceType, with support for generic types, and location in source code (as a field declaration, a method return type or argument declaration).
@@ -138,7 +139,7 @@ public class SourceType {
 	 */
 	private SourceType(final String erasureName, final IType erasureType, final List<IType> typeArguments, final boolean isPrimitive, final ISourceRange nameRange) {
 		super();
-		this.erasureName = erasureName;
+		this.erasureName = StringPool.getInstance().intern(erasureName);
 		this.erasureType = erasureType;
 		this.typeArguments = typeArguments;
 		this.isPrimitive = isPrimitive;
@@ -155,7 +156,7 @@ public class SourceType {
 			}
 			displayNameBuffer.append('>');
 		}
-		this.displayName = displayNameBuffer.toString();
+		this.displayName = StringPool.getInstance().intern(displayNameBuffer.toString());
 		this.nameRange = nameRange;
 	}
 	
@@ -43,6 +43,28 @@ public interface IJaxrsMetamodel extends IJaxrsStatus {
 	 */
 	public abstract Collection<IJaxrsEndpoint> getAllEndpoints();
 
+	/**
+	 * Finds the {@link IJaxrsEndpoint} that serves the given request, following
+	 * the JAX-RS request matching rules: the path template with the highest
+	 * precedence is selected first, then the endpoint by HTTP method,
+	 * {@code Content-Type} and {@code Accept} header.
+	 * 
+	 * @param httpMethod
+	 *            the HTTP method of the request (eg: {@code GET})
+	 * @param path
+	 *            the path of the request, including the application path, and
+	 *            optionally the matrix and query parameters (eg:
+	 *            {@code /api/orders/42/items?x=1})
+	 * @param contentType
+	 *            the {@code Content-Type} of the request, or {@code null} if the
+	 *            request has no body
+	 * @param accept
+	 *            the value of the {@code Accept} header of the request, or
+	 *            {@code null} to accept any media type
+	 * @return the matching endpoint, or {@code null} if none matches
+	 */
+	public abstract IJaxrsEndpoint findEndpoint(String httpMethod, String path, String contentType, String accept);
+
 	/**
 	 * Searches and returns a single JAX-RS Java-based Element matching the given
 	 * {@link IJavaElement}
@@ -61,4 +83,10 @@ public interface IJaxrsMetamodel extends IJaxrsStatus {
 	 * @return {@code true} if this metamodel already has (at least) one JAX-RS Application, {@code false} otherwise.
 	 */
 	public boolean hasApplication();
+
+	/**
+	 * @return the last published {@link IJaxrsMetamodelView} of this
+	 *         metamodel, which can be read without locking the metamodel.
+	 */
+	public IJaxrsMetamodelView getView();
 }
\ No newline at end of file
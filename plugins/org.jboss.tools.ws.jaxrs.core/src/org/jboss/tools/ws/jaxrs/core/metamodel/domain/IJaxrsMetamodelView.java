@@ -0,0 +1,87 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.metamodel.domain;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jdt.core.IJavaElement;
+
+/**
+ * An immutable view of the elements and endpoints of an
+ * {@link IJaxrsMetamodel}, as they were at the end of a build. A new version
+ * is published atomically at the end of each build, so the readers get a
+ * consistent set of elements and endpoints, without locking the metamodel and
+ * without seeing the changes of a build in progress.
+ * <p>
+ * Only the membership is immutable: the elements and endpoints are the live
+ * objects of the metamodel.
+ * </p>
+ * 
+ * @author xcoulon
+ * 
+ */
+public interface IJaxrsMetamodelView {
+
+	/**
+	 * @return the version of this view, which is incremented each time a new
+	 *         view of the same metamodel is published
+	 */
+	public long getVersion();
+
+	/**
+	 * @return the metamodel of this view
+	 */
+	public IJaxrsMetamodel getMetamodel();
+
+	/**
+	 * @return <code>true</code> if the JAX-RS Metamodel was still being
+	 *         initialized when this view was published
+	 */
+	public boolean isInitializing();
+
+	/**
+	 * @return an unmodifiable {@link List} of all the {@link IJaxrsElement}s
+	 *         in this view
+	 */
+	public List<IJaxrsElement> getAllElements();
+
+	/**
+	 * @return an unmodifiable {@link Collection} of all the
+	 *         {@link IJaxrsEndpoint}s in this view
+	 */
+	public Collection<IJaxrsEndpoint> getAllEndpoints();
+
+	/**
+	 * @param identifier
+	 *            the element identifier
+	 * @return the matching element or {@code null} if none matched.
+	 */
+	public IJaxrsElement getElement(final String identifier);
+
+	/**
+	 * @param javaElement
+	 *            the Java Element
+	 * @return the JAX-RS Element based on the given {@link IJavaElement} or
+	 *         {@code null} if none matched.
+	 */
+	public IJaxrsElement findElement(final IJavaElement javaElement);
+
+	/**
+	 * @param annotationClassName
+	 *            the fully qualified name of the annotation
+	 * @return the JAX-RS Elements annotated with the given annotation, or an
+	 *         empty set if none matched.
+	 */
+	public Set<IJaxrsElement> findElementsByAnnotation(final String annotationClassName);
+
+}
@@ -0,0 +1,69 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A monotonic counter, registered in the {@link JaxrsMetrics}.
+ * 
+ * @author xcoulon
+ *
+ */
+public final class Counter {
+
+	private final String name;
+
+	private final AtomicLong value = new AtomicLong();
+
+	Counter(final String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Increments this counter by one.
+	 */
+	public void increment() {
+		value.incrementAndGet();
+	}
+
+	/**
+	 * Increments this counter by the given amount.
+	 * 
+	 * @param amount
+	 *            the amount to add
+	 */
+	public void add(final long amount) {
+		value.addAndGet(amount);
+	}
+
+	/**
+	 * @return the current value of this counter
+	 */
+	public long get() {
+		return value.get();
+	}
+
+	void reset() {
+		value.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return name + "=" + value.get();
+	}
+
+}
@@ -0,0 +1,200 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of durations (in nanoseconds), registered in the
+ * {@link JaxrsMetrics}. Values are counted in buckets whose width grows
+ * exponentially: each power of two is split into 8 sub-buckets, which gives
+ * percentiles with a relative error below 12.5% while using a fixed amount of
+ * memory. Recording a value is lock-free and does not allocate any object.
+ * 
+ * @author xcoulon
+ *
+ */
+public final class Histogram {
+
+	/** Number of bits of precision within a power of two. */
+	private static final int SUB_BUCKET_BITS = 3;
+
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/** Enough buckets to count any non-negative {@code long} value. */
+	private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final String name;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+	private final AtomicLong count = new AtomicLong();
+
+	private final AtomicLong sum = new AtomicLong();
+
+	private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+
+	private final AtomicLong max = new AtomicLong();
+
+	Histogram(final String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Records the given value. Negative values are recorded as {@code 0}.
+	 * 
+	 * @param value
+	 *            the value to record
+	 */
+	public void record(final long value) {
+		final long v = Math.max(value, 0);
+		buckets.incrementAndGet(getBucketIndex(v));
+		count.incrementAndGet();
+		sum.addAndGet(v);
+		long currentMin = min.get();
+		while (v < currentMin && !min.compareAndSet(currentMin, v)) {
+			currentMin = min.get();
+		}
+		long currentMax = max.get();
+		while (v > currentMax && !max.compareAndSet(currentMax, v)) {
+			currentMax = max.get();
+		}
+	}
+
+	/**
+	 * Records the time elapsed since the given start time.
+	 * 
+	 * @param startTime
+	 *            the start time, as returned by {@link System#nanoTime()}
+	 */
+	public void recordSince(final long startTime) {
+		record(System.nanoTime() - startTime);
+	}
+
+	/**
+	 * @return the number of recorded values
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * @return the sum of the recorded values
+	 */
+	public long getSum() {
+		return sum.get();
+	}
+
+	/**
+	 * @return the lowest recorded value, or {@code 0} if no value was
+	 *         recorded
+	 */
+	public long getMin() {
+		final long value = min.get();
+		return value == Long.MAX_VALUE ? 0 : value;
+	}
+
+	/**
+	 * @return the highest recorded value, or {@code 0} if no value was
+	 *         recorded
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * @return the average of the recorded values, or {@code 0} if no value was
+	 *         recorded
+	 */
+	public double getMean() {
+		final long c = count.get();
+		return c == 0 ? 0 : (double) sum.get() / c;
+	}
+
+	/**
+	 * @param percentile
+	 *            the percentile, between 0 and 100
+	 * @return an approximation (the upper bound of the matching bucket, capped
+	 *         by the highest recorded value) of the value at the given
+	 *         percentile, or {@code 0} if no value was recorded
+	 */
+	public long getPercentile(final double percentile) {
+		final long[] counts = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets.get(i);
+			total += counts[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		final long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * total));
+		long cumulated = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			cumulated += counts[i];
+			if (cumulated >= rank) {
+				return Math.max(Math.min(getBucketUpperBound(i), getMax()), getMin());
+			}
+		}
+		return getMax();
+	}
+
+	/**
+	 * Resets this histogram. Values recorded concurrently may be partially
+	 * lost.
+	 */
+	void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets.set(i, 0);
+		}
+		count.set(0);
+		sum.set(0);
+		min.set(Long.MAX_VALUE);
+		max.set(0);
+	}
+
+	static int getBucketIndex(final long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	static long getBucketLowerBound(final int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		final int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		final int subBucket = index % SUB_BUCKETS;
+		return (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+	}
+
+	static long getBucketUpperBound(final int index) {
+		if (index == BUCKETS - 1) {
+			return Long.MAX_VALUE;
+		}
+		return getBucketLowerBound(index + 1) - 1;
+	}
+
+	@Override
+	public String toString() {
+		return name + "[count=" + getCount() + ", mean=" + getMean() + ", max=" + getMax() + "]";
+	}
+
+}
@@ -0,0 +1,270 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.core.metrics;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The registry of the {@link Counter}s and {@link Histogram}s that measure the
+ * JAX-RS Metamodel. Unlike the performance traces of the {@code Logger}, the
+ * metrics are always recorded (at the cost of a few atomic operations), so
+ * they can be queried or exported as a JSON snapshot to diagnose a slow
+ * workspace without enabling the trace options.
+ * <p>
+ * All histograms record durations in nanoseconds.
+ * </p>
+ * 
+ * @author xcoulon
+ *
+ */
+public final class JaxrsMetrics {
+
+	private static final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<String, Counter>();
+
+	private static final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<String, Histogram>();
+
+	/** Duration of the jobs processing the Java element changes. */
+	public static final Histogram JAVA_ELEMENT_CHANGED_BUILD_DURATION = histogram("builder.javaElementChangedJob.duration");
+
+	/** Duration of the jobs processing the resource changes. */
+	public static final Histogram RESOURCE_CHANGED_BUILD_DURATION = histogram("builder.resourceChangedJob.duration");
+
+	/**
+	 * Time spent by the Java element changes in their queue, from the first
+	 * event of a burst until the job that processes them starts.
+	 */
+	public static final Histogram BUILD_QUEUE_WAIT = histogram("builder.queue.wait");
+
+	/** Hold time of the global (write) lock of the metamodels. */
+	public static final Histogram METAMODEL_GLOBAL_LOCK_HOLD = histogram("metamodel.lock.global.hold");
+
+	/** Hold time of the write lock of a compilation unit stripe. */
+	public static final Histogram METAMODEL_STRIPE_LOCK_HOLD = histogram("metamodel.lock.stripe.hold");
+
+	/** Hold time of the lock on the state shared by all stripes. */
+	public static final Histogram METAMODEL_SHARED_STATE_LOCK_HOLD = histogram("metamodel.lock.sharedState.hold");
+
+	/** Duration of the index batches, from their start until their commit. */
+	public static final Histogram INDEX_COMMIT_DURATION = histogram("index.commit.duration");
+
+	/** Number of index changes (additions, updates and removals). */
+	public static final Counter INDEX_CHANGES = counter("index.changes");
+
+	/** Number of ASTs found in the cache of the {@code CompilationUnitsRepository}. */
+	public static final Counter AST_CACHE_HITS = counter("jdt.astCache.hits");
+
+	/** Number of ASTs not found in the cache of the {@code CompilationUnitsRepository}. */
+	public static final Counter AST_CACHE_MISSES = counter("jdt.astCache.misses");
+
+	/** Number of ASTs evicted from the cache of the {@code CompilationUnitsRepository}. */
+	public static final Counter AST_CACHE_EVICTIONS = counter("jdt.astCache.evictions");
+
+	/**
+	 * Number of compilation unit changes whose resolution was skipped because
+	 * only their method bodies changed.
+	 */
+	public static final Counter FINGERPRINT_HITS = counter("jdt.fingerprint.hits");
+
+	/**
+	 * Number of compilation unit changes that were resolved because their
+	 * declarations changed.
+	 */
+	public static final Counter FINGERPRINT_MISSES = counter("jdt.fingerprint.misses");
+
+	/** Number of JAX-RS Endpoints updated after some of their elements changed. */
+	public static final Counter ENDPOINT_RECOMPUTATIONS = counter("metamodel.endpoint.recomputations");
+
+	/** Number of URI Path Template segments recomputed when refreshing JAX-RS Endpoints. */
+	public static final Counter ENDPOINT_SEGMENTS_RECOMPUTED = counter("metamodel.endpoint.segments.recomputed");
+
+	/** Number of cached URI Path Template segments reused when refreshing JAX-RS Endpoints. */
+	public static final Counter ENDPOINT_SEGMENTS_REUSED = counter("metamodel.endpoint.segments.reused");
+
+	/** Number of strings and lists of strings found in the {@code StringPool}. */
+	public static final Counter STRING_POOL_HITS = counter("metamodel.stringPool.hits");
+
+	/** Number of strings and lists of strings added to the {@code StringPool}. */
+	public static final Counter STRING_POOL_MISSES = counter("metamodel.stringPool.misses");
+
+	/** Duration of the lookups of the JAX-RS Endpoint serving a given request. */
+	public static final Histogram ENDPOINT_LOOKUP_DURATION = histogram("metamodel.endpoint.lookup");
+
+	/**
+	 * Number of resources that the category-wide expansion of the changed
+	 * files would have revalidated.
+	 */
+	public static final Counter VALIDATION_SCOPE_CANDIDATES = counter("validation.scope.candidates");
+
+	/**
+	 * Number of resources actually revalidated after the changed files were
+	 * expanded with their dependents.
+	 */
+	public static final Counter VALIDATION_SCOPE_RESOURCES = counter("validation.scope.resources");
+
+	/**
+	 * Number of validations that fell back to the category-wide expansion of
+	 * the changed files.
+	 */
+	public static final Counter VALIDATION_SCOPE_FALLBACKS = counter("validation.scope.fallbacks");
+
+	/**
+	 * Number of JAX-RS Endpoint notifications merged into a previous
+	 * notification on the same endpoint, in the same batch.
+	 */
+	public static final Counter ENDPOINT_NOTIFICATIONS_MERGED = counter("notifications.endpoint.merged");
+
+	/** Time spent publishing a new version of a metamodel view. */
+	public static final Histogram VIEW_PUBLICATION_DURATION = histogram("metamodel.view.publication");
+
+	/** Number of metamodel view versions published. */
+	public static final Counter VIEW_VERSIONS = counter("metamodel.view.versions");
+
+	/**
+	 * Number of trie nodes retained by the published metamodel views and not
+	 * shared with their previous version. Divided by the number of versions,
+	 * this gives the memory retained per version.
+	 */
+	public static final Counter VIEW_RETAINED_NODES = counter("metamodel.view.retainedNodes");
+
+	private JaxrsMetrics() {
+		// only static methods
+	}
+
+	/**
+	 * Returns the {@link Counter} with the given name, registering it if it
+	 * does not exist yet.
+	 * 
+	 * @param name
+	 *            the name of the counter
+	 * @return the counter
+	 */
+	public static Counter counter(final String name) {
+		final Counter counter = counters.get(name);
+		if (counter != null) {
+			return counter;
+		}
+		final Counter newCounter = new Counter(name);
+		final Counter existingCounter = counters.putIfAbsent(name, newCounter);
+		return existingCounter != null ? existingCounter : newCounter;
+	}
+
+	/**
+	 * Returns the {@link Histogram} with the given name, registering it if it
+	 * does not exist yet.
+	 * 
+	 * @param name
+	 *            the name of the histogram
+	 * @return the histogram
+	 */
+	public static Histogram histogram(final String name) {
+		final Histogram histogram = histograms.get(name);
+		if (histogram != null) {
+			return histogram;
+		}
+		final Histogram newHistogram = new Histogram(name);
+		final Histogram existingHistogram = histograms.putIfAbsent(name, newHistogram);
+		return existingHistogram != null ? existingHistogram : newHistogram;
+	}
+
+	/**
+	 * @return the registered counters, sorted by name
+	 */
+	public static SortedMap<String, Counter> getCounters() {
+		return Collections.unmodifiableSortedMap(new TreeMap<String, Counter>(counters));
+	}
+
+	/**
+	 * @return the registered histograms, sorted by name
+	 */
+	public static SortedMap<String, Histogram> getHistograms() {
+		return Collections.unmodifiableSortedMap(new TreeMap<String, Histogram>(histograms));
+	}
+
+	/**
+	 * Resets all the registered counters and histograms.
+	 */
+	public static void reset() {
+		for (Counter counter : counters.values()) {
+			counter.reset();
+		}
+		for (Histogram histogram : histograms.values()) {
+			histogram.reset();
+		}
+	}
+
+	/**
+	 * @return a JSON snapshot of all the registered counters and histograms
+	 */
+	public static String toJson() {
+		final StringBuilder json = new StringBuilder(2048);
+		json.append("{\n  \"timestamp\": ").append(System.currentTimeMillis()).append(",\n");
+		json.append("  \"counters\": {");
+		boolean first = true;
+		for (Entry<String, Counter> entry : getCounters().entrySet()) {
+			json.append(first ? "\n" : ",\n");
+			first = false;
+			json.append("    ");
+			appendString(json, entry.getKey());
+			json.append(": ").append(entry.getValue().get());
+		}
+		json.append("\n  },\n");
+		json.append("  \"histograms\": {");
+		first = true;
+		for (Entry<String, Histogram> entry : getHistograms().entrySet()) {
+			final Histogram histogram = entry.getValue();
+			json.append(first ? "\n" : ",\n");
+			first = false;
+			json.append("    ");
+			appendString(json, entry.getKey());
+			json.append(": {\"unit\": \"ns\", \"count\": ").append(histogram.getCount());
+			json.append(", \"sum\": ").append(histogram.getSum());
+			json.append(", \"min\": ").append(histogram.getMin());
+			json.append(", \"max\": ").append(histogram.getMax());
+			json.append(", \"mean\": ").append(String.format(Locale.ENGLISH, "%.1f", histogram.getMean()));
+			json.append(", \"p50\": ").append(histogram.getPercentile(50));
+			json.append(", \"p90\": ").append(histogram.getPercentile(90));
+			json.append(", \"p99\": ").append(histogram.getPercentile(99));
+			json.append('}');
+		}
+		json.append("\n  }\n}\n");
+		return json.toString();
+	}
+
+	private static void appendString(final StringBuilder json, final String value) {
+		json.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				json.append("\\\"");
+				break;
+			case '\\':
+				json.append("\\\\");
+				break;
+			default:
+				if (c < 0x20) {
+					json.append(String.format("\\u%04x", (int) c));
+				} else {
+					json.append(c);
+				}
+			}
+		}
+		json.append('"');
+	}
+
+}
@@ -168,10 +168,19 @@ public class UriMappingsContentProvider implements ITreeContentProvider, IJaxrsM
 	@Override
 	public void notifyMetamodelChanged(final JaxrsMetamodelDelta delta) {
 		final IProject project = delta.getMetamodel().getProject();
-		if(delta.getKind() == IJavaElementDelta.REMOVED && uriPathTemplateCategories != null) {
+		if (uriPathTemplateCategories == null) {
+			return;
+		}
+		if (delta.getKind() == IJavaElementDelta.REMOVED) {
 			uriPathTemplateCategories.remove(project);
+			refreshTarget(project);
+		} else if (delta.getKind() == IJavaElementDelta.CHANGED && uriPathTemplateCategories.containsKey(project)) {
+			// a new view of the metamodel was published: only the endpoints
+			// below the category need to be refreshed
+			refreshTarget(uriPathTemplateCategories.get(project));
+		} else {
+			refreshContent(delta.getMetamodel());
 		}
-		refreshTarget(project);
 	}
 
 	/**
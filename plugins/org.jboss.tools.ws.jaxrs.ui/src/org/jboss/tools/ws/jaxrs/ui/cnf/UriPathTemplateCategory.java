@@ -32,6 +32,7 @@ import org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.JavaElementDelta
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsElement;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsEndpoint;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsMetamodelView;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.JaxrsMetamodelLocator;
 import org.jboss.tools.ws.jaxrs.ui.cnf.UriMappingsContentProvider.LoadingStub;
 import org.jboss.tools.ws.jaxrs.ui.internal.utils.Logger;
@@ -69,8 +70,10 @@ public class UriPathTemplateCategory implements ITreeContentProvider {
 	public Object[] getChildren(final Object parentElement) {
 		try {
 			final IJaxrsMetamodel metamodel = JaxrsMetamodelLocator.get(javaProject);
-			if (metamodel != null && !metamodel.isInitializing()) {
-				final Collection<IJaxrsEndpoint> endpoints = metamodel.getAllEndpoints();
+			// read the initialization state and the endpoints from the same view
+			final IJaxrsMetamodelView view = metamodel != null ? metamodel.getView() : null;
+			if (view != null && !view.isInitializing()) {
+				final Collection<IJaxrsEndpoint> endpoints = view.getAllEndpoints();
 				Logger.debug("UriPathTemplateCategory contains {} endpoints", endpoints.size());
 				final List<UriPathTemplateElement> uriPathTemplateElements = new ArrayList<UriPathTemplateElement>();
 				// Collections.sort(uriMappings);
@@ -79,7 +82,7 @@ public class UriPathTemplateCategory implements ITreeContentProvider {
 					uriPathTemplateElements.add(element);
 				}
 				return uriPathTemplateElements.toArray();
-			} else if(metamodel != null && metamodel.isInitializing()){
+			} else if(view != null && view.isInitializing()){
 				// return a stub object that says loading...
 				Logger.debug("Displaying the 'Loading...' stub for project '{}' and launching a build", javaProject.getElementName());
 				return new Object[] { new LoadingStub(javaProject) };
@@ -119,8 +122,9 @@ public class UriPathTemplateCategory implements ITreeContentProvider {
 	public boolean hasChildren(Object element) {
 		try {
 			final IJaxrsMetamodel metamodel = JaxrsMetamodelLocator.get(javaProject);
-			if (metamodel != null && !metamodel.isInitializing()) {
-				final Collection<IJaxrsEndpoint> endpoints = metamodel.getAllEndpoints();
+			final IJaxrsMetamodelView view = metamodel != null ? metamodel.getView() : null;
+			if (view != null && !view.isInitializing()) {
+				final Collection<IJaxrsEndpoint> endpoints = view.getAllEndpoints();
 				Logger.debug("UriPathTemplateCategory has endpoints: {}", (!endpoints.isEmpty()));
 				return (!endpoints.isEmpty());
 			}
@@ -165,7 +169,7 @@ public class UriPathTemplateCategory implements ITreeContentProvider {
 			final IJaxrsMetamodel metamodel= JaxrsMetamodelLocator.get(javaProject);
 			if (metamodel != null) {
 				level = metamodel.getProblemSeverity();
-				for (IJaxrsEndpoint endpoint : metamodel.getAllEndpoints()) {
+				for (IJaxrsEndpoint endpoint : metamodel.getView().getAllEndpoints()) {
 					level = Math.max(level, endpoint.getProblemLevel());
 				}
 			}
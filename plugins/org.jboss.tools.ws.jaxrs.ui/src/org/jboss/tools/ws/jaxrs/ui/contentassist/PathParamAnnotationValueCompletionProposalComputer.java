@@ -78,18 +78,17 @@ public class PathParamAnnotationValueCompletionProposalComputer implements IJava
 				if (metamodel == null) {
 					return Collections.emptyList();
 				}
-				synchronized(metamodel) {
 				final int invocationOffset = context.getInvocationOffset();
 				final ICompilationUnit compilationUnit = javaContext.getCompilationUnit();
 				final Annotation annotation = JdtUtils.resolveAnnotationAt(invocationOffset, compilationUnit);
 				if (annotation != null && annotation.getFullyQualifiedName().equals(PATH_PARAM)) {
 					final IJavaElement javaMethod = annotation.getJavaAnnotation().getAncestor(IJavaElement.METHOD);
-					final IJaxrsResourceMethod resourceMethod = (IJaxrsResourceMethod) metamodel.findElement(javaMethod);
+					// the last published view is read without locking the metamodel
+					final IJaxrsResourceMethod resourceMethod = (IJaxrsResourceMethod) metamodel.getView().findElement(javaMethod);
 					if (resourceMethod != null) {
 						return internalComputePathParamProposals(javaContext, resourceMethod);
 					}
 				}
-				}
 	
 			} catch (Exception e) {
 				Logger.error("Failed to compute completion proposal", e);
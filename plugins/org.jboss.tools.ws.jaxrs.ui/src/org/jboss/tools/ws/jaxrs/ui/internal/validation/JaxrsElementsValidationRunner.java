@@ -0,0 +1,296 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.ui.internal.validation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsJavaElement;
+import org.jboss.tools.ws.jaxrs.core.jdt.JdtUtils;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.EnumElementKind;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsApplication;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsElement;
+import org.jboss.tools.ws.jaxrs.ui.JBossJaxrsUIPlugin;
+import org.jboss.tools.ws.jaxrs.ui.internal.utils.Logger;
+
+/**
+ * Validates JAX-RS elements file by file, in a bounded pool of worker threads.
+ * The validator delegates only read the metamodel and report their problems
+ * in a {@link ValidationMarkersBuffer} per file, so that the markers can be
+ * created afterwards, in the calling thread and in a single workspace
+ * operation. Each file is parsed once, and each kind of validator delegate is
+ * instantiated once per file. The caller is expected to prevent the changes
+ * of the metamodel during the validation (see
+ * {@code JaxrsMetamodel#beginConsistentRead()}), since the workers read the
+ * elements of all files, not only of the file they validate.
+ *
+ * Validations of a single file are performed in the calling thread only.
+ *
+ * @author Xavier Coulon
+ *
+ */
+final class JaxrsElementsValidationRunner {
+
+	/** The maximum number of files validated concurrently. */
+	static final int PARALLELISM = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+	/**
+	 * The bounded pool of worker threads, shared by all validations. Idle
+	 * threads are discarded after a few seconds, so the pool does not hold any
+	 * thread between two validations.
+	 */
+	private static final ThreadPoolExecutor executor = createExecutor();
+
+	private JaxrsElementsValidationRunner() {
+		// only static methods
+	}
+
+	private static ThreadPoolExecutor createExecutor() {
+		final ThreadFactory threadFactory = new ThreadFactory() {
+			private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+			@Override
+			public Thread newThread(final Runnable runnable) {
+				final Thread thread = new Thread(runnable, "JAX-RS Validator #" + threadNumber.getAndIncrement());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(PARALLELISM, PARALLELISM, 5, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), threadFactory);
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * Validates the given elements, grouped by underlying file.
+	 *
+	 * @param elements
+	 *            the elements to validate
+	 * @return the buffers of problems reported on each file, in the order in
+	 *         which the files first appear in the given elements
+	 * @throws CoreException
+	 *             if the validation of a file failed, or if the calling thread
+	 *             was interrupted while waiting for the workers
+	 */
+	static List<ValidationMarkersBuffer> validate(final Collection<? extends IJaxrsElement> elements)
+			throws CoreException {
+		final long start = System.currentTimeMillis();
+		final Map<IResource, List<IJaxrsElement>> elementsPerFile = new LinkedHashMap<IResource, List<IJaxrsElement>>();
+		for (IJaxrsElement element : elements) {
+			List<IJaxrsElement> fileElements = elementsPerFile.get(element.getResource());
+			if (fileElements == null) {
+				fileElements = new ArrayList<IJaxrsElement>();
+				elementsPerFile.put(element.getResource(), fileElements);
+			}
+			fileElements.add(element);
+		}
+		final List<Callable<ValidationMarkersBuffer>> tasks = new ArrayList<Callable<ValidationMarkersBuffer>>(
+				elementsPerFile.size());
+		for (List<IJaxrsElement> fileElements : elementsPerFile.values()) {
+			tasks.add(new FileValidationTask(fileElements));
+		}
+		final List<ValidationMarkersBuffer> buffers = invokeAll(tasks);
+		final long end = System.currentTimeMillis();
+		Logger.debug("Validated {} elements in {} files in {}ms (parallel: {})", elements.size(),
+				elementsPerFile.size(), (end - start), isParallel(tasks));
+		return buffers;
+	}
+
+	private static boolean isParallel(final List<?> tasks) {
+		return PARALLELISM > 1 && tasks.size() > 1;
+	}
+
+	/**
+	 * Executes the given tasks, in the worker threads if there are more than
+	 * one, or in the calling thread otherwise.
+	 *
+	 * @param tasks
+	 *            the tasks to execute
+	 * @return the results of the tasks, in the same order as the tasks
+	 * @throws CoreException
+	 *             if one of the tasks failed, or if the calling thread was
+	 *             interrupted while waiting for the results
+	 */
+	private static <T> List<T> invokeAll(final List<Callable<T>> tasks) throws CoreException {
+		final List<T> results = new ArrayList<T>(tasks.size());
+		try {
+			if (!isParallel(tasks)) {
+				for (Callable<T> task : tasks) {
+					results.add(task.call());
+				}
+				return results;
+			}
+			for (Future<T> future : executor.invokeAll(tasks)) {
+				results.add(future.get());
+			}
+			return results;
+		} catch (CoreException e) {
+			throw e;
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CoreException(new Status(IStatus.ERROR, JBossJaxrsUIPlugin.PLUGIN_ID,
+					"Interrupted while validating JAX-RS elements", e));
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof CoreException) {
+				throw (CoreException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new CoreException(new Status(IStatus.ERROR, JBossJaxrsUIPlugin.PLUGIN_ID,
+					"Failed to validate JAX-RS elements", cause));
+		} catch (Exception e) {
+			throw new CoreException(new Status(IStatus.ERROR, JBossJaxrsUIPlugin.PLUGIN_ID,
+					"Failed to validate JAX-RS elements", e));
+		}
+	}
+
+	/**
+	 * Validates all the JAX-RS elements of a single file.
+	 */
+	private static class FileValidationTask implements Callable<ValidationMarkersBuffer> {
+
+		private final List<IJaxrsElement> elements;
+
+		FileValidationTask(final List<IJaxrsElement> elements) {
+			this.elements = elements;
+		}
+
+		@Override
+		public ValidationMarkersBuffer call() throws CoreException {
+			final ValidationMarkersBuffer buffer = new ValidationMarkersBuffer();
+			final Map<EnumElementKind, IJaxrsElementValidator<IJaxrsElement>> validators = new EnumMap<EnumElementKind, IJaxrsElementValidator<IJaxrsElement>>(
+					EnumElementKind.class);
+			final Map<ICompilationUnit, CompilationUnit> asts = new HashMap<ICompilationUnit, CompilationUnit>();
+			for (IJaxrsElement element : elements) {
+				final EnumElementKind elementKind = element.getElementKind();
+				if (!validators.containsKey(elementKind)) {
+					validators.put(elementKind, getValidator(element, buffer));
+				}
+				final IJaxrsElementValidator<IJaxrsElement> validator = validators.get(elementKind);
+				if (validator != null) {
+					validator.validate(element, getAST(element, asts));
+				}
+			}
+			return buffer;
+		}
+
+	}
+
+	/**
+	 * @param element
+	 *            the {@link IJaxrsElement}
+	 * @param asts
+	 *            the ASTs already parsed for the current file
+	 * @return the associated {@link CompilationUnit} if the given
+	 *         {@code element} is based on an {@link IJavaElement},
+	 *         {@code null} otherwise.
+	 * @throws CoreException
+	 */
+	private static CompilationUnit getAST(final IJaxrsElement element, final Map<ICompilationUnit, CompilationUnit> asts)
+			throws CoreException {
+		if (element instanceof JaxrsJavaElement<?>) {
+			final IMember javaElement = ((JaxrsJavaElement<?>) element).getJavaElement();
+			// built-in HTTP methods have no underlying Java Element.
+			if (javaElement != null) {
+				final ICompilationUnit compilationUnit = javaElement.getCompilationUnit();
+				if (!asts.containsKey(compilationUnit)) {
+					asts.put(compilationUnit, JdtUtils.parse(compilationUnit, new NullProgressMonitor()));
+				}
+				return asts.get(compilationUnit);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param element
+	 *            the element to validate
+	 * @param markerManager
+	 *            the marker manager in which the validator reports the
+	 *            problems
+	 * @return the appropriate validator for the given element, or {@code null}
+	 *         if the element does not need to be validated at this level
+	 */
+	@SuppressWarnings("unchecked")
+	private static IJaxrsElementValidator<IJaxrsElement> getValidator(final IJaxrsElement element,
+			final IMarkerManager markerManager) {
+		return (IJaxrsElementValidator<IJaxrsElement>) createValidator(element, markerManager);
+	}
+
+	private static IJaxrsElementValidator<? extends IJaxrsElement> createValidator(final IJaxrsElement element,
+			final IMarkerManager markerManager) {
+		switch (element.getElementKind().getCategory()) {
+		case APPLICATION:
+			final IJaxrsApplication application = (IJaxrsApplication) element;
+			if (application.isJavaApplication()) {
+				return new JaxrsJavaApplicationValidatorDelegate(markerManager);
+			} else {
+				return new JaxrsWebxmlApplicationValidatorDelegate(markerManager);
+			}
+		case HTTP_METHOD:
+			return new JaxrsHttpMethodValidatorDelegate(markerManager);
+		case NAME_BINDING:
+			return new JaxrsNameBindingValidatorDelegate(markerManager);
+		case PARAM_CONVERTER_PROVIDER:
+			return new JaxrsParamConverterProviderValidatorDelegate(markerManager);
+		case PROVIDER:
+			return new JaxrsProviderValidatorDelegate(markerManager);
+		case RESOURCE:
+			// this validator delegate also deals with ResourceMethods and
+			// ResourceFields when validating a whole resource
+			return new JaxrsResourceValidatorDelegate(markerManager);
+		case RESOURCE_FIELD:
+			return new JaxrsResourceFieldValidatorDelegate(markerManager);
+		case RESOURCE_PROPERTY:
+			return new JaxrsResourcePropertyValidatorDelegate(markerManager);
+		case RESOURCE_METHOD:
+			return new JaxrsResourceMethodValidatorDelegate(markerManager);
+		case PARAMETER_AGGREGATOR:
+			return new JaxrsParameterAggregatorValidatorDelegate(markerManager);
+		case PARAMETER_AGGREGATOR_FIELD:
+			return new JaxrsParameterAggregatorFieldValidatorDelegate(markerManager);
+		case PARAMETER_AGGREGATOR_PROPERTY:
+			return new JaxrsParameterAggregatorPropertyValidatorDelegate(markerManager);
+		default:
+			// skipping other categories of elements at this validator level.
+			return null;
+		}
+	}
+
+}
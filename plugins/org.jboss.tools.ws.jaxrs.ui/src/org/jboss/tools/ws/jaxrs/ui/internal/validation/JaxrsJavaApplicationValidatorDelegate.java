@@ -86,6 +86,8 @@ public class JaxrsJavaApplicationValidatorDelegate extends AbstractJaxrsElementV
 		final Annotation applicationPathAnnotation = application
 				.getAnnotation(JaxrsClassnames.APPLICATION_PATH);
 		final IType appJavaElement = application.getJavaElement();
+		// the override depends on the web.xml based application, if any
+		ValidationTopics.addDependency(application, ValidationTopics.APPLICATIONS);
 		if (!application.isOverriden() && applicationPathAnnotation == null) {
 			markerManager.addMarker(application,
 					appJavaElement.getNameRange(), JaxrsValidationMessages.JAVA_APPLICATION_MISSING_APPLICATION_PATH_ANNOTATION,
@@ -117,6 +119,7 @@ public class JaxrsJavaApplicationValidatorDelegate extends AbstractJaxrsElementV
 		annotations_loop:
 		for(Entry<String, Annotation> entry : nameBindingAnnotations.entrySet()) {
 			final String nameBindingAnnotationClassName = entry.getKey();
+			ValidationTopics.addDependency(javaApplication, ValidationTopics.nameBinding(nameBindingAnnotationClassName));
 			final Collection<IJaxrsProvider> annotatedProviders = metamodel
 					.findProvidersByAnnotation(nameBindingAnnotationClassName);
 			// if provider binding annotation(s) match the application binding annotations
@@ -35,23 +35,26 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
-import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.IType;
-import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.wst.validation.internal.core.ValidationException;
@@ -77,7 +80,7 @@ import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsBaseElement;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsJavaElement;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodel;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsShadowElementsCache;
-import org.jboss.tools.ws.jaxrs.core.internal.metamodel.search.JavaElementsSearcher;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsValidationDependencies;
 import org.jboss.tools.ws.jaxrs.core.jdt.JdtUtils;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.EnumElementKind;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsApplication;
@@ -86,6 +89,7 @@ import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsEndpoint;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsProvider;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsResource;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.JaxrsMetamodelLocator;
+import org.jboss.tools.ws.jaxrs.core.metrics.JaxrsMetrics;
 import org.jboss.tools.ws.jaxrs.ui.JBossJaxrsUIPlugin;
 import org.jboss.tools.ws.jaxrs.ui.internal.utils.Logger;
 import org.jboss.tools.ws.jaxrs.ui.preferences.JaxrsPreferences;
@@ -184,6 +188,9 @@ public class JaxrsMetamodelValidator extends TempMarkerManager implements IValid
 
 	/**
 	 * Completes the list of resources to validate by adding those that might be impacted by the given changedResources.
+	 * Once all resources of the project were validated, the impacted resources are the dependents of the changed
+	 * resources in the {@link JaxrsValidationDependencies} of the metamodel. Until then (or when a Name Binding
+	 * changed), all resources of the impacted categories are included.
 	 * 
 	 * @param metamodel
 	 *            the JAX-RS Metamodel
@@ -196,62 +203,59 @@ public class JaxrsMetamodelValidator extends TempMarkerManager implements IValid
 	private List<IResource> completeValidationSet(final JaxrsMetamodel metamodel, final IFile... changedResources)
 			throws CoreException {
 		final IProject project = metamodel.getProject();
+		final JaxrsValidationDependencies validationDependencies = metamodel.getValidationDependencies();
 		final Set<IResource> resources = new HashSet<IResource>();
 		// add all given changed resources
 		resources.addAll(Arrays.asList(changedResources));
+		// collect the topics published by the changed resources, before and after the changes
+		final Set<String> changedTopics = new HashSet<String>();
+		for(IFile changedResource : changedResources) {
+			changedTopics.addAll(validationDependencies.getPublishedTopics(changedResource));
+			final Set<IJaxrsElement> changedElements = metamodel.findElements(changedResource);
+			changedTopics.addAll(ValidationTopics.getPublishedTopics(changedElements));
+			if(changedElements.isEmpty()) {
+				validationDependencies.remove(changedResource);
+			}
+		}
 		final Set<EnumElementKind> elementKindChanges = analyzeChangeResources(metamodel, changedResources);
 		boolean applicationsChanged = elementKindChanges.contains(APPLICATION_JAVA) || elementKindChanges.contains(APPLICATION_WEBXML);
-		boolean resourcesChanged = elementKindChanges.contains(ROOT_RESOURCE) || elementKindChanges.contains(SUBRESOURCE) || elementKindChanges.contains(SUBRESOURCE_LOCATOR) || elementKindChanges.contains(UNDEFINED_RESOURCE);
-		boolean filtersChanged = elementKindChanges.contains(CONTAINER_FILTER) || elementKindChanges.contains(CONTAINER_REQUEST_FILTER) || elementKindChanges.contains(CONTAINER_RESPONSE_FILTER) || elementKindChanges.contains(UNDEFINED_PROVIDER);
-		boolean interceptorsChanged = elementKindChanges.contains(ENTITY_INTERCEPTOR) || elementKindChanges.contains(ENTITY_READER_INTERCEPTOR) || elementKindChanges.contains(ENTITY_WRITER_INTERCEPTOR);
 		boolean nameBindingChanged = elementKindChanges.contains(NAME_BINDING);
-		
-		// if there was an Application, add all other Applications and the
-		// project (to check for
+		// if there was an Application, add the project (to check for
 		// duplicate/overrides)
 		if (applicationsChanged) {
-			resources.addAll(getApplicationUnderlyingResources(metamodel));
 			resources.add(project);
 		}
-		// if there are Applications, Resources (incl. ResourceMethods), then
-		// also include Filters and Interceptors (to check for NameBindings).
-		if (applicationsChanged || resourcesChanged) {
-			resources.addAll(getFiltersAndInterceptorsUnderlyingResources(metamodel));
-		}
-		// if there are Filters or Interceptors, add all Applications, Resources
-		// (incl. ResourceMethods) (to check for NameBindings).
-		if (filtersChanged || interceptorsChanged) {
-			resources.addAll(getApplicationUnderlyingResources(metamodel));
-			resources.addAll(getResourceUnderlyingResources(metamodel));
-		}
-		// if there was a NameBinding, add all Applications, Resources (incl.
-		// ResourceMethods), Filters and Interceptors (to check for
-		// NameBindings).
-		if (nameBindingChanged) {
-			resources.addAll(getApplicationUnderlyingResources(metamodel));
-			resources.addAll(getFiltersAndInterceptorsUnderlyingResources(metamodel));
-			resources.addAll(getResourceUnderlyingResources(metamodel));
+		final Set<IResource> categoryResources = getImpactedCategoriesUnderlyingResources(metamodel, elementKindChanges);
+		if (!validationDependencies.isComplete() || nameBindingChanged) {
+			// the dependencies are not known yet, or some elements may now
+			// (or no longer) be bound with the changed Name Binding.
+			Logger.debug("Adding all resources of the impacted categories in the set of files to validate...");
+			resources.addAll(categoryResources);
+			JaxrsMetrics.VALIDATION_SCOPE_FALLBACKS.increment();
+		} else {
+			resources.addAll(validationDependencies.getDependents(changedTopics));
 		}
 		// check if the given changedFile is *referenced* in JAX-RS elements of the metamodel (for cross-type validation)
 		final List<IType> knownTypes = metamodel.getAllJavaElements(IJavaElement.TYPE);
 		for(IFile changedResource : changedResources) {
 			final ICompilationUnit changedCompilationUnit = JdtUtils.getCompilationUnit(changedResource);
 			if(changedCompilationUnit != null) {
-				final Collection<IType> foundRelatedTypes = JavaElementsSearcher.findRelatedTypes(changedCompilationUnit.findPrimaryType(), knownTypes, new NullProgressMonitor());
+				final Collection<IType> foundRelatedTypes = metamodel.findRelatedTypes(changedCompilationUnit.findPrimaryType(), knownTypes, new NullProgressMonitor());
 				for(IType relatedType : foundRelatedTypes) {
 					resources.add(relatedType.getResource());
 				}
 			}
 		}
-		// if the given changedFile matches a ParamConverterProvider, add all JAX-RS resources (naive approach).
-		if(elementKindChanges.contains(EnumElementKind.PARAM_CONVERTER_PROVIDER)) {
-			resources.addAll(getResourceUnderlyingResources(metamodel));
-		}
 		// check if there are JAX-RS element changes in the given resources 
 		if(!elementKindChanges.isEmpty()) {
 			resources.add(project);
 		}
-		
+		// measure how much the dependencies reduced the set of resources to validate
+		final Set<IResource> candidateResources = new HashSet<IResource>(resources);
+		candidateResources.addAll(categoryResources);
+		JaxrsMetrics.VALIDATION_SCOPE_CANDIDATES.add(candidateResources.size());
+		JaxrsMetrics.VALIDATION_SCOPE_RESOURCES.add(resources.size());
+		Logger.debug("Validating {} resources out of {} candidates", resources.size(), candidateResources.size());
 		
 		// put the result in a list that will be sorted
 		final ArrayList<IResource> result = new ArrayList<IResource>(resources);
@@ -264,6 +268,54 @@ public class JaxrsMetamodelValidator extends TempMarkerManager implements IValid
 		return result;
 	}
 
+	/**
+	 * @return all underlying {@link IResource}s of the elements whose
+	 *         categories may be impacted by changes on elements of the given
+	 *         kinds (eg, all Filters and Interceptors if a Resource changed,
+	 *         since they may share Name Bindings).
+	 * @param metamodel
+	 *            the metamodel to use
+	 * @param elementKindChanges
+	 *            the kinds of the elements that changed
+	 */
+	private Set<IResource> getImpactedCategoriesUnderlyingResources(final JaxrsMetamodel metamodel,
+			final Set<EnumElementKind> elementKindChanges) {
+		final Set<IResource> resources = new HashSet<IResource>();
+		boolean applicationsChanged = elementKindChanges.contains(APPLICATION_JAVA) || elementKindChanges.contains(APPLICATION_WEBXML);
+		boolean resourcesChanged = elementKindChanges.contains(ROOT_RESOURCE) || elementKindChanges.contains(SUBRESOURCE) || elementKindChanges.contains(SUBRESOURCE_LOCATOR) || elementKindChanges.contains(UNDEFINED_RESOURCE);
+		boolean filtersChanged = elementKindChanges.contains(CONTAINER_FILTER) || elementKindChanges.contains(CONTAINER_REQUEST_FILTER) || elementKindChanges.contains(CONTAINER_RESPONSE_FILTER) || elementKindChanges.contains(UNDEFINED_PROVIDER);
+		boolean interceptorsChanged = elementKindChanges.contains(ENTITY_INTERCEPTOR) || elementKindChanges.contains(ENTITY_READER_INTERCEPTOR) || elementKindChanges.contains(ENTITY_WRITER_INTERCEPTOR);
+		boolean nameBindingChanged = elementKindChanges.contains(NAME_BINDING);
+		// if there was an Application, add all other Applications
+		if (applicationsChanged) {
+			resources.addAll(getApplicationUnderlyingResources(metamodel));
+		}
+		// if there are Applications, Resources (incl. ResourceMethods), then
+		// also include Filters and Interceptors (to check for NameBindings).
+		if (applicationsChanged || resourcesChanged) {
+			resources.addAll(getFiltersAndInterceptorsUnderlyingResources(metamodel));
+		}
+		// if there are Filters or Interceptors, add all Applications, Resources
+		// (incl. ResourceMethods) (to check for NameBindings).
+		if (filtersChanged || interceptorsChanged) {
+			resources.addAll(getApplicationUnderlyingResources(metamodel));
+			resources.addAll(getResourceUnderlyingResources(metamodel));
+		}
+		// if there was a NameBinding, add all Applications, Resources (incl.
+		// ResourceMethods), Filters and Interceptors (to check for
+		// NameBindings).
+		if (nameBindingChanged) {
+			resources.addAll(getApplicationUnderlyingResources(metamodel));
+			resources.addAll(getFiltersAndInterceptorsUnderlyingResources(metamodel));
+			resources.addAll(getResourceUnderlyingResources(metamodel));
+		}
+		// if the given changedFile matches a ParamConverterProvider, add all JAX-RS resources.
+		if(elementKindChanges.contains(EnumElementKind.PARAM_CONVERTER_PROVIDER)) {
+			resources.addAll(getResourceUnderlyingResources(metamodel));
+		}
+		return resources;
+	}
+
 	/**
 	 * Analyzes the changed resources in comparison with their known corresponding {@link EnumElementKind} in the {@link JaxrsShadowElementsCache}.
 	 * @param changedResources the resource that changed
@@ -352,24 +404,6 @@ public class JaxrsMetamodelValidator extends TempMarkerManager implements IValid
 		return resourceResources;
 	}
 
-	/** 
-	 * 
-	 * @param element the {@link IJaxrsElement}
-	 * @return the associated {@link CompilationUnit} if the given {@code element} is based on an {@link IJavaElement}, {@code null} otherwise.
-	 * @throws JavaModelException 
-	 * 
-	 */
-	private static CompilationUnit getAST(final IJaxrsElement element) throws JavaModelException {
-		if(element instanceof JaxrsJavaElement<?>) {
-			final IMember javaElement = ((JaxrsJavaElement<?>)element).getJavaElement();
-			// built-in HTTP methods have no underlying Java Element.
-			if(javaElement != null) {
-				return JdtUtils.parse(javaElement.getCompilationUnit(), new NullProgressMonitor());
-			}
-		}
-		return null;
-	}
-
 	/**
 	 * As-you-type validation, called when before the user saved the modified file. The given dirtyRegions indicate where the changes occurred.
 	 * As opposed to other validation methods in this class, there is no cross-resource validation performed here, ie, only local changes are taken into account.
@@ -444,6 +478,8 @@ public class JaxrsMetamodelValidator extends TempMarkerManager implements IValid
 				displaySubtask(JaxrsValidationMessages.VALIDATING_PROJECT, new String[] { project.getName() });
 				final List<IJaxrsElement> allElements = metamodel.getAllElements();
 				validate(allElements, metamodel, true);
+				// from now on, changes only trigger the validation of their dependents
+				metamodel.getValidationDependencies().setComplete();
 			}
 		} catch (CoreException e) {
 			Logger.error("Failed to validate project '", e);
@@ -482,16 +518,37 @@ public class JaxrsMetamodelValidator extends TempMarkerManager implements IValid
 			elementsToValidate.add(element);
 			removeMarkers(element);
 		}
-		// perform the validation
+		// the dependencies of the validated resources are replaced by the ones
+		// recorded during this validation, including during as-you-type validation
+		// (otherwise the dependencies of the edited resource would only grow)
+		final Map<IResource, List<IJaxrsElement>> elementsPerResource = new HashMap<IResource, List<IJaxrsElement>>();
 		for(IJaxrsElement element : elementsToValidate) {
-			@SuppressWarnings("unchecked")
-			final IJaxrsElementValidator<IJaxrsElement> validator = (IJaxrsElementValidator<IJaxrsElement>) getValidator(element);
-			if (validator != null) {
-				validator.validate(element, getAST(element));
+			if(!elementsPerResource.containsKey(element.getResource())) {
+				elementsPerResource.put(element.getResource(), new ArrayList<IJaxrsElement>());
+				metamodel.getValidationDependencies().clearDependencies(element.getResource());
 			}
+			elementsPerResource.get(element.getResource()).add(element);
 		}
-		if(validateMetamodel) {
-			validate(metamodel);
+		// perform the validation: the problems are buffered per file, then
+		// all markers are created at once. The metamodel does not change while
+		// the validators read it, from this thread and from the worker threads.
+		final List<ValidationMarkersBuffer> markersBuffers = new ArrayList<ValidationMarkersBuffer>();
+		metamodel.beginConsistentRead();
+		try {
+			markersBuffers.addAll(JaxrsElementsValidationRunner.validate(elementsToValidate));
+			if(validateMetamodel) {
+				markersBuffers.add(validate(metamodel));
+			}
+		} finally {
+			metamodel.endConsistentRead();
+		}
+		applyMarkers(markersBuffers);
+		// the published topics are those of the saved resources only: the topics of
+		// the working copies must not hide the ones to revalidate when the file is saved
+		if(!asYouTypeValidation) {
+			for(Entry<IResource, List<IJaxrsElement>> entry : elementsPerResource.entrySet()) {
+				metamodel.getValidationDependencies().setPublishedTopics(entry.getKey(), ValidationTopics.getPublishedTopics(entry.getValue()));
+			}
 		}
 		// check if problem level changed on endpoints, notify the UI if changes occurred
 		for(IJaxrsEndpoint endpoint : endpoints) {
@@ -510,55 +567,46 @@ public class JaxrsMetamodelValidator extends TempMarkerManager implements IValid
 		
 	}
 
-	private IJaxrsElementValidator<? extends IJaxrsElement> getValidator(final IJaxrsElement element) {
-		switch (element.getElementKind().getCategory()) {
-		case APPLICATION:
-			final IJaxrsApplication application = (IJaxrsApplication) element;
-			if (application.isJavaApplication()) {
-				return new JaxrsJavaApplicationValidatorDelegate(this);
-			} else {
-				return new JaxrsWebxmlApplicationValidatorDelegate(this);
-			}
-		case HTTP_METHOD:
-			return new JaxrsHttpMethodValidatorDelegate(this);
-		case NAME_BINDING:
-			return new JaxrsNameBindingValidatorDelegate(this);
-		case PARAM_CONVERTER_PROVIDER:
-			return new JaxrsParamConverterProviderValidatorDelegate(this);
-		case PROVIDER:
-			return new JaxrsProviderValidatorDelegate(this);
-		case RESOURCE:
-			// this validator delegate also deals with ResourceMethods and
-			// ResourceFields when validating a whole resource
-			return new JaxrsResourceValidatorDelegate(this); 
-		case RESOURCE_FIELD:
-			return new JaxrsResourceFieldValidatorDelegate(this);
-		case RESOURCE_PROPERTY:
-			return new JaxrsResourcePropertyValidatorDelegate(this);
-		case RESOURCE_METHOD:
-			return new JaxrsResourceMethodValidatorDelegate(this);
-		case PARAMETER_AGGREGATOR:
-			return new JaxrsParameterAggregatorValidatorDelegate(this);
-		case PARAMETER_AGGREGATOR_FIELD:
-			return new JaxrsParameterAggregatorFieldValidatorDelegate(this);
-		case PARAMETER_AGGREGATOR_PROPERTY:
-			return new JaxrsParameterAggregatorPropertyValidatorDelegate(this);
-		default:
-			// skipping other categories of elements at this validator level.
-			// (see above)
-			return null;
-		}
+	/**
+	 * Validates the given {@link JaxrsMetamodel} itself.
+	 * 
+	 * @param metamodel the metamodel to validate
+	 * @return the buffer of problems reported on the metamodel
+	 * @throws CoreException
+	 */
+	private ValidationMarkersBuffer validate(final JaxrsMetamodel metamodel) throws CoreException {
+		final ValidationMarkersBuffer markersBuffer = new ValidationMarkersBuffer();
+		new JaxrsMetamodelValidatorDelegate(markersBuffer).validate(metamodel);
+		return markersBuffer;
 	}
 
 	/**
-	 * Uses the appropriate validator to validate the given JAX-RS element, or
-	 * does nothing if no validator could be found.
+	 * Creates the markers (or the messages, during as-you-type validation) for
+	 * all the problems collected in the given buffers, in a single workspace
+	 * operation.
 	 * 
-	 * @param element
+	 * @param markersBuffers
+	 *            the buffers of problems to apply
 	 * @throws CoreException
 	 */
-	private void validate(JaxrsMetamodel metamodel) throws CoreException {
-		new JaxrsMetamodelValidatorDelegate(this).validate(metamodel);
+	private void applyMarkers(final List<ValidationMarkersBuffer> markersBuffers) throws CoreException {
+		final long startTime = System.currentTimeMillis();
+		final IWorkspaceRunnable runnable = new IWorkspaceRunnable() {
+			@Override
+			public void run(final IProgressMonitor monitor) throws CoreException {
+				for (ValidationMarkersBuffer markersBuffer : markersBuffers) {
+					markersBuffer.flush(JaxrsMetamodelValidator.this);
+				}
+			}
+		};
+		if (asYouTypeValidation) {
+			// messages are reported, no marker is created
+			runnable.run(null);
+		} else {
+			ResourcesPlugin.getWorkspace().run(runnable, null, IWorkspace.AVOID_UPDATE, null);
+		}
+		final long endTime = System.currentTimeMillis();
+		Logger.debug("Applied problems of {} files in {} ms.", markersBuffers.size(), (endTime - startTime));
 	}
 
 	@Override
@@ -29,7 +29,6 @@ import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodel;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsParameterAggregatorElement;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsResource;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsResourceMethod;
-import org.jboss.tools.ws.jaxrs.core.internal.metamodel.search.JavaElementsSearcher;
 import org.jboss.tools.ws.jaxrs.core.jdt.Annotation;
 import org.jboss.tools.ws.jaxrs.core.jdt.JdtUtils;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.EnumElementCategory;
@@ -81,7 +80,7 @@ public abstract class JaxrsParameterAggregatorElementValidatorDelegate<T extends
 		final JaxrsMetamodel metamodel = element.getMetamodel();
 		final List<IType> knownTypes = metamodel.getAllJavaElements(IJavaElement.TYPE);
 		final IType parentType = element.getJavaElement().getDeclaringType();
-		final Set<IType> relatedTypes = JavaElementsSearcher.findRelatedTypes(parentType, knownTypes, new NullProgressMonitor());
+		final Set<IType> relatedTypes = metamodel.findRelatedTypes(parentType, knownTypes, new NullProgressMonitor());
 		for(IType relatedType : relatedTypes) {
 			final JaxrsResource relatedResource = (JaxrsResource) metamodel.findElement(relatedType.getFullyQualifiedName(), EnumElementCategory.RESOURCE);
 			if(relatedResource == null) {
@@ -93,6 +93,7 @@ public class JaxrsProviderValidatorDelegate extends AbstractJaxrsElementValidato
 		final JaxrsMetamodel metamodel = provider.getMetamodel();
 		// take the first NameBinding annotation and look for Resource and Resource Methods that have this annotation, too
 		final String firstNameBindingAnnotationClassName = nameBindingAnnotations.keySet().iterator().next();
+		ValidationTopics.addDependency(provider, ValidationTopics.nameBinding(firstNameBindingAnnotationClassName));
 		final Set<String> allBindingAnnotationNames = nameBindingAnnotations.keySet();
 		final Collection<IJaxrsResourceMethod> annotatedResourceMethods = metamodel.findResourceMethodsByAnnotation(firstNameBindingAnnotationClassName);
 		for(IJaxrsResourceMethod resourceMethod : annotatedResourceMethods) {
@@ -269,6 +270,8 @@ public class JaxrsProviderValidatorDelegate extends AbstractJaxrsElementValidato
 			if(providedType == null) {
 				return;
 			}
+			ValidationTopics.addDependency(provider,
+					ValidationTopics.provider(elementKind, providedType.getFullyQualifiedName()));
 			final Collection<JaxrsProvider> providers = metamodel.findProviders(elementKind,
 					providedType.getFullyQualifiedName());
 			for (JaxrsProvider p : providers) {
@@ -87,6 +87,7 @@ public abstract class JaxrsResourceElementValidatorDelegate<T extends JaxrsResou
 	 */
 	void validateParameterType(final T resourceElement) throws CoreException {
 		// for now, we bypass this validation if the metamodel has at least one ParamConverterProvider
+		ValidationTopics.addDependency((JaxrsBaseElement) resourceElement, ValidationTopics.PARAM_CONVERTER_PROVIDERS);
 		final Collection<IJaxrsParamConverterProvider> allParamConverterProviders = resourceElement.getMetamodel().findAllParamConverterProviders();
 		if(allParamConverterProviders != null && ! allParamConverterProviders.isEmpty()) {
 			return;
@@ -125,20 +125,27 @@ public class JaxrsResourceMethodValidatorDelegate extends AbstractJaxrsElementVa
 	 * @see JaxrsParameterValidatorDelegate
 	 */
 	private void validateParameterTypes(final JaxrsResourceMethod resourceMethod) throws CoreException {
-		// for now, we bypass this validation if the metamodel has at least one ParamConverterProvider
-		final Collection<IJaxrsParamConverterProvider> allParamConverterProviders = resourceMethod.getMetamodel().findAllParamConverterProviders();
-		if(allParamConverterProviders != null && ! allParamConverterProviders.isEmpty()) {
-			return;
-		}
-		
 		final JaxrsParameterValidatorDelegate parameterValidatorDelegate = new JaxrsParameterValidatorDelegate();
 		final List<IJavaMethodParameter> methodParameters = resourceMethod.getJavaMethodParameters();
+		boolean paramConverterProvidersChecked = false;
 		for (IJavaMethodParameter methodParameter : methodParameters) {
 			if (!methodParameter.hasAnnotation(PATH_PARAM) && !methodParameter.hasAnnotation(QUERY_PARAM)
 					&& !methodParameter.hasAnnotation(MATRIX_PARAM) && !methodParameter.hasAnnotation(COOKIE_PARAM)
 					&& !methodParameter.hasAnnotation(HEADER_PARAM)) {
 				continue;
 			}
+			// for now, we bypass this validation if the metamodel has at least
+			// one ParamConverterProvider (only checked when the method has an
+			// annotated parameter, so that other methods do not depend on the
+			// ParamConverterProviders)
+			if (!paramConverterProvidersChecked) {
+				ValidationTopics.addDependency(resourceMethod, ValidationTopics.PARAM_CONVERTER_PROVIDERS);
+				final Collection<IJaxrsParamConverterProvider> allParamConverterProviders = resourceMethod.getMetamodel().findAllParamConverterProviders();
+				if(allParamConverterProviders != null && ! allParamConverterProviders.isEmpty()) {
+					return;
+				}
+				paramConverterProvidersChecked = true;
+			}
 			final SourceType type = methodParameter.getType();
 			// skip if the type does not exist, there will already be a compilation error reported by JDT.
 			if(!type.exists()) {
@@ -176,6 +183,7 @@ public class JaxrsResourceMethodValidatorDelegate extends AbstractJaxrsElementVa
 		annotations_loop:
 		for(Entry<String, Annotation> entry : nameBindingAnnotations.entrySet()) {
 			final String nameBindingAnnotationClassName = entry.getKey();
+			ValidationTopics.addDependency(resourceMethod, ValidationTopics.nameBinding(nameBindingAnnotationClassName));
 			final Collection<IJaxrsProvider> annotatedProviders = metamodel
 					.findProvidersByAnnotation(nameBindingAnnotationClassName);
 			// if provider binding annotation(s) match the application binding annotations
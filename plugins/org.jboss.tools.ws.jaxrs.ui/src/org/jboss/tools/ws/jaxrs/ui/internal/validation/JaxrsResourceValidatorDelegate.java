@@ -120,6 +120,7 @@ public class JaxrsResourceValidatorDelegate extends AbstractJaxrsElementValidato
 		final JaxrsMetamodel metamodel = resource.getMetamodel();
 		annotations_loop: for (Entry<String, Annotation> entry : nameBindingAnnotations.entrySet()) {
 			final String nameBindingAnnotationClassName = entry.getKey();
+			ValidationTopics.addDependency(resource, ValidationTopics.nameBinding(nameBindingAnnotationClassName));
 			final Collection<IJaxrsProvider> annotatedProviders = metamodel
 					.findProvidersByAnnotation(nameBindingAnnotationClassName);
 			// if provider binding annotation(s) match the application binding
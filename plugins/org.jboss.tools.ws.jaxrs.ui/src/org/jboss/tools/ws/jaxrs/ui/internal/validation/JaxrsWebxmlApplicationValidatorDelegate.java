@@ -37,6 +37,8 @@ public class JaxrsWebxmlApplicationValidatorDelegate extends AbstractJaxrsElemen
 	@Override
 	void internalValidate(final JaxrsWebxmlApplication webxmlApplication, final CompilationUnit ast) throws CoreException {
 		Logger.debug("Validating element {}", webxmlApplication);
+		// the duplicate/overriding applications are checked against each other
+		ValidationTopics.addDependency(webxmlApplication, ValidationTopics.APPLICATIONS);
 	}
 
 }
@@ -0,0 +1,127 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.ui.internal.validation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.ISourceRange;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsBaseElement;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodel;
+
+/**
+ * An {@link IMarkerManager} that collects the problems reported by the
+ * validator delegates on a single file, without touching the workspace. The
+ * collected problems are replayed later on the actual {@link IMarkerManager},
+ * which allows the delegates to run in worker threads while all markers are
+ * created in the calling thread, in a single workspace operation.
+ *
+ * Not thread-safe: each buffer is meant to be filled by a single thread.
+ *
+ * @author Xavier Coulon
+ *
+ */
+final class ValidationMarkersBuffer implements IMarkerManager {
+
+	/** Value of the quickfix id when the problem has no quickfix. */
+	private static final int NO_QUICKFIX = -1;
+
+	/** The problems reported so far, in the order in which they were reported. */
+	private final List<Problem> problems = new ArrayList<Problem>();
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@code null} since the marker is not created yet
+	 */
+	@Override
+	public IMarker addMarker(final JaxrsMetamodel metamodel, final String message, final String[] messageArguments,
+			final String preferenceKey) throws CoreException {
+		problems.add(new Problem(null, metamodel, null, message, messageArguments, preferenceKey, NO_QUICKFIX));
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@code null} since the marker is not created yet
+	 */
+	@Override
+	public IMarker addMarker(final JaxrsBaseElement element, final ISourceRange range, final String message,
+			final String[] messageArguments, final String preferenceKey) throws CoreException {
+		problems.add(new Problem(element, null, range, message, messageArguments, preferenceKey, NO_QUICKFIX));
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@code null} since the marker is not created yet
+	 */
+	@Override
+	public IMarker addMarker(final JaxrsBaseElement element, final ISourceRange range, final String message,
+			final String[] messageArguments, final String preferenceKey, final int quickFixId) throws CoreException {
+		problems.add(new Problem(element, null, range, message, messageArguments, preferenceKey, quickFixId));
+		return null;
+	}
+
+	/**
+	 * Replays all the collected problems on the given {@link IMarkerManager},
+	 * in the order in which they were reported.
+	 *
+	 * @param markerManager
+	 *            the marker manager that actually creates the markers
+	 * @throws CoreException
+	 */
+	void flush(final IMarkerManager markerManager) throws CoreException {
+		for (Problem problem : problems) {
+			if (problem.metamodel != null) {
+				markerManager.addMarker(problem.metamodel, problem.message, problem.messageArguments,
+						problem.preferenceKey);
+			} else if (problem.quickFixId == NO_QUICKFIX) {
+				markerManager.addMarker(problem.element, problem.range, problem.message, problem.messageArguments,
+						problem.preferenceKey);
+			} else {
+				markerManager.addMarker(problem.element, problem.range, problem.message, problem.messageArguments,
+						problem.preferenceKey, problem.quickFixId);
+			}
+		}
+		problems.clear();
+	}
+
+	/**
+	 * A problem reported on a JAX-RS element or on the metamodel itself.
+	 */
+	private static class Problem {
+		final JaxrsBaseElement element;
+		final JaxrsMetamodel metamodel;
+		final ISourceRange range;
+		final String message;
+		final String[] messageArguments;
+		final String preferenceKey;
+		final int quickFixId;
+
+		Problem(final JaxrsBaseElement element, final JaxrsMetamodel metamodel, final ISourceRange range,
+				final String message, final String[] messageArguments, final String preferenceKey,
+				final int quickFixId) {
+			this.element = element;
+			this.metamodel = metamodel;
+			this.range = range;
+			this.message = message;
+			this.messageArguments = messageArguments;
+			this.preferenceKey = preferenceKey;
+			this.quickFixId = quickFixId;
+		}
+	}
+
+}
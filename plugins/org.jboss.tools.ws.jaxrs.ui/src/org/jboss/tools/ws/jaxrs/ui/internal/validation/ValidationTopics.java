@@ -0,0 +1,141 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.ui.internal.validation;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.eclipse.jdt.core.IType;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsBaseElement;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsProvider;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsValidationDependencies;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.EnumElementKind;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsElement;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsJavaApplication;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsNameBinding;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsProvider;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsResource;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsResourceMethod;
+
+/**
+ * The topics recorded in the {@link JaxrsValidationDependencies}: the parts
+ * of the metamodel that the validator delegates read when they validate an
+ * element against other elements.
+ * 
+ * @author Xavier Coulon
+ *
+ */
+final class ValidationTopics {
+
+	/** All the JAX-RS Applications (Java or web.xml based). */
+	static final String APPLICATIONS = "applications";
+
+	/** All the Parameter Converter Providers. */
+	static final String PARAM_CONVERTER_PROVIDERS = "paramConverterProviders";
+
+	private ValidationTopics() {
+		// only static methods
+	}
+
+	/**
+	 * @param annotationClassName
+	 *            the fully qualified name of a name binding annotation
+	 * @return the topic for the elements annotated with the given name binding
+	 *         annotation
+	 */
+	static String nameBinding(final String annotationClassName) {
+		return "nameBinding:" + annotationClassName;
+	}
+
+	/**
+	 * @param providerKind
+	 *            the kind of provider
+	 * @param providedTypeName
+	 *            the fully qualified name of the provided type
+	 * @return the topic for the providers of the given kind and type
+	 */
+	static String provider(final EnumElementKind providerKind, final String providedTypeName) {
+		return "provider:" + providerKind.name() + ":" + providedTypeName;
+	}
+
+	/**
+	 * Records that the validation of the given element read the given topic.
+	 * 
+	 * @param element
+	 *            the element being validated
+	 * @param topic
+	 *            the topic that was read
+	 */
+	static void addDependency(final JaxrsBaseElement element, final String topic) {
+		if (element.getMetamodel() == null) {
+			return;
+		}
+		element.getMetamodel().getValidationDependencies().addDependency(element.getResource(), topic);
+	}
+
+	/**
+	 * @param elements
+	 *            the elements of a single resource
+	 * @return the topics matching the given elements, ie, the topics whose
+	 *         readers must be validated again when the given elements change
+	 */
+	static Set<String> getPublishedTopics(final Collection<? extends IJaxrsElement> elements) {
+		final Set<String> topics = new HashSet<String>();
+		for (IJaxrsElement element : elements) {
+			switch (element.getElementKind().getCategory()) {
+			case APPLICATION:
+				topics.add(APPLICATIONS);
+				if (element instanceof IJaxrsJavaApplication) {
+					addNameBindings(topics, ((IJaxrsJavaApplication) element).getNameBindingAnnotations().keySet());
+				}
+				break;
+			case PARAM_CONVERTER_PROVIDER:
+				topics.add(PARAM_CONVERTER_PROVIDERS);
+				break;
+			case NAME_BINDING:
+				topics.add(nameBinding(((IJaxrsNameBinding) element).getJavaClassName()));
+				break;
+			case RESOURCE:
+				final IJaxrsResource resource = (IJaxrsResource) element;
+				addNameBindings(topics, resource.getNameBindingAnnotations().keySet());
+				for (IJaxrsResourceMethod resourceMethod : resource.getAllMethods()) {
+					addNameBindings(topics, resourceMethod.getNameBindingAnnotations().keySet());
+				}
+				break;
+			case RESOURCE_METHOD:
+				addNameBindings(topics, ((IJaxrsResourceMethod) element).getNameBindingAnnotations().keySet());
+				break;
+			case PROVIDER:
+				addNameBindings(topics, ((IJaxrsProvider) element).getNameBindingAnnotations().keySet());
+				if (element instanceof JaxrsProvider) {
+					for (Entry<EnumElementKind, IType> entry : ((JaxrsProvider) element).getProvidedTypes().entrySet()) {
+						if (entry.getValue() != null) {
+							topics.add(provider(entry.getKey(), entry.getValue().getFullyQualifiedName()));
+						}
+					}
+				}
+				break;
+			default:
+				break;
+			}
+		}
+		return topics;
+	}
+
+	private static void addNameBindings(final Set<String> topics, final Collection<String> annotationClassNames) {
+		for (String annotationClassName : annotationClassNames) {
+			topics.add(nameBinding(annotationClassName));
+		}
+	}
+
+}
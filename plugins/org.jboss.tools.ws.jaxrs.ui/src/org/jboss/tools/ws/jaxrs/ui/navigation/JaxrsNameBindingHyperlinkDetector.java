@@ -33,6 +33,7 @@ import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsNameBinding;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.EnumElementKind;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsElement;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsJavaElement;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsMetamodelView;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.JaxrsMetamodelLocator;
 import org.jboss.tools.ws.jaxrs.ui.internal.utils.Logger;
 
@@ -76,7 +77,7 @@ public class JaxrsNameBindingHyperlinkDetector extends AbstractHyperlinkDetector
 		}
 		final IJavaElement[] selectedJavaElements = getSelectedElements(input, wordRegion);
 
-		final List<IJaxrsJavaElement> targets = findTargets(metamodel, selectedJavaElements, (ICompilationUnit) input.getAncestor(IJavaElement.COMPILATION_UNIT));
+		final List<IJaxrsJavaElement> targets = findTargets(metamodel.getView(), selectedJavaElements, (ICompilationUnit) input.getAncestor(IJavaElement.COMPILATION_UNIT));
 		if(targets != null && !targets.isEmpty()){
 			final IHyperlink[] result = new IHyperlink[targets.size()];
 			for(int i = 0; i < targets.size(); i++) {
@@ -110,12 +111,12 @@ public class JaxrsNameBindingHyperlinkDetector extends AbstractHyperlinkDetector
 
 	/**
 	 * If the given selectedJavaElement match a custom Name Binding annotation
-	 * defined in the given {@link JaxrsMetamodel}, then return the list of
-	 * associated elements with this name binding.
+	 * defined in the given view of the {@link JaxrsMetamodel}, then return the
+	 * list of associated elements with this name binding.
 	 * 
-	 * @param metamodel
-	 *            the JAX-RS Metamodel associated with the given element in the
-	 *            current text editor
+	 * @param metamodelView
+	 *            the last published view of the JAX-RS Metamodel associated
+	 *            with the given element in the current text editor
 	 * @param selectedJavaElements
 	 *            the selected java elements
 	 * @param currentCompilationUnit
@@ -123,13 +124,13 @@ public class JaxrsNameBindingHyperlinkDetector extends AbstractHyperlinkDetector
 	 * @return the list of target {@link IJavaElement} or empty list if none
 	 *         match.
 	 */
-	private List<IJaxrsJavaElement> findTargets(final JaxrsMetamodel metamodel, final IJavaElement[] selectedJavaElements, final ICompilationUnit currentCompilationUnit) {
+	private List<IJaxrsJavaElement> findTargets(final IJaxrsMetamodelView metamodelView, final IJavaElement[] selectedJavaElements, final ICompilationUnit currentCompilationUnit) {
 		final List<IJaxrsJavaElement> targetElements = new ArrayList<IJaxrsJavaElement>();
 		for(IJavaElement selectedJavaElement : selectedJavaElements) {
-			final IJaxrsElement associatedJaxrsElement = metamodel.findElement(selectedJavaElement);
+			final IJaxrsElement associatedJaxrsElement = metamodelView.findElement(selectedJavaElement);
 			if(associatedJaxrsElement != null && associatedJaxrsElement.getElementKind() == EnumElementKind.NAME_BINDING) {
 				final JaxrsNameBinding nameBinding = (JaxrsNameBinding) associatedJaxrsElement;
-				final Collection<IJaxrsElement> matchingElements = metamodel.findElementsByAnnotation(nameBinding.getJavaClassName());
+				final Collection<IJaxrsElement> matchingElements = metamodelView.findElementsByAnnotation(nameBinding.getJavaClassName());
 				for(IJaxrsElement matchingElement : matchingElements) {
 					final IJavaElement matchingJavaElement = ((IJaxrsJavaElement)matchingElement).getJavaElement();
 					// skip if the matching/target Java element is part of the current compilation unit
@@ -20,6 +20,7 @@ import org.jboss.tools.usage.event.UsageEvent;
 import org.jboss.tools.usage.event.UsageEventType;
 import org.jboss.tools.usage.event.UsageReporter;
 import org.jboss.tools.ws.ui.messages.JBossWSUIMessages;
+import org.jboss.tools.ws.ui.utils.ResponseBody;
 import org.osgi.framework.BundleContext;
 
 /**
@@ -32,6 +33,9 @@ public class JBossWSUIPlugin extends AbstractUIPlugin {
 
 	// The shared instance
 	private static JBossWSUIPlugin plugin;
+
+	// the directory of the spooled responses, in the plugin state location
+	private static final String SPOOL_DIRECTORY = "responses"; //$NON-NLS-1$
 	
 	// record event of requests submitted with the WS Tester
 	private final UsageEventType requestSubmittedEventType;
@@ -51,6 +55,10 @@ public class JBossWSUIPlugin extends AbstractUIPlugin {
 		super.start(context);
 		plugin = this;
 		UsageReporter.getInstance().registerEvent(requestSubmittedEventType);
+		// large responses of the Web Service Tester are spooled in the plugin
+		// state location, where the ones left by a previous session are deleted
+		ResponseBody.setSpoolDirectory(getStateLocation().append(SPOOL_DIRECTORY).toFile());
+		ResponseBody.cleanSpoolDirectory();
 	}
 
 	/*
@@ -58,6 +66,8 @@ public class JBossWSUIPlugin extends AbstractUIPlugin {
 	 * @see org.eclipse.ui.plugin.AbstractUIPlugin#stop(org.osgi.framework.BundleContext)
 	 */
 	public void stop(BundleContext context) throws Exception {
+		ResponseBody.cleanSpoolDirectory();
+		ResponseBody.setSpoolDirectory(null);
 		plugin = null;
 		super.stop(context);
 	}
@@ -148,7 +148,9 @@ public class JBossWSUIMessages extends NLS {
 	public static String JAXRSWSTestView_Invoking_WS_Status;
 	public static String JAXRSWSTestView_JAXRS_Success_Status;
 	public static String JAXRSWSTestView_JAXWS_Success_Status;
+	public static String JAXRSWSTestView_Load_Testing_WS_Status;
 	public static String JAXRSWSTestView_Message_Service_Invocation_Cancelled;
+	public static String JAXRSWSTestView_Message_Service_Invocation_Timed_Out;
 	public static String JAXRSWSTestView_Message_Unsuccessful_Test;
 	public static String JAXRSRSTestView_Message_Unsuccessful_Test;
 	public static String JAXRSWSTestView_Open_Monitor_Button;
@@ -165,8 +167,12 @@ public class JBossWSUIMessages extends NLS {
 	public static String JAXRSWSTestView2_BodyText_Section;
 	public static String JAXRSWSTestView2_Checkbox_Basic_Authentication;
 	public static String JAXRSWSTestView2_GetFromWSDL_Tooltip;
+	public static String JAXRSWSTestView2_Timeout_Label;
+	public static String JAXRSWSTestView2_Timeout_Tooltip;
 	public static String JAXRSWSTestView2_Go_Tooltip;
 	public static String JAXRSWSTestView2_Headers_Section;
+	public static String JAXRSWSTestView2_LoadTest_Report;
+	public static String JAXRSWSTestView2_LoadTest_Tooltip;
 	public static String JAXRSWSTestView2_Msg_No_Results_Check_Headers;
 	public static String JAXRSWSTestView2_Name_column;
 	public static String JAXRSWSTestView2_OpenInEditor_Action;
@@ -175,6 +181,7 @@ public class JBossWSUIMessages extends NLS {
 	public static String JAXRSWSTestView2_ResponseBody_Section;
 	public static String JAXRSWSTestView2_ResponseDetails_Section;
 	public static String JAXRSWSTestView2_ResponseHeaders_Section;
+	public static String JAXRSWSTestView2_Response_Paging_Link;
 	public static String JAXRSWSTestView2_SaveResponseText_Error;
 	public static String JAXRSWSTestView2_SaveResponseText_tooltip;
 	public static String JAXRSWSTestView2_ShowInBrowser_Tooltip;
@@ -184,6 +191,11 @@ public class JBossWSUIMessages extends NLS {
 	public static String JAXRSWSTestView2_Text_Msg_May_Be_Out_of_Date;
 	public static String JAXRSWSTestView2_Title_Msg_May_Be_Out_of_Date;
 	public static String JAXRSWSTestView2_Value_column;
+	public static String LoadTestDialog_Description;
+	public static String LoadTestDialog_Duration_Label;
+	public static String LoadTestDialog_RampUp_Label;
+	public static String LoadTestDialog_Title;
+	public static String LoadTestDialog_Virtual_Users_Label;
 	public static String ResultsXMLStorageInput_WS_Invocation_Results_Prefix;
 	public static String TesterWSDLUtils_WSDL_HTTPS_Secured_Inaccessible;
 	public static String TesterWSDLUtils_WSDL_Inaccessible;
@@ -0,0 +1,448 @@
+/******************************************************************************* 
+ * Copyright (c) 2010 - 2014 Red Hat, Inc. and others.  
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load tester for JAX-RS services. Sends the same request as the
+ * {@link JAXRSTester} from a number of virtual users, each one sending its
+ * next request as soon as it received the previous response, during a given
+ * duration. The virtual users are started progressively during the ramp-up
+ * period. 
+ * 
+ * The connections are kept alive and pooled by the HttpURLConnection
+ * implementation, since each response body is entirely read and its stream
+ * closed (the connections are never explicitly disconnected). That pool
+ * keeps at most {@code http.maxConnections} idle connections per host (5 by
+ * default), and a virtual user without a pooled connection opens a new one
+ * for each request, which skews the throughput and latencies. The number of
+ * virtual users is therefore capped to {@link #getMaxVirtualUsers()}.
+ * 
+ * Latencies are recorded in a {@link LatencyHistogram}, and a
+ * {@link Snapshot} of the statistics is reported to the {@link Listener} at
+ * regular intervals.
+ * @author bfitzpat
+ *
+ */
+public class JAXRSLoadTester {
+
+	/**
+	 * Receives the statistics of a running load test
+	 */
+	public interface Listener {
+		/**
+		 * Called at each report interval, and once at the end of the test
+		 * @param snapshot
+		 */
+		void progress(Snapshot snapshot);
+	}
+
+	// highest latency tracked by the histogram: 1 hour in microseconds
+	private static final long HIGHEST_TRACKABLE_LATENCY = TimeUnit.HOURS.toMicros(1);
+
+	// default size of the keep-alive pool of HttpURLConnection, per host
+	private static final int DEFAULT_MAX_CONNECTIONS = 5;
+
+	// the request
+	private final URL url;
+	private final String methodType;
+	private final Map<String, String> headers;
+	private final byte[] requestBody;
+
+	// the load
+	private int virtualUsers = Math.min(10, getMaxVirtualUsers());
+	private long rampUpMillis = 0;
+	private long durationMillis = TimeUnit.SECONDS.toMillis(30);
+	private long reportIntervalMillis = TimeUnit.SECONDS.toMillis(1);
+	private int timeoutMillis = (int) TimeUnit.SECONDS.toMillis(30);
+
+	// the statistics
+	private final LatencyHistogram histogram = new LatencyHistogram(HIGHEST_TRACKABLE_LATENCY);
+	private final AtomicLong requestCount = new AtomicLong();
+	private final AtomicLong errorCount = new AtomicLong();
+	private final AtomicInteger activeUsers = new AtomicInteger();
+
+	private volatile boolean stopped = false;
+
+	// released when the test stops, wakes up the users still in the ramp-up
+	private final CountDownLatch stopSignal = new CountDownLatch(1);
+
+	/**
+	 * Constructor, with the same request definition as 
+	 * {@link JAXRSTester#doTest(String, Map, Map, String, String, String, int, String, String)}
+	 * @param address
+	 * @param parameters
+	 * @param headers
+	 * @param methodType
+	 * @param requestBody
+	 * @param uid
+	 * @param pwd
+	 * @throws IOException if the URL cannot be built
+	 */
+	public JAXRSLoadTester(String address, Map<String, String> parameters, Map<String, String> headers,
+			String methodType, String requestBody, String uid, String pwd) throws IOException {
+		this.url = JAXRSTester.buildURL(address, parameters, methodType);
+		this.methodType = methodType;
+		this.headers = new HashMap<String, String>();
+		if (headers != null) {
+			this.headers.putAll(headers);
+		}
+		if (uid != null && pwd != null) {
+			this.headers.put("Authorization", JAXRSTester.buildBasicAuthorization(uid, pwd)); //$NON-NLS-1$
+		}
+		if (requestBody != null && (methodType.equalsIgnoreCase("POST") //$NON-NLS-1$
+				|| methodType.equalsIgnoreCase("PUT"))) { //$NON-NLS-1$
+			this.requestBody = JAXRSTester.stripCRLF(WSTestUtils.stripNLsFromXML(requestBody)).getBytes();
+		} else {
+			this.requestBody = null;
+		}
+	}
+
+	/**
+	 * Return the highest number of virtual users, which is the number of
+	 * connections kept alive per host by HttpURLConnection
+	 * ({@code http.maxConnections} system property)
+	 * @return int
+	 */
+	public static int getMaxVirtualUsers() {
+		final int maxConnections = Integer.getInteger("http.maxConnections", DEFAULT_MAX_CONNECTIONS); //$NON-NLS-1$
+		return maxConnections > 0 ? maxConnections : DEFAULT_MAX_CONNECTIONS;
+	}
+
+	/**
+	 * Set the number of concurrent virtual users, at most
+	 * {@link #getMaxVirtualUsers()}
+	 * @param virtualUsers
+	 */
+	public void setVirtualUsers(int virtualUsers) {
+		this.virtualUsers = Math.min(getMaxVirtualUsers(), Math.max(1, virtualUsers));
+	}
+
+	/**
+	 * Return the number of concurrent virtual users
+	 * @return int
+	 */
+	public int getVirtualUsers() {
+		return virtualUsers;
+	}
+
+	/**
+	 * Set the duration during which the virtual users are started
+	 * @param rampUp
+	 * @param unit
+	 */
+	public void setRampUp(long rampUp, TimeUnit unit) {
+		this.rampUpMillis = Math.max(0, unit.toMillis(rampUp));
+	}
+
+	/**
+	 * Set the duration of the test, including the ramp-up
+	 * @param duration
+	 * @param unit
+	 */
+	public void setDuration(long duration, TimeUnit unit) {
+		this.durationMillis = Math.max(1, unit.toMillis(duration));
+	}
+
+	/**
+	 * Set the interval between two reports to the listener
+	 * @param reportInterval
+	 * @param unit
+	 */
+	public void setReportInterval(long reportInterval, TimeUnit unit) {
+		this.reportIntervalMillis = Math.max(1, unit.toMillis(reportInterval));
+	}
+
+	/**
+	 * Set the connect and read timeout of each request
+	 * @param timeout
+	 * @param unit
+	 */
+	public void setTimeout(long timeout, TimeUnit unit) {
+		this.timeoutMillis = (int) Math.min(Integer.MAX_VALUE, Math.max(1, unit.toMillis(timeout)));
+	}
+
+	/**
+	 * Stop the running test. The virtual users complete their current request,
+	 * the ones that did not start yet are cancelled, and the
+	 * {@link #run(Listener)} method returns.
+	 */
+	public void stop() {
+		this.stopped = true;
+		stopSignal.countDown();
+	}
+
+	/**
+	 * Run the load test and wait for its completion, which happens after the
+	 * configured duration, after a call to {@link #stop()} or when the calling
+	 * thread is interrupted
+	 * @param listener may be null
+	 * @return the final statistics
+	 * @throws InterruptedException
+	 */
+	public Snapshot run(Listener listener) throws InterruptedException {
+		final long startTime = System.nanoTime();
+		final long endTime = startTime + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+		final CountDownLatch completion = new CountDownLatch(virtualUsers);
+		for (int i = 0; i < virtualUsers; i++) {
+			final long userStartTime = startTime + TimeUnit.MILLISECONDS.toNanos(rampUpMillis * i / virtualUsers);
+			final Thread user = new Thread(new VirtualUser(userStartTime, endTime, completion),
+					"JAX-RS Load Test User " + (i + 1)); //$NON-NLS-1$
+			user.setDaemon(true);
+			user.start();
+		}
+		long previousReportTime = startTime;
+		long previousRequestCount = 0;
+		try {
+			while (!completion.await(reportIntervalMillis, TimeUnit.MILLISECONDS) && !stopped) {
+				final long now = System.nanoTime();
+				final Snapshot snapshot = new Snapshot(now - startTime, now - previousReportTime, previousRequestCount);
+				previousReportTime = now;
+				previousRequestCount = snapshot.getRequestCount();
+				if (listener != null) {
+					listener.progress(snapshot);
+				}
+			}
+		} finally {
+			stop();
+		}
+		// let the virtual users complete their current request
+		completion.await(timeoutMillis, TimeUnit.MILLISECONDS);
+		final long now = System.nanoTime();
+		final Snapshot snapshot = new Snapshot(now - startTime, now - startTime, 0);
+		if (listener != null) {
+			listener.progress(snapshot);
+		}
+		return snapshot;
+	}
+
+	/*
+	 * Send the request once and return true if the response was successful
+	 */
+	private boolean sendRequest(byte[] buffer) {
+		HttpURLConnection httpurlc = null;
+		try {
+			httpurlc = (HttpURLConnection) url.openConnection();
+			httpurlc.setAllowUserInteraction(false);
+			httpurlc.setUseCaches(false);
+			httpurlc.setConnectTimeout(timeoutMillis);
+			httpurlc.setReadTimeout(timeoutMillis);
+			httpurlc.setRequestMethod(methodType);
+			for (Entry<String, String> entry : headers.entrySet()) {
+				httpurlc.addRequestProperty(entry.getKey(), entry.getValue());
+			}
+			if (requestBody != null) {
+				httpurlc.setDoOutput(true);
+				httpurlc.setFixedLengthStreamingMode(requestBody.length);
+				final OutputStream out = httpurlc.getOutputStream();
+				out.write(requestBody);
+				out.close();
+			}
+			final int responseCode = httpurlc.getResponseCode();
+			final InputStream is = responseCode < HttpURLConnection.HTTP_BAD_REQUEST ? httpurlc.getInputStream()
+					: httpurlc.getErrorStream();
+			consume(is, buffer);
+			return responseCode < HttpURLConnection.HTTP_BAD_REQUEST;
+		} catch (IOException e) {
+			// read the error stream anyway, so that the connection can be reused
+			if (httpurlc != null) {
+				try {
+					consume(httpurlc.getErrorStream(), buffer);
+				} catch (IOException ie) {
+					// ignore, the connection will not be reused
+				}
+			}
+			return false;
+		}
+	}
+
+	/*
+	 * Read the whole response body and close its stream, which gives the
+	 * connection back to the keep-alive pool
+	 */
+	private static void consume(InputStream is, byte[] buffer) throws IOException {
+		if (is == null) {
+			return;
+		}
+		try {
+			while (is.read(buffer) != -1) {
+				// discard
+			}
+		} finally {
+			is.close();
+		}
+	}
+
+	/*
+	 * Sends requests in a loop, until the end of the test
+	 */
+	private class VirtualUser implements Runnable {
+
+		private final long startTime;
+		private final long endTime;
+		private final CountDownLatch completion;
+
+		VirtualUser(long startTime, long endTime, CountDownLatch completion) {
+			this.startTime = startTime;
+			this.endTime = endTime;
+			this.completion = completion;
+		}
+
+		public void run() {
+			final byte[] buffer = new byte[8192];
+			try {
+				final long delay = startTime - System.nanoTime();
+				if (delay > 0 && stopSignal.await(delay, TimeUnit.NANOSECONDS)) {
+					// the test was stopped during the ramp-up
+					return;
+				}
+				if (stopped) {
+					return;
+				}
+				activeUsers.incrementAndGet();
+				try {
+					while (!stopped && System.nanoTime() < endTime) {
+						final long requestStartTime = System.nanoTime();
+						final boolean success = sendRequest(buffer);
+						histogram.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - requestStartTime));
+						requestCount.incrementAndGet();
+						if (!success) {
+							errorCount.incrementAndGet();
+						}
+					}
+				} finally {
+					activeUsers.decrementAndGet();
+				}
+			} catch (InterruptedException e) {
+				// the user thread was interrupted during the ramp-up
+			} finally {
+				completion.countDown();
+			}
+		}
+	}
+
+	/**
+	 * The statistics of a load test at a given time. Latencies are in
+	 * microseconds.
+	 */
+	public class Snapshot {
+
+		private final long elapsedMillis;
+		private final int activeUsers;
+		private final long requestCount;
+		private final long errorCount;
+		private final double throughput;
+		private final long p50;
+		private final long p90;
+		private final long p99;
+		private final long p999;
+		private final long maxLatency;
+		private final double meanLatency;
+
+		/*
+		 * Takes the snapshot, with the throughput measured since the previous
+		 * snapshot
+		 */
+		Snapshot(long elapsedNanos, long intervalNanos, long previousRequestCount) {
+			this.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+			this.activeUsers = JAXRSLoadTester.this.activeUsers.get();
+			this.requestCount = JAXRSLoadTester.this.requestCount.get();
+			this.errorCount = JAXRSLoadTester.this.errorCount.get();
+			this.throughput = intervalNanos > 0 ? (requestCount - previousRequestCount) * 1e9 / intervalNanos : 0;
+			this.p50 = histogram.getValueAtPercentile(50);
+			this.p90 = histogram.getValueAtPercentile(90);
+			this.p99 = histogram.getValueAtPercentile(99);
+			this.p999 = histogram.getValueAtPercentile(99.9);
+			this.maxLatency = histogram.getMaxValue();
+			this.meanLatency = histogram.getMean();
+		}
+
+		public long getElapsedMillis() {
+			return elapsedMillis;
+		}
+
+		public int getActiveUsers() {
+			return activeUsers;
+		}
+
+		public long getRequestCount() {
+			return requestCount;
+		}
+
+		public long getErrorCount() {
+			return errorCount;
+		}
+
+		/**
+		 * Return the percentage of requests that failed
+		 * @return double
+		 */
+		public double getErrorRate() {
+			return requestCount == 0 ? 0 : errorCount * 100.0 / requestCount;
+		}
+
+		/**
+		 * Return the number of requests per second since the previous
+		 * snapshot, or since the start of the test for the final snapshot
+		 * @return double
+		 */
+		public double getThroughput() {
+			return throughput;
+		}
+
+		public long getLatencyP50() {
+			return p50;
+		}
+
+		public long getLatencyP90() {
+			return p90;
+		}
+
+		public long getLatencyP99() {
+			return p99;
+		}
+
+		public long getLatencyP999() {
+			return p999;
+		}
+
+		public long getMaxLatency() {
+			return maxLatency;
+		}
+
+		public double getMeanLatency() {
+			return meanLatency;
+		}
+
+		@Override
+		public String toString() {
+			return "Snapshot [elapsed=" + elapsedMillis + "ms" //$NON-NLS-1$ //$NON-NLS-2$
+					+ ", activeUsers=" + activeUsers //$NON-NLS-1$
+					+ ", requests=" + requestCount //$NON-NLS-1$
+					+ ", errors=" + errorCount //$NON-NLS-1$
+					+ ", throughput=" + throughput //$NON-NLS-1$
+					+ ", p50=" + p50 + ", p90=" + p90 + ", p99=" + p99 + ", p99.9=" + p999 //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+					+ ", max=" + maxLatency + "]"; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+}
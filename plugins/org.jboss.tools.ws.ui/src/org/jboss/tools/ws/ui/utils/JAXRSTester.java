@@ -10,10 +10,9 @@
  ******************************************************************************/
 package org.jboss.tools.ws.ui.utils;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
 import java.io.OutputStreamWriter;
 import java.net.HttpURLConnection;
 import java.net.InetSocketAddress;
@@ -36,6 +35,15 @@ public class JAXRSTester {
 	
 	// Result message to pass back
 	private String resultBody;
+
+	// the whole response, possibly spooled to a temporary file
+	private ResponseBody responseBody;
+
+	// the Content-Type of the response
+	private String responseContentType;
+
+	// size above which the response is spooled to a temporary file
+	private int memoryThreshold = ResponseBody.DEFAULT_MEMORY_THRESHOLD;
 	
 	// HTTP headers going in and out
 	private Map<?, ?> requestHeaders = null;
@@ -52,13 +60,38 @@ public class JAXRSTester {
 	}
 
 	/**
-	 * Return the result message 
+	 * Return the result message, limited to its first 
+	 * {@link ResponseBody#DEFAULT_PAGE_SIZE} bytes
 	 * @return String
 	 */
 	public String getResultBody() {
 		return this.resultBody;
 	}
 
+	/**
+	 * Return the whole result message, or null if none was received
+	 * @return ResponseBody
+	 */
+	public ResponseBody getResponseBody() {
+		return this.responseBody;
+	}
+
+	/**
+	 * Return the Content-Type of the result message, or null if none was received
+	 * @return String
+	 */
+	public String getResponseContentType() {
+		return this.responseContentType;
+	}
+
+	/**
+	 * Set the size above which the result message is spooled to a temporary file
+	 * @param memoryThreshold
+	 */
+	public void setMemoryThreshold(int memoryThreshold) {
+		this.memoryThreshold = memoryThreshold;
+	}
+
 	/**
 	 * Return the result HTTP headers
 	 * @return Map
@@ -78,7 +111,7 @@ public class JAXRSTester {
 	/*
 	 * Start building the web query. Append parameters to URL
 	 */
-	private String buildWebQuery(Map<String, String> parameters) throws Exception {
+	private static String buildWebQuery(Map<String, String> parameters) throws UnsupportedEncodingException {
 		if (!parameters.isEmpty()) {
 	        StringBuilder sb = new StringBuilder();
 	        for (Map.Entry<String, String> entry : parameters.entrySet()) {
@@ -88,7 +121,62 @@ public class JAXRSTester {
 	        }
 	        return sb.toString().substring(0, sb.length() - 1);
 		}
-		return EMPTY_STRING;
+		return ""; //$NON-NLS-1$
+    }
+
+    /**
+     * Build the complete URL of a JAX-RS call, with the given parameters
+     * added to the query of the given address
+     * @param address
+     * @param parameters
+     * @param methodType
+     * @return URL
+     * @throws IOException if the parameters cannot be encoded or the URL is malformed
+     */
+    public static URL buildURL(String address, Map<String, String> parameters, String methodType) throws IOException {
+        // get the parms string
+        String query = buildWebQuery(parameters);
+        
+        // Clear the address of any leading/trailing spaces
+        address = address.trim();
+
+        // build the complete URL
+        if (query != null && query.trim().length() > 0) {
+        	// add the ? if there are parameters
+            if (!address.endsWith("?") && !address.contains("?")) {//$NON-NLS-1$ //$NON-NLS-2$
+
+            	// if we're a "GET" - add the ? by default
+            	if (methodType.equalsIgnoreCase("GET")) {  //$NON-NLS-1$
+                	address = address + "?"; //$NON-NLS-1$
+
+               	// if we're a PUT or POST, check if we have parms
+                // and add the ? if we do
+            	} else if (methodType.equalsIgnoreCase("POST")//$NON-NLS-1$ 
+            			|| methodType.equalsIgnoreCase("PUT") //$NON-NLS-1$
+        				|| methodType.equalsIgnoreCase("DELETE")) { //$NON-NLS-1$
+            		if (query.trim().length() > 0) {
+            			address = address + "?"; //$NON-NLS-1$
+            		}
+            	}
+            } else if (address.contains("?")) { //$NON-NLS-1$
+            	address = address + "&"; //$NON-NLS-1$
+            }
+        	// add parms to the url if we have some
+        	return new URL(address + query);
+        }
+        return new URL(address);
+    }
+
+    /**
+     * Build the value of the Authorization header for basic authentication
+     * @param uid
+     * @param pwd
+     * @return String
+     */
+    public static String buildBasicAuthorization(String uid, String pwd) {
+        String authStr = uid + ':' + pwd;
+		byte[] authEncByte = Base64.encodeBase64(authStr.getBytes());
+		return "Basic " + new String(authEncByte); //$NON-NLS-1$
     }
 
     /**
@@ -152,40 +240,11 @@ public class JAXRSTester {
 
         // clear the returned results
         resultBody = EMPTY_STRING;
+        responseBody = null;
+        responseContentType = null;
         
-        // get the parms string
-        String query = buildWebQuery(parameters);
-        
-        // Clear the address of any leading/trailing spaces
-        address = address.trim();
-
         // build the complete URL
-        URL url = null;
-        if (query != null && query.trim().length() > 0) {
-        	// add the ? if there are parameters
-            if (!address.endsWith("?") && !address.contains("?")) {//$NON-NLS-1$ //$NON-NLS-2$
-
-            	// if we're a "GET" - add the ? by default
-            	if (methodType.equalsIgnoreCase("GET")) {  //$NON-NLS-1$
-                	address = address + "?"; //$NON-NLS-1$
-
-               	// if we're a PUT or POST, check if we have parms
-                // and add the ? if we do
-            	} else if (methodType.equalsIgnoreCase("POST")//$NON-NLS-1$ 
-            			|| methodType.equalsIgnoreCase("PUT") //$NON-NLS-1$
-        				|| methodType.equalsIgnoreCase("DELETE")) { //$NON-NLS-1$
-            		if (query.trim().length() > 0) {
-            			address = address + "?"; //$NON-NLS-1$
-            		}
-            	}
-            } else if (address.contains("?")) { //$NON-NLS-1$
-            	address = address + "&"; //$NON-NLS-1$
-            }
-        	// add parms to the url if we have some
-        	url = new URL(address + query);
-        } else {
-        	url = new URL(address);
-        }
+        URL url = buildURL(address, parameters, methodType);
 
         // make connection
         HttpURLConnection httpurlc = null;
@@ -217,10 +276,7 @@ public class JAXRSTester {
         
         // if we have basic authentication to add, add it!
         if (uid != null && pwd != null) {
-	        String authStr = uid + ':' + pwd;
-			byte[] authEncByte = Base64.encodeBase64(authStr.getBytes());
-			String authStringEnc = new String(authEncByte);
-			httpurlc.addRequestProperty("Authorization", "Basic " + authStringEnc);  //$NON-NLS-1$//$NON-NLS-2$
+			httpurlc.addRequestProperty("Authorization", buildBasicAuthorization(uid, pwd));  //$NON-NLS-1$
         }
         
         requestHeaders = httpurlc.getRequestProperties();
@@ -266,15 +322,7 @@ public class JAXRSTester {
 	        if (Thread.interrupted()) {
 	            throw new InterruptedException();
 	        }
-	        BufferedReader br = new BufferedReader(new InputStreamReader(is, "UTF-8"));//$NON-NLS-1$
-	        StringBuilder sb = new StringBuilder();
-	        String line;
-	        while ((line = br.readLine()) != null) {
-	            sb.append(line);
-	            sb.append("\n");//$NON-NLS-1$
-	        }
-	        br.close();
-	        resultBody = sb.toString();
+	        readResponseBody(is, httpurlc.getContentType());
 	        // Check if task has been interrupted
 	        if (Thread.interrupted()) {
 	            throw new InterruptedException();
@@ -285,15 +333,7 @@ public class JAXRSTester {
 		        
 		        // is possible that we're getting nothing back in the error stream
 		        if (is != null) {
-			        BufferedReader br = new BufferedReader(new InputStreamReader(is, "UTF-8"));//$NON-NLS-1$
-			        StringBuilder sb = new StringBuilder();
-			        String line;
-			        while ((line = br.readLine()) != null) {
-			            sb.append(line);
-			            sb.append("\n");//$NON-NLS-1$
-			        }
-			        br.close();
-			        resultBody = sb.toString();
+			        readResponseBody(is, httpurlc.getContentType());
 		        }
         	} catch (IOException ie2) {
         		resultBody = ie2.getLocalizedMessage();
@@ -310,6 +350,16 @@ public class JAXRSTester {
         httpurlc.disconnect();
     }	
     
+    /*
+     * Read the response, spooling it to a temporary file if it is large, 
+     * and keep its first page as the result message
+     */
+    private void readResponseBody(InputStream is, String contentType) throws IOException {
+        responseContentType = contentType;
+        responseBody = ResponseBody.read(is, ResponseBody.getCharset(contentType), memoryThreshold);
+        resultBody = responseBody.getPage(0, ResponseBody.DEFAULT_PAGE_SIZE);
+    }
+
     public static String stripCRLF ( String input ) {
     	if (input != null) {
 	    	StringBuffer output = new StringBuffer();
@@ -15,6 +15,8 @@ import java.io.ByteArrayOutputStream;
 import java.net.URL;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
@@ -28,17 +30,15 @@ import java.security.cert.X509Certificate;
 import javax.xml.namespace.QName;
 import javax.xml.soap.MessageFactory;
 import javax.xml.soap.SOAPBody;
-import javax.xml.soap.SOAPConstants;
 import javax.xml.soap.SOAPMessage;
 import javax.xml.ws.BindingProvider;
 import javax.xml.ws.Dispatch;
 import javax.xml.ws.Response;
-import javax.xml.ws.Service;
-import javax.xml.ws.Service.Mode;
 import javax.xml.ws.handler.MessageContext;
 
 import org.apache.axis.message.SOAPEnvelope;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.osgi.util.NLS;
 import org.jboss.tools.ws.ui.messages.JBossWSUIMessages;
 
 /**
@@ -61,6 +61,40 @@ public class JAXWSTester2 {
 	// utility constant
 	private static final String EMPTY_STRING = ""; //$NON-NLS-1$
 
+	// interval at which the progress monitor is checked for cancellation while waiting for a response
+	private static final long CANCELLATION_POLL_INTERVAL_MILLIS = 100;
+
+	// maximum time to wait for a response, 0 to wait until completion or cancellation
+	private long timeoutMillis = 0;
+
+	// the WSDL definitions, services and dispatches reused across invocations
+	private final WSDLCache wsdlCache;
+
+	/**
+	 * Constructor, with a cache used by this tester only
+	 */
+	public JAXWSTester2() {
+		this(new WSDLCache());
+	}
+
+	/**
+	 * Constructor
+	 * @param wsdlCache the cache of the services and dispatches to invoke
+	 */
+	public JAXWSTester2(WSDLCache wsdlCache) {
+		this.wsdlCache = wsdlCache;
+	}
+
+	/**
+	 * Set the maximum time to wait for a response. A timeout of 0 means that
+	 * the tester waits until the response arrives or the invocation is cancelled.
+	 * @param timeout
+	 * @param unit
+	 */
+	public void setTimeout(long timeout, TimeUnit unit) {
+		this.timeoutMillis = Math.max(0, unit.toMillis(timeout));
+	}
+
 	/**
 	 * Return the response message
 	 * @return 
@@ -101,7 +135,44 @@ public class JAXWSTester2 {
 			String serviceName, String messageName, String body, String uid, String pwd ) throws Exception {
 		
 		this.resultBody = EMPTY_STRING;
-		
+
+		Response<SOAPMessage> response = invokeAsync(endpointurl, actionurl, ns, serviceName, messageName, body, uid, pwd);
+
+		//get the actual result
+		SOAPMessage o = await(monitor, response);
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		o.writeTo(baos);
+		this.resultBody = baos.toString();
+		this.resultSOAPBody = o.getSOAPBody();
+
+		if (response.getContext() != null) {
+			Object responseHeaders =
+				response.getContext().get(MessageContext.HTTP_RESPONSE_HEADERS);
+			if ( responseHeaders != null && responseHeaders instanceof Map) {
+				this.resultHeaders = (Map<String, String>) responseHeaders;
+			}
+		}
+	}
+
+	/**
+	 * Send a request to the JAX-WS service without waiting for the response.
+	 * Several requests can be in progress at the same time, each one being
+	 * completed with {@link #await(IProgressMonitor, Response)}.
+	 * @param endpointurl
+	 * @param actionurl
+	 * @param ns
+	 * @param serviceName
+	 * @param messageName
+	 * @param body
+	 * @param uid
+	 * @param pwd
+	 * @return the pending response
+	 * @throws Exception
+	 */
+	public Response<SOAPMessage> invokeAsync( String endpointurl, String actionurl, String ns, 
+			String serviceName, String messageName, String body, String uid, String pwd ) throws Exception {
+
 		// in case we're using SSL security...
 		if (endpointurl.toLowerCase().startsWith("https://")) { //$NON-NLS-1$
 
@@ -136,25 +207,13 @@ public class JAXWSTester2 {
 		
 		URL serviceURL = new URL (endpointurl); //"http://www.ecubicle.net/gsearch_rss.asmx"
 		QName serviceQName = new QName (ns, serviceName); // "http://www.ecubicle.net/webservices", "gsearch_rss"
-		Service s = Service.create(serviceURL, serviceQName);
 
 		boolean isSOAP12 = TesterWSDLUtils.isRequestBodySOAP12(body);
 		
 		QName messageQName = new QName(ns, messageName); //"http://www.ecubicle.net/webservices", "gsearch_rssSoap"
-		Dispatch<SOAPMessage> d = s.createDispatch(messageQName, SOAPMessage.class, Mode.MESSAGE);
+		Dispatch<SOAPMessage> d = wsdlCache.getDispatch(serviceURL, serviceQName, messageQName, isSOAP12);
 		
-		MessageFactory mf = MessageFactory.newInstance();
-		if (isSOAP12) {
-			mf = MessageFactory.newInstance(SOAPConstants.SOAP_1_2_PROTOCOL);
-		} else if (actionurl != null && !actionurl.trim().isEmpty()){
-			d.getRequestContext().put(BindingProvider.SOAPACTION_USE_PROPERTY, true);
-			d.getRequestContext().put(BindingProvider.SOAPACTION_URI_PROPERTY, actionurl); //"http://www.ecubicle.net/webservices/GetSearchResults");
-		}
-
-		if (uid != null && pwd != null) {
-			d.getRequestContext().put(BindingProvider.USERNAME_PROPERTY, uid); 
-			d.getRequestContext().put(BindingProvider.PASSWORD_PROPERTY, pwd);
-		}
+		MessageFactory mf = wsdlCache.getMessageFactory(isSOAP12);
 
 		SOAPMessage m = mf.createMessage( null, new ByteArrayInputStream(body.getBytes()));
 		m.saveChanges();
@@ -169,43 +228,68 @@ public class JAXWSTester2 {
 //			hd.addHeader("Authorization", "Basic " + authStringEnc);  //$NON-NLS-1$//$NON-NLS-2$
 //		}
 
-		Response<SOAPMessage> response = d.invokeAsync(m);
-		while (!response.isDone()){
-			//go off and do some work
-			if (monitor != null) {
-				if (monitor.isCanceled()) {
-					response.cancel(true);
-				}
+		// the dispatch is shared with the other invocations of the same port
+		synchronized (d) {
+			Map<String, Object> requestContext = d.getRequestContext();
+			if (!isSOAP12 && actionurl != null && !actionurl.trim().isEmpty()){
+				requestContext.put(BindingProvider.SOAPACTION_USE_PROPERTY, true);
+				requestContext.put(BindingProvider.SOAPACTION_URI_PROPERTY, actionurl); //"http://www.ecubicle.net/webservices/GetSearchResults");
+			} else {
+				requestContext.remove(BindingProvider.SOAPACTION_USE_PROPERTY);
+				requestContext.remove(BindingProvider.SOAPACTION_URI_PROPERTY);
+			}
+
+			if (uid != null && pwd != null) {
+				requestContext.put(BindingProvider.USERNAME_PROPERTY, uid); 
+				requestContext.put(BindingProvider.PASSWORD_PROPERTY, pwd);
+			} else {
+				requestContext.remove(BindingProvider.USERNAME_PROPERTY);
+				requestContext.remove(BindingProvider.PASSWORD_PROPERTY);
 			}
+			return d.invokeAsync(m);
 		}
+	}
 
+	/**
+	 * Wait for the response of a request sent with
+	 * {@link #invokeAsync(String, String, String, String, String, String, String, String)}.
+	 * The calling thread blocks until the response arrives, checking the
+	 * monitor for cancellation at regular intervals.
+	 * @param monitor may be null
+	 * @param response
+	 * @return the response message
+	 * @throws InterruptedException if the invocation was cancelled
+	 * @throws TimeoutException if no response arrived within the configured timeout
+	 * @throws Exception if the invocation failed
+	 */
+	public SOAPMessage await( IProgressMonitor monitor, Response<SOAPMessage> response ) throws Exception {
+		final long deadline = System.currentTimeMillis() + timeoutMillis;
 		try {
-			if (!response.isCancelled()) {
-		        //get the actual result
-				SOAPMessage o = (javax.xml.soap.SOAPMessage)response.get();
-
-				ByteArrayOutputStream baos = new ByteArrayOutputStream();
-				o.writeTo(baos);
-				this.resultBody = baos.toString();
-				this.resultSOAPBody = o.getSOAPBody();
-				
-				if (response.getContext() != null) {
-					Object responseHeaders =
-						response.getContext().get(MessageContext.HTTP_RESPONSE_HEADERS);
-					if ( responseHeaders != null && responseHeaders instanceof Map) {
-						this.resultHeaders = (Map<String, String>) responseHeaders;
+			while (true) {
+				if (monitor != null && monitor.isCanceled()) {
+					response.cancel(true);
+					throw new InterruptedException(JBossWSUIMessages.JAXRSWSTestView_Message_Service_Invocation_Cancelled);
+				}
+				long wait = CANCELLATION_POLL_INTERVAL_MILLIS;
+				if (timeoutMillis > 0) {
+					final long remaining = deadline - System.currentTimeMillis();
+					if (remaining <= 0) {
+						response.cancel(true);
+						throw new TimeoutException(NLS.bind(JBossWSUIMessages.JAXRSWSTestView_Message_Service_Invocation_Timed_Out,
+								Long.toString(timeoutMillis)));
 					}
+					wait = Math.min(wait, remaining);
+				}
+				try {
+					return response.get(wait, TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					// not done yet
 				}
-			} else {
-				throw new InterruptedException(JBossWSUIMessages.JAXRSWSTestView_Message_Service_Invocation_Cancelled);
 			}
 		} catch (ExecutionException ex){
 		        //get the actual cause
 		        Throwable cause = ex.getCause();
 		        throw new Exception(cause);
-		} catch (InterruptedException ie){
-		        //note interruptions
-				throw ie;
 		}
 	}
 }
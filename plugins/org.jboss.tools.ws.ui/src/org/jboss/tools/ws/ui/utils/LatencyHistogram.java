@@ -0,0 +1,178 @@
+/******************************************************************************* 
+ * Copyright (c) 2010 - 2014 Red Hat, Inc. and others.  
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies, in the spirit of the HdrHistogram: values are
+ * counted in log-linear buckets, so that any recorded value is reported with
+ * a relative error below 0.1% (three significant digits) while the memory
+ * footprint only grows with the logarithm of the highest trackable value.
+ * Recording a value is a lock-free increment, so a single histogram can be
+ * shared by all the threads of a load test.
+ * @author bfitzpat
+ *
+ */
+public class LatencyHistogram {
+
+	// number of bits of the sub-buckets of each power of 2 (2048 sub-buckets)
+	private static final int SUB_BUCKET_BITS = 11;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+
+	private final long highestTrackableValue;
+	private final AtomicLongArray counts;
+	private final AtomicLong totalCount = new AtomicLong();
+	private final AtomicLong totalValue = new AtomicLong();
+	private final AtomicLong maxValue = new AtomicLong();
+
+	/**
+	 * Constructor
+	 * @param highestTrackableValue the highest value to track. Higher values
+	 * are recorded as this value.
+	 */
+	public LatencyHistogram(long highestTrackableValue) {
+		if (highestTrackableValue < SUB_BUCKET_COUNT) {
+			highestTrackableValue = SUB_BUCKET_COUNT;
+		}
+		this.highestTrackableValue = highestTrackableValue;
+		this.counts = new AtomicLongArray(indexOf(highestTrackableValue) + 1);
+	}
+
+	/*
+	 * Values below SUB_BUCKET_COUNT have their own bucket. Above, each power
+	 * of 2 is split in SUB_BUCKET_HALF_COUNT buckets of equal width.
+	 */
+	private static int indexOf(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		final int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+		return (shift + 1) * SUB_BUCKET_HALF_COUNT + (int) ((value >> shift) - SUB_BUCKET_HALF_COUNT);
+	}
+
+	/*
+	 * Returns the highest value that is counted in the bucket at the given
+	 * index.
+	 */
+	private static long highestValueAt(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		final int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+		final long subBucket = index % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+	/**
+	 * Records the given value
+	 * @param value a positive value. Negative values are recorded as 0.
+	 */
+	public void recordValue(long value) {
+		if (value < 0) {
+			value = 0;
+		} else if (value > highestTrackableValue) {
+			value = highestTrackableValue;
+		}
+		counts.incrementAndGet(indexOf(value));
+		totalCount.incrementAndGet();
+		totalValue.addAndGet(value);
+		long max = maxValue.get();
+		while (value > max && !maxValue.compareAndSet(max, value)) {
+			max = maxValue.get();
+		}
+	}
+
+	/**
+	 * Return the number of recorded values
+	 * @return long
+	 */
+	public long getTotalCount() {
+		return totalCount.get();
+	}
+
+	/**
+	 * Return the highest recorded value
+	 * @return long
+	 */
+	public long getMaxValue() {
+		return maxValue.get();
+	}
+
+	/**
+	 * Return the mean of the recorded values
+	 * @return double
+	 */
+	public double getMean() {
+		final long count = totalCount.get();
+		return count == 0 ? 0 : (double) totalValue.get() / count;
+	}
+
+	/**
+	 * Return the value below which the given percentage of the recorded
+	 * values fall, with a relative error below 0.1%
+	 * @param percentile between 0 and 100 (ex: 99.9)
+	 * @return long, or 0 if no value was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		final long count = totalCount.get();
+		if (count == 0) {
+			return 0;
+		}
+		final double clampedPercentile = Math.min(Math.max(percentile, 0), 100);
+		final long countAtPercentile = Math.max(1, (long) Math.ceil(clampedPercentile / 100 * count));
+		final long max = maxValue.get();
+		long cumulatedCount = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			cumulatedCount += counts.get(i);
+			if (cumulatedCount >= countAtPercentile) {
+				return Math.min(highestValueAt(i), max);
+			}
+		}
+		// values being recorded while iterating
+		return max;
+	}
+
+	/**
+	 * Adds the values of the given histogram to this one
+	 * @param other a histogram with the same highest trackable value
+	 */
+	public void add(LatencyHistogram other) {
+		final int length = Math.min(counts.length(), other.counts.length());
+		for (int i = 0; i < length; i++) {
+			final long count = other.counts.get(i);
+			if (count > 0) {
+				counts.addAndGet(i, count);
+			}
+		}
+		totalCount.addAndGet(other.totalCount.get());
+		totalValue.addAndGet(other.totalValue.get());
+		final long otherMax = other.maxValue.get();
+		long max = maxValue.get();
+		while (otherMax > max && !maxValue.compareAndSet(max, otherMax)) {
+			max = maxValue.get();
+		}
+	}
+
+	/**
+	 * Clear all the recorded values
+	 */
+	public void reset() {
+		for (int i = 0; i < counts.length(); i++) {
+			counts.set(i, 0);
+		}
+		totalCount.set(0);
+		totalValue.set(0);
+		maxValue.set(0);
+	}
+}
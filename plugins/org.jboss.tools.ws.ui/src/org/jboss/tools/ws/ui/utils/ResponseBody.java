@@ -0,0 +1,420 @@
+/******************************************************************************* 
+ * Copyright (c) 2010 - 2014 Red Hat, Inc. and others.  
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+
+/**
+ * The body of a response received by the Web Service Tester. Small bodies
+ * are kept in memory, larger ones are spooled to a temporary file so that
+ * a huge response never has to fit in the heap. The body is then read one
+ * page at a time, pages of a spooled body being read from the file.
+ * The temporary files are deleted when their body is disposed, and the
+ * ones left over in the spool directory are deleted when the plugin stops
+ * (see {@link #cleanSpoolDirectory()}).
+ * @author bfitzpat
+ *
+ */
+public class ResponseBody {
+
+	/** size above which a body is spooled to a temporary file */
+	public static final int DEFAULT_MEMORY_THRESHOLD = 1024 * 1024;
+
+	/** size of the pages of the body displayed at a time */
+	public static final int DEFAULT_PAGE_SIZE = 64 * 1024;
+
+	private static final String UTF_8 = "UTF-8"; //$NON-NLS-1$
+
+	private static final String SPOOL_FILE_PREFIX = "response"; //$NON-NLS-1$
+
+	private static final String SPOOL_FILE_SUFFIX = ".tmp"; //$NON-NLS-1$
+
+	// the directory of the temporary files, the default temporary directory if null
+	private static volatile File spoolDirectory;
+
+	// the content of a body kept in memory, null if spooled
+	private final byte[] content;
+
+	// the temporary file of a spooled body, null if kept in memory
+	private final File file;
+
+	private final long length;
+
+	private final Charset charset;
+
+	// the body this one is the formatted copy of, or null
+	private final ResponseBody raw;
+
+	private ResponseBody(byte[] content, File file, long length, Charset charset) {
+		this(content, file, length, charset, null);
+	}
+
+	private ResponseBody(byte[] content, File file, long length, Charset charset, ResponseBody raw) {
+		this.content = content;
+		this.file = file;
+		this.length = length;
+		this.charset = charset;
+		this.raw = raw;
+	}
+
+	/**
+	 * Read a body until the end of the given stream, and close it
+	 * @param is
+	 * @param charsetName the charset of the body, UTF-8 if null or unknown
+	 * @param memoryThreshold the size above which the body is spooled to a file
+	 * @return
+	 * @throws IOException
+	 */
+	public static ResponseBody read(InputStream is, String charsetName, int memoryThreshold) throws IOException {
+		final Charset charset = toCharset(charsetName);
+		final byte[] buffer = new byte[8192];
+		final ByteArrayOutputStream memory = new ByteArrayOutputStream(Math.min(memoryThreshold, 8192));
+		File file = null;
+		OutputStream out = null;
+		long length = 0;
+		try {
+			int count;
+			while ((count = is.read(buffer)) != -1) {
+				if (Thread.interrupted()) {
+					throw new InterruptedIOException();
+				}
+				length += count;
+				if (out == null && length > memoryThreshold) {
+					file = createSpoolFile();
+					out = new FileOutputStream(file);
+					memory.writeTo(out);
+					memory.reset();
+				}
+				if (out != null) {
+					out.write(buffer, 0, count);
+				} else {
+					memory.write(buffer, 0, count);
+				}
+			}
+		} catch (IOException e) {
+			if (file != null) {
+				if (out != null) {
+					out.close();
+					out = null;
+				}
+				file.delete();
+			}
+			throw e;
+		} finally {
+			if (out != null) {
+				out.close();
+			}
+			is.close();
+		}
+		if (file != null) {
+			return new ResponseBody(null, file, length, charset);
+		}
+		return new ResponseBody(memory.toByteArray(), null, length, charset);
+	}
+
+	/**
+	 * Set the directory of the temporary files of the spooled bodies
+	 * @param directory the directory, or null for the default temporary directory
+	 */
+	public static void setSpoolDirectory(File directory) {
+		spoolDirectory = directory;
+	}
+
+	/**
+	 * @return the directory of the temporary files, or null for the default
+	 * temporary directory
+	 */
+	public static File getSpoolDirectory() {
+		return spoolDirectory;
+	}
+
+	/**
+	 * Delete all the temporary files left in the spool directory, if one was set
+	 */
+	public static void cleanSpoolDirectory() {
+		final File directory = spoolDirectory;
+		if (directory == null) {
+			return;
+		}
+		final File[] files = directory.listFiles(new FilenameFilter() {
+			public boolean accept(File dir, String name) {
+				return name.startsWith(SPOOL_FILE_PREFIX) && name.endsWith(SPOOL_FILE_SUFFIX);
+			}
+		});
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+	}
+
+	/*
+	 * Create a new temporary file in the spool directory
+	 */
+	private static File createSpoolFile() throws IOException {
+		final File directory = spoolDirectory;
+		if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Cannot create the directory " + directory); //$NON-NLS-1$
+		}
+		return File.createTempFile(SPOOL_FILE_PREFIX, SPOOL_FILE_SUFFIX, directory);
+	}
+
+	/**
+	 * Create a body from a text, kept in memory
+	 * @param text
+	 * @return
+	 */
+	public static ResponseBody fromString(String text) {
+		final Charset charset = toCharset(UTF_8);
+		final byte[] bytes = text.getBytes(charset);
+		return new ResponseBody(bytes, null, bytes.length, charset);
+	}
+
+	/*
+	 * Return the given charset, falling back to UTF-8
+	 */
+	private static Charset toCharset(String charsetName) {
+		if (charsetName != null) {
+			try {
+				return Charset.forName(charsetName.trim());
+			} catch (IllegalCharsetNameException e) {
+				// use the default one
+			} catch (UnsupportedCharsetException e) {
+				// use the default one
+			}
+		}
+		return Charset.forName(UTF_8);
+	}
+
+	/**
+	 * Return the charset of the given Content-Type header value, or null
+	 * @param contentType
+	 * @return
+	 */
+	public static String getCharset(String contentType) {
+		if (contentType != null) {
+			final String[] parameters = contentType.split(";"); //$NON-NLS-1$
+			for (int i = 1; i < parameters.length; i++) {
+				final String parameter = parameters[i].trim();
+				if (parameter.regionMatches(true, 0, "charset=", 0, 8)) { //$NON-NLS-1$
+					return parameter.substring(8).replace("\"", ""); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the size of the body in bytes
+	 */
+	public long getLength() {
+		return length;
+	}
+
+	/**
+	 * @return true if the body was spooled to a temporary file
+	 */
+	public boolean isSpooled() {
+		return file != null;
+	}
+
+	/**
+	 * @return the temporary file of a spooled body, or null
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * @return the charset of the body
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * @return the body as it was received, which is this body unless it is
+	 * a formatted copy
+	 */
+	public ResponseBody getRaw() {
+		return raw != null ? raw : this;
+	}
+
+	/**
+	 * Return the end of the page starting at the given offset, so that the
+	 * page has at most the given size and does not split a character
+	 * @param offset
+	 * @param maxSize
+	 * @return
+	 * @throws IOException
+	 */
+	public long getPageEnd(long offset, int maxSize) throws IOException {
+		long end = Math.min(length, offset + maxSize);
+		if (end == length || !UTF_8.equals(charset.name())) {
+			return end;
+		}
+		// move back to the first byte of the character at the end of the page
+		final long tailStart = Math.max(offset, end - 4);
+		final ByteBuffer tail = getBytes(tailStart, end + 1);
+		int position = tail.limit() - 1;
+		while (position > 0 && (tail.get(position) & 0xC0) == 0x80) {
+			position--;
+		}
+		// keep the page as is if the body is not valid UTF-8
+		return tailStart + position > offset ? tailStart + position : end;
+	}
+
+	/**
+	 * Return the text between the given offsets, which must not split a character
+	 * @param start
+	 * @param end
+	 * @return
+	 * @throws IOException
+	 */
+	public String getText(long start, long end) throws IOException {
+		if (start >= end) {
+			return ""; //$NON-NLS-1$
+		}
+		try {
+			return charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE).decode(getBytes(start, end)).toString();
+		} catch (CharacterCodingException e) {
+			// does not happen with the REPLACE action
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * Return the text of the page starting at the given offset
+	 * @param offset
+	 * @param maxSize
+	 * @return
+	 * @throws IOException
+	 */
+	public String getPage(long offset, int maxSize) throws IOException {
+		return getText(offset, getPageEnd(offset, maxSize));
+	}
+
+	/*
+	 * Return the bytes between the given offsets, read from the file of a spooled body.
+	 * The file is not memory-mapped: a mapping keeps the file open until it is
+	 * garbage collected, which prevents its deletion on Windows.
+	 */
+	private ByteBuffer getBytes(long start, long end) throws IOException {
+		end = Math.min(end, length);
+		if (content != null) {
+			return ByteBuffer.wrap(content, (int) start, (int) (end - start)).slice();
+		}
+		final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r"); //$NON-NLS-1$
+		try {
+			final byte[] bytes = new byte[(int) (end - start)];
+			randomAccessFile.seek(start);
+			randomAccessFile.readFully(bytes);
+			return ByteBuffer.wrap(bytes);
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	/**
+	 * Open a stream on the whole body
+	 * @return
+	 * @throws IOException
+	 */
+	public InputStream openStream() throws IOException {
+		if (content != null) {
+			return new ByteArrayInputStream(content);
+		}
+		return new BufferedInputStream(new FileInputStream(file));
+	}
+
+	/**
+	 * Return a pretty printed copy of this body if its Content-Type is XML or
+	 * JSON and it starts accordingly, or this body otherwise. The copy of a
+	 * spooled body is written to a new temporary file as the body is read,
+	 * without loading it in memory. The copy keeps this body as its raw one
+	 * (see {@link #getRaw()}), which is disposed along with it.
+	 * @param contentType the Content-Type header value of the response
+	 * @return
+	 * @throws IOException
+	 */
+	public ResponseBody format(String contentType) throws IOException {
+		final ResponseFormatter.Format format = ResponseFormatter.getFormat(contentType);
+		if (format == ResponseFormatter.Format.TEXT) {
+			return this;
+		}
+		final Reader in = new BufferedReader(new InputStreamReader(openStream(), charset));
+		try {
+			if (ResponseFormatter.sniff(in) != format) {
+				return this;
+			}
+			if (!isSpooled()) {
+				final StringWriter out = new StringWriter(content.length + content.length / 4);
+				ResponseFormatter.format(in, out, format);
+				final byte[] bytes = out.toString().getBytes(toCharset(UTF_8));
+				return new ResponseBody(bytes, null, bytes.length, toCharset(UTF_8), this);
+			}
+			final File formattedFile = createSpoolFile();
+			try {
+				final Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(formattedFile), UTF_8));
+				try {
+					ResponseFormatter.format(in, out, format);
+				} finally {
+					out.close();
+				}
+			} catch (IOException e) {
+				formattedFile.delete();
+				throw e;
+			}
+			return new ResponseBody(null, formattedFile, formattedFile.length(), toCharset(UTF_8), this);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Delete the temporary file of a spooled body, and the one of its raw
+	 * body if it is a formatted copy
+	 */
+	public void dispose() {
+		if (file != null) {
+			file.delete();
+		}
+		if (raw != null) {
+			raw.dispose();
+		}
+	}
+
+}
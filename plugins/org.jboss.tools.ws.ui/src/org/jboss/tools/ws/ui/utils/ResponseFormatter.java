@@ -0,0 +1,556 @@
+/******************************************************************************* 
+ * Copyright (c) 2010 - 2014 Red Hat, Inc. and others.  
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Single pass pretty printer of the XML and JSON responses of the Web
+ * Service Tester. The input is tokenized as it is read and the formatted
+ * output is written as it goes, so the time is linear in the size of the
+ * input and the memory does not depend on it. Malformed input is formatted
+ * as well as possible rather than rejected, so a response is only formatted
+ * when its Content-Type says it is XML or JSON and its first characters
+ * agree: HTML and plain text responses are left as they are.
+ * @author bfitzpat
+ *
+ */
+public class ResponseFormatter {
+
+	/**
+	 * The formats of the responses
+	 */
+	public enum Format {
+		XML, JSON, TEXT
+	}
+
+	/** number of characters read to detect the format of a response */
+	public static final int SNIFF_LENGTH = 256;
+
+	private static final String LINE_SEPARATOR = "\n"; //$NON-NLS-1$
+
+	private static final String INDENT = "    "; //$NON-NLS-1$
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private ResponseFormatter() {
+		// static methods only
+	}
+
+	/**
+	 * Return the format of a response from its Content-Type header value
+	 * @param contentType
+	 * @return XML or JSON for the XML and JSON media types (including the
+	 * +xml and +json suffixes, but not XHTML), TEXT otherwise or if null
+	 */
+	public static Format getFormat(String contentType) {
+		if (contentType == null) {
+			return Format.TEXT;
+		}
+		final String mediaType = contentType.split(";")[0].trim().toLowerCase(Locale.ENGLISH); //$NON-NLS-1$
+		if (mediaType.equals("application/xhtml+xml")) { //$NON-NLS-1$
+			return Format.TEXT;
+		} else if (mediaType.endsWith("/xml") || mediaType.endsWith("+xml")) { //$NON-NLS-1$ //$NON-NLS-2$
+			return Format.XML;
+		} else if (mediaType.endsWith("/json") || mediaType.endsWith("+json")) { //$NON-NLS-1$ //$NON-NLS-2$
+			return Format.JSON;
+		}
+		return Format.TEXT;
+	}
+
+	/**
+	 * Detect the format of a response from its first characters
+	 * @param text
+	 * @return
+	 */
+	public static Format sniff(CharSequence text) {
+		final int length = Math.min(text.length(), SNIFF_LENGTH);
+		for (int i = 0; i < length; i++) {
+			final char c = text.charAt(i);
+			if (c == '<') {
+				return Format.XML;
+			} else if (c == '{' || c == '[') {
+				return Format.JSON;
+			} else if (!Character.isWhitespace(c) && c != '\uFEFF') {
+				return Format.TEXT;
+			}
+		}
+		return Format.TEXT;
+	}
+
+	/**
+	 * Detect the format of a response from its first characters, then
+	 * reset the reader to its initial position
+	 * @param in a reader supporting marks
+	 * @return
+	 * @throws IOException
+	 */
+	public static Format sniff(Reader in) throws IOException {
+		final char[] prefix = new char[SNIFF_LENGTH];
+		in.mark(SNIFF_LENGTH);
+		int length = 0;
+		int count;
+		while (length < SNIFF_LENGTH && (count = in.read(prefix, length, SNIFF_LENGTH - length)) != -1) {
+			length += count;
+		}
+		in.reset();
+		return sniff(new String(prefix, 0, length));
+	}
+
+	/**
+	 * Pretty print the given response if it is JSON or valid XML. Without a
+	 * Content-Type, XML is only recognized by a full parsing so that HTML
+	 * is not reformatted.
+	 * @param text
+	 * @return the formatted response, or the given one if it is neither XML nor JSON
+	 */
+	public static String format(String text) {
+		if (text == null) {
+			return null;
+		}
+		switch (sniff(text)) {
+		case XML:
+			return SOAPDOMParser.isValidXML(text) ? format(text, Format.XML) : text;
+		case JSON:
+			return format(text, Format.JSON);
+		default:
+			return text;
+		}
+	}
+
+	/**
+	 * Pretty print the given response if its Content-Type is XML or JSON
+	 * @param text
+	 * @param contentType the Content-Type header value of the response
+	 * @return the formatted response, or the given one if it is neither XML nor JSON
+	 */
+	public static String format(String text, String contentType) {
+		if (text == null) {
+			return null;
+		}
+		return format(text, getFormat(contentType));
+	}
+
+	private static String format(String text, Format format) {
+		final StringWriter out = new StringWriter(text.length() + text.length() / 4);
+		try {
+			if (!format(new BufferedReader(new StringReader(text)), out, format)) {
+				return text;
+			}
+		} catch (IOException e) {
+			// does not happen with strings
+			return text;
+		}
+		return out.toString();
+	}
+
+	/**
+	 * Pretty print the response read from the given reader in the given
+	 * format, if its first characters agree with it
+	 * @param in
+	 * @param out
+	 * @param format the format of the response, as given by its Content-Type
+	 * @return true if the response was formatted, false if the format is TEXT
+	 * or if the response does not start like the format, in which case
+	 * nothing is written
+	 * @throws IOException
+	 */
+	public static boolean format(Reader in, Writer out, Format format) throws IOException {
+		if (format == Format.TEXT) {
+			return false;
+		}
+		if (!in.markSupported()) {
+			in = new BufferedReader(in, BUFFER_SIZE);
+		}
+		if (sniff(in) != format) {
+			return false;
+		}
+		if (format == Format.XML) {
+			formatXML(in, out);
+		} else {
+			formatJSON(in, out);
+		}
+		return true;
+	}
+
+	/**
+	 * Pretty print a JSON document: one member or array element per line,
+	 * indented by its nesting level. String literals are copied as is.
+	 * @param in
+	 * @param out
+	 * @throws IOException
+	 */
+	public static void formatJSON(Reader in, Writer out) throws IOException {
+		final Output output = new Output(out);
+		final char[] buffer = new char[BUFFER_SIZE];
+		int depth = 0;
+		boolean inString = false;
+		boolean escaped = false;
+		// an object or array was opened and its first token is not known yet
+		boolean pendingOpen = false;
+		int count;
+		while ((count = in.read(buffer)) != -1) {
+			for (int i = 0; i < count; i++) {
+				final char c = buffer[i];
+				if (inString) {
+					output.write(c);
+					if (escaped) {
+						escaped = false;
+					} else if (c == '\\') {
+						escaped = true;
+					} else if (c == '"') {
+						inString = false;
+					}
+					continue;
+				}
+				if (Character.isWhitespace(c) || c == '\uFEFF') {
+					continue;
+				}
+				if (pendingOpen) {
+					pendingOpen = false;
+					if (c == '}' || c == ']') {
+						// empty object or array
+						depth = Math.max(0, depth - 1);
+						output.write(c);
+						continue;
+					}
+					output.newLine(depth);
+				}
+				switch (c) {
+				case '{':
+				case '[':
+					output.write(c);
+					depth++;
+					pendingOpen = true;
+					break;
+				case '}':
+				case ']':
+					depth = Math.max(0, depth - 1);
+					output.newLine(depth);
+					output.write(c);
+					break;
+				case ',':
+					output.write(c);
+					output.newLine(depth);
+					break;
+				case ':':
+					output.write(c);
+					output.write(' ');
+					break;
+				case '"':
+					inString = true;
+					output.write(c);
+					break;
+				default:
+					output.write(c);
+					break;
+				}
+			}
+		}
+		output.flush();
+	}
+
+	/**
+	 * Pretty print an XML document: one tag per line, indented by its nesting
+	 * level, except for the elements with text content only which stay on
+	 * one line. Comments, CDATA sections, processing instructions and
+	 * attributes are copied as is.
+	 * @param in
+	 * @param out
+	 * @throws IOException
+	 */
+	public static void formatXML(Reader in, Writer out) throws IOException {
+		new XMLFormatter(in, new Output(out)).format();
+		out.flush();
+	}
+
+	/*
+	 * The kinds of XML tokens that drive the line breaks
+	 */
+	private enum Token {
+		NONE, START_TAG, END_TAG, TEXT, OTHER
+	}
+
+	/*
+	 * The XML tokenizer and formatter
+	 */
+	private static class XMLFormatter {
+
+		private final Reader in;
+		private final Output output;
+		private final char[] buffer = new char[BUFFER_SIZE];
+		private int position = 0;
+		private int limit = 0;
+
+		private int depth = 0;
+		private Token last = Token.NONE;
+		// the text after the last start tag was kept on the same line
+		private boolean inlineText = false;
+		// whitespace of the current text, written only if more text follows
+		private final StringBuilder pendingWhitespace = new StringBuilder();
+
+		XMLFormatter(Reader in, Output output) {
+			this.in = in;
+			this.output = output;
+		}
+
+		private int read() throws IOException {
+			if (position == limit) {
+				limit = in.read(buffer);
+				position = 0;
+				if (limit <= 0) {
+					limit = 0;
+					return -1;
+				}
+			}
+			return buffer[position++];
+		}
+
+		void format() throws IOException {
+			boolean inText = false;
+			int c;
+			while ((c = read()) != -1) {
+				if (c == '<') {
+					inText = false;
+					pendingWhitespace.setLength(0);
+					markup();
+				} else if (Character.isWhitespace(c) || c == '\uFEFF') {
+					if (inText) {
+						pendingWhitespace.append((char) c);
+					}
+				} else {
+					if (!inText) {
+						inText = true;
+						if (last == Token.START_TAG) {
+							inlineText = true;
+						} else {
+							inlineText = false;
+							output.newLine(depth);
+						}
+						last = Token.TEXT;
+					} else if (pendingWhitespace.length() > 0) {
+						output.write(pendingWhitespace);
+						pendingWhitespace.setLength(0);
+					}
+					output.write((char) c);
+				}
+			}
+			output.flush();
+		}
+
+		/*
+		 * Format the markup following a '<'
+		 */
+		private void markup() throws IOException {
+			final int c = read();
+			if (c == -1) {
+				output.write('<');
+				return;
+			}
+			switch (c) {
+			case '/':
+				depth = Math.max(0, depth - 1);
+				if (last != Token.START_TAG && !(last == Token.TEXT && inlineText)) {
+					output.newLine(depth);
+				}
+				output.write("</"); //$NON-NLS-1$
+				copyTag();
+				last = Token.END_TAG;
+				break;
+			case '?':
+				output.newLine(depth);
+				output.write("<?"); //$NON-NLS-1$
+				copyUntil("?>"); //$NON-NLS-1$
+				last = Token.OTHER;
+				break;
+			case '!':
+				declaration();
+				break;
+			default:
+				output.newLine(depth);
+				output.write('<');
+				output.write((char) c);
+				if (copyTag()) {
+					last = Token.OTHER;
+				} else {
+					depth++;
+					last = Token.START_TAG;
+				}
+				break;
+			}
+		}
+
+		/*
+		 * Format a comment, a CDATA section or a DOCTYPE
+		 */
+		private void declaration() throws IOException {
+			final int c = read();
+			if (c == '[') {
+				// CDATA section, which is text content
+				if (last == Token.START_TAG) {
+					inlineText = true;
+				} else {
+					inlineText = false;
+					output.newLine(depth);
+				}
+				output.write("<!["); //$NON-NLS-1$
+				copyUntil("]]>"); //$NON-NLS-1$
+				last = Token.TEXT;
+				return;
+			}
+			output.newLine(depth);
+			output.write("<!"); //$NON-NLS-1$
+			if (c == -1) {
+				return;
+			}
+			output.write((char) c);
+			if (c == '-') {
+				copyUntil("-->"); //$NON-NLS-1$
+			} else {
+				copyDoctype();
+			}
+			last = Token.OTHER;
+		}
+
+		/*
+		 * Copy the rest of a tag, up to and including its '>', and return
+		 * true if it is an empty element tag
+		 */
+		private boolean copyTag() throws IOException {
+			char quote = 0;
+			int previous = 0;
+			int c;
+			while ((c = read()) != -1) {
+				output.write((char) c);
+				if (quote != 0) {
+					if (c == quote) {
+						quote = 0;
+					}
+				} else if (c == '"' || c == '\'') {
+					quote = (char) c;
+				} else if (c == '>') {
+					return previous == '/';
+				}
+				previous = c;
+			}
+			return false;
+		}
+
+		/*
+		 * Copy the characters up to and including the given terminator
+		 */
+		private void copyUntil(String terminator) throws IOException {
+			final int length = terminator.length();
+			final char end = terminator.charAt(length - 1);
+			// the last characters written, to detect the terminator
+			final char[] window = new char[length];
+			int written = 0;
+			int c;
+			while ((c = read()) != -1) {
+				output.write((char) c);
+				window[written++ % length] = (char) c;
+				if (c == end && written >= length && endsWith(window, written, terminator)) {
+					return;
+				}
+			}
+		}
+
+		private static boolean endsWith(char[] window, int written, String terminator) {
+			final int length = terminator.length();
+			for (int i = 0; i < length; i++) {
+				if (window[(written - length + i) % length] != terminator.charAt(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/*
+		 * Copy a DOCTYPE, including its internal subset
+		 */
+		private void copyDoctype() throws IOException {
+			char quote = 0;
+			int brackets = 0;
+			int c;
+			while ((c = read()) != -1) {
+				output.write((char) c);
+				if (quote != 0) {
+					if (c == quote) {
+						quote = 0;
+					}
+				} else if (c == '"' || c == '\'') {
+					quote = (char) c;
+				} else if (c == '[') {
+					brackets++;
+				} else if (c == ']') {
+					brackets--;
+				} else if (c == '>' && brackets <= 0) {
+					return;
+				}
+			}
+		}
+	}
+
+	/*
+	 * Buffered output that knows how to start an indented line
+	 */
+	private static class Output {
+
+		private final Writer out;
+		private final char[] buffer = new char[BUFFER_SIZE];
+		private int position = 0;
+		private boolean empty = true;
+
+		Output(Writer out) {
+			this.out = out;
+		}
+
+		void write(char c) throws IOException {
+			if (position == buffer.length) {
+				out.write(buffer, 0, position);
+				position = 0;
+			}
+			buffer[position++] = c;
+			empty = false;
+		}
+
+		void write(CharSequence text) throws IOException {
+			for (int i = 0; i < text.length(); i++) {
+				write(text.charAt(i));
+			}
+		}
+
+		/*
+		 * Start a new line indented at the given depth, unless nothing was written yet
+		 */
+		void newLine(int depth) throws IOException {
+			if (empty) {
+				return;
+			}
+			write(LINE_SEPARATOR);
+			for (int i = 0; i < depth; i++) {
+				write(INDENT);
+			}
+		}
+
+		void flush() throws IOException {
+			out.write(buffer, 0, position);
+			position = 0;
+			out.flush();
+		}
+	}
+}
@@ -12,9 +12,8 @@ package org.jboss.tools.ws.ui.utils;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.StringReader;
 import java.io.StringWriter;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -27,15 +26,10 @@ import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 
-import org.w3c.dom.DOMConfiguration;
-import org.w3c.dom.DOMImplementation;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import org.w3c.dom.ls.DOMImplementationLS;
-import org.w3c.dom.ls.LSOutput;
-import org.w3c.dom.ls.LSSerializer;
 import org.xml.sax.SAXException;
 
 /**
@@ -172,93 +166,61 @@ public class SOAPDOMParser {
 	 * @return
 	 */
 	public static String prettyPrint ( String xml ) {
-		//get the factory
-		DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-		Document dom;
-		
+		StringWriter stringWriter = new StringWriter(xml.length() + xml.length() / 4);
 		try {
-			
-			//Using factory get an instance of document builder
-			DocumentBuilder db = dbf.newDocumentBuilder();
-			
-			//parse using builder to get DOM representation of the XML file
-			ByteArrayInputStream bais = new ByteArrayInputStream(xml.getBytes());
-			dom = db.parse(bais);
-			
-			String stringOutput = prettyPrintWithDOM3LS(dom);
-			return stringOutput;
-			
-		}catch(ParserConfigurationException pce) {
-			pce.printStackTrace();
-		}catch(SAXException se) {
-			se.printStackTrace();
-		}catch(IOException ioe) {
+			ResponseFormatter.formatXML(new StringReader(xml), stringWriter);
+		} catch (IOException ioe) {
+			// does not happen with strings
 			ioe.printStackTrace();
+			return null;
 		}
-		return null;
+		return stringWriter.toString();
 	}
-	
-	/*
-	 * @param document
-	 * @return
-	 */
-	static String prettyPrintWithDOM3LS(Document document) {
-		// Pretty-prints a DOM document to XML using DOM Load and Save's LSSerializer.
-		// Note that the "format-pretty-print" DOM configuration parameter can only be set in JDK 1.6+.
-		DOMImplementation domImplementation = document.getImplementation();
-		if (domImplementation.hasFeature("LS", "3.0") && domImplementation.hasFeature("Core", "2.0")) {  //$NON-NLS-1$//$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
-			DOMImplementationLS domImplementationLS = (DOMImplementationLS) domImplementation.getFeature("LS", "3.0"); //$NON-NLS-1$ //$NON-NLS-2$
-			LSSerializer lsSerializer = domImplementationLS.createLSSerializer();
-			DOMConfiguration domConfiguration = lsSerializer.getDomConfig();
-			if (domConfiguration.canSetParameter("format-pretty-print", Boolean.TRUE)) { //$NON-NLS-1$
-				lsSerializer.getDomConfig().setParameter("format-pretty-print", Boolean.TRUE); //$NON-NLS-1$
-				LSOutput lsOutput = domImplementationLS.createLSOutput();
-				lsOutput.setEncoding("UTF-8"); //$NON-NLS-1$
-				StringWriter stringWriter = new StringWriter();
-				lsOutput.setCharacterStream(stringWriter);
-				lsSerializer.write(document, lsOutput);
-				return stringWriter.toString();
-			} else {
-				throw new RuntimeException("DOMConfiguration 'format-pretty-print' parameter isn't settable."); //$NON-NLS-1$
-			}
-		} else {
-			throw new RuntimeException("DOM 3.0 LS and/or DOM 2.0 Core not supported."); //$NON-NLS-1$
-		}
-	}	
 
 	/**
-	 * from http://jaysonlorenzen.wordpress.com/2009/01/29/48/
+	 * Checks that the text starts with an element and ends with the end tag
+	 * of the same element, in a single pass over its ends
 	 * @param inXMLStr
 	 * @return
 	 */
 	public static boolean isXMLLike(String inXMLStr) {
-
-        boolean retBool = false;
-        Pattern pattern;
-        Matcher matcher;
-
-        // REGULAR EXPRESSION TO SEE IF IT AT LEAST STARTS AND ENDS
-        // WITH THE SAME ELEMENT
-        final String XML_PATTERN_STR = "<(\\S+?)(.*?)>(.*?)</\\1>"; //$NON-NLS-1$
-
-        // IF WE HAVE A STRING
-        if (inXMLStr != null && inXMLStr.trim().length() > 0) {
-
-            // IF WE EVEN RESEMBLE XML
-            if (inXMLStr.trim().startsWith("<")) { //$NON-NLS-1$
-
-                pattern = Pattern.compile(XML_PATTERN_STR,
-                Pattern.CASE_INSENSITIVE | Pattern.DOTALL | Pattern.MULTILINE);
-
-                // RETURN TRUE IF IT HAS PASSED BOTH TESTS
-                matcher = pattern.matcher(inXMLStr);
-                retBool = matcher.matches();
-            }
-        // ELSE WE ARE FALSE
-        }
-
-        return retBool;
-    }
+		if (inXMLStr == null) {
+			return false;
+		}
+		String xml = inXMLStr.trim();
+		// skip the XML declaration
+		if (xml.startsWith("<?")) { //$NON-NLS-1$
+			int end = xml.indexOf("?>"); //$NON-NLS-1$
+			if (end < 0) {
+				return false;
+			}
+			xml = xml.substring(end + 2).trim();
+		}
+		if (!xml.startsWith("<") || !xml.endsWith(">")) { //$NON-NLS-1$ //$NON-NLS-2$
+			return false;
+		}
+		int nameEnd = 1;
+		while (nameEnd < xml.length()) {
+			char c = xml.charAt(nameEnd);
+			if (Character.isWhitespace(c) || c == '>' || c == '/') {
+				break;
+			}
+			nameEnd++;
+		}
+		if (nameEnd == 1) {
+			return false;
+		}
+		String name = xml.substring(1, nameEnd);
+		// the end tag may have whitespace before its '>'
+		int endTagEnd = xml.length() - 1;
+		while (endTagEnd > 0 && Character.isWhitespace(xml.charAt(endTagEnd - 1))) {
+			endTagEnd--;
+		}
+		int endTagStart = endTagEnd - name.length() - 2;
+		return endTagStart >= nameEnd
+				&& xml.startsWith("</", endTagStart) //$NON-NLS-1$
+				&& xml.regionMatches(true, endTagStart + 2, name, 0, name.length());
+	}
 	
 	public static boolean isValidXML(String xml) {
 		//get the factory
@@ -286,39 +248,18 @@ public class SOAPDOMParser {
 	 * @return
 	 */
 	public static String prettyPrintJSON ( String inJSON ) {
-		int numberOfSpaces = 4;
-		String spaces = String.format("%" + numberOfSpaces + "s", ""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 		inJSON = inJSON.trim();
-		if (inJSON.startsWith("{") && inJSON.endsWith("}")) { //$NON-NLS-1$ //$NON-NLS-2$
-			String output = ""; //$NON-NLS-1$
-			char[] chars = inJSON.toCharArray();
-			for (int i = 0; i < chars.length; i++) {
-				char current = chars[i];
-				switch (current) {
-				case '{':
-					output = output + current + "\r\n" + spaces; //$NON-NLS-1$
-					break;
-				case '}':
-					output = output + "\r\n" + current; //$NON-NLS-1$
-					break;
-				case ',':
-					output = output + current + "\r\n" + spaces; //$NON-NLS-1$
-					break;
-				default:
-					output = output + current;
-					break;
-				}
-			}
-			return output;
-		} else if (inJSON.startsWith("[") && inJSON.endsWith("]")) { //$NON-NLS-1$ //$NON-NLS-2$
-			String output = "[\r\n"; //$NON-NLS-1$
-			inJSON = inJSON.substring(1, inJSON.length() - 1);
-			String innerParts = prettyPrintJSON(inJSON);
-			output = output + innerParts;
-			output = output + "\r\n]"; //$NON-NLS-1$
-			return output;
+		if (ResponseFormatter.sniff(inJSON) != ResponseFormatter.Format.JSON) {
+			return inJSON;
+		}
+		StringWriter stringWriter = new StringWriter(inJSON.length() + inJSON.length() / 4);
+		try {
+			ResponseFormatter.formatJSON(new StringReader(inJSON), stringWriter);
+		} catch (IOException ioe) {
+			// does not happen with strings
+			return inJSON;
 		}
-		return inJSON;
+		return stringWriter.toString();
 	}
 
 }
@@ -0,0 +1,261 @@
+/******************************************************************************* 
+ * Copyright (c) 2010 - 2014 Red Hat, Inc. and others.  
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.utils;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.wsdl.Definition;
+import javax.wsdl.WSDLException;
+import javax.xml.namespace.QName;
+import javax.xml.soap.MessageFactory;
+import javax.xml.soap.SOAPConstants;
+import javax.xml.soap.SOAPException;
+import javax.xml.soap.SOAPMessage;
+import javax.xml.ws.Dispatch;
+import javax.xml.ws.Service;
+import javax.xml.ws.Service.Mode;
+
+/**
+ * Cache of the WSDL definitions and of the JAX-WS Service and Dispatch
+ * objects built from them, so that repeated invocations of the same
+ * operation neither download nor parse the WSDL again.
+ * All the objects read from a WSDL location expire together, after a time
+ * to live or, for a WSDL read from the local file system, as soon as the
+ * file changes.
+ * @author bfitzpat
+ *
+ */
+public class WSDLCache {
+
+	/** default time to live of the cached WSDL documents */
+	public static final long DEFAULT_TIME_TO_LIVE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+	private final ConcurrentMap<String, WSDLEntry> entries = new ConcurrentHashMap<String, WSDLEntry>();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	private volatile long timeToLiveMillis = DEFAULT_TIME_TO_LIVE_MILLIS;
+
+	private volatile MessageFactory soap11MessageFactory;
+
+	private volatile MessageFactory soap12MessageFactory;
+
+	/**
+	 * Set the time after which a WSDL document and the objects built from
+	 * it are read again
+	 * @param timeToLive
+	 * @param unit
+	 */
+	public void setTimeToLive(long timeToLive, TimeUnit unit) {
+		this.timeToLiveMillis = Math.max(0, unit.toMillis(timeToLive));
+	}
+
+	/**
+	 * Return the definition of the WSDL at the given location, reading it
+	 * only if it is not cached yet or if the cached one is stale
+	 * @param wsdlURL
+	 * @return
+	 * @throws WSDLException
+	 */
+	public Definition getDefinition(URL wsdlURL) throws WSDLException {
+		final WSDLEntry entry = getEntry(wsdlURL);
+		synchronized (entry) {
+			if (entry.definition != null) {
+				hitCount.incrementAndGet();
+			} else {
+				missCount.incrementAndGet();
+				entry.definition = TesterWSDLUtils.readWSDLURL(wsdlURL);
+			}
+			return entry.definition;
+		}
+	}
+
+	/**
+	 * Return the JAX-WS service of the WSDL at the given location
+	 * @param wsdlURL
+	 * @param serviceName
+	 * @return
+	 */
+	public Service getService(URL wsdlURL, QName serviceName) {
+		return getService(getEntry(wsdlURL), wsdlURL, serviceName);
+	}
+
+	private Service getService(WSDLEntry entry, URL wsdlURL, QName serviceName) {
+		Service service = entry.services.get(serviceName);
+		if (service != null) {
+			hitCount.incrementAndGet();
+			return service;
+		}
+		synchronized (entry) {
+			service = entry.services.get(serviceName);
+			if (service == null) {
+				missCount.incrementAndGet();
+				service = Service.create(wsdlURL, serviceName);
+				entry.services.put(serviceName, service);
+			}
+			return service;
+		}
+	}
+
+	/**
+	 * Return the dispatch sending SOAP messages to the given port. The
+	 * dispatch is shared by all the invocations of the port, so callers
+	 * must synchronize on it while they set its request context and invoke it.
+	 * @param wsdlURL
+	 * @param serviceName
+	 * @param portName
+	 * @param isSOAP12
+	 * @return
+	 */
+	public Dispatch<SOAPMessage> getDispatch(URL wsdlURL, QName serviceName, QName portName, boolean isSOAP12) {
+		final WSDLEntry entry = getEntry(wsdlURL);
+		final String key = serviceName + "|" + portName + "|" + (isSOAP12 ? "1.2" : "1.1"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		Dispatch<SOAPMessage> dispatch = entry.dispatches.get(key);
+		if (dispatch != null) {
+			hitCount.incrementAndGet();
+			return dispatch;
+		}
+		final Service service = getService(entry, wsdlURL, serviceName);
+		synchronized (entry) {
+			dispatch = entry.dispatches.get(key);
+			if (dispatch == null) {
+				missCount.incrementAndGet();
+				dispatch = service.createDispatch(portName, SOAPMessage.class, Mode.MESSAGE);
+				entry.dispatches.put(key, dispatch);
+			}
+			return dispatch;
+		}
+	}
+
+	/**
+	 * Return the factory of the SOAP messages of the given version
+	 * @param isSOAP12
+	 * @return
+	 * @throws SOAPException
+	 */
+	public MessageFactory getMessageFactory(boolean isSOAP12) throws SOAPException {
+		if (isSOAP12) {
+			if (soap12MessageFactory == null) {
+				soap12MessageFactory = MessageFactory.newInstance(SOAPConstants.SOAP_1_2_PROTOCOL);
+			}
+			return soap12MessageFactory;
+		}
+		if (soap11MessageFactory == null) {
+			soap11MessageFactory = MessageFactory.newInstance();
+		}
+		return soap11MessageFactory;
+	}
+
+	/**
+	 * Remove the definition, services and dispatches of the WSDL at the
+	 * given location, so that it is read again on next use
+	 * @param wsdlURL
+	 */
+	public void invalidate(String wsdlURL) {
+		if (wsdlURL != null && entries.remove(wsdlURL) != null) {
+			evictionCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Remove all the cached WSDL documents
+	 */
+	public void invalidateAll() {
+		evictionCount.addAndGet(entries.size());
+		entries.clear();
+	}
+
+	/**
+	 * @return the number of definitions, services and dispatches found in the cache
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * @return the number of definitions, services and dispatches that had to be created
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * @return the number of WSDL documents removed from the cache because
+	 * they were stale or invalidated
+	 */
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	/*
+	 * Return the entry of the given WSDL location, replacing it if it is stale
+	 */
+	private WSDLEntry getEntry(URL wsdlURL) {
+		final String key = wsdlURL.toString();
+		final long lastModified = getLastModified(wsdlURL);
+		final WSDLEntry entry = entries.get(key);
+		if (entry != null) {
+			if (System.currentTimeMillis() - entry.creationTime < timeToLiveMillis
+					&& entry.lastModified == lastModified) {
+				return entry;
+			}
+			if (entries.remove(key, entry)) {
+				evictionCount.incrementAndGet();
+			}
+		}
+		final WSDLEntry newEntry = new WSDLEntry(lastModified);
+		final WSDLEntry existingEntry = entries.putIfAbsent(key, newEntry);
+		return existingEntry != null ? existingEntry : newEntry;
+	}
+
+	/*
+	 * Return the modification time of a WSDL on the local file system,
+	 * or 0 for a remote WSDL whose freshness is only based on the time to live
+	 */
+	private static long getLastModified(URL wsdlURL) {
+		if (!"file".equalsIgnoreCase(wsdlURL.getProtocol())) { //$NON-NLS-1$
+			return 0;
+		}
+		try {
+			return new File(wsdlURL.toURI()).lastModified();
+		} catch (URISyntaxException e) {
+			return 0;
+		} catch (IllegalArgumentException e) {
+			return 0;
+		}
+	}
+
+	/*
+	 * The objects read from a WSDL location
+	 */
+	private static class WSDLEntry {
+
+		final long creationTime = System.currentTimeMillis();
+		final long lastModified;
+		Definition definition;
+		final ConcurrentMap<QName, Service> services = new ConcurrentHashMap<QName, Service>();
+		final ConcurrentMap<String, Dispatch<SOAPMessage>> dispatches = new ConcurrentHashMap<String, Dispatch<SOAPMessage>>();
+
+		WSDLEntry(long lastModified) {
+			this.lastModified = lastModified;
+		}
+	}
+}
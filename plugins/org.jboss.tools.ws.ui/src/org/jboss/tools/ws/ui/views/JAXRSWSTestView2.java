@@ -20,6 +20,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Stack;
+import java.util.concurrent.TimeUnit;
 
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
@@ -64,6 +65,7 @@ import org.eclipse.jface.viewers.TextCellEditor;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.window.Window;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.browser.Browser;
 import org.eclipse.swt.custom.SashForm;
@@ -92,11 +94,13 @@ import org.eclipse.swt.widgets.CoolBar;
 import org.eclipse.swt.widgets.CoolItem;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Link;
 import org.eclipse.swt.widgets.List;
 import org.eclipse.swt.widgets.Listener;
 import org.eclipse.swt.widgets.Menu;
 import org.eclipse.swt.widgets.MenuItem;
 import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Spinner;
 import org.eclipse.swt.widgets.Text;
 import org.eclipse.swt.widgets.ToolBar;
 import org.eclipse.swt.widgets.ToolItem;
@@ -118,14 +122,18 @@ import org.eclipse.ui.part.ViewPart;
 import org.jboss.tools.ws.ui.JBossWSUIPlugin;
 import org.jboss.tools.ws.ui.dialogs.WSTesterURLInputsDialog;
 import org.jboss.tools.ws.ui.messages.JBossWSUIMessages;
+import org.jboss.tools.ws.ui.utils.JAXRSLoadTester;
 import org.jboss.tools.ws.ui.utils.JAXRSTester;
 import org.jboss.tools.ws.ui.utils.JAXWSTester2;
+import org.jboss.tools.ws.ui.utils.ResponseBody;
+import org.jboss.tools.ws.ui.utils.ResponseFormatter;
 import org.jboss.tools.ws.ui.utils.ResultsXMLStorage;
 import org.jboss.tools.ws.ui.utils.ResultsXMLStorageInput;
 import org.jboss.tools.ws.ui.utils.SOAPDOMParser;
 import org.jboss.tools.ws.ui.utils.SchemaUtils;
 import org.jboss.tools.ws.ui.utils.TesterWSDLUtils;
 import org.jboss.tools.ws.ui.utils.TreeParent;
+import org.jboss.tools.ws.ui.utils.WSDLCache;
 import org.jboss.tools.ws.ui.utils.WSTestUtils;
 import org.jboss.wise.ui.internal.util.WiseUtil;
 import org.w3c.dom.Element;
@@ -162,6 +170,10 @@ public class JAXRSWSTestView2 extends ViewPart {
 
 	/* UI controls */
 	private Text resultsText;
+	private Link responsePagingLink;
+	// the response being displayed one page at a time, and the end of the displayed pages
+	private ResponseBody pagedResponseBody;
+	private long pagedResponseOffset;
 	private Browser resultsBrowser;
 	private Combo urlCombo;
 	private DelimitedStringList dlsList;
@@ -194,6 +206,7 @@ public class JAXRSWSTestView2 extends ViewPart {
 
 	private static final String IMG_DESC_WSDL = "icons/obj16/wsdl.gif"; //$NON-NLS-1$
 	private static final String IMG_DESC_START = "icons/obj16/run.gif"; //$NON-NLS-1$
+	private static final String IMG_DESC_LOADTEST = "icons/obj16/ws_tester.gif"; //$NON-NLS-1$
 
 	private static final String IMG_DESC_SHOWRAW = "icons/obj16/binary.gif"; //$NON-NLS-1$
 	private static final String IMG_DESC_SHOWTREE = "icons/obj16/hierarchicalLayout.gif"; //$NON-NLS-1$
@@ -203,13 +216,16 @@ public class JAXRSWSTestView2 extends ViewPart {
 
 	private ToolItem openWSDLToolItem;
 	private ToolItem startToolItem;
+	private ToolItem loadTestToolItem;
 	private ScrolledPageBook pageBook;
 	private ShowRawAction rawAction;
 	private ShowInBrowserAction browserAction;
 	
 	private TestHistory history = new TestHistory();
+	private final WSDLCache wsdlCache = new WSDLCache();
 	private TestHistoryEntry currentHistoryEntry = null;
 	private Button useBasicAuthCB;
+	private Spinner timeoutSpinner;
 	private boolean restoringFromHistoryEntry = false;
 
 	/**
@@ -258,6 +274,9 @@ public class JAXRSWSTestView2 extends ViewPart {
 		mImageRegistry.put(IMG_DESC_START, ImageDescriptor
 				.createFromURL(JBossWSUIPlugin.getDefault().getBundle()
 						.getEntry(IMG_DESC_START)));
+		mImageRegistry.put(IMG_DESC_LOADTEST, ImageDescriptor
+				.createFromURL(JBossWSUIPlugin.getDefault().getBundle()
+						.getEntry(IMG_DESC_LOADTEST)));
 		mImageRegistry.put(IMG_DESC_SHOWRAW, ImageDescriptor
 				.createFromURL(JBossWSUIPlugin.getDefault().getBundle()
 						.getEntry(IMG_DESC_SHOWRAW)));
@@ -454,7 +473,7 @@ public class JAXRSWSTestView2 extends ViewPart {
 					try {
 						URL tempURL = new URL(urlText);
 						Definition 	wsdlDef =
-							TesterWSDLUtils.readWSDLURL(tempURL);
+							wsdlCache.getDefinition(tempURL);
 						Map<?, ?> bindings = wsdlDef.getAllBindings();
 						Iterator<?> iter = bindings.entrySet().iterator();
 						while (iter.hasNext()) {
@@ -534,6 +553,9 @@ public class JAXRSWSTestView2 extends ViewPart {
 		int rtnCode = wbDialog.open();
 		if (rtnCode == Window.OK){
 			
+			// the user picked the WSDL again, so read it again on next invocation
+			wsdlCache.invalidate(wbDialog.getWSDLText());
+			wsdlCache.invalidate(getCurrentHistoryEntry().getUrl());
 			getCurrentHistoryEntry().setServiceNSMessage(null);
 			getCurrentHistoryEntry().setAction(""); //$NON-NLS-1$
 			getCurrentHistoryEntry().setWsdlDef(null);
@@ -565,6 +587,7 @@ public class JAXRSWSTestView2 extends ViewPart {
 					wbDialog.getBindingValue(), 
 					wbDialog.getOperationTextValue());
 			getCurrentHistoryEntry().setUrl(endpointURL);
+			wsdlCache.invalidate(endpointURL);
 			
 			String actionURL = TesterWSDLUtils.getActionURL(wsdlDef, 
 					wbDialog.getServiceTextValue(), 
@@ -767,6 +790,18 @@ public class JAXRSWSTestView2 extends ViewPart {
 			}
 		});
 
+		loadTestToolItem = new ToolItem(topToolBar, SWT.PUSH| SWT.FLAT);
+		loadTestToolItem.setImage(mImageRegistry.get(IMG_DESC_LOADTEST));
+		loadTestToolItem.setToolTipText(JBossWSUIMessages.JAXRSWSTestView2_LoadTest_Tooltip);
+		loadTestToolItem.addSelectionListener(new SelectionListener() {
+			public void widgetSelected(SelectionEvent e) {
+				handleLoadTest();
+			}
+			public void widgetDefaultSelected(SelectionEvent e) {
+				widgetSelected(e);
+			}
+		});
+
 		topToolBar.pack(); 
 		size = topToolBar.getSize();
 		topCoolItem.setControl(topToolBar);
@@ -790,6 +825,14 @@ public class JAXRSWSTestView2 extends ViewPart {
 		gd10.horizontalIndent = 3;
 		useBasicAuthCB.setLayoutData(gd10);
 
+		Composite timeoutComposite = toolkit.createComposite(sectionClient);
+		timeoutComposite.setLayout(new GridLayout(2, false));
+		toolkit.createLabel(timeoutComposite, JBossWSUIMessages.JAXRSWSTestView2_Timeout_Label);
+		timeoutSpinner = new Spinner(timeoutComposite, SWT.BORDER);
+		timeoutSpinner.setValues(0, 0, 3600, 0, 1, 10);
+		timeoutSpinner.setToolTipText(JBossWSUIMessages.JAXRSWSTestView2_Timeout_Tooltip);
+		toolkit.adapt(timeoutSpinner);
+
 		ExpandableComposite ec = toolkit.createExpandableComposite(sectionClient, 
 				ExpandableComposite.TREE_NODE| ExpandableComposite.TITLE_BAR |
 				ExpandableComposite.CLIENT_INDENT);
@@ -1204,6 +1247,21 @@ public class JAXRSWSTestView2 extends ViewPart {
 		gd7.heightHint = 1;
 		resultsText.setLayoutData(gd7);
 
+		responsePagingLink = new Link(page1, SWT.NONE);
+		toolkit.adapt(responsePagingLink, false, false);
+		GridData gd11 = new GridData(SWT.FILL, SWT.NONE, true, false);
+		gd11.exclude = true;
+		responsePagingLink.setLayoutData(gd11);
+		responsePagingLink.setVisible(false);
+		responsePagingLink.addSelectionListener(new SelectionListener() {
+			public void widgetSelected(SelectionEvent e) {
+				showNextResponsePage();
+			}
+			public void widgetDefaultSelected(SelectionEvent e) {
+				widgetSelected(e);
+			}
+		});
+
 		pageBook.showPage(PAGE1_KEY);
 
 		Composite page2 = pageBook.createPage(PAGE2_KEY);
@@ -1379,6 +1437,15 @@ public class JAXRSWSTestView2 extends ViewPart {
 
 	@Override
 	public void dispose() {
+		// delete the temporary files of the large responses
+		for (TestHistoryEntry entry : history.getEntries()) {
+			if (entry.getResponseBody() != null) {
+				entry.getResponseBody().dispose();
+			}
+		}
+		if (currentHistoryEntry != null && currentHistoryEntry.getResponseBody() != null) {
+			currentHistoryEntry.getResponseBody().dispose();
+		}
 		toolkit.dispose();
 		mImageRegistry.dispose();
 		super.dispose();
@@ -1443,6 +1510,54 @@ public class JAXRSWSTestView2 extends ViewPart {
 		}
 	}
 
+	/*
+	 * Offer to display the rest of the given response if only its first
+	 * page is displayed
+	 */
+	private void setResponsePaging(ResponseBody responseBody) {
+		pagedResponseBody = null;
+		pagedResponseOffset = 0;
+		if (responseBody != null && responseBody.getLength() > ResponseBody.DEFAULT_PAGE_SIZE) {
+			try {
+				pagedResponseOffset = responseBody.getPageEnd(0, ResponseBody.DEFAULT_PAGE_SIZE);
+				pagedResponseBody = responseBody;
+			} catch (IOException e) {
+				JBossWSUIPlugin.log(e);
+			}
+		}
+		updateResponsePagingLink();
+	}
+
+	/*
+	 * Append the next page of the displayed response
+	 */
+	private void showNextResponsePage() {
+		if (pagedResponseBody == null) {
+			return;
+		}
+		try {
+			long end = pagedResponseBody.getPageEnd(pagedResponseOffset, ResponseBody.DEFAULT_PAGE_SIZE);
+			resultsText.append(pagedResponseBody.getText(pagedResponseOffset, end));
+			pagedResponseOffset = end;
+		} catch (IOException e) {
+			// the temporary file is gone
+			JBossWSUIPlugin.log(e);
+			pagedResponseBody = null;
+		}
+		updateResponsePagingLink();
+	}
+
+	private void updateResponsePagingLink() {
+		boolean visible = pagedResponseBody != null && pagedResponseOffset < pagedResponseBody.getLength();
+		if (visible) {
+			responsePagingLink.setText(NLS.bind(JBossWSUIMessages.JAXRSWSTestView2_Response_Paging_Link,
+					Long.toString(pagedResponseOffset / 1024), Long.toString(pagedResponseBody.getLength() / 1024)));
+		}
+		responsePagingLink.setVisible(visible);
+		((GridData) responsePagingLink.getLayoutData()).exclude = !visible;
+		responsePagingLink.getParent().layout(true);
+	}
+
 	private void openXMLEditor (String text){
 		IWorkbenchWindow window = getSite().getWorkbenchWindow();
 		IStorage storage = new ResultsXMLStorage(text);
@@ -1508,6 +1623,7 @@ public class JAXRSWSTestView2 extends ViewPart {
 			if (resultsText.isEnabled() && resultsBrowser.isEnabled()) {
 				resultsText.setText(entry.getResultText());
 				resultsBrowser.setText(entry.getResultText());
+				setResponsePaging(entry.getResponseBody());
 			}
 			if (entry.getUrl().trim().length() > 0) {
 				String urlText = entry.getUrl();
@@ -1587,6 +1703,8 @@ public class JAXRSWSTestView2 extends ViewPart {
 				treeRequestBody.setInput(emptySOAP);
 			}
 			openWSDLToolItem.setEnabled(true);
+			loadTestToolItem.setEnabled(false);
+			timeoutSpinner.setEnabled(true);
 		}
 		else if (wsType.equalsIgnoreCase(JAX_RS)) {
 			bodyText.setEnabled(true);
@@ -1594,6 +1712,8 @@ public class JAXRSWSTestView2 extends ViewPart {
 			parmsList.setEnabled(true);
 			dlsList.setEnabled(true);
 			openWSDLToolItem.setEnabled(false);
+			loadTestToolItem.setEnabled(true);
+			timeoutSpinner.setEnabled(false);
 
 			if (bodyText.getText().trim().length() > 0) {
 				bodyText.setText(EMPTY_STRING);
@@ -1629,24 +1749,8 @@ public class JAXRSWSTestView2 extends ViewPart {
 	 */
 	private void handleTest(final String wsTech) {
 
-		String urlText = urlCombo.getText();
-		
-		// if we need to configure incoming parameters in the URL (i.e. from JAX-RS tooling) 
-		if (urlText.endsWith("}")) { //$NON-NLS-1$
-			WSTesterURLInputsDialog dialog = new WSTesterURLInputsDialog(this.getSite().getShell(), urlText);
-			int rtn_code = dialog.open();
-			if (rtn_code == Window.OK) {
-				urlText = dialog.getURL();
-				urlCombo.setText(urlText);
-			} else {
-				return;
-			}
-		}
-		
-		try {
-			new URL(urlText);
-		} catch (MalformedURLException mue) {
-			// do nothing, but return since we don't have a working URL
+		String urlText = getURLToTest();
+		if (urlText == null) {
 			return;
 		}
 
@@ -1691,9 +1795,6 @@ public class JAXRSWSTestView2 extends ViewPart {
 		final String headers = getCurrentHistoryEntry().getHeaders();
 		final String parms = getCurrentHistoryEntry().getParms();
 		
-		String tempUID = null;
-		String tempPwd = null;
-		
 		// per JBIDE-6919, if we encounter an "https" url make sure 
 		// basic authorization checkbox is checked
 		// per JBIDE-12981, moved this check and set to setControlsForSelectedURL()
@@ -1701,19 +1802,13 @@ public class JAXRSWSTestView2 extends ViewPart {
 //			useBasicAuthCB.setSelection(true);
 //		}
 		
-		// If basic authorization checkbox is checked, use the uid/pwd
-		if (useBasicAuthCB.getSelection()) {
-			UidPwdDialog authDialog = new UidPwdDialog(getSite().getShell());
-			int rtnCode = authDialog.open();
-			if (rtnCode == Window.OK) {
-				tempUID = authDialog.getUID();
-				tempPwd = authDialog.getPwd();
-			} else {
-				return;
-			}
+		String[] credentials = getCredentials();
+		if (credentials == null) {
+			return;
 		}
-		final String uid = tempUID;
-		final String pwd = tempPwd;
+		final String uid = credentials[0];
+		final String pwd = credentials[1];
+		final int timeoutSeconds = timeoutSpinner.getSelection();
 
 		Job aJob = new Job(JBossWSUIMessages.JAXRSWSTestView_Invoking_WS_Status) {
 			protected IStatus run(IProgressMonitor monitor) {
@@ -1723,7 +1818,7 @@ public class JAXRSWSTestView2 extends ViewPart {
 					status = handleRSTest(monitor, url, method, body, parms, headers, uid, pwd);
 				}
 				else if (wsTech.equalsIgnoreCase(JAX_WS)) {
-					status = handleWSTest(monitor, url, action, body, uid, pwd);
+					status = handleWSTest(monitor, url, action, body, uid, pwd, timeoutSeconds);
 				}
 				monitor.done();
 				return status;  
@@ -1741,12 +1836,13 @@ public class JAXRSWSTestView2 extends ViewPart {
 					final WSTestStatus status = (WSTestStatus) event.getResult();
 					PlatformUI.getWorkbench().getDisplay().syncExec(new Runnable() {
 						public void run() {
+							ResponseBody responseBody = status.getResponseBody();
+							getCurrentHistoryEntry().setResponseBody(responseBody);
 							if (status.getResultsText() != null) {
 								String results = status.getResultsText();
-								if (SOAPDOMParser.isValidXML(results)) {
-									results = SOAPDOMParser.prettyPrint(results);
-								} else {
-									results = SOAPDOMParser.prettyPrintJSON(results);
+								// the whole response body was already formatted by the job
+								if (responseBody == null) {
+									results = ResponseFormatter.format(results);
 								}
 								getCurrentHistoryEntry().setResultText(results);
 								getCurrentHistoryEntry().setUrl(urlCombo.getText());
@@ -1761,6 +1857,7 @@ public class JAXRSWSTestView2 extends ViewPart {
 								JAXRSWSTestView2.this.resultsBrowser.setText(status.getMessage());
 								JAXRSWSTestView2.this.form.reflow(true);
 							}
+							setResponsePaging(responseBody);
 							resultHeadersList.removeAll();
 							String[] headers =
 								DelimitedStringList.parseString(status.getHeadersList(), RESULT_HEADER_DELIMITER);
@@ -1781,12 +1878,22 @@ public class JAXRSWSTestView2 extends ViewPart {
 							}
 							TestHistoryEntry oldEntry = history.findEntryByURL(getCurrentHistoryEntry().getUrl());
 							if (oldEntry != null) {
-								history.replaceEntry(oldEntry, getCurrentHistoryEntry());
+								// the replaced response is not reachable anymore
+								if (oldEntry.getResponseBody() != null 
+										&& oldEntry.getResponseBody() != getCurrentHistoryEntry().getResponseBody()) {
+									oldEntry.getResponseBody().dispose();
+								}
+								// store a copy, as the current entry gets the body of the next response
+								try {
+									history.replaceEntry(oldEntry, (TestHistoryEntry) getCurrentHistoryEntry().clone());
+								} catch (CloneNotSupportedException e) {
+									JBossWSUIPlugin.log(e);
+								}
 							} else {
 								try {
 									history.addEntry((TestHistoryEntry) getCurrentHistoryEntry().clone());
 								} catch (CloneNotSupportedException e) {
-									e.printStackTrace();
+									JBossWSUIPlugin.log(e);
 								}
 							}
 //							System.out.println("Replaced or added entry\n" + history.toString());
@@ -1803,10 +1910,190 @@ public class JAXRSWSTestView2 extends ViewPart {
 		setMenusForCurrentState();
 	}
 
+	/*
+	 * Returns the URL to test once the user filled in the parameters
+	 * of a URL template, or null if the test should not go on
+	 */
+	private String getURLToTest() {
+		String urlText = urlCombo.getText();
+		
+		// if we need to configure incoming parameters in the URL (i.e. from JAX-RS tooling) 
+		if (urlText.endsWith("}")) { //$NON-NLS-1$
+			WSTesterURLInputsDialog dialog = new WSTesterURLInputsDialog(this.getSite().getShell(), urlText);
+			int rtn_code = dialog.open();
+			if (rtn_code == Window.OK) {
+				urlText = dialog.getURL();
+				urlCombo.setText(urlText);
+			} else {
+				return null;
+			}
+		}
+		
+		try {
+			new URL(urlText);
+		} catch (MalformedURLException mue) {
+			// do nothing, but return since we don't have a working URL
+			return null;
+		}
+		return urlText;
+	}
+
+	/*
+	 * Returns the uid/pwd pair to use (both null if basic authorization
+	 * is not checked), or null if the user cancelled the dialog
+	 */
+	private String[] getCredentials() {
+		String[] credentials = new String[2];
+		// If basic authorization checkbox is checked, use the uid/pwd
+		if (useBasicAuthCB.getSelection()) {
+			UidPwdDialog authDialog = new UidPwdDialog(getSite().getShell());
+			int rtnCode = authDialog.open();
+			if (rtnCode == Window.OK) {
+				credentials[0] = authDialog.getUID();
+				credentials[1] = authDialog.getPwd();
+			} else {
+				return null;
+			}
+		}
+		return credentials;
+	}
+
+	/*
+	 * Sends the current JAX-RS request repeatedly from several virtual users
+	 * and reports throughput, error rate and latency percentiles while it runs
+	 */
+	private void handleLoadTest() {
+		if (!getCurrentTestType().equalsIgnoreCase(JAX_RS)) {
+			return;
+		}
+		String urlText = getURLToTest();
+		if (urlText == null) {
+			return;
+		}
+		if (!getCurrentHistoryEntry().getUrl().contentEquals(urlText)) {
+			getCurrentHistoryEntry().setUrl(urlText);
+		}
+
+		final String url = getCurrentHistoryEntry().getUrl();
+		final String method = getCurrentHistoryEntry().getMethod();
+		String body = getCurrentHistoryEntry().getBody();
+		if (method.equalsIgnoreCase(GET) || (body != null && body.trim().length() == 0)) {
+			body = null;
+		} else if (SOAPDOMParser.isXMLLike(body)) {
+			body = body.replaceAll(">\\s+<", "><");  //$NON-NLS-1$//$NON-NLS-2$
+		}
+		final Map<String, String> parameters = parseNameValuePairs(getCurrentHistoryEntry().getParms());
+		final Map<String, String> headers = parseNameValuePairs(getCurrentHistoryEntry().getHeaders());
+
+		String[] credentials = getCredentials();
+		if (credentials == null) {
+			return;
+		}
+		LoadTestDialog loadTestDialog = new LoadTestDialog(getSite().getShell());
+		if (loadTestDialog.open() != Window.OK) {
+			return;
+		}
+
+		final JAXRSLoadTester tester;
+		try {
+			tester = new JAXRSLoadTester(url, parameters, headers, method, body, credentials[0], credentials[1]);
+		} catch (IOException e) {
+			JBossWSUIPlugin.log(e);
+			resultsText.setText(JBossWSUIMessages.JAXRSWSTestView_Exception_Status + e.getLocalizedMessage());
+			JAXRSWSTestView2.this.form.reflow(true);
+			return;
+		}
+		tester.setVirtualUsers(loadTestDialog.getVirtualUsers());
+		tester.setRampUp(loadTestDialog.getRampUpSeconds(), TimeUnit.SECONDS);
+		tester.setDuration(loadTestDialog.getDurationSeconds(), TimeUnit.SECONDS);
+
+		Job aJob = new Job(JBossWSUIMessages.JAXRSWSTestView_Load_Testing_WS_Status) {
+			protected IStatus run(final IProgressMonitor monitor) {
+				// count the request submission events
+				JBossWSUIPlugin.getDefault().countRequestSubmitted(method);
+				try {
+					JAXRSLoadTester.Snapshot result = tester.run(new JAXRSLoadTester.Listener() {
+						public void progress(JAXRSLoadTester.Snapshot snapshot) {
+							if (monitor.isCanceled()) {
+								tester.stop();
+							}
+							showLoadTestReport(method, url, snapshot);
+						}
+					});
+					showLoadTestReport(method, url, result);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				monitor.done();
+				return Status.OK_STATUS;
+			}
+
+			protected void canceling() {
+				tester.stop();
+			}
+		};
+		// true to indicate that this job was initiated by a UI end user
+		aJob.setUser(true);
+		aJob.schedule();
+	}
+
+	/*
+	 * Displays the given load test snapshot in the results text field
+	 */
+	private void showLoadTestReport(String method, String url, JAXRSLoadTester.Snapshot snapshot) {
+		final String report = NLS.bind(JBossWSUIMessages.JAXRSWSTestView2_LoadTest_Report, new Object[] {
+				method, url,
+				String.format("%.1f", snapshot.getElapsedMillis() / 1000.0), //$NON-NLS-1$
+				Integer.toString(snapshot.getActiveUsers()),
+				Long.toString(snapshot.getRequestCount()),
+				Long.toString(snapshot.getErrorCount()),
+				String.format("%.2f", snapshot.getErrorRate()), //$NON-NLS-1$
+				String.format("%.1f", snapshot.getThroughput()), //$NON-NLS-1$
+				toMillis(snapshot.getLatencyP50()),
+				toMillis(snapshot.getLatencyP90()),
+				toMillis(snapshot.getLatencyP99()),
+				toMillis(snapshot.getLatencyP999()),
+				toMillis(snapshot.getMaxLatency()) });
+		PlatformUI.getWorkbench().getDisplay().asyncExec(new Runnable() {
+			public void run() {
+				if (resultsText.isDisposed()) {
+					return;
+				}
+				resultsText.setText(report);
+				JAXRSWSTestView2.this.form.reflow(true);
+				setMenusForCurrentState();
+			}
+		});
+	}
+
+	private static String toMillis(long micros) {
+		return String.format("%.3f", micros / 1000.0); //$NON-NLS-1$
+	}
+
+	/*
+	 * Parses a comma separated list of name=value pairs
+	 */
+	private static Map<String, String> parseNameValuePairs(String pairs) {
+		HashMap<String, String> result = new HashMap<String, String>();
+		if (pairs != null && pairs.length() > 0) {
+			String[] parsedList = DelimitedStringList.parseString(pairs , ","); //$NON-NLS-1$
+			if (parsedList != null && parsedList.length > 0) {
+				for (int i = 0; i < parsedList.length; i++) {
+					String nameValuePair = parsedList[i];
+					String[] nameAndValue = DelimitedStringList.parseString(nameValuePair, "="); //$NON-NLS-1$
+					if (nameAndValue != null && nameAndValue.length == 2) {
+						result.put(nameAndValue[0], nameAndValue[1]);
+					}
+				}
+			}
+		}
+		return result;
+	}
+
 	/*
 	 * Actually call the WS and displays the result 
 	 */
-	private IStatus handleWSTest(final IProgressMonitor monitor, String url, String action, String body, String uid, String pwd) {
+	private IStatus handleWSTest(final IProgressMonitor monitor, String url, String action, String body, String uid, String pwd, int timeoutSeconds) {
 		try {
 
 			// count the request submission events
@@ -1815,7 +2102,8 @@ public class JAXRSWSTestView2 extends ViewPart {
 			envelope = null;
 			soapbody = null;
 			monitor.worked(10);
-			JAXWSTester2 tester = new JAXWSTester2();
+			JAXWSTester2 tester = new JAXWSTester2(wsdlCache);
+			tester.setTimeout(timeoutSeconds, TimeUnit.SECONDS);
 			boolean itRan = false;
 			serviceNSMessage = getCurrentHistoryEntry().getServiceNSMessage();
 			while (!monitor.isCanceled()) {
@@ -1913,6 +2201,37 @@ public class JAXRSWSTestView2 extends ViewPart {
 		}
 	}
 
+	/*
+	 * Pretty print the whole response if its Content-Type is XML or JSON.
+	 * The formatted copy keeps the response as received, and disposes it.
+	 */
+	private static ResponseBody formatResponseBody(ResponseBody responseBody, String contentType) {
+		if (responseBody == null) {
+			return null;
+		}
+		try {
+			return responseBody.format(contentType);
+		} catch (IOException e) {
+			JBossWSUIPlugin.log(e);
+			return responseBody;
+		}
+	}
+
+	/*
+	 * Return the first page of the response, or the default text if there is none
+	 */
+	private static String getFirstPage(ResponseBody responseBody, String defaultText) {
+		if (responseBody == null || responseBody.getLength() == 0) {
+			return defaultText;
+		}
+		try {
+			return responseBody.getPage(0, ResponseBody.DEFAULT_PAGE_SIZE);
+		} catch (IOException e) {
+			JBossWSUIPlugin.log(e);
+			return defaultText;
+		}
+	}
+
 	/*
 	 * Actually call the RESTful WS to test it
 	 */
@@ -1926,35 +2245,11 @@ public class JAXRSWSTestView2 extends ViewPart {
 		monitor.worked(10);
 
 		// Process parameters for web service call
-		HashMap<String, String> parameters = new HashMap<String, String>();
-		if (parms != null && parms.length() > 0) {
-			String[] parsedList = DelimitedStringList.parseString(parms , ","); //$NON-NLS-1$
-			if (parsedList != null && parsedList.length > 0) {
-				for (int i = 0; i < parsedList.length; i++) {
-					String nameValuePair = parsedList[i];
-					String[] nameAndValue = DelimitedStringList.parseString(nameValuePair, "="); //$NON-NLS-1$
-					if (nameAndValue != null && nameAndValue.length == 2) {
-						parameters.put(nameAndValue[0], nameAndValue[1]);
-					}
-				}
-			}
-		}
+		Map<String, String> parameters = parseNameValuePairs(parms);
 
 		monitor.worked(10);
 		// Process headers for web service call
-		HashMap<String, String> headers = new HashMap<String, String>();
-		if (headersStr != null && headersStr.length() > 0) {
-			String[] parsedList = DelimitedStringList.parseString(headersStr , ","); //$NON-NLS-1$
-			if (parsedList != null && parsedList.length > 0) {
-				for (int i = 0; i < parsedList.length; i++) {
-					String nameValuePair = parsedList[i];
-					String[] nameAndValue = DelimitedStringList.parseString(nameValuePair, "="); //$NON-NLS-1$
-					if (nameAndValue != null && nameAndValue.length == 2) {
-						headers.put(nameAndValue[0], nameAndValue[1]);
-					}
-				}
-			}
-		}
+		Map<String, String> headers = parseNameValuePairs(headersStr);
 
 		JAXRSTester tester = new JAXRSTester();
 
@@ -1967,15 +2262,15 @@ public class JAXRSWSTestView2 extends ViewPart {
 			// call the service
 			tester.doTest(address, parameters, headers, method, body, null, -1, uid, pwd);
 
-			String result = tester.getResultBody();
-
-			// put the results in the result text field
-			String cleanedUp = WSTestUtils.addNLsToXML(result);
+			// pretty print the whole response in this job rather than in the UI thread
+			ResponseBody responseBody = formatResponseBody(tester.getResponseBody(), tester.getResponseContentType());
+			String result = getFirstPage(responseBody, tester.getResultBody());
 
 			WSTestStatus status = new WSTestStatus(IStatus.OK, 
 					JBossWSUIPlugin.PLUGIN_ID, 
 					JBossWSUIMessages.JAXRSWSTestView_JAXRS_Success_Status);
-			status.setResultsText(cleanedUp);
+			status.setResultsText(result);
+			status.setResponseBody(responseBody);
 
 			String listText = EMPTY_STRING;
 			if (tester.getResultHeaders() != null) {
@@ -1999,17 +2294,16 @@ public class JAXRSWSTestView2 extends ViewPart {
 			return status;
 
 		} catch (Exception e) {
-			String result = tester.getResultBody();
+			ResponseBody responseBody = formatResponseBody(tester.getResponseBody(), tester.getResponseContentType());
+			String result = getFirstPage(responseBody, tester.getResultBody());
 			if (result.isEmpty()) 
 				result = e.getLocalizedMessage();
 
-			// put the results in the result text field
-			String cleanedUp = WSTestUtils.addNLsToXML(result);
-
 			WSTestStatus status = new WSTestStatus(IStatus.OK, 
 					JBossWSUIPlugin.PLUGIN_ID, 
 					JBossWSUIMessages.JAXRSWSTestView_JAXRS_Success_Status);
-			status.setResultsText(cleanedUp);
+			status.setResultsText(result);
+			status.setResponseBody(responseBody);
 
 			String listText = EMPTY_STRING;
 			if (tester.getResultHeaders() != null) {
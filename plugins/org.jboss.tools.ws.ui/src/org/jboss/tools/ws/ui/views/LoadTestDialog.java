@@ -0,0 +1,96 @@
+/******************************************************************************* 
+ * Copyright (c) 2010 - 2014 Red Hat, Inc. and others.  
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.views;
+
+import org.eclipse.jface.dialogs.TitleAreaDialog;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Spinner;
+import org.jboss.tools.ws.ui.messages.JBossWSUIMessages;
+import org.jboss.tools.ws.ui.utils.JAXRSLoadTester;
+
+/**
+ * Dialog to configure the load generated by a JAX-RS load test
+ * @author bfitzpat
+ *
+ */
+public class LoadTestDialog extends TitleAreaDialog {
+	private Spinner virtualUsersSpinner;
+	private Spinner rampUpSpinner;
+	private Spinner durationSpinner;
+
+	// remember the settings between two load tests
+	private static int virtualUsers = 10;
+	private static int rampUpSeconds = 5;
+	private static int durationSeconds = 30;
+
+	public LoadTestDialog(Shell parentShell) {
+		super(parentShell);
+	}
+
+	protected Control createDialogArea(Composite parent) {
+		setTitle(JBossWSUIMessages.LoadTestDialog_Title);
+		final int maxVirtualUsers = JAXRSLoadTester.getMaxVirtualUsers();
+		setMessage(NLS.bind(JBossWSUIMessages.LoadTestDialog_Description, Integer.toString(maxVirtualUsers)));
+
+		Composite comp = new Composite (parent,SWT.NONE);
+
+		GridLayout layout = new GridLayout(2, false);
+		GridData gridData = new GridData(SWT.FILL, SWT.FILL, true, true);
+		gridData.horizontalSpan = 2;
+		comp.setLayoutData(gridData);
+		comp.setLayout(layout);
+
+		virtualUsersSpinner = createSpinner(comp, JBossWSUIMessages.LoadTestDialog_Virtual_Users_Label,
+				1, maxVirtualUsers, Math.min(virtualUsers, maxVirtualUsers));
+		rampUpSpinner = createSpinner(comp, JBossWSUIMessages.LoadTestDialog_RampUp_Label,
+				0, 3600, rampUpSeconds);
+		durationSpinner = createSpinner(comp, JBossWSUIMessages.LoadTestDialog_Duration_Label,
+				1, 86400, durationSeconds);
+
+		return comp;
+	}
+
+	private Spinner createSpinner(Composite comp, String label, int minimum, int maximum, int selection) {
+		Label spinnerLabel = new Label(comp, SWT.RIGHT);
+		spinnerLabel.setText(label);
+
+		Spinner spinner = new Spinner(comp, SWT.BORDER);
+		spinner.setValues(selection, minimum, maximum, 0, 1, 10);
+		spinner.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+		return spinner;
+	}
+
+	protected void okPressed() {
+		virtualUsers = virtualUsersSpinner.getSelection();
+		rampUpSeconds = rampUpSpinner.getSelection();
+		durationSeconds = durationSpinner.getSelection();
+		super.okPressed();
+	}
+
+	public int getVirtualUsers() {
+		return virtualUsers;
+	}
+
+	public int getRampUpSeconds() {
+		return rampUpSeconds;
+	}
+
+	public int getDurationSeconds() {
+		return durationSeconds;
+	}
+}
@@ -18,7 +18,9 @@ import javax.wsdl.Definition;
 import javax.wsdl.WSDLException;
 
 import org.jboss.tools.ws.ui.JBossWSUIPlugin;
+import org.jboss.tools.ws.ui.utils.ResponseBody;
 import org.jboss.tools.ws.ui.utils.TesterWSDLUtils;
+import org.jboss.tools.ws.ui.utils.WSDLCache;
 
 public class TestHistoryEntry implements Cloneable{
 
@@ -30,6 +32,7 @@ public class TestHistoryEntry implements Cloneable{
 	private String parms;
 	private String[] resultHeadersList;
 	private String resultText;
+	private ResponseBody responseBody;
 	private String wsTech;
 	private String serviceName;
 	private String portName;
@@ -100,6 +103,19 @@ public class TestHistoryEntry implements Cloneable{
 		return resultText;
 	}
 
+	/**
+	 * Set the whole response, of which the result text only holds the first page.
+	 * Large responses stay in their temporary file instead of being kept in memory.
+	 * @param responseBody
+	 */
+	public void setResponseBody(ResponseBody responseBody) {
+		this.responseBody = responseBody;
+	}
+
+	public ResponseBody getResponseBody() {
+		return responseBody;
+	}
+
 	public void setWsTech(String wsTech) {
 		this.wsTech = wsTech;
 	}
@@ -145,10 +161,20 @@ public class TestHistoryEntry implements Cloneable{
 	}
 
 	public Definition getWsdlDef() {
+		return getWsdlDef(null);
+	}
+
+	/**
+	 * Return the WSDL definition of this entry, reading it through the given
+	 * cache if it is not known yet
+	 * @param wsdlCache may be null
+	 * @return
+	 */
+	public Definition getWsdlDef(WSDLCache wsdlCache) {
 		if (this.wsdlDef == null && this.url != null && this.url.length() > 0) {
 			try {
 				URL tempURL = new URL(this.url);
-				wsdlDef =
+				wsdlDef = wsdlCache != null ? wsdlCache.getDefinition(tempURL) :
 					TesterWSDLUtils.readWSDLURL(tempURL);
 			} catch (MalformedURLException e) {
 				JBossWSUIPlugin.log(e);
@@ -215,6 +241,7 @@ public class TestHistoryEntry implements Cloneable{
 		newEntry.setPortName(this.getPortName());
 		newEntry.setResultHeadersList(this.getResultHeadersList());
 		newEntry.setResultText(this.getResultText());
+		newEntry.setResponseBody(this.getResponseBody());
 		newEntry.setServiceName(this.getServiceName());
 		newEntry.setServiceNSMessage(this.getServiceNSMessage());
 		newEntry.setSOAP12(this.isSOAP12());
@@ -1,11 +1,13 @@
 package org.jboss.tools.ws.ui.views;
 
 import org.eclipse.core.runtime.Status;
+import org.jboss.tools.ws.ui.utils.ResponseBody;
 
 public class WSTestStatus extends Status {
 
 	private String resultsText;
 	private String headersList;
+	private ResponseBody responseBody;
 	
 	public WSTestStatus(int severity, String pluginId, String message) {
 		super(severity, pluginId, message);
@@ -19,6 +21,14 @@ public class WSTestStatus extends Status {
 		this.resultsText = resultsText;
 	}
 
+	public ResponseBody getResponseBody() {
+		return responseBody;
+	}
+
+	public void setResponseBody(ResponseBody responseBody) {
+		this.responseBody = responseBody;
+	}
+
 	public String getHeadersList() {
 		return headersList;
 	}
@@ -0,0 +1,136 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.core.benchmark;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The measurements of a single benchmark run: the latency of each operation,
+ * the total measured time and the number of bytes allocated by the
+ * benchmarking thread.
+ * 
+ * @author xcoulon
+ *
+ */
+public class BenchmarkResult {
+
+	/** The header of the CSV lines produced by {@link #toCsv()}. */
+	public static final String CSV_HEADER = "benchmark,operations,throughput(ops/s),p50(ms),p90(ms),p99(ms),max(ms),allocation(bytes/op)";
+
+	private final String name;
+
+	/** the latencies of the measured operations, in nanoseconds, sorted. */
+	private final long[] latencies;
+
+	private final long totalTime;
+
+	private final long allocatedBytes;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param name
+	 *            the name of the benchmark
+	 * @param latencies
+	 *            the latency of each measured operation, in nanoseconds
+	 * @param totalTime
+	 *            the total measured time, in nanoseconds
+	 * @param allocatedBytes
+	 *            the number of bytes allocated during the measured
+	 *            operations, or {@code -1} if allocations could not be
+	 *            measured on this JVM
+	 */
+	public BenchmarkResult(final String name, final long[] latencies, final long totalTime, final long allocatedBytes) {
+		this.name = name;
+		this.latencies = latencies.clone();
+		Arrays.sort(this.latencies);
+		this.totalTime = totalTime;
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getOperations() {
+		return latencies.length;
+	}
+
+	/**
+	 * @return the number of operations per second
+	 */
+	public double getThroughput() {
+		if (totalTime == 0) {
+			return 0;
+		}
+		return latencies.length * 1000000000d / totalTime;
+	}
+
+	/**
+	 * @param percentile
+	 *            the percentile, between 0 and 100
+	 * @return the latency at the given percentile (nearest-rank), in
+	 *         milliseconds
+	 */
+	public double getPercentile(final double percentile) {
+		if (latencies.length == 0) {
+			return 0;
+		}
+		final int rank = (int) Math.ceil(percentile / 100 * latencies.length);
+		return toMillis(latencies[Math.min(Math.max(rank - 1, 0), latencies.length - 1)]);
+	}
+
+	/**
+	 * @return the highest latency, in milliseconds
+	 */
+	public double getMax() {
+		if (latencies.length == 0) {
+			return 0;
+		}
+		return toMillis(latencies[latencies.length - 1]);
+	}
+
+	/**
+	 * @return the average number of bytes allocated per operation, or
+	 *         {@code -1} if allocations could not be measured
+	 */
+	public long getAllocatedBytesPerOperation() {
+		if (allocatedBytes < 0 || latencies.length == 0) {
+			return -1;
+		}
+		return allocatedBytes / latencies.length;
+	}
+
+	/**
+	 * @return this result as a single CSV line, matching the
+	 *         {@link #CSV_HEADER}
+	 */
+	public String toCsv() {
+		return String.format(Locale.ENGLISH, "%s,%d,%.2f,%.3f,%.3f,%.3f,%.3f,%d", name, getOperations(),
+				getThroughput(), getPercentile(50), getPercentile(90), getPercentile(99), getMax(),
+				getAllocatedBytesPerOperation());
+	}
+
+	@Override
+	public String toString() {
+		return String.format(Locale.ENGLISH,
+				"%s: %d ops, %.2f ops/s, p50=%.3fms, p90=%.3fms, p99=%.3fms, max=%.3fms, %s", name,
+				getOperations(), getThroughput(), getPercentile(50), getPercentile(90), getPercentile(99),
+				getMax(), (allocatedBytes < 0 ? "allocation n/a" : getAllocatedBytesPerOperation() + " bytes/op"));
+	}
+
+	private static double toMillis(final long nanos) {
+		return nanos / 1000000d;
+	}
+
+}
@@ -0,0 +1,229 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.core.benchmark;
+
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.Properties;
+
+import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
+
+/**
+ * A minimal benchmark harness, running within the OSGi test runtime (where
+ * the JAX-RS Metamodel can be built against a real workspace). Each benchmark
+ * runs a number of warmup iterations followed by a number of measured
+ * iterations, and the measured operations are reported as a
+ * {@link BenchmarkResult}.
+ * <p>
+ * The harness is configured with the following system properties:
+ * <ul>
+ * <li>{@code benchmark.warmupIterations}: the number of warmup iterations
+ * (default: 5)</li>
+ * <li>{@code benchmark.iterations}: the number of measured iterations
+ * (default: 10)</li>
+ * <li>{@code benchmark.operationsPerIteration}: the number of operations in
+ * each iteration (default: 10)</li>
+ * <li>{@code benchmark.results}: the CSV file to which results are appended
+ * (default: {@code target/benchmark-results.csv})</li>
+ * <li>{@code benchmark.baseline}: an optional properties file containing the
+ * expected 90th percentile latency of each benchmark (in milliseconds, keyed
+ * by {@code <benchmark name>.p90}). A benchmark fails if its 90th percentile
+ * exceeds its baseline by more than {@code benchmark.tolerance} (default:
+ * 0.2, i.e., 20%).</li>
+ * </ul>
+ * </p>
+ * 
+ * @author xcoulon
+ *
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * A benchmarked operation.
+	 */
+	public interface Operation {
+
+		void run() throws Exception;
+
+	}
+
+	private final int warmupIterations;
+
+	private final int iterations;
+
+	private final int operationsPerIteration;
+
+	/**
+	 * Default constructor, using the system properties (or their default
+	 * values) to configure the number of iterations.
+	 */
+	public BenchmarkRunner() {
+		this(Integer.getInteger("benchmark.operationsPerIteration", 10));
+	}
+
+	/**
+	 * Constructor for long running operations, using the system properties
+	 * (or their default values) to configure the number of iterations, but
+	 * with the given number of operations per iteration.
+	 * 
+	 * @param operationsPerIteration
+	 *            the number of operations in each iteration
+	 */
+	public BenchmarkRunner(final int operationsPerIteration) {
+		this(Integer.getInteger("benchmark.warmupIterations", 5), Integer.getInteger("benchmark.iterations", 10),
+				operationsPerIteration);
+	}
+
+	/**
+	 * Full constructor.
+	 * 
+	 * @param warmupIterations
+	 *            the number of warmup iterations, whose operations are not
+	 *            measured
+	 * @param iterations
+	 *            the number of measured iterations
+	 * @param operationsPerIteration
+	 *            the number of operations in each iteration
+	 */
+	public BenchmarkRunner(final int warmupIterations, final int iterations, final int operationsPerIteration) {
+		this.warmupIterations = warmupIterations;
+		this.iterations = iterations;
+		this.operationsPerIteration = operationsPerIteration;
+	}
+
+	/**
+	 * Runs the given {@link Operation}, then reports the result and verifies
+	 * it against the baseline, if any.
+	 * 
+	 * @param name
+	 *            the name of the benchmark
+	 * @param operation
+	 *            the operation to run
+	 * @return the benchmark result
+	 * @throws Exception
+	 *             if the operation failed
+	 */
+	public BenchmarkResult run(final String name, final Operation operation) throws Exception {
+		for (int i = 0; i < warmupIterations * operationsPerIteration; i++) {
+			operation.run();
+		}
+		final long[] latencies = new long[iterations * operationsPerIteration];
+		final long threadId = Thread.currentThread().getId();
+		final long allocatedBytesBefore = getThreadAllocatedBytes(threadId);
+		long totalTime = 0;
+		for (int i = 0; i < latencies.length; i++) {
+			final long start = System.nanoTime();
+			operation.run();
+			latencies[i] = System.nanoTime() - start;
+			totalTime += latencies[i];
+		}
+		final long allocatedBytesAfter = getThreadAllocatedBytes(threadId);
+		final long allocatedBytes = (allocatedBytesBefore < 0 || allocatedBytesAfter < 0) ? -1
+				: allocatedBytesAfter - allocatedBytesBefore;
+		final BenchmarkResult result = new BenchmarkResult(name, latencies, totalTime, allocatedBytes);
+		report(result);
+		verifyBaseline(result);
+		return result;
+	}
+
+	/**
+	 * Logs the given result and appends it to the results file.
+	 * 
+	 * @param result
+	 *            the result to report
+	 */
+	private static void report(final BenchmarkResult result) {
+		Logger.info("Benchmark result: " + result);
+		final File resultsFile = new File(System.getProperty("benchmark.results", "target/benchmark-results.csv"));
+		final boolean newFile = !resultsFile.exists();
+		if (resultsFile.getParentFile() != null) {
+			resultsFile.getParentFile().mkdirs();
+		}
+		PrintWriter writer = null;
+		try {
+			writer = new PrintWriter(new FileWriter(resultsFile, true));
+			if (newFile) {
+				writer.println(BenchmarkResult.CSV_HEADER);
+			}
+			writer.println(result.toCsv());
+		} catch (IOException e) {
+			Logger.warn("Failed to write benchmark results into " + resultsFile, e);
+		} finally {
+			if (writer != null) {
+				writer.close();
+			}
+		}
+	}
+
+	/**
+	 * Fails if the 90th percentile latency of the given result exceeds its
+	 * baseline (if any) by more than the configured tolerance.
+	 * 
+	 * @param result
+	 *            the result to verify
+	 * @throws IOException
+	 *             if the baseline file could not be read
+	 */
+	private static void verifyBaseline(final BenchmarkResult result) throws IOException {
+		final String baselineLocation = System.getProperty("benchmark.baseline");
+		if (baselineLocation == null) {
+			return;
+		}
+		final Properties baseline = new Properties();
+		final InputStream stream = new FileInputStream(baselineLocation);
+		try {
+			baseline.load(stream);
+		} finally {
+			stream.close();
+		}
+		final String expectedValue = baseline.getProperty(result.getName() + ".p90");
+		if (expectedValue == null) {
+			return;
+		}
+		final double expected = Double.parseDouble(expectedValue);
+		final double tolerance = Double.parseDouble(System.getProperty("benchmark.tolerance", "0.2"));
+		final double actual = result.getPercentile(90);
+		if (actual > expected * (1 + tolerance)) {
+			fail(String.format(Locale.ENGLISH, "Performance regression in %s: p90=%.3fms, baseline=%.3fms (+%.0f%%)",
+					result.getName(), actual, expected, (actual / expected - 1) * 100));
+		}
+	}
+
+	/**
+	 * @param threadId
+	 *            the thread identifier
+	 * @return the number of bytes allocated so far by the given thread, or
+	 *         {@code -1} if the JVM does not support this measurement
+	 */
+	private static long getThreadAllocatedBytes(final long threadId) {
+		final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		try {
+			// com.sun.management.ThreadMXBean is not available on all JVMs
+			final Method method = Class.forName("com.sun.management.ThreadMXBean").getMethod(
+					"getThreadAllocatedBytes", long.class);
+			return (Long) method.invoke(threadMXBean, threadId);
+		} catch (Exception e) {
+			return -1;
+		}
+	}
+
+}
@@ -0,0 +1,96 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+
+package org.jboss.tools.ws.jaxrs.core.benchmark;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertThat;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.jboss.tools.ws.jaxrs.core.benchmark.BenchmarkRunner.Operation;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.core.junitrules.JaxrsMetamodelMonitor;
+import org.jboss.tools.ws.jaxrs.core.junitrules.TestBanner;
+import org.jboss.tools.ws.jaxrs.core.junitrules.WorkbenchTasks;
+import org.jboss.tools.ws.jaxrs.core.junitrules.WorkspaceSetupRule;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Benchmarks the full build of the JAX-RS Metamodel (i.e.,
+ * {@link JaxrsMetamodel#processProject(org.eclipse.core.runtime.IProgressMonitor)}
+ * ) on the sample project and on a synthetic project.
+ * 
+ * @author xcoulon
+ *
+ */
+public class JaxrsMetamodelBuildBenchmark {
+
+	private static final String PROJECT_NAME = "org.jboss.tools.ws.jaxrs.tests.sampleproject";
+
+	@ClassRule
+	public static WorkspaceSetupRule workspaceSetupRule = new WorkspaceSetupRule(PROJECT_NAME);
+
+	@Rule
+	public JaxrsMetamodelMonitor metamodelMonitor = new JaxrsMetamodelMonitor(PROJECT_NAME, true);
+
+	@Rule
+	public TestBanner watcher = new TestBanner();
+
+	/** a full build is a long running operation: one build per iteration. */
+	private final BenchmarkRunner runner = new BenchmarkRunner(1);
+
+	private JaxrsMetamodel metamodel = null;
+
+	@Before
+	public void setup() {
+		metamodel = metamodelMonitor.getMetamodel();
+	}
+
+	@Test
+	public void benchmarkProcessSampleProject() throws Exception {
+		// operation
+		runner.run("processProject.sample", new ProcessProjectOperation());
+		// verification
+		assertThat(metamodel.getAllEndpoints().size(), greaterThan(0));
+	}
+
+	@Test
+	public void benchmarkProcessSyntheticProject() throws Exception {
+		// pre-condition
+		final SyntheticProjectGenerator generator = new SyntheticProjectGenerator();
+		generator.generate(metamodelMonitor.getJavaProject());
+		WorkbenchTasks.waitForTasksToComplete(metamodelMonitor.getProject().getWorkspace());
+		// operation
+		runner.run("processProject.synthetic." + generator.getResources() + "x" + generator.getMethods(),
+				new ProcessProjectOperation());
+		// verification
+		assertThat(metamodel.getAllEndpoints().size(), greaterThan(generator.getResources() * generator.getMethods()));
+	}
+
+	/**
+	 * Processes the whole project, then discards the resulting notifications
+	 * to avoid accumulating them in the {@link JaxrsMetamodelMonitor}.
+	 */
+	private class ProcessProjectOperation implements Operation {
+
+		@Override
+		public void run() throws Exception {
+			metamodel.processProject(new NullProgressMonitor());
+			metamodelMonitor.resetElementChangesNotifications();
+		}
+
+	}
+
+}
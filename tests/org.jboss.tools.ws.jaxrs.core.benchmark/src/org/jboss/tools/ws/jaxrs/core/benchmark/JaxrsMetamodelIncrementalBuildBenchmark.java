@@ -0,0 +1,186 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+
+package org.jboss.tools.ws.jaxrs.core.benchmark;
+
+import static org.eclipse.jdt.core.ElementChangedEvent.POST_RECONCILE;
+import static org.eclipse.jdt.core.IJavaElementDelta.CHANGED;
+import static org.eclipse.jdt.core.IJavaElementDelta.F_CONTENT;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.jboss.tools.ws.jaxrs.core.benchmark.BenchmarkRunner.Operation;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.JavaElementChangedEvent;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.core.jdt.Flags;
+import org.jboss.tools.ws.jaxrs.core.jdt.JdtUtils;
+import org.jboss.tools.ws.jaxrs.core.junitrules.JaxrsMetamodelMonitor;
+import org.jboss.tools.ws.jaxrs.core.junitrules.TestBanner;
+import org.jboss.tools.ws.jaxrs.core.junitrules.WorkbenchTasks;
+import org.jboss.tools.ws.jaxrs.core.junitrules.WorkspaceSetupRule;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Benchmarks the incremental build of the JAX-RS Metamodel (i.e.,
+ * {@link JaxrsMetamodel#processJavaElementChange(JavaElementChangedEvent, org.eclipse.core.runtime.IProgressMonitor)}
+ * ), as it happens when a Java Editor is reconciled.
+ * 
+ * @author xcoulon
+ *
+ */
+public class JaxrsMetamodelIncrementalBuildBenchmark {
+
+	private static final String PROJECT_NAME = "org.jboss.tools.ws.jaxrs.tests.sampleproject";
+
+	@ClassRule
+	public static WorkspaceSetupRule workspaceSetupRule = new WorkspaceSetupRule(PROJECT_NAME);
+
+	@Rule
+	public JaxrsMetamodelMonitor metamodelMonitor = new JaxrsMetamodelMonitor(PROJECT_NAME, true);
+
+	@Rule
+	public TestBanner watcher = new TestBanner();
+
+	private final BenchmarkRunner runner = new BenchmarkRunner();
+
+	private JaxrsMetamodel metamodel = null;
+
+	@Before
+	public void setup() {
+		metamodel = metamodelMonitor.getMetamodel();
+	}
+
+	@Test
+	public void benchmarkResourceChange() throws Exception {
+		// pre-condition
+		final IType customerResourceType = metamodelMonitor
+				.resolveType("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource");
+		// operation
+		runner.run("processJavaElementChange.resource", new JavaElementChangeOperation(
+				customerResourceType.getCompilationUnit()));
+	}
+
+	@Test
+	public void benchmarkResourceMethodChange() throws Exception {
+		// pre-condition
+		final IMethod resourceMethod = metamodelMonitor.resolveMethod(
+				"org.jboss.tools.ws.jaxrs.sample.services.CustomerResource", "getCustomer");
+		// operation
+		runner.run("processJavaElementChange.resourceMethod", new JavaElementChangeOperation(resourceMethod));
+	}
+
+	@Test
+	public void benchmarkResourceMethodEdit() throws Exception {
+		// pre-condition: the compilation unit is edited in a working copy, as
+		// in a Java Editor
+		final IMethod resourceMethod = metamodelMonitor.resolveMethod(
+				"org.jboss.tools.ws.jaxrs.sample.services.CustomerResource", "getCustomer");
+		final ICompilationUnit compilationUnit = resourceMethod.getCompilationUnit();
+		compilationUnit.becomeWorkingCopy(new NullProgressMonitor());
+		try {
+			// operation
+			runner.run("processJavaElementChange.resourceMethodEdit", new ResourceMethodEditOperation(
+					resourceMethod));
+		} finally {
+			compilationUnit.discardWorkingCopy();
+		}
+	}
+
+	@Test
+	public void benchmarkSyntheticResourceChange() throws Exception {
+		// pre-condition
+		final SyntheticProjectGenerator generator = new SyntheticProjectGenerator();
+		generator.generate(metamodelMonitor.getJavaProject());
+		WorkbenchTasks.waitForTasksToComplete(metamodelMonitor.getProject().getWorkspace());
+		metamodel.processProject(new NullProgressMonitor());
+		metamodelMonitor.resetElementChangesNotifications();
+		final IType syntheticResourceType = metamodelMonitor.resolveType(SyntheticProjectGenerator
+				.getResourceQualifiedName(generator.getResources() / 2));
+		// operation
+		runner.run("processJavaElementChange.synthetic." + generator.getResources() + "x" + generator.getMethods(),
+				new JavaElementChangeOperation(syntheticResourceType.getCompilationUnit()));
+	}
+
+	/**
+	 * Processes a content change on a given java element whose source was not
+	 * actually modified (i.e., the cost of a no-op reconcile), then discards the
+	 * resulting notifications to avoid accumulating them in the
+	 * {@link JaxrsMetamodelMonitor}.
+	 */
+	private class JavaElementChangeOperation implements Operation {
+
+		private final IJavaElement element;
+
+		private final CompilationUnit ast;
+
+		JavaElementChangeOperation(final IJavaElement element) throws Exception {
+			this.element = element;
+			this.ast = JdtUtils.parse(element, new NullProgressMonitor());
+		}
+
+		@Override
+		public void run() throws Exception {
+			metamodel.processJavaElementChange(new JavaElementChangedEvent(element, CHANGED, POST_RECONCILE, ast,
+					new Flags(F_CONTENT)), new NullProgressMonitor());
+			metamodelMonitor.resetElementChangesNotifications();
+		}
+
+	}
+
+	/**
+	 * Edits the {@code @Path} annotation value of a resource method (toggling
+	 * between two values, so that each operation actually changes the
+	 * metamodel), then parses the edited compilation unit and processes the
+	 * change, as a reconcile of the Java Editor would.
+	 */
+	private class ResourceMethodEditOperation implements Operation {
+
+		private static final String PATH = "@Path(\"{id}\")";
+
+		private static final String EDITED_PATH = "@Path(\"{id}/edited\")";
+
+		private final IMethod method;
+
+		private boolean edited = false;
+
+		ResourceMethodEditOperation(final IMethod method) {
+			this.method = method;
+		}
+
+		@Override
+		public void run() throws Exception {
+			final String oldContent = edited ? EDITED_PATH : PATH;
+			final String newContent = edited ? PATH : EDITED_PATH;
+			final IBuffer buffer = method.getCompilationUnit().getBuffer();
+			final int offset = buffer.getContents().indexOf(oldContent, method.getSourceRange().getOffset());
+			if (offset == -1) {
+				throw new IllegalStateException("Content '" + oldContent + "' not found in " + method.getElementName());
+			}
+			buffer.replace(offset, oldContent.length(), newContent);
+			edited = !edited;
+			final CompilationUnit ast = JdtUtils.parse(method, new NullProgressMonitor());
+			metamodel.processJavaElementChange(new JavaElementChangedEvent(method, CHANGED, POST_RECONCILE, ast,
+					new Flags(F_CONTENT)), new NullProgressMonitor());
+			metamodelMonitor.resetElementChangesNotifications();
+		}
+
+	}
+
+}
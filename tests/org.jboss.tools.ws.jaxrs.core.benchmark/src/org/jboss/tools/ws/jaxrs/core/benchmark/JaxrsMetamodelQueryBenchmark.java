@@ -0,0 +1,127 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+
+package org.jboss.tools.ws.jaxrs.core.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
+import org.jboss.tools.ws.jaxrs.core.benchmark.BenchmarkRunner.Operation;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.core.junitrules.JaxrsMetamodelMonitor;
+import org.jboss.tools.ws.jaxrs.core.junitrules.TestBanner;
+import org.jboss.tools.ws.jaxrs.core.junitrules.WorkbenchTasks;
+import org.jboss.tools.ws.jaxrs.core.junitrules.WorkspaceSetupRule;
+import org.jboss.tools.ws.jaxrs.core.utils.JaxrsClassnames;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Benchmarks the queries on a JAX-RS Metamodel built on a synthetic project,
+ * which are all resolved by searches in the metamodel index.
+ * 
+ * @author xcoulon
+ *
+ */
+public class JaxrsMetamodelQueryBenchmark {
+
+	private static final String PROJECT_NAME = "org.jboss.tools.ws.jaxrs.tests.sampleproject";
+
+	@ClassRule
+	public static WorkspaceSetupRule workspaceSetupRule = new WorkspaceSetupRule(PROJECT_NAME);
+
+	@Rule
+	public JaxrsMetamodelMonitor metamodelMonitor = new JaxrsMetamodelMonitor(PROJECT_NAME, true);
+
+	@Rule
+	public TestBanner watcher = new TestBanner();
+
+	/** queries are short: use larger iterations. */
+	private final BenchmarkRunner runner = new BenchmarkRunner(1000);
+
+	private JaxrsMetamodel metamodel = null;
+
+	private final List<IType> resourceTypes = new ArrayList<IType>();
+
+	private final List<IMethod> resourceMethods = new ArrayList<IMethod>();
+
+	private String suffix = null;
+
+	@Before
+	public void setup() throws Exception {
+		metamodel = metamodelMonitor.getMetamodel();
+		final SyntheticProjectGenerator generator = new SyntheticProjectGenerator();
+		generator.generate(metamodelMonitor.getJavaProject());
+		WorkbenchTasks.waitForTasksToComplete(metamodelMonitor.getProject().getWorkspace());
+		metamodel.processProject(new NullProgressMonitor());
+		metamodelMonitor.resetElementChangesNotifications();
+		for (int i = 0; i < generator.getResources(); i++) {
+			final IType resourceType = metamodelMonitor.resolveType(SyntheticProjectGenerator
+					.getResourceQualifiedName(i));
+			resourceTypes.add(resourceType);
+			for (IMethod method : resourceType.getMethods()) {
+				resourceMethods.add(method);
+			}
+		}
+		suffix = ".synthetic." + generator.getResources() + "x" + generator.getMethods();
+	}
+
+	@Test
+	public void benchmarkFindEndpoints() throws Exception {
+		runner.run("findEndpoints" + suffix, new Operation() {
+			private int index = 0;
+
+			@Override
+			public void run() throws Exception {
+				metamodel.findEndpoints(resourceMethods.get(index++ % resourceMethods.size()));
+			}
+		});
+	}
+
+	@Test
+	public void benchmarkFindElements() throws Exception {
+		runner.run("findElements" + suffix, new Operation() {
+			private int index = 0;
+
+			@Override
+			public void run() throws Exception {
+				metamodel.findElements(resourceTypes.get(index++ % resourceTypes.size()));
+			}
+		});
+	}
+
+	@Test
+	public void benchmarkFindResourceMethodsByAnnotation() throws Exception {
+		runner.run("findResourceMethodsByAnnotation" + suffix, new Operation() {
+			@Override
+			public void run() throws Exception {
+				metamodel.findResourceMethodsByAnnotation(JaxrsClassnames.GET);
+			}
+		});
+	}
+
+	@Test
+	public void benchmarkGetAllEndpoints() throws Exception {
+		runner.run("getAllEndpoints" + suffix, new Operation() {
+			@Override
+			public void run() throws Exception {
+				metamodel.getAllEndpoints();
+			}
+		});
+	}
+
+}
@@ -0,0 +1,140 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.core.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+
+/**
+ * Generates synthetic JAX-RS resources in the source folder of a test project,
+ * so that the metamodel can be benchmarked on larger projects than the sample
+ * ones. The number of generated resources and the number of resource methods
+ * per resource can be set with the {@code benchmark.resources} (default: 100)
+ * and {@code benchmark.methods} (default: 10) system properties.
+ * 
+ * @author xcoulon
+ *
+ */
+public class SyntheticProjectGenerator {
+
+	/** The package in which the synthetic resources are generated. */
+	public static final String PACKAGE_NAME = "org.jboss.tools.ws.jaxrs.sample.synthetic";
+
+	private static final String[] HTTP_METHODS = new String[] { "GET", "POST", "PUT", "DELETE" };
+
+	private final int resources;
+
+	private final int methods;
+
+	/**
+	 * Default constructor, using the system properties (or their default
+	 * values) to set the size of the generated code.
+	 */
+	public SyntheticProjectGenerator() {
+		this(Integer.getInteger("benchmark.resources", 100), Integer.getInteger("benchmark.methods", 10));
+	}
+
+	/**
+	 * Full constructor.
+	 * 
+	 * @param resources
+	 *            the number of resources to generate
+	 * @param methods
+	 *            the number of resource methods in each resource
+	 */
+	public SyntheticProjectGenerator(final int resources, final int methods) {
+		this.resources = resources;
+		this.methods = methods;
+	}
+
+	public int getResources() {
+		return resources;
+	}
+
+	public int getMethods() {
+		return methods;
+	}
+
+	/**
+	 * Generates the synthetic resources in the {@code src/main/java} source
+	 * folder of the given project.
+	 * 
+	 * @param javaProject
+	 *            the target project
+	 * @return the generated compilation units
+	 * @throws CoreException
+	 */
+	public List<ICompilationUnit> generate(final IJavaProject javaProject) throws CoreException {
+		final IPackageFragmentRoot sourceFolder = javaProject.findPackageFragmentRoot(javaProject.getProject()
+				.getFullPath().append("src/main/java"));
+		final IPackageFragment packageFragment = sourceFolder.createPackageFragment(PACKAGE_NAME, true,
+				new NullProgressMonitor());
+		final List<ICompilationUnit> compilationUnits = new ArrayList<ICompilationUnit>(resources);
+		for (int i = 0; i < resources; i++) {
+			final String typeName = getResourceName(i);
+			compilationUnits.add(packageFragment.createCompilationUnit(typeName + ".java",
+					generateResource(typeName, i), true, new NullProgressMonitor()));
+		}
+		return compilationUnits;
+	}
+
+	/**
+	 * @param index
+	 *            the index of the resource
+	 * @return the simple name of the resource at the given index
+	 */
+	public static String getResourceName(final int index) {
+		return "SyntheticResource" + index;
+	}
+
+	/**
+	 * @param index
+	 *            the index of the resource
+	 * @return the fully qualified name of the resource at the given index
+	 */
+	public static String getResourceQualifiedName(final int index) {
+		return PACKAGE_NAME + "." + getResourceName(index);
+	}
+
+	private String generateResource(final String typeName, final int index) {
+		final StringBuilder source = new StringBuilder(512 + methods * 256);
+		source.append("package ").append(PACKAGE_NAME).append(";\n\n");
+		source.append("import javax.ws.rs.*;\n");
+		source.append("import javax.ws.rs.core.MediaType;\n");
+		source.append("import javax.ws.rs.core.Response;\n\n");
+		source.append("@Path(\"/synthetic").append(index).append("\")\n");
+		source.append("@Produces(MediaType.APPLICATION_JSON)\n");
+		source.append("public class ").append(typeName).append(" {\n\n");
+		for (int j = 0; j < methods; j++) {
+			final String httpMethod = HTTP_METHODS[j % HTTP_METHODS.length];
+			source.append("\t@").append(httpMethod).append('\n');
+			source.append("\t@Path(\"/item").append(j).append("/{id}\")\n");
+			if (!httpMethod.equals("GET") && !httpMethod.equals("DELETE")) {
+				source.append("\t@Consumes(MediaType.APPLICATION_XML)\n");
+			}
+			source.append("\tpublic Response method").append(j)
+					.append("(@PathParam(\"id\") Integer id, @QueryParam(\"start\") @DefaultValue(\"0\") int start) {\n");
+			source.append("\t\treturn Response.ok().build();\n");
+			source.append("\t}\n\n");
+		}
+		source.append("}\n");
+		return source.toString();
+	}
+
+}
@@ -28,6 +28,7 @@ import static org.jboss.tools.ws.jaxrs.core.junitrules.JavaElementsUtils.createA
 import static org.jboss.tools.ws.jaxrs.core.junitrules.JavaElementsUtils.createMethod;
 import static org.jboss.tools.ws.jaxrs.core.junitrules.JavaElementsUtils.getAnnotation;
 import static org.jboss.tools.ws.jaxrs.core.junitrules.JavaElementsUtils.removeFirstOccurrenceOfCode;
+import static org.jboss.tools.ws.jaxrs.core.junitrules.JavaElementsUtils.replaceAnnotation;
 import static org.jboss.tools.ws.jaxrs.core.junitrules.ResourcesUtils.replaceAllOccurrencesOfCode;
 import static org.jboss.tools.ws.jaxrs.core.junitrules.ResourcesUtils.replaceFirstOccurrenceOfCode;
 import static org.jboss.tools.ws.jaxrs.core.metamodel.domain.JaxrsElementDelta.F_CONSUMES_ANNOTATION;
@@ -1035,8 +1036,7 @@ public class JavaElement11ChangedProcessingTestCase {
 	public void shouldUpdateResourceFieldWhenChangingPathParamAnnotationValueOnField() throws CoreException {
 		final JaxrsResource resource = metamodelMonitor
 				.createResource("org.jboss.tools.ws.jaxrs.sample.services.ProductResourceLocator");
-		final Annotation fieldAnnotation = resource.getField("_pType").getAnnotation(PATH_PARAM);
-		fieldAnnotation.update(createAnnotation(PATH_PARAM, "foobar"));
+		final Annotation fieldAnnotation = replaceAnnotation(resource.getField("_pType").getAnnotations(), PATH_PARAM, "foobar");
 		metamodelMonitor.resetElementChangesNotifications();
 		// operation
 		metamodelMonitor.processEvent(fieldAnnotation, CHANGED);
@@ -1051,8 +1051,7 @@ public class JavaElement11ChangedProcessingTestCase {
 	public void shouldUpdateResourceFieldWhenChangingQueryParamAnnotationValueOnField() throws CoreException {
 		final JaxrsResource resource = metamodelMonitor
 				.createResource("org.jboss.tools.ws.jaxrs.sample.services.ProductResourceLocator");
-		final Annotation fieldAnnotation = resource.getField("_foo").getAnnotation(QUERY_PARAM);
-		fieldAnnotation.update(createAnnotation(QUERY_PARAM, "foobar"));
+		final Annotation fieldAnnotation = replaceAnnotation(resource.getField("_foo").getAnnotations(), QUERY_PARAM, "foobar");
 		metamodelMonitor.resetElementChangesNotifications();
 		// operation
 		metamodelMonitor.processEvent(fieldAnnotation, CHANGED);
@@ -1067,8 +1066,7 @@ public class JavaElement11ChangedProcessingTestCase {
 	public void shouldUpdateResourceFieldWhenChangingMatrixParamAnnotationValueOnField() throws CoreException {
 		final JaxrsResource resource = metamodelMonitor
 				.createResource("org.jboss.tools.ws.jaxrs.sample.services.ProductResourceLocator");
-		final Annotation fieldAnnotation = resource.getField("_bar").getAnnotation(MATRIX_PARAM);
-		fieldAnnotation.update(createAnnotation(MATRIX_PARAM, "foobar"));
+		final Annotation fieldAnnotation = replaceAnnotation(resource.getField("_bar").getAnnotations(), MATRIX_PARAM, "foobar");
 		metamodelMonitor.resetElementChangesNotifications();
 		// operation
 		metamodelMonitor.processEvent(fieldAnnotation, CHANGED);
@@ -1310,8 +1308,7 @@ public class JavaElement11ChangedProcessingTestCase {
 		final JaxrsResource resource = metamodelMonitor
 				.createResource("org.jboss.tools.ws.jaxrs.sample.services.ProductResourceLocator");
 		final IMethod method = metamodelMonitor.resolveMethod(resource.getJavaElement(), "setQux1");
-		final Annotation queryParamAnnotation = resource.getProperties().get(method.getHandleIdentifier()).getAnnotation(QUERY_PARAM);
-		queryParamAnnotation.update(createAnnotation(QUERY_PARAM, "foobar"));
+		final Annotation queryParamAnnotation = replaceAnnotation(resource.getProperties().get(method.getHandleIdentifier()).getAnnotations(), QUERY_PARAM, "foobar");
 		metamodelMonitor.resetElementChangesNotifications();
 		// operation
 		metamodelMonitor.processEvent(queryParamAnnotation, CHANGED);
@@ -1330,8 +1327,7 @@ public class JavaElement11ChangedProcessingTestCase {
 		final JaxrsResource resource = metamodelMonitor
 				.createResource("org.jboss.tools.ws.jaxrs.sample.services.ProductResourceLocator");
 		final IMethod method = metamodelMonitor.resolveMethod(resource.getJavaElement(), "setQux2");
-		final Annotation queryParamAnnotation = resource.getProperties().get(method.getHandleIdentifier()).getAnnotation(MATRIX_PARAM);
-		queryParamAnnotation.update(createAnnotation(PATH_PARAM, "foobar"));
+		final Annotation queryParamAnnotation = replaceAnnotation(resource.getProperties().get(method.getHandleIdentifier()).getAnnotations(), MATRIX_PARAM, "foobar");
 		metamodelMonitor.resetElementChangesNotifications();
 		// operation
 		metamodelMonitor.processEvent(queryParamAnnotation, CHANGED);
@@ -1350,8 +1346,7 @@ public class JavaElement11ChangedProcessingTestCase {
 		final JaxrsResource resource = metamodelMonitor
 				.createResource("org.jboss.tools.ws.jaxrs.sample.services.ProductResourceLocator");
 		final IMethod method = metamodelMonitor.resolveMethod(resource.getJavaElement(), "setQux3");
-		final Annotation queryParamAnnotation = resource.getProperties().get(method.getHandleIdentifier()).getAnnotation(PATH_PARAM);
-		queryParamAnnotation.update(createAnnotation(PATH_PARAM, "foobar"));
+		final Annotation queryParamAnnotation = replaceAnnotation(resource.getProperties().get(method.getHandleIdentifier()).getAnnotations(), PATH_PARAM, "foobar");
 		metamodelMonitor.resetElementChangesNotifications();
 		// operation
 		metamodelMonitor.processEvent(queryParamAnnotation, CHANGED);
@@ -1978,8 +1973,7 @@ public class JavaElement11ChangedProcessingTestCase {
 				.createResource("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource");
 		final JaxrsResourceMethod resourceMethod = metamodelMonitor.resolveResourceMethod(resource, "getCustomer");
 		final JavaMethodParameter javaMethodParameter = (JavaMethodParameter) resourceMethod.getJavaMethodParameterByName("id");
-		final Annotation annotation = javaMethodParameter.getAnnotation(PATH_PARAM);
-		annotation.update(createAnnotation(annotation, "foo"));
+		replaceAnnotation(javaMethodParameter.getAnnotations(), PATH_PARAM, "foo");
 		metamodelMonitor.resetElementChangesNotifications();
 		// operation
 		metamodelMonitor.processEvent(resourceMethod.getJavaElement(), CHANGED);
@@ -2084,8 +2078,7 @@ public class JavaElement11ChangedProcessingTestCase {
 		// JAX-RS Resource Method (QueryParam value is different: "length" vs
 		// "size" on second param)
 		final JaxrsResourceMethod resourceMethod = metamodelMonitor.resolveResourceMethod(resource, "getCustomers");
-		resourceMethod.getJavaMethodParameterByName("size").getAnnotation(QUERY_PARAM)
-				.update(createAnnotation(QUERY_PARAM, "length"));
+		replaceAnnotation(resourceMethod.getJavaMethodParameterByName("size").getAnnotations(), QUERY_PARAM, "length");
 		metamodelMonitor.resetElementChangesNotifications();
 		// operation
 		metamodelMonitor.processEvent(resourceMethod.getJavaElement(), CHANGED);
@@ -2148,8 +2141,7 @@ public class JavaElement11ChangedProcessingTestCase {
 		// JAX-RS Resource Method (MATRIX_PARAM value is
 		// different: "foo" vs "color" on second param)
 		final JaxrsResourceMethod resourceMethod = metamodelMonitor.resolveResourceMethod(resource, "getPicture");
-		resourceMethod.getJavaMethodParameterByName("c").getAnnotation(MATRIX_PARAM)
-				.update(createAnnotation(MATRIX_PARAM, "foo"));
+		replaceAnnotation(resourceMethod.getJavaMethodParameterByName("c").getAnnotations(), MATRIX_PARAM, "foo");
 		metamodelMonitor.resetElementChangesNotifications();
 		// operation
 		metamodelMonitor.processEvent(resourceMethod.getJavaElement(), CHANGED);
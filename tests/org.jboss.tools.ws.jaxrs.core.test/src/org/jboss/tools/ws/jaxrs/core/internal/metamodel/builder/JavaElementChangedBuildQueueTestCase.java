@@ -0,0 +1,176 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder;
+
+import static org.eclipse.jdt.core.ElementChangedEvent.POST_RECONCILE;
+import static org.eclipse.jdt.core.IJavaElement.JAVA_PROJECT;
+import static org.eclipse.jdt.core.IJavaElement.METHOD;
+import static org.eclipse.jdt.core.IJavaElement.TYPE;
+import static org.eclipse.jdt.core.IJavaElementDelta.ADDED;
+import static org.eclipse.jdt.core.IJavaElementDelta.CHANGED;
+import static org.eclipse.jdt.core.IJavaElementDelta.F_CONTENT;
+import static org.eclipse.jdt.core.IJavaElementDelta.F_SIGNATURE;
+import static org.eclipse.jdt.core.IJavaElementDelta.REMOVED;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.jboss.tools.ws.jaxrs.core.jdt.Flags;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JavaElementChangedBuildQueueTestCase {
+
+	private IProject project;
+
+	private JavaElementChangedBuildQueue queue;
+
+	private IJavaProject javaProject;
+
+	private static JavaElementChangedEvent createEvent(IJavaElement element, int deltaKind, CompilationUnit ast, Flags flags) {
+		return new JavaElementChangedEvent(element, deltaKind, POST_RECONCILE, ast, flags);
+	}
+
+	private IJavaElement createMock(final Class<? extends IJavaElement> type, final int elementType, final String handleIdentifier) {
+		final IJavaElement mock = mock(type);
+		when(mock.getElementType()).thenReturn(elementType);
+		when(mock.getHandleIdentifier()).thenReturn(handleIdentifier);
+		when(mock.getJavaProject()).thenReturn(javaProject);
+		return mock;
+	}
+
+	@Before
+	public void setup() {
+		project = ResourcesPlugin.getWorkspace().getRoot().getProject("JavaElementChangedBuildQueueTestCase");
+		queue = JavaElementChangedBuildQueue.getQueue(project);
+		javaProject = mock(IJavaProject.class);
+		when(javaProject.getElementType()).thenReturn(JAVA_PROJECT);
+		when(javaProject.getHandleIdentifier()).thenReturn("=project");
+		when(javaProject.getJavaProject()).thenReturn(javaProject);
+	}
+
+	@After
+	public void tearDown() throws CoreException {
+		JavaElementChangedBuildQueue.removeQueue(project);
+		if (project.exists()) {
+			project.delete(true, true, new NullProgressMonitor());
+		}
+	}
+
+	@Test
+	public void shouldMergeSuccessiveChangesOnSameElement() {
+		// pre-condition
+		final IJavaElement method = createMock(IJavaElement.class, METHOD, "=project/src<foo{Foo.java[Foo~bar");
+		final CompilationUnit firstAST = mock(CompilationUnit.class);
+		final CompilationUnit lastAST = mock(CompilationUnit.class);
+		final long initialMergedChanges = queue.getMergedChangesCount();
+		// operation
+		final List<JavaElementChangedEvent> changes = queue.coalesce(Arrays.asList(
+				createEvent(method, CHANGED, firstAST, new Flags(F_SIGNATURE)),
+				createEvent(method, CHANGED, lastAST, new Flags(F_CONTENT))));
+		// verification
+		assertThat(changes.size(), equalTo(1));
+		assertThat(changes.get(0).getKind(), equalTo(CHANGED));
+		assertThat(changes.get(0).getCompilationUnitAST(), sameInstance(lastAST));
+		assertThat(changes.get(0).getFlags().getValue(), equalTo(F_SIGNATURE + F_CONTENT));
+		assertThat(queue.getMergedChangesCount() - initialMergedChanges, equalTo(1L));
+	}
+
+	@Test
+	public void shouldDropElementAddedThenRemoved() {
+		// pre-condition
+		final IJavaElement method = createMock(IJavaElement.class, METHOD, "=project/src<foo{Foo.java[Foo~bar");
+		final IJavaElement type = createMock(IJavaElement.class, TYPE, "=project/src<foo{Foo.java[Foo");
+		// operation
+		final List<JavaElementChangedEvent> changes = queue.coalesce(Arrays.asList(
+				createEvent(method, ADDED, null, Flags.NONE),
+				createEvent(type, CHANGED, null, Flags.NONE),
+				createEvent(method, REMOVED, null, Flags.NONE)));
+		// verification
+		assertThat(changes.size(), equalTo(1));
+		assertThat(changes.get(0).getElement(), sameInstance(type));
+	}
+
+	@Test
+	public void shouldKeepElementAddedThenChangedAsAdded() {
+		// pre-condition
+		final IJavaElement method = createMock(IJavaElement.class, METHOD, "=project/src<foo{Foo.java[Foo~bar");
+		final IJavaElement type = createMock(IJavaElement.class, TYPE, "=project/src<foo{Foo.java[Foo");
+		final CompilationUnit lastAST = mock(CompilationUnit.class);
+		// operation
+		final List<JavaElementChangedEvent> changes = queue.coalesce(Arrays.asList(
+				createEvent(method, ADDED, null, Flags.NONE),
+				createEvent(type, CHANGED, null, Flags.NONE),
+				createEvent(method, CHANGED, lastAST, new Flags(F_CONTENT))));
+		// verification: the merged change takes the position of the latest one
+		assertThat(changes.size(), equalTo(2));
+		assertThat(changes.get(0).getElement(), sameInstance(type));
+		assertThat(changes.get(1).getElement(), sameInstance(method));
+		assertThat(changes.get(1).getKind(), equalTo(ADDED));
+		assertThat(changes.get(1).getCompilationUnitAST(), sameInstance(lastAST));
+	}
+
+	@Test
+	public void shouldKeepElementRemovedThenAdded() {
+		// pre-condition
+		final IJavaElement method = createMock(IJavaElement.class, METHOD, "=project/src<foo{Foo.java[Foo~bar");
+		// operation
+		final List<JavaElementChangedEvent> changes = queue.coalesce(Arrays.asList(
+				createEvent(method, REMOVED, null, Flags.NONE),
+				createEvent(method, ADDED, null, Flags.NONE)));
+		// verification
+		assertThat(changes.size(), equalTo(2));
+		assertThat(changes.get(0).getKind(), equalTo(REMOVED));
+		assertThat(changes.get(1).getKind(), equalTo(ADDED));
+	}
+
+	@Test
+	public void shouldSupersedePreviousChangesWithProjectChange() {
+		// pre-condition
+		final IJavaElement method = createMock(IJavaElement.class, METHOD, "=project/src<foo{Foo.java[Foo~bar");
+		final IJavaElement type = createMock(IJavaElement.class, TYPE, "=project/src<foo{Foo.java[Foo");
+		// operation
+		final List<JavaElementChangedEvent> changes = queue.coalesce(Arrays.asList(
+				createEvent(method, REMOVED, null, Flags.NONE),
+				createEvent(method, ADDED, null, Flags.NONE),
+				createEvent(javaProject, CHANGED, null, Flags.NONE),
+				createEvent(type, CHANGED, null, Flags.NONE)));
+		// verification
+		assertThat(changes.size(), equalTo(2));
+		assertThat((IJavaProject) changes.get(0).getElement(), sameInstance(javaProject));
+		assertThat(changes.get(1).getElement(), sameInstance(type));
+	}
+
+	@Test
+	public void shouldRemoveQueueOfClosedOrDeletedProject() {
+		// pre-condition
+		assertThat(JavaElementChangedBuildQueue.getQueue(project), sameInstance(queue));
+		// operation
+		JavaElementChangedBuildQueue.removeQueue(project);
+		// verification
+		assertThat(JavaElementChangedBuildQueue.getQueue(project), not(sameInstance(queue)));
+	}
+
+}
@@ -17,6 +17,7 @@ import static org.eclipse.jdt.core.ElementChangedEvent.POST_RECONCILE;
 import static org.eclipse.jdt.core.IJavaElementDelta.ADDED;
 import static org.eclipse.jdt.core.IJavaElementDelta.CHANGED;
 import static org.eclipse.jdt.core.IJavaElementDelta.F_CONTENT;
+import static org.eclipse.jdt.core.IJavaElementDelta.F_FINE_GRAINED;
 import static org.eclipse.jdt.core.IJavaElementDelta.F_REMOVED_FROM_CLASSPATH;
 import static org.eclipse.jdt.core.IJavaElementDelta.F_SUPER_TYPES;
 import static org.eclipse.jdt.core.IJavaElementDelta.REMOVED;
@@ -40,11 +41,16 @@ import static org.jboss.tools.ws.jaxrs.core.junitrules.JavaElementsUtils.removeT
 import static org.jboss.tools.ws.jaxrs.core.junitrules.JavaElementsUtils.renameMethod;
 import static org.jboss.tools.ws.jaxrs.core.junitrules.ResourcesUtils.replaceAllOccurrencesOfCode;
 import static org.jboss.tools.ws.jaxrs.core.junitrules.ResourcesUtils.replaceFirstOccurrenceOfCode;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.util.EventObject;
 import java.util.List;
@@ -63,6 +69,7 @@ import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IElementChangedListener;
 import org.eclipse.jdt.core.IField;
 import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
@@ -75,6 +82,7 @@ import org.eclipse.ui.IEditorPart;
 import org.jboss.tools.ws.jaxrs.core.JBossJaxrsCorePlugin;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodel;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.TestLogger;
+import org.jboss.tools.ws.jaxrs.core.jdt.CompilationUnitsRepository;
 import org.jboss.tools.ws.jaxrs.core.jdt.Flags;
 import org.jboss.tools.ws.jaxrs.core.jdt.JdtUtils;
 import org.jboss.tools.ws.jaxrs.core.junitrules.JaxrsMetamodelMonitor;
@@ -205,6 +213,70 @@ public class JavaElementDeltaScannerTestCase {
 		verify(resourceEvents, numberOfTimes).add(new ResourceDelta(resource, deltaKind, flags));
 	}
 
+	/**
+	 * @return a mock of a {@link IJavaElementDelta} without children
+	 */
+	private static IJavaElementDelta createDelta(final IJavaElement element, final int kind, final int flags,
+			final CompilationUnit compilationUnitAST, final IJavaElementDelta... affectedChildren) {
+		final IJavaElementDelta delta = mock(IJavaElementDelta.class);
+		when(delta.getElement()).thenReturn(element);
+		when(delta.getKind()).thenReturn(kind);
+		when(delta.getFlags()).thenReturn(flags);
+		when(delta.getCompilationUnitAST()).thenReturn(compilationUnitAST);
+		when(delta.getAffectedChildren()).thenReturn(affectedChildren);
+		when(delta.getAnnotationDeltas()).thenReturn(new IJavaElementDelta[0]);
+		return delta;
+	}
+
+	@Test
+	public void shouldScanChildrenDeltasWhenOnlyMethodBodiesChanged() throws CoreException {
+		// pre-condition: the fingerprint of the working copy is already known
+		final ICompilationUnit workingCopy = metamodelMonitor
+				.resolveType("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource").getCompilationUnit()
+				.getWorkingCopy(new NullProgressMonitor());
+		try {
+			final CompilationUnit ast = JdtUtils.parse(workingCopy, new NullProgressMonitor());
+			CompilationUnitsRepository.getInstance().hasStructuralChanges(workingCopy, ast);
+			final IMethod method = metamodelMonitor.resolveMethod(workingCopy.findPrimaryType(), "getCustomer");
+			final IAnnotation annotation = method.getAnnotation("GET");
+			final IJavaElementDelta annotationDelta = createDelta(annotation, CHANGED, F_CONTENT, ast);
+			final IJavaElementDelta compilationUnitDelta = createDelta(workingCopy, CHANGED, F_CONTENT
+					+ F_FINE_GRAINED, ast, annotationDelta);
+			// operation
+			final List<JavaElementChangedEvent> events = new JavaElementDeltaScanner().scanAndFilterEvent(
+					new ElementChangedEvent(compilationUnitDelta, POST_RECONCILE), new NullProgressMonitor());
+			// verifications: no method signature event, but the annotation change
+			assertThat(events.size(), equalTo(1));
+			assertThat(events.get(0), equalTo(new JavaElementChangedEvent(annotation, CHANGED, POST_RECONCILE, ast,
+					new Flags(F_CONTENT))));
+		} finally {
+			workingCopy.discardWorkingCopy();
+		}
+	}
+
+	@Test
+	public void shouldScanMethodSignaturesWhenDeclarationsChanged() throws CoreException {
+		// pre-condition: the fingerprint of the working copy is not known yet
+		final ICompilationUnit workingCopy = metamodelMonitor
+				.resolveType("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource").getCompilationUnit()
+				.getWorkingCopy(new NullProgressMonitor());
+		try {
+			CompilationUnitsRepository.getInstance().resetFingerprint(workingCopy);
+			final CompilationUnit ast = JdtUtils.parse(workingCopy, new NullProgressMonitor());
+			final IMethod method = metamodelMonitor.resolveMethod(workingCopy.findPrimaryType(), "getCustomer");
+			final IJavaElementDelta compilationUnitDelta = createDelta(workingCopy, CHANGED, F_CONTENT
+					+ F_FINE_GRAINED, ast);
+			// operation
+			final List<JavaElementChangedEvent> events = new JavaElementDeltaScanner().scanAndFilterEvent(
+					new ElementChangedEvent(compilationUnitDelta, POST_RECONCILE), new NullProgressMonitor());
+			// verifications
+			assertThat(events.contains(new JavaElementChangedEvent(method, CHANGED, POST_RECONCILE, ast, new Flags(
+					F_SIGNATURE))), is(true));
+		} finally {
+			workingCopy.discardWorkingCopy();
+		}
+	}
+
 	@Test
 	public void shouldNotifyWhenEmptyCompilationUnitAdded() throws JavaModelException {
 		// operation
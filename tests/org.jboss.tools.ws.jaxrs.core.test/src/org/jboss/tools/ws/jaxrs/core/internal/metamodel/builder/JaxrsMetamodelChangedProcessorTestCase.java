@@ -17,6 +17,7 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.startsWith;
 import static org.jboss.tools.ws.jaxrs.core.junitrules.JavaElementsUtils.createAnnotation;
 import static org.jboss.tools.ws.jaxrs.core.junitrules.JavaElementsUtils.getAnnotation;
+import static org.jboss.tools.ws.jaxrs.core.junitrules.JavaElementsUtils.replaceAnnotation;
 import static org.jboss.tools.ws.jaxrs.core.junitrules.ResourcesUtils.replaceFirstOccurrenceOfCode;
 import static org.jboss.tools.ws.jaxrs.core.utils.JaxrsClassnames.APPLICATION_PATH;
 import static org.jboss.tools.ws.jaxrs.core.utils.JaxrsClassnames.CONSUMES;
@@ -461,8 +462,7 @@ public class JaxrsMetamodelChangedProcessorTestCase {
 		metamodelMonitor.resetElementChangesNotifications();
 		// operation
 		// FIXME: path param annotation must happen first, because no event will be triggered here
-		final Annotation pathParamAnnotation = customerResourceMethod.getJavaMethodParameterByName("id").getAnnotation(PATH_PARAM);
-		pathParamAnnotation.update(createAnnotation(pathParamAnnotation, "foo"));
+		replaceAnnotation(customerResourceMethod.getJavaMethodParameterByName("id").getAnnotations(), PATH_PARAM, "foo");
 		final Annotation pathAnnotation = getAnnotation(customerResourceMethod.getJavaElement(), PATH);
 		customerResourceMethod.addOrUpdateAnnotation(createAnnotation(pathAnnotation, "{foo}"));
 		// verifications
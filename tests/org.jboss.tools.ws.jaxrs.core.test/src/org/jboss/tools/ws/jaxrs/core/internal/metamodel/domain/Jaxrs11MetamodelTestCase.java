@@ -20,6 +20,7 @@ import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -33,6 +34,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IType;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.search.TypeReferenceGraph;
 import org.jboss.tools.ws.jaxrs.core.jdt.Flags;
 import org.jboss.tools.ws.jaxrs.core.junitrules.JaxrsMetamodelMonitor;
 import org.jboss.tools.ws.jaxrs.core.junitrules.TestBanner;
@@ -298,4 +300,31 @@ public class Jaxrs11MetamodelTestCase {
 		assertThat(elements.size(), equalTo(1));
 	}
 	
+	@Test
+	public void shouldFindRelatedTypesForGivenHttpMethod() throws CoreException {
+		// pre-conditions
+		final IType fooType = metamodelMonitor.resolveType("org.jboss.tools.ws.jaxrs.sample.services.FOO");
+		final IType barResourceType = metamodelMonitor.resolveType("org.jboss.tools.ws.jaxrs.sample.services.BarResource");
+		final IType bazResourceType = metamodelMonitor.resolveType("org.jboss.tools.ws.jaxrs.sample.services.BazResource");
+		final IType customerResourceType = metamodelMonitor.resolveType("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource");
+		final IType productResourceLocatorType = metamodelMonitor.resolveType("org.jboss.tools.ws.jaxrs.sample.services.ProductResourceLocator");
+		// operation
+		final Set<IType> relatedTypes = metamodel.findRelatedTypes(fooType, Arrays.asList(customerResourceType, productResourceLocatorType, barResourceType, bazResourceType), progressMonitor);
+		// verifications
+		assertThat(relatedTypes.size(), equalTo(1));
+		assertThat(relatedTypes.iterator().next(), equalTo(bazResourceType));
+	}
+	
+	@Test
+	public void shouldRecordTypeReferencesWhileBuildingMetamodel() throws CoreException {
+		// pre-conditions
+		final TypeReferenceGraph typeReferences = metamodel.getTypeReferences();
+		// operation
+		final Set<String> referencingTypes = typeReferences.getReferencingTypes("org.jboss.tools.ws.jaxrs.sample.services.FOO");
+		// verifications
+		assertThat(typeReferences.isKnown("org.jboss.tools.ws.jaxrs.sample.services.BazResource"), equalTo(true));
+		assertThat(referencingTypes.contains("org.jboss.tools.ws.jaxrs.sample.services.BazResource"), equalTo(true));
+		assertThat(referencingTypes.contains("org.jboss.tools.ws.jaxrs.sample.services.BarResource"), equalTo(false));
+	}
+	
 }
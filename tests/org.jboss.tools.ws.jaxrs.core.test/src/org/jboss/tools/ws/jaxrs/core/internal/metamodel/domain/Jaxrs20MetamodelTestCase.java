@@ -5,16 +5,36 @@ package org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IType;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.ResourceChangedListener;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.TestLogger;
 import org.jboss.tools.ws.jaxrs.core.junitrules.JaxrsMetamodelMonitor;
 import org.jboss.tools.ws.jaxrs.core.junitrules.TestBanner;
 import org.jboss.tools.ws.jaxrs.core.junitrules.WorkspaceSetupRule;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsElement;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsEndpoint;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsNameBinding;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsProvider;
 import org.junit.Assert;
@@ -84,4 +104,192 @@ public class Jaxrs20MetamodelTestCase {
 		Assert.assertNotNull("ParamConverterProvider not found", paramConverterProvider);
 	}
 	
+	private static Set<String> describeElements(final Collection<IJaxrsElement> elements) {
+		final Set<String> descriptions = new HashSet<String>();
+		for (IJaxrsElement element : elements) {
+			descriptions.add(element.getElementKind() + " " + element.getIdentifier());
+		}
+		return descriptions;
+	}
+
+	private static List<String> describeEndpoints(final Collection<IJaxrsEndpoint> endpoints) {
+		final List<String> descriptions = new ArrayList<String>();
+		for (IJaxrsEndpoint endpoint : endpoints) {
+			// endpoint identifiers are generated, so endpoints are compared by their content
+			descriptions.add(endpoint.getHttpMethod().getHttpVerb() + " " + endpoint.getUriPathTemplate() + " "
+					+ endpoint.getConsumedMediaTypes() + " " + endpoint.getProducedMediaTypes());
+		}
+		Collections.sort(descriptions);
+		return descriptions;
+	}
+
+	@Test
+	public void shouldRestoreMetamodelFromSnapshot() throws CoreException {
+		// pre-condition
+		final Set<String> elements = describeElements(metamodel.findAllElements());
+		final List<String> endpoints = describeEndpoints(metamodel.getAllEndpoints());
+		metamodel.saveSnapshot();
+		try {
+			// operation
+			metamodel.restoreOrProcessProject(new NullProgressMonitor());
+			// verification
+			assertThat(metamodel.isBuildComplete(), equalTo(true));
+			assertThat(describeElements(metamodel.findAllElements()), equalTo(elements));
+			assertThat(describeEndpoints(metamodel.getAllEndpoints()), equalTo(endpoints));
+		} finally {
+			JaxrsMetamodelSnapshot.delete(metamodel.getJavaProject());
+		}
+	}
+
+	@Test
+	public void shouldDeleteSnapshotWhenProjectIsDeleted() throws CoreException {
+		// pre-condition
+		metamodel.saveSnapshot();
+		Assert.assertNotNull(JaxrsMetamodelSnapshot.load(metamodel.getJavaProject()));
+		final IResourceChangeEvent event = mock(IResourceChangeEvent.class);
+		when(event.getType()).thenReturn(IResourceChangeEvent.PRE_DELETE);
+		when(event.getResource()).thenReturn(metamodel.getProject());
+		try {
+			// operation
+			new ResourceChangedListener().resourceChanged(event);
+			// verification
+			Assert.assertNull(JaxrsMetamodelSnapshot.load(metamodel.getJavaProject()));
+		} finally {
+			JaxrsMetamodelSnapshot.delete(metamodel.getJavaProject());
+		}
+	}
+	
+	@Test
+	public void shouldClearValidationDependenciesWhenProcessingProject() throws CoreException {
+		// pre-condition
+		final IResource resource = metamodelMonitor.resolveType(
+				"org.jboss.tools.ws.jaxrs.sample.services.CarResource").getResource();
+		metamodel.getValidationDependencies().addDependency(resource, "foo");
+		metamodel.getValidationDependencies().setComplete();
+		// operation
+		metamodel.processProject(new NullProgressMonitor());
+		// verification
+		assertThat(metamodel.getValidationDependencies().isComplete(), equalTo(false));
+		assertThat(metamodel.getValidationDependencies().getDependents(Arrays.asList("foo")).isEmpty(), equalTo(true));
+	}
+	
+	@Test
+	public void shouldClearValidationDependenciesWhenRestoringProject() throws CoreException {
+		// pre-condition
+		metamodel.saveSnapshot();
+		metamodel.getValidationDependencies().setComplete();
+		try {
+			// operation
+			metamodel.restoreOrProcessProject(new NullProgressMonitor());
+			// verification
+			assertThat(metamodel.getValidationDependencies().isComplete(), equalTo(false));
+		} finally {
+			JaxrsMetamodelSnapshot.delete(metamodel.getJavaProject());
+		}
+	}
+	
+	@Test
+	public void shouldNotSaveSnapshotAfterCanceledRestore() throws CoreException {
+		// pre-condition
+		metamodel.saveSnapshot();
+		final NullProgressMonitor canceledMonitor = new NullProgressMonitor();
+		canceledMonitor.setCanceled(true);
+		try {
+			metamodel.restoreOrProcessProject(canceledMonitor);
+			// operation
+			metamodel.saveSnapshot();
+			// verification
+			assertThat(metamodel.isBuildComplete(), equalTo(false));
+			Assert.assertNull(JaxrsMetamodelSnapshot.load(metamodel.getJavaProject()));
+		} finally {
+			JaxrsMetamodelSnapshot.delete(metamodel.getJavaProject());
+		}
+	}
+	
+	@Test
+	public void shouldSearchUnrelatedCompilationUnitWhileStripeIsLockedForWrite() throws Exception {
+		// pre-condition
+		final ICompilationUnit carResourceUnit = metamodelMonitor.resolveType(
+				"org.jboss.tools.ws.jaxrs.sample.services.CarResource").getCompilationUnit();
+		final ICompilationUnit gameResourceUnit = metamodelMonitor.resolveType(
+				"org.jboss.tools.ws.jaxrs.sample.services.GameResource").getCompilationUnit();
+		assertThat("CarResource and GameResource must be guarded by different lock stripes",
+				JaxrsMetamodelLocks.getStripeIndex(carResourceUnit) == JaxrsMetamodelLocks
+						.getStripeIndex(gameResourceUnit), equalTo(false));
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		// hold the write lock of the CarResource stripe, as the processing of a
+		// change on the CarResource does
+		metamodel.getLocks().lockStripeForWrite(carResourceUnit);
+		boolean locked = true;
+		try {
+			// operation
+			final Future<Set<IJaxrsElement>> unrelatedSearch = executor.submit(searchElements(gameResourceUnit));
+			final Future<Set<IJaxrsElement>> relatedSearch = executor.submit(searchElements(carResourceUnit));
+			// verification: the search on the GameResource completes while the
+			// one on the CarResource waits for the stripe to be released
+			assertThat(unrelatedSearch.get(10, TimeUnit.SECONDS).isEmpty(), equalTo(false));
+			try {
+				relatedSearch.get(500, TimeUnit.MILLISECONDS);
+				Assert.fail("Search on the locked compilation unit was not blocked");
+			} catch (TimeoutException e) {
+				// expected
+			}
+			metamodel.getLocks().unlockStripe();
+			locked = false;
+			assertThat(relatedSearch.get(10, TimeUnit.SECONDS).isEmpty(), equalTo(false));
+		} finally {
+			if (locked) {
+				metamodel.getLocks().unlockStripe();
+			}
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldSearchButNotChangeMetamodelDuringConsistentRead() throws Exception {
+		// pre-condition
+		final ICompilationUnit carResourceUnit = metamodelMonitor.resolveType(
+				"org.jboss.tools.ws.jaxrs.sample.services.CarResource").getCompilationUnit();
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		// operation
+		metamodel.beginConsistentRead();
+		boolean locked = true;
+		try {
+			final Future<Set<IJaxrsElement>> search = executor.submit(searchElements(carResourceUnit));
+			final Future<?> change = executor.submit(new Runnable() {
+				@Override
+				public void run() {
+					metamodel.getLocks().lockStripeForWrite(carResourceUnit);
+					metamodel.getLocks().unlockStripe();
+				}
+			});
+			// verification: the search completes while the change waits for the
+			// consistent read to end
+			assertThat(search.get(10, TimeUnit.SECONDS).isEmpty(), equalTo(false));
+			try {
+				change.get(500, TimeUnit.MILLISECONDS);
+				Assert.fail("Change was not blocked by the consistent read");
+			} catch (TimeoutException e) {
+				// expected
+			}
+			metamodel.endConsistentRead();
+			locked = false;
+			change.get(10, TimeUnit.SECONDS);
+		} finally {
+			if (locked) {
+				metamodel.endConsistentRead();
+			}
+			executor.shutdownNow();
+		}
+	}
+
+	private Callable<Set<IJaxrsElement>> searchElements(final ICompilationUnit compilationUnit) {
+		return new Callable<Set<IJaxrsElement>>() {
+			@Override
+			public Set<IJaxrsElement> call() throws Exception {
+				return metamodel.findElements(compilationUnit);
+			}
+		};
+	}
+	
 }
@@ -0,0 +1,150 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.search.TypeReferenceGraph;
+import org.jboss.tools.ws.jaxrs.core.junitrules.JaxrsMetamodelMonitor;
+import org.jboss.tools.ws.jaxrs.core.junitrules.TestBanner;
+import org.jboss.tools.ws.jaxrs.core.junitrules.WorkspaceSetupRule;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * @author xcoulon
+ *
+ */
+public class JaxrsElementsScannerTestCase {
+
+	@ClassRule
+	public static WorkspaceSetupRule workspaceSetupRule = new WorkspaceSetupRule(
+			"org.jboss.tools.ws.jaxrs.tests.sampleproject");
+
+	@Rule
+	public JaxrsMetamodelMonitor metamodelMonitor = new JaxrsMetamodelMonitor(
+			"org.jboss.tools.ws.jaxrs.tests.sampleproject", false);
+
+	@Rule
+	public TestBanner watcher = new TestBanner();
+
+	private JaxrsMetamodel metamodel = null;
+
+	@Before
+	public void setup() throws CoreException {
+		metamodel = metamodelMonitor.getMetamodel();
+	}
+
+	/**
+	 * Records the types handled by the scanner, in the order they were
+	 * handled, failing if a type has no AST.
+	 */
+	private static class RecordingTypeHandler implements JaxrsElementsScanner.TypeHandler {
+
+		private final List<IType> handledTypes = new ArrayList<IType>();
+
+		@Override
+		public void handle(final IType type, final CompilationUnit ast) throws CoreException {
+			assertThat(type.getFullyQualifiedName(), ast, notNullValue());
+			handledTypes.add(type);
+		}
+
+	}
+
+	private static List<IType> handleAllTypes(final JaxrsElementsScanner scanner) throws CoreException {
+		final RecordingTypeHandler handler = new RecordingTypeHandler();
+		scanner.handleTypes(scanner.getApplicationTypes(), handler, new NullProgressMonitor());
+		scanner.handleTypes(scanner.getHttpMethodTypes(), handler, new NullProgressMonitor());
+		scanner.handleTypes(scanner.getNameBindingTypes(), handler, new NullProgressMonitor());
+		scanner.handleTypes(scanner.getResourceTypes(), handler, new NullProgressMonitor());
+		scanner.handleTypes(scanner.getParamConverterProviderTypes(), handler, new NullProgressMonitor());
+		scanner.handleTypes(scanner.getParameterAggregatorTypes(), handler, new NullProgressMonitor());
+		scanner.handleTypes(scanner.getProviderTypes(), handler, new NullProgressMonitor());
+		return handler.handledTypes;
+	}
+
+	@Test
+	public void shouldFindSameTypesInParallelAsInSequentialScan() throws CoreException {
+		// pre-conditions
+		final JaxrsElementsScanner sequentialScanner = new JaxrsElementsScanner(metamodel.getJavaProject(), null,
+				new TypeReferenceGraph(), false);
+		final JaxrsElementsScanner parallelScanner = new JaxrsElementsScanner(metamodel.getJavaProject(), null,
+				new TypeReferenceGraph(), true);
+		// operation
+		sequentialScanner.searchTypes(new NullProgressMonitor());
+		parallelScanner.searchTypes(new NullProgressMonitor());
+		final List<IType> sequentiallyHandledTypes = handleAllTypes(sequentialScanner);
+		final List<IType> parallelHandledTypes = handleAllTypes(parallelScanner);
+		// verifications
+		assertThat(parallelScanner.getApplicationTypes(), equalTo(sequentialScanner.getApplicationTypes()));
+		assertThat(parallelScanner.getHttpMethodTypes(), equalTo(sequentialScanner.getHttpMethodTypes()));
+		assertThat(parallelScanner.getNameBindingTypes(), equalTo(sequentialScanner.getNameBindingTypes()));
+		assertThat(parallelScanner.getResourceTypes(), equalTo(sequentialScanner.getResourceTypes()));
+		assertThat(parallelScanner.getParamConverterProviderTypes(),
+				equalTo(sequentialScanner.getParamConverterProviderTypes()));
+		assertThat(parallelScanner.getParameterAggregatorTypes(),
+				equalTo(sequentialScanner.getParameterAggregatorTypes()));
+		assertThat(parallelScanner.getProviderTypes(), equalTo(sequentialScanner.getProviderTypes()));
+		assertThat(sequentiallyHandledTypes.isEmpty(), is(false));
+		// same types, handled in the same order
+		assertThat(parallelHandledTypes, equalTo(sequentiallyHandledTypes));
+	}
+
+	@Test
+	public void shouldPropagateFailureOfOneWorkerAndRemainUsable() throws CoreException {
+		// pre-conditions: the parsing of one of the compilation units fails
+		final IType customerResourceType = metamodelMonitor
+				.resolveType("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource");
+		final IType bookResourceType = metamodelMonitor
+				.resolveType("org.jboss.tools.ws.jaxrs.sample.services.BookResource");
+		final ICompilationUnit failingCompilationUnit = mock(ICompilationUnit.class);
+		when(failingCompilationUnit.exists()).thenThrow(new IllegalStateException("Simulated failure"));
+		final IType failingType = mock(IType.class);
+		when(failingType.getCompilationUnit()).thenReturn(failingCompilationUnit);
+		final JaxrsElementsScanner scanner = new JaxrsElementsScanner(metamodel.getJavaProject(), null,
+				new TypeReferenceGraph(), true);
+		final RecordingTypeHandler handler = new RecordingTypeHandler();
+		// operation
+		try {
+			scanner.handleTypes(Arrays.asList(customerResourceType, failingType, bookResourceType), handler,
+					new NullProgressMonitor());
+			fail("Expected an exception");
+		} catch (IllegalStateException e) {
+			// verifications: the failure of the worker was propagated to the
+			// calling thread, and no type of the chunk was handled
+			assertThat(e.getMessage(), equalTo("Simulated failure"));
+		}
+		assertThat(handler.handledTypes.isEmpty(), is(true));
+		// operation: the worker threads are still available for the next scan
+		scanner.handleTypes(Arrays.asList(customerResourceType, bookResourceType), handler,
+				new NullProgressMonitor());
+		// verifications
+		assertThat(handler.handledTypes, equalTo(Arrays.asList(customerResourceType, bookResourceType)));
+	}
+
+}
@@ -0,0 +1,153 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsApplication;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsEndpoint;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsHttpMethod;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsResource;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsResourceMethod;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JaxrsEndpointRouterTestCase {
+
+	private JaxrsEndpointRouter router;
+
+	@Before
+	public void setup() {
+		router = new JaxrsEndpointRouter();
+	}
+
+	private static IJaxrsEndpoint createEndpoint(final String identifier, final String httpVerb,
+			final String resourcePath, final String methodPath, final String consumes, final String produces) {
+		final IJaxrsApplication application = mock(IJaxrsApplication.class);
+		when(application.getApplicationPath()).thenReturn("/api");
+		final IJaxrsResource resource = mock(IJaxrsResource.class);
+		when(resource.getPathTemplate()).thenReturn(resourcePath);
+		final IJaxrsResourceMethod resourceMethod = mock(IJaxrsResourceMethod.class);
+		when(resourceMethod.getPathTemplate()).thenReturn(methodPath);
+		when(resourceMethod.getParentResource()).thenReturn(resource);
+		final IJaxrsHttpMethod httpMethod = mock(IJaxrsHttpMethod.class);
+		when(httpMethod.getHttpVerb()).thenReturn(httpVerb);
+		final IJaxrsEndpoint endpoint = mock(IJaxrsEndpoint.class);
+		when(endpoint.getIdentifier()).thenReturn(identifier);
+		when(endpoint.getApplication()).thenReturn(application);
+		when(endpoint.getHttpMethod()).thenReturn(httpMethod);
+		when(endpoint.getResourceMethods()).thenReturn(
+				new LinkedList<IJaxrsResourceMethod>(Arrays.asList(resourceMethod)));
+		when(endpoint.getConsumedMediaTypes()).thenReturn(Arrays.asList(consumes));
+		when(endpoint.getProducedMediaTypes()).thenReturn(Arrays.asList(produces));
+		return endpoint;
+	}
+
+	@Test
+	public void shouldFindEndpointWithTemplateParameters() {
+		// pre-condition
+		final IJaxrsEndpoint endpoint = createEndpoint("items", "GET", "/orders", "{id}/items", "*/*", "*/*");
+		router.put(endpoint);
+		// operation
+		final IJaxrsEndpoint match = router.findEndpoint("GET", "/api/orders/42/items?x=1", null, null);
+		// verification
+		assertThat(match, equalTo(endpoint));
+	}
+
+	@Test
+	public void shouldPreferTemplateWithMoreLiteralCharacters() {
+		// pre-condition
+		final IJaxrsEndpoint latestOrder = createEndpoint("latest", "GET", "/orders", "latest", "*/*", "*/*");
+		final IJaxrsEndpoint anyOrder = createEndpoint("order", "GET", "/orders", "{id}", "*/*", "*/*");
+		router.put(anyOrder);
+		router.put(latestOrder);
+		// operation
+		final IJaxrsEndpoint latestMatch = router.findEndpoint("GET", "/api/orders/latest", null, null);
+		final IJaxrsEndpoint anyMatch = router.findEndpoint("GET", "/api/orders/42", null, null);
+		// verification
+		assertThat(latestMatch, equalTo(latestOrder));
+		assertThat(anyMatch, equalTo(anyOrder));
+	}
+
+	@Test
+	public void shouldPreferTemplateWithRegularExpression() {
+		// pre-condition
+		final IJaxrsEndpoint numericOrder = createEndpoint("numeric", "GET", "/orders", "{id: [0-9]+}", "*/*", "*/*");
+		final IJaxrsEndpoint anyOrder = createEndpoint("order", "GET", "/orders", "{id}", "*/*", "*/*");
+		router.put(anyOrder);
+		router.put(numericOrder);
+		// operation
+		final IJaxrsEndpoint numericMatch = router.findEndpoint("GET", "/api/orders/42", null, null);
+		final IJaxrsEndpoint anyMatch = router.findEndpoint("GET", "/api/orders/abc", null, null);
+		// verification
+		assertThat(numericMatch, equalTo(numericOrder));
+		assertThat(anyMatch, equalTo(anyOrder));
+	}
+
+	@Test
+	public void shouldSelectEndpointByMediaTypes() {
+		// pre-condition
+		final IJaxrsEndpoint jsonEndpoint = createEndpoint("json", "POST", "/orders", null, "application/json",
+				"application/json");
+		final IJaxrsEndpoint xmlEndpoint = createEndpoint("xml", "POST", "/orders", null, "application/xml",
+				"application/xml");
+		router.put(jsonEndpoint);
+		router.put(xmlEndpoint);
+		// operation
+		final IJaxrsEndpoint jsonMatch = router.findEndpoint("POST", "/api/orders", "application/json", null);
+		final IJaxrsEndpoint xmlMatch = router.findEndpoint("POST", "/api/orders", null,
+				"text/html, application/xml;q=0.9, application/json;q=0.5");
+		final IJaxrsEndpoint noMatch = router.findEndpoint("POST", "/api/orders", "text/plain", null);
+		// verification
+		assertThat(jsonMatch, equalTo(jsonEndpoint));
+		assertThat(xmlMatch, equalTo(xmlEndpoint));
+		assertThat(noMatch, nullValue());
+	}
+
+	@Test
+	public void shouldNotFallBackToOtherTemplateWhenHttpMethodDoesNotMatch() {
+		// pre-condition
+		router.put(createEndpoint("latest", "GET", "/orders", "latest", "*/*", "*/*"));
+		router.put(createEndpoint("order", "DELETE", "/orders", "{id}", "*/*", "*/*"));
+		// operation
+		final IJaxrsEndpoint match = router.findEndpoint("DELETE", "/api/orders/latest", null, null);
+		// verification
+		assertThat(match, nullValue());
+	}
+
+	@Test
+	public void shouldUpdateAndRemoveRoutes() {
+		// pre-condition
+		final IJaxrsEndpoint endpoint = createEndpoint("order", "GET", "/orders", "{id}", "*/*", "*/*");
+		router.put(endpoint);
+		final IJaxrsResourceMethod resourceMethod = endpoint.getResourceMethods().getFirst();
+		when(resourceMethod.getPathTemplate()).thenReturn("{id}/details");
+		// operation
+		router.put(endpoint);
+		// verification
+		assertThat(router.size(), equalTo(1));
+		assertThat(router.findEndpoint("GET", "/api/orders/42", null, null), nullValue());
+		assertThat(router.findEndpoint("GET", "/api/orders/42/details", null, null), equalTo(endpoint));
+		// operation
+		router.remove(endpoint);
+		// verification
+		assertThat(router.size(), equalTo(0));
+		assertThat(router.findEndpoint("GET", "/api/orders/42/details", null, null), nullValue());
+	}
+
+}
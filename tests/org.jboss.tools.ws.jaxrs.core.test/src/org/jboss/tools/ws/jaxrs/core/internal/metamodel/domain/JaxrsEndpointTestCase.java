@@ -22,7 +22,10 @@ import static org.jboss.tools.ws.jaxrs.core.metamodel.domain.JaxrsElementDelta.F
 import static org.junit.Assert.assertThat;
 
 import java.util.Collection;
+import java.util.LinkedList;
 
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jdt.core.IField;
 import org.eclipse.jdt.core.IJavaElement;
@@ -40,6 +43,9 @@ import org.jboss.tools.ws.jaxrs.core.junitrules.WorkspaceSetupRule;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.EnumElementCategory;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsElement;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsEndpoint;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsResourceMethod;
+import org.jboss.tools.ws.jaxrs.core.metrics.JaxrsMetrics;
+import org.jboss.tools.ws.jaxrs.core.wtp.WtpUtils;
 import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Rule;
@@ -88,6 +94,33 @@ public class JaxrsEndpointTestCase {
 		return null;
 	}
 
+	/**
+	 * @return the endpoint of the {@code BookResource#getPicture()} method,
+	 *         whose chain starts with the
+	 *         {@code ProductResourceLocator#getProductResourceLocator()}
+	 *         subresource locator.
+	 */
+	private JaxrsEndpoint getPictureEndpoint() throws CoreException {
+		final IType resourceType = metamodelMonitor.resolveType("org.jboss.tools.ws.jaxrs.sample.services.BookResource");
+		final IMethod method = metamodelMonitor.resolveMethod(resourceType, "getPicture");
+		final IJaxrsElement resourceMethod = (IJaxrsElement) metamodel.findElement(method);
+		return metamodel.findEndpoints(resourceMethod).iterator().next();
+	}
+
+	/**
+	 * Verifies that the URI Path Template of the given endpoint, computed from
+	 * its cached segments, matches the one of a new endpoint with the same
+	 * chain of resource methods, whose segments are all computed from scratch.
+	 */
+	private void assertSameUriPathTemplateAsRebuiltEndpoint(final JaxrsEndpoint endpoint) {
+		final LinkedList<JaxrsResourceMethod> resourceMethods = new LinkedList<JaxrsResourceMethod>();
+		for (IJaxrsResourceMethod resourceMethod : endpoint.getResourceMethods()) {
+			resourceMethods.add((JaxrsResourceMethod) resourceMethod);
+		}
+		final JaxrsEndpoint rebuiltEndpoint = new JaxrsEndpoint(metamodel, endpoint.getHttpMethod(), resourceMethods);
+		assertThat(endpoint.getUriPathTemplate(), equalTo(rebuiltEndpoint.getUriPathTemplate()));
+	}
+
 	private IMethod modifyJavaMethod(final boolean useWorkingCopy) throws CoreException {
 		final String typeName = "org.jboss.tools.ws.jaxrs.sample.services.CustomerResource";
 		final IType resourceType = metamodelMonitor.resolveType(typeName);
@@ -865,5 +898,96 @@ public class JaxrsEndpointTestCase {
 			assertThat(endpoint.getUriPathTemplate(), not(containsString("lang={String}")));
 		}
 	}
+
+	@Test
+	public void shouldRecomputeOnlyQueryParamsOfChangedMethodInSubresourceLocatorChain() throws CoreException {
+		// pre-conditions
+		final JaxrsResourceMethod pictureMethod = (JaxrsResourceMethod) getPictureEndpoint().getResourceMethods()
+				.getLast();
+		final IMethod modifiedMethod = replaceFirstOccurrenceOfCode(pictureMethod.getJavaElement(),
+				"@MatrixParam(\"color\") String c", "@MatrixParam(\"color\") String c, @QueryParam(\"size\") int size",
+				PRIMARY_COPY);
+		pictureMethod.update(modifiedMethod, JdtUtils.parse(modifiedMethod, null));
+		WorkbenchTasks.waitForTasksToComplete(getWorkspace(javaProject));
+		final JaxrsEndpoint endpoint = getPictureEndpoint();
+		JaxrsMetrics.reset();
+		// operation
+		endpoint.update(pictureMethod, new Flags(F_QUERY_PARAM_ANNOTATION));
+		// verifications: 1 resource path segment + 2 segments per resource
+		// method, of which only the query params of the changed method are recomputed
+		assertThat(JaxrsMetrics.ENDPOINT_SEGMENTS_RECOMPUTED.get(), equalTo(1L));
+		assertThat(JaxrsMetrics.ENDPOINT_SEGMENTS_REUSED.get(), equalTo(4L));
+		assertThat(endpoint.getUriPathTemplate(), equalTo("/hello/products/{productType:String};bar={String};qux2={String:\"qux2!\"}/{id:Integer};color={String}?foo={String:\"foo!\"}&qux1={String:\"qux1!\"}&size={int}"));
+		assertSameUriPathTemplateAsRebuiltEndpoint(endpoint);
+	}
+
+	@Test
+	public void shouldRecomputeOnlyPathOfChangedMethodWhenMatrixParamChangesInSubresourceLocatorChain() throws CoreException {
+		// pre-conditions
+		final JaxrsResourceMethod pictureMethod = (JaxrsResourceMethod) getPictureEndpoint().getResourceMethods()
+				.getLast();
+		final IMethod modifiedMethod = replaceFirstOccurrenceOfCode(pictureMethod.getJavaElement(),
+				"@MatrixParam(\"color\")", "@MatrixParam(\"colour\")", PRIMARY_COPY);
+		pictureMethod.update(modifiedMethod, JdtUtils.parse(modifiedMethod, null));
+		WorkbenchTasks.waitForTasksToComplete(getWorkspace(javaProject));
+		final JaxrsEndpoint endpoint = getPictureEndpoint();
+		JaxrsMetrics.reset();
+		// operation
+		endpoint.update(pictureMethod, new Flags(F_MATRIX_PARAM_ANNOTATION));
+		// verifications: only the path of the changed method is recomputed
+		assertThat(JaxrsMetrics.ENDPOINT_SEGMENTS_RECOMPUTED.get(), equalTo(1L));
+		assertThat(JaxrsMetrics.ENDPOINT_SEGMENTS_REUSED.get(), equalTo(4L));
+		assertThat(endpoint.getUriPathTemplate(), equalTo("/hello/products/{productType:String};bar={String};qux2={String:\"qux2!\"}/{id:Integer};colour={String}?foo={String:\"foo!\"}&qux1={String:\"qux1!\"}"));
+		assertSameUriPathTemplateAsRebuiltEndpoint(endpoint);
+	}
+
+	@Test
+	public void shouldRefreshResourcePathWhenChangingPathAnnotationOfFirstResource() throws CoreException {
+		// pre-conditions
+		final JaxrsResource locatorResource = ((JaxrsResourceMethod) getPictureEndpoint().getResourceMethods()
+				.getFirst()).getParentResource();
+		// operation
+		final IType modifiedType = replaceFirstOccurrenceOfCode(locatorResource.getJavaElement(),
+				"@Path(\"/products\")", "@Path(\"/items\")", PRIMARY_COPY);
+		locatorResource.update(modifiedType, JdtUtils.parse(modifiedType, null));
+		WorkbenchTasks.waitForTasksToComplete(getWorkspace(javaProject));
+		// verifications
+		final JaxrsEndpoint endpoint = getPictureEndpoint();
+		assertThat(endpoint.getUriPathTemplate(), equalTo("/hello/items/{productType:String};bar={String};qux2={String:\"qux2!\"}/{id:Integer};color={String}?foo={String:\"foo!\"}&qux1={String:\"qux1!\"}"));
+		assertSameUriPathTemplateAsRebuiltEndpoint(endpoint);
+	}
+
+	@Test
+	public void shouldReassembleUriPathTemplateWithoutRecomputingSegmentsWhenApplicationPathChanges() throws Exception {
+		// pre-conditions
+		final JaxrsEndpoint endpoint = getPictureEndpoint();
+		final IResource webxmlResource = WtpUtils.getWebDeploymentDescriptor(metamodel.getProject());
+		ResourcesUtils.replaceContent(webxmlResource, "/hello/*", "/foo/*");
+		JaxrsMetrics.reset();
+		// operation
+		metamodelMonitor.processResourceEvent(webxmlResource, IResourceDelta.CHANGED);
+		// verifications: the segments of the resources are all reused
+		assertThat(endpoint.getUriPathTemplate(), equalTo("/foo/products/{productType:String};bar={String};qux2={String:\"qux2!\"}/{id:Integer};color={String}?foo={String:\"foo!\"}&qux1={String:\"qux1!\"}"));
+		assertThat(JaxrsMetrics.ENDPOINT_SEGMENTS_RECOMPUTED.get(), equalTo(0L));
+		assertThat(JaxrsMetrics.ENDPOINT_SEGMENTS_REUSED.get() > 0, equalTo(true));
+		assertSameUriPathTemplateAsRebuiltEndpoint(endpoint);
+	}
+
+	@Test
+	public void shouldCollapseSlashesAcrossUriPathTemplateSegments() throws CoreException {
+		// pre-conditions
+		final JaxrsResource locatorResource = ((JaxrsResourceMethod) getPictureEndpoint().getResourceMethods()
+				.getFirst()).getParentResource();
+		// operation: the resource path ends with a slash and the locator path
+		// starts with another one
+		final IType modifiedType = replaceFirstOccurrenceOfCode(locatorResource.getJavaElement(),
+				"@Path(\"/products\")", "@Path(\"/products/\")", PRIMARY_COPY);
+		locatorResource.update(modifiedType, JdtUtils.parse(modifiedType, null));
+		WorkbenchTasks.waitForTasksToComplete(getWorkspace(javaProject));
+		// verifications
+		final JaxrsEndpoint endpoint = getPictureEndpoint();
+		assertThat(endpoint.getUriPathTemplate(), equalTo("/hello/products/{productType:String};bar={String};qux2={String:\"qux2!\"}/{id:Integer};color={String}?foo={String:\"foo!\"}&qux1={String:\"qux1!\"}"));
+		assertSameUriPathTemplateAsRebuiltEndpoint(endpoint);
+	}
 	
 }
@@ -0,0 +1,251 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain;
+
+import static org.eclipse.jdt.core.IJavaElementDelta.ADDED;
+import static org.eclipse.jdt.core.IJavaElementDelta.CHANGED;
+import static org.eclipse.jdt.core.IJavaElementDelta.REMOVED;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsElementChangedListener;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsEndpoint;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsMetamodelChangedListener;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.JaxrsElementDelta;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.JaxrsEndpointDelta;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.JaxrsMetamodelDelta;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JaxrsMetamodelEventBusTestCase {
+
+	private JaxrsMetamodelEventBus eventBus;
+
+	private EndpointChangesCollector collector;
+
+	@Before
+	public void setup() {
+		eventBus = new JaxrsMetamodelEventBus();
+		collector = new EndpointChangesCollector();
+		eventBus.addListener(collector);
+	}
+
+	@After
+	public void tearDown() {
+		eventBus.removeAllListeners();
+	}
+
+	private List<JaxrsEndpointDelta> awaitEndpointChanges() throws InterruptedException {
+		assertThat(eventBus.awaitDelivery(5, TimeUnit.SECONDS), equalTo(true));
+		return collector.endpointChanges;
+	}
+
+	@Test
+	public void shouldDeliverNotificationImmediatelyWhenNotInBatch() throws InterruptedException {
+		// pre-condition
+		final IJaxrsEndpoint endpoint = mock(IJaxrsEndpoint.class);
+		// operation
+		eventBus.postEndpointChanged(endpoint, ADDED);
+		// verification
+		final List<JaxrsEndpointDelta> endpointChanges = awaitEndpointChanges();
+		assertThat(endpointChanges, hasSize(1));
+		assertThat(endpointChanges.get(0).getEndpoint(), equalTo(endpoint));
+		assertThat(endpointChanges.get(0).getKind(), equalTo(ADDED));
+	}
+
+	@Test
+	public void shouldDeliverNotificationsOnlyAfterOutermostBatchIsCommitted() throws InterruptedException {
+		// pre-condition
+		final IJaxrsEndpoint endpoint = mock(IJaxrsEndpoint.class);
+		eventBus.beginBatch();
+		eventBus.beginBatch();
+		// operation
+		eventBus.postEndpointChanged(endpoint, ADDED);
+		eventBus.commitBatch();
+		// verification
+		assertThat(awaitEndpointChanges(), hasSize(0));
+		// operation
+		eventBus.commitBatch();
+		// verification
+		assertThat(awaitEndpointChanges(), hasSize(1));
+	}
+
+	@Test
+	public void shouldMergeEndpointChangesInSameBatch() throws InterruptedException {
+		// pre-condition
+		final IJaxrsEndpoint addedEndpoint = mock(IJaxrsEndpoint.class);
+		final IJaxrsEndpoint changedEndpoint = mock(IJaxrsEndpoint.class);
+		final IJaxrsEndpoint transientEndpoint = mock(IJaxrsEndpoint.class);
+		final IJaxrsEndpoint removedEndpoint = mock(IJaxrsEndpoint.class);
+		eventBus.beginBatch();
+		// operation
+		eventBus.postEndpointChanged(addedEndpoint, ADDED);
+		eventBus.postEndpointChanged(addedEndpoint, CHANGED);
+		eventBus.postEndpointChanged(changedEndpoint, CHANGED);
+		eventBus.postEndpointChanged(changedEndpoint, CHANGED);
+		eventBus.postEndpointChanged(transientEndpoint, ADDED);
+		eventBus.postEndpointChanged(transientEndpoint, REMOVED);
+		eventBus.postEndpointChanged(removedEndpoint, CHANGED);
+		eventBus.postEndpointChanged(removedEndpoint, REMOVED);
+		eventBus.commitBatch();
+		// verification
+		final List<JaxrsEndpointDelta> endpointChanges = awaitEndpointChanges();
+		assertThat(endpointChanges, hasSize(3));
+		assertThat(endpointChanges.get(0).getEndpoint(), equalTo(addedEndpoint));
+		assertThat(endpointChanges.get(0).getKind(), equalTo(ADDED));
+		assertThat(endpointChanges.get(1).getEndpoint(), equalTo(changedEndpoint));
+		assertThat(endpointChanges.get(1).getKind(), equalTo(CHANGED));
+		assertThat(endpointChanges.get(2).getEndpoint(), equalTo(removedEndpoint));
+		assertThat(endpointChanges.get(2).getKind(), equalTo(REMOVED));
+	}
+
+	@Test
+	public void shouldNotMergeEndpointAdditionAfterRemoval() throws InterruptedException {
+		// pre-condition
+		final IJaxrsEndpoint endpoint = mock(IJaxrsEndpoint.class);
+		eventBus.beginBatch();
+		// operation
+		eventBus.postEndpointChanged(endpoint, REMOVED);
+		eventBus.postEndpointChanged(endpoint, ADDED);
+		eventBus.commitBatch();
+		// verification
+		final List<JaxrsEndpointDelta> endpointChanges = awaitEndpointChanges();
+		assertThat(endpointChanges, hasSize(2));
+		assertThat(endpointChanges.get(0).getKind(), equalTo(REMOVED));
+		assertThat(endpointChanges.get(1).getKind(), equalTo(ADDED));
+	}
+
+	@Test
+	public void shouldNotifyElementListenersInCallingThreadAfterBatch() {
+		// pre-condition
+		final JaxrsElementDelta delta = mock(JaxrsElementDelta.class);
+		final List<Thread> notifiedThreads = new ArrayList<Thread>();
+		final IJaxrsElementChangedListener listener = new IJaxrsElementChangedListener() {
+			@Override
+			public void notifyElementChanged(final JaxrsElementDelta delta) {
+				notifiedThreads.add(Thread.currentThread());
+			}
+		};
+		eventBus.beginBatch();
+		// operation
+		eventBus.post(delta, Collections.singleton(listener));
+		// verification
+		assertThat(notifiedThreads, hasSize(0));
+		// operation
+		eventBus.commitBatch();
+		// verification
+		assertThat(notifiedThreads, hasSize(1));
+		assertThat(notifiedThreads.get(0), equalTo(Thread.currentThread()));
+	}
+
+	@Test
+	public void shouldNotBeBlockedBySlowListener() throws InterruptedException {
+		// pre-condition
+		final CountDownLatch slowListenerLatch = new CountDownLatch(1);
+		final EndpointChangesCollector slowListener = new EndpointChangesCollector() {
+			@Override
+			public void notifyEndpointChanged(final JaxrsEndpointDelta delta) {
+				try {
+					slowListenerLatch.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				super.notifyEndpointChanged(delta);
+			}
+		};
+		eventBus.addListener(slowListener);
+		final IJaxrsEndpoint endpoint = mock(IJaxrsEndpoint.class);
+		// operation
+		eventBus.postEndpointChanged(endpoint, ADDED);
+		// verification: the other listener is notified, the caller is not blocked
+		assertThat(eventBus.awaitDelivery(200, TimeUnit.MILLISECONDS), equalTo(false));
+		assertThat(collector.endpointChanges, hasSize(1));
+		assertThat(slowListener.endpointChanges, hasSize(0));
+		// operation
+		slowListenerLatch.countDown();
+		// verification
+		assertThat(eventBus.awaitDelivery(5, TimeUnit.SECONDS), equalTo(true));
+		assertThat(slowListener.endpointChanges, hasSize(1));
+	}
+
+	@Test
+	public void shouldNotBlockProducerWhenListenerIsRemovedWhileQueueIsFull() throws InterruptedException {
+		// pre-condition: a listener that never returns, so that its queue fills up
+		final CountDownLatch blockedListenerLatch = new CountDownLatch(1);
+		final EndpointChangesCollector blockedListener = new EndpointChangesCollector() {
+			@Override
+			public void notifyEndpointChanged(final JaxrsEndpointDelta delta) {
+				try {
+					blockedListenerLatch.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		eventBus.addListener(blockedListener);
+		final IJaxrsEndpoint endpoint = mock(IJaxrsEndpoint.class);
+		final Thread producer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				for (int i = 0; i < JaxrsMetamodelEventBus.QUEUE_CAPACITY + 10; i++) {
+					eventBus.postEndpointChanged(endpoint, CHANGED);
+				}
+			}
+		});
+		producer.start();
+		// verification: the producer waits for some room in the full queue
+		producer.join(500);
+		assertThat(producer.isAlive(), equalTo(true));
+		// operation
+		eventBus.removeListener(blockedListener);
+		// verification: the producer is released and the pending notifications are discarded
+		producer.join(5000);
+		assertThat(producer.isAlive(), equalTo(false));
+		assertThat(eventBus.awaitDelivery(5, TimeUnit.SECONDS), equalTo(true));
+	}
+
+	/**
+	 * Collects the endpoint changes.
+	 */
+	private static class EndpointChangesCollector implements IJaxrsMetamodelChangedListener {
+
+		final List<JaxrsEndpointDelta> endpointChanges = Collections
+				.synchronizedList(new ArrayList<JaxrsEndpointDelta>());
+
+		@Override
+		public void notifyEndpointChanged(final JaxrsEndpointDelta delta) {
+			endpointChanges.add(delta);
+		}
+
+		@Override
+		public void notifyEndpointProblemLevelChanged(final IJaxrsEndpoint endpoint) {
+		}
+
+		@Override
+		public void notifyMetamodelProblemLevelChanged(final IJaxrsMetamodel metamodel) {
+		}
+
+		@Override
+		public void notifyMetamodelChanged(final JaxrsMetamodelDelta delta) {
+		}
+	}
+
+}
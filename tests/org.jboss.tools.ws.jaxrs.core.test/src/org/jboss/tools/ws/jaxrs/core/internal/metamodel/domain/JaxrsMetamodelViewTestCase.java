@@ -0,0 +1,179 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.jboss.tools.ws.jaxrs.core.junitrules.ResourcesUtils.getWorkspace;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IType;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.ResourceChangedBuildJob;
+import org.jboss.tools.ws.jaxrs.core.junitrules.JaxrsMetamodelMonitor;
+import org.jboss.tools.ws.jaxrs.core.junitrules.TestBanner;
+import org.jboss.tools.ws.jaxrs.core.junitrules.WorkbenchTasks;
+import org.jboss.tools.ws.jaxrs.core.junitrules.WorkspaceSetupRule;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsElement;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsEndpoint;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsJavaElement;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsMetamodelView;
+import org.jboss.tools.ws.jaxrs.core.utils.JaxrsClassnames;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * @author xcoulon
+ *
+ */
+public class JaxrsMetamodelViewTestCase {
+
+	@ClassRule
+	public static WorkspaceSetupRule workspaceSetupRule = new WorkspaceSetupRule(
+			"org.jboss.tools.ws.jaxrs.tests.sampleproject");
+
+	@Rule
+	public JaxrsMetamodelMonitor metamodelMonitor = new JaxrsMetamodelMonitor(
+			"org.jboss.tools.ws.jaxrs.tests.sampleproject", true);
+
+	@Rule
+	public TestBanner watcher = new TestBanner();
+
+	private JaxrsMetamodel metamodel = null;
+
+	@Before
+	public void setup() throws CoreException {
+		metamodel = metamodelMonitor.getMetamodel();
+		WorkbenchTasks.waitForTasksToComplete(getWorkspace(metamodel.getProject()));
+	}
+
+	/**
+	 * Runs a {@link ResourceChangedBuildJob} on the given resource delta and
+	 * waits until it is done.
+	 */
+	private void runBuildJob(final IResourceDelta delta) throws InterruptedException {
+		final IResourceChangeEvent event = mock(IResourceChangeEvent.class);
+		when(event.getDelta()).thenReturn(delta);
+		when(event.getBuildKind()).thenReturn(IncrementalProjectBuilder.INCREMENTAL_BUILD);
+		final ResourceChangedBuildJob job = new ResourceChangedBuildJob(metamodel.getJavaProject(), event);
+		job.schedule();
+		job.join();
+	}
+
+	private static Set<String> getIdentifiers(final Iterable<? extends IJaxrsElement> elements) {
+		final Set<String> identifiers = new HashSet<String>();
+		for (IJaxrsElement element : elements) {
+			identifiers.add(element.getIdentifier());
+		}
+		return identifiers;
+	}
+
+	private static Set<String> getEndpointIdentifiers(final Iterable<? extends IJaxrsEndpoint> endpoints) {
+		final Set<String> identifiers = new HashSet<String>();
+		for (IJaxrsEndpoint endpoint : endpoints) {
+			identifiers.add(endpoint.getIdentifier());
+		}
+		return identifiers;
+	}
+
+	@Test
+	public void shouldPublishNewViewVersionAfterBuildJob() throws Exception {
+		// pre-conditions
+		final IJaxrsMetamodelView initialView = metamodel.getView();
+		// operation: without any resource delta, the whole project is rebuilt
+		runBuildJob(null);
+		// verifications
+		final IJaxrsMetamodelView view = metamodel.getView();
+		assertThat(view.getVersion(), equalTo(initialView.getVersion() + 1));
+		assertThat(view.isInitializing(), equalTo(false));
+		assertThat(getIdentifiers(view.getAllElements()), equalTo(getIdentifiers(metamodel.findAllElements())));
+		assertThat(getEndpointIdentifiers(view.getAllEndpoints()), equalTo(getEndpointIdentifiers(metamodel.getAllEndpoints())));
+	}
+
+	@Test
+	public void shouldNotPublishNewViewVersionAfterBuildJobWithoutChange() throws Exception {
+		// pre-conditions: a change on a Java file that neither adds nor
+		// removes any JAX-RS element or endpoint
+		final IResource resource = metamodelMonitor.resolveType(
+				"org.jboss.tools.ws.jaxrs.sample.services.BookResource").getResource();
+		final IResourceDelta delta = mock(IResourceDelta.class);
+		when(delta.getResource()).thenReturn(resource);
+		when(delta.getKind()).thenReturn(IResourceDelta.CHANGED);
+		when(delta.getFlags()).thenReturn(IResourceDelta.CONTENT);
+		when(delta.getAffectedChildren()).thenReturn(new IResourceDelta[0]);
+		final IJaxrsMetamodelView initialView = metamodel.getView();
+		// operation
+		runBuildJob(delta);
+		// verifications
+		assertThat(metamodel.getView(), sameInstance(initialView));
+	}
+
+	@Test
+	public void shouldFindSameElementsInViewAsInMetamodel() throws CoreException {
+		// pre-conditions
+		final IJaxrsMetamodelView view = metamodel.getView();
+		assertThat(getIdentifiers(view.getAllElements()), equalTo(getIdentifiers(metamodel.findAllElements())));
+		// operation and verifications
+		for (IJaxrsElement element : metamodel.findAllElements()) {
+			assertThat(view.getElement(element.getIdentifier()), sameInstance(element));
+			if (element instanceof IJaxrsJavaElement) {
+				final IJavaElement javaElement = ((IJaxrsJavaElement) element).getJavaElement();
+				assertThat(view.findElement(javaElement), sameInstance(metamodel.findElement(javaElement)));
+			}
+		}
+		for (String annotationName : new String[] { "javax.ws.rs.Path", "javax.ws.rs.GET", "javax.ws.rs.ext.Provider",
+				"javax.ws.rs.ApplicationPath", "javax.ws.rs.HttpMethod" }) {
+			assertThat(annotationName, getIdentifiers(view.findElementsByAnnotation(annotationName)),
+					equalTo(getIdentifiers(metamodel.findElementsByAnnotation(annotationName))));
+		}
+	}
+
+	@Test
+	public void shouldNotFindElementsByAnnotationChangedAfterViewWasPublished() throws CoreException {
+		// pre-conditions
+		final IType resourceType = metamodelMonitor.resolveType("org.jboss.tools.ws.jaxrs.sample.services.BookResource");
+		final JaxrsResource resource = (JaxrsResource) metamodel.findElement(resourceType);
+		final IJaxrsMetamodelView view = metamodel.getView();
+		assertThat(view.findElementsByAnnotation(JaxrsClassnames.PRODUCES).contains(resource), equalTo(true));
+		// operation: the live element changes after the view was published
+		resource.removeAnnotation(resource.getProducesAnnotation().getJavaAnnotation());
+		// verifications: the view still answers with the annotations it was
+		// published with, until the next view is published
+		assertThat(view.findElementsByAnnotation(JaxrsClassnames.PRODUCES).contains(resource), equalTo(true));
+		metamodel.publishView();
+		assertThat(metamodel.getView().findElementsByAnnotation(JaxrsClassnames.PRODUCES).contains(resource),
+				equalTo(false));
+	}
+
+	@Test
+	public void shouldFindSameElementByJavaTypeInViewAsInMetamodel() throws CoreException {
+		// pre-conditions
+		final IType resourceType = metamodelMonitor.resolveType("org.jboss.tools.ws.jaxrs.sample.services.BookResource");
+		// operation
+		final IJaxrsElement element = metamodel.getView().findElement(resourceType);
+		// verifications
+		assertThat(element, sameInstance(metamodel.findElement(resourceType)));
+		assertThat(element.getIdentifier(), equalTo(resourceType.getHandleIdentifier()));
+	}
+
+}
@@ -0,0 +1,96 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JaxrsValidationDependenciesTestCase {
+
+	private JaxrsValidationDependencies validationDependencies;
+
+	private IResource filterResource;
+
+	private IResource customerResource;
+
+	private IResource productResource;
+
+	@Before
+	public void setup() {
+		validationDependencies = new JaxrsValidationDependencies();
+		final IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject("JaxrsValidationDependenciesTestCase");
+		filterResource = project.getFile("src/Filter.java");
+		customerResource = project.getFile("src/CustomerResource.java");
+		productResource = project.getFile("src/ProductResource.java");
+	}
+
+	@Test
+	public void shouldFindDependentsOfChangedTopics() {
+		// pre-condition
+		validationDependencies.addDependency(customerResource, "nameBinding:foo.Secured");
+		validationDependencies.addDependency(productResource, "paramConverterProviders");
+		// operation
+		final Set<IResource> dependents = validationDependencies.getDependents(Arrays.asList("nameBinding:foo.Secured"));
+		// verification
+		assertThat(dependents, containsInAnyOrder(customerResource));
+	}
+
+	@Test
+	public void shouldNotFindDependentsAfterDependenciesCleared() {
+		// pre-condition
+		validationDependencies.addDependency(customerResource, "nameBinding:foo.Secured");
+		validationDependencies.addDependency(productResource, "nameBinding:foo.Secured");
+		// operation
+		validationDependencies.clearDependencies(customerResource);
+		// verification
+		assertThat(validationDependencies.getDependents(Arrays.asList("nameBinding:foo.Secured")),
+				containsInAnyOrder(productResource));
+	}
+
+	@Test
+	public void shouldKeepPublishedTopicsUntilResourceRemoved() {
+		// pre-condition
+		validationDependencies.setPublishedTopics(filterResource, new HashSet<String>(Arrays.asList("nameBinding:foo.Secured")));
+		// operation
+		validationDependencies.clearDependencies(filterResource);
+		// verification
+		assertThat(validationDependencies.getPublishedTopics(filterResource), containsInAnyOrder("nameBinding:foo.Secured"));
+		validationDependencies.remove(filterResource);
+		assertThat(validationDependencies.getPublishedTopics(filterResource), hasSize(0));
+	}
+
+	@Test
+	public void shouldNotBeCompleteAfterClear() {
+		// pre-condition
+		validationDependencies.addDependency(customerResource, "applications");
+		validationDependencies.setComplete();
+		assertThat(validationDependencies.isComplete(), equalTo(true));
+		// operation
+		validationDependencies.clear();
+		// verification
+		assertThat(validationDependencies.isComplete(), equalTo(false));
+		assertThat(validationDependencies.getDependents(Collections.singleton("applications")), hasSize(0));
+	}
+
+}
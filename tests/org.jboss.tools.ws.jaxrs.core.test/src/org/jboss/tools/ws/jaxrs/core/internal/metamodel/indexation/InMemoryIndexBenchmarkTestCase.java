@@ -0,0 +1,216 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.indexation;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Fieldable;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Version;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.search.InMemoryIndex;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.search.LuceneDocumentFactory;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.search.LuceneFields;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.TestLogger;
+import org.jboss.tools.ws.jaxrs.core.junitrules.JaxrsMetamodelMonitor;
+import org.jboss.tools.ws.jaxrs.core.junitrules.WorkspaceSetupRule;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsElement;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJaxrsEndpoint;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Benchmarks the {@link InMemoryIndex} against the Lucene
+ * {@link IndexSearcher} it replaces, using the documents of all the elements
+ * and endpoints of the sample project, and verifies that both return the same
+ * results.
+ * 
+ * @author xcoulon
+ * 
+ */
+public class InMemoryIndexBenchmarkTestCase {
+
+	private static final int WARMUP_ITERATIONS = 20;
+
+	private static final int ITERATIONS = 100;
+
+	@ClassRule
+	public static WorkspaceSetupRule workspaceSetupRule = new WorkspaceSetupRule("org.jboss.tools.ws.jaxrs.tests.sampleproject");
+
+	@Rule
+	public JaxrsMetamodelMonitor metamodelMonitor = new JaxrsMetamodelMonitor("org.jboss.tools.ws.jaxrs.tests.sampleproject", true);
+
+	private final List<Document> documents = new ArrayList<Document>();
+
+	/** The queries to run: the identifier of each document, and each of its fields along with its type. */
+	private final List<Term[]> queries = new ArrayList<Term[]>();
+
+	private RAMDirectory directory;
+
+	private IndexWriter indexWriter;
+
+	private IndexSearcher indexSearcher;
+
+	private InMemoryIndex inMemoryIndex;
+
+	@Before
+	public void setup() throws IOException {
+		final JaxrsMetamodel metamodel = metamodelMonitor.getMetamodel();
+		for (IJaxrsElement element : metamodel.getAllElements()) {
+			final Document document = LuceneDocumentFactory.createDocument(element);
+			if (document != null) {
+				documents.add(document);
+			}
+		}
+		for (IJaxrsEndpoint endpoint : metamodel.getAllEndpoints()) {
+			documents.add(LuceneDocumentFactory.createDocument(endpoint));
+		}
+		for (Document document : documents) {
+			final Term typeTerm = new Term(LuceneFields.FIELD_TYPE, document.get(LuceneFields.FIELD_TYPE));
+			for (Fieldable field : document.getFields()) {
+				final Term fieldTerm = new Term(field.name(), field.stringValue());
+				queries.add(new Term[] { fieldTerm });
+				queries.add(new Term[] { fieldTerm, typeTerm });
+			}
+		}
+		// same configuration as the former Lucene-based indexation delegate
+		final IndexWriterConfig config = new IndexWriterConfig(Version.LUCENE_35, new StandardAnalyzer(
+				Version.LUCENE_35));
+		directory = new RAMDirectory();
+		indexWriter = new IndexWriter(directory, config);
+		inMemoryIndex = new InMemoryIndex();
+		for (Document document : documents) {
+			indexWriter.addDocument(document);
+			inMemoryIndex.addDocument(document);
+		}
+		indexWriter.commit();
+		indexSearcher = new IndexSearcher(IndexReader.open(indexWriter, true));
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		indexSearcher.getIndexReader().close();
+		indexWriter.close();
+		directory.close();
+	}
+
+	private Set<String> searchWithLucene(final Term... terms) throws IOException {
+		final BooleanQuery query = new BooleanQuery();
+		for (Term term : terms) {
+			query.add(new BooleanClause(new TermQuery(term), Occur.MUST));
+		}
+		final IdentifiersCollector collector = new IdentifiersCollector();
+		indexSearcher.search(query, collector);
+		return collector.identifiers;
+	}
+
+	private Set<String> searchInMemory(final Term... terms) {
+		return new HashSet<String>(inMemoryIndex.search(terms));
+	}
+
+	@Test
+	public void shouldReturnSameResultsAsLucene() throws IOException {
+		// pre-condition
+		assertThat(documents.isEmpty(), equalTo(false));
+		assertThat(inMemoryIndex.getDocumentCount(), equalTo(indexSearcher.getIndexReader().numDocs()));
+		// operation & verification
+		for (Term[] query : queries) {
+			assertThat(searchInMemory(query), equalTo(searchWithLucene(query)));
+		}
+	}
+
+	@Test
+	public void shouldCompareSearchTimeWithLucene() throws IOException {
+		// pre-condition
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			for (Term[] query : queries) {
+				searchWithLucene(query);
+				searchInMemory(query);
+			}
+		}
+		// operation
+		int luceneHits = 0;
+		final long luceneStart = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			for (Term[] query : queries) {
+				luceneHits += searchWithLucene(query).size();
+			}
+		}
+		final long luceneTime = System.nanoTime() - luceneStart;
+		int inMemoryHits = 0;
+		final long inMemoryStart = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			for (Term[] query : queries) {
+				inMemoryHits += searchInMemory(query).size();
+			}
+		}
+		final long inMemoryTime = System.nanoTime() - inMemoryStart;
+		// verification
+		TestLogger.info("Ran {} queries on {} documents: Lucene={}ms, in-memory index={}ms", ITERATIONS
+				* queries.size(), documents.size(), luceneTime / 1000000, inMemoryTime / 1000000);
+		assertThat(inMemoryHits, equalTo(luceneHits));
+	}
+
+	/**
+	 * Collects the identifiers of the matching documents by loading their
+	 * stored fields, like the former Lucene-based indexation delegate did.
+	 */
+	static class IdentifiersCollector extends Collector {
+
+		final Set<String> identifiers = new HashSet<String>();
+
+		private IndexReader indexReader;
+
+		@Override
+		public void setScorer(final Scorer scorer) throws IOException {
+		}
+
+		@Override
+		public void setNextReader(final IndexReader indexReader, final int docBase) throws IOException {
+			this.indexReader = indexReader;
+		}
+
+		@Override
+		public boolean acceptsDocsOutOfOrder() {
+			return true;
+		}
+
+		@Override
+		public void collect(final int docId) throws IOException {
+			identifiers.add(indexReader.document(docId).get(LuceneFields.FIELD_IDENTIFIER));
+		}
+	}
+
+}
@@ -0,0 +1,138 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.indexation;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.Term;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.search.InMemoryIndex;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.search.LuceneFields;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Testing the {@link InMemoryIndex} with plain documents (no workspace
+ * needed).
+ * 
+ * @author xcoulon
+ * 
+ */
+public class InMemoryIndexTestCase {
+
+	private InMemoryIndex index;
+
+	@Before
+	public void setup() {
+		index = new InMemoryIndex();
+	}
+
+	private static Document createDocument(final String identifier, final String... fieldNamesAndValues) {
+		final Document document = new Document();
+		document.add(new Field(LuceneFields.FIELD_IDENTIFIER, identifier, Field.Store.YES, Field.Index.NOT_ANALYZED));
+		for (int i = 0; i < fieldNamesAndValues.length; i += 2) {
+			document.add(new Field(fieldNamesAndValues[i], fieldNamesAndValues[i + 1], Field.Store.YES,
+					Field.Index.NOT_ANALYZED));
+		}
+		return document;
+	}
+
+	@Test
+	public void shouldRetrieveDocumentsMatchingAllTerms() {
+		// pre-condition
+		index.addDocument(createDocument("element:1", LuceneFields.FIELD_TYPE, "PROVIDER",
+				LuceneFields.FIELD_PROVIDER_KIND, "MESSAGE_BODY_READER"));
+		index.addDocument(createDocument("element:2", LuceneFields.FIELD_TYPE, "PROVIDER",
+				LuceneFields.FIELD_PROVIDER_KIND, "MESSAGE_BODY_WRITER"));
+		index.addDocument(createDocument("element:3", LuceneFields.FIELD_TYPE, "PROVIDER",
+				LuceneFields.FIELD_PROVIDER_KIND, "MESSAGE_BODY_READER", LuceneFields.FIELD_PROVIDER_KIND,
+				"MESSAGE_BODY_WRITER"));
+		index.addDocument(createDocument("element:4", LuceneFields.FIELD_TYPE, "RESOURCE"));
+		// operation
+		final List<String> readers = index.search(new Term(LuceneFields.FIELD_TYPE, "PROVIDER"), new Term(
+				LuceneFields.FIELD_PROVIDER_KIND, "MESSAGE_BODY_READER"));
+		final List<String> providers = index.search(new Term(LuceneFields.FIELD_TYPE, "PROVIDER"));
+		// verification
+		assertThat(readers, containsInAnyOrder("element:1", "element:3"));
+		assertThat(providers, containsInAnyOrder("element:1", "element:2", "element:3"));
+		assertThat(index.count(new Term(LuceneFields.FIELD_TYPE, "RESOURCE")), equalTo(1));
+	}
+
+	@Test
+	public void shouldNotRetrieveDocumentsWithUnknownTermOrWithoutTerms() {
+		// pre-condition
+		index.addDocument(createDocument("element:1", LuceneFields.FIELD_TYPE, "PROVIDER"));
+		// operation
+		final List<String> unknownValue = index.search(new Term(LuceneFields.FIELD_TYPE, "FOO"));
+		final List<String> unknownField = index.search(new Term("foo", "PROVIDER"));
+		final List<String> noTerm = index.search();
+		// verification
+		assertThat(unknownValue, empty());
+		assertThat(unknownField, empty());
+		assertThat(noTerm, empty());
+		assertThat(index.searchFirst(new Term(LuceneFields.FIELD_TYPE, "FOO")), nullValue());
+	}
+
+	@Test
+	public void shouldReplaceDocumentWithSameIdentifier() {
+		// pre-condition
+		index.addDocument(createDocument("element:1", LuceneFields.FIELD_HTTP_VERB, "FOO"));
+		// operation
+		index.addDocument(createDocument("element:1", LuceneFields.FIELD_HTTP_VERB, "BAR"));
+		// verification
+		assertThat(index.getDocumentCount(), equalTo(1));
+		assertThat(index.searchFirst(new Term(LuceneFields.FIELD_HTTP_VERB, "FOO")), nullValue());
+		assertThat(index.searchFirst(new Term(LuceneFields.FIELD_HTTP_VERB, "BAR")), equalTo("element:1"));
+	}
+
+	@Test
+	public void shouldDeleteDocumentAndReuseItsId() {
+		// pre-condition
+		index.addDocument(createDocument("element:1", LuceneFields.FIELD_TYPE, "RESOURCE"));
+		index.addDocument(createDocument("element:2", LuceneFields.FIELD_TYPE, "RESOURCE"));
+		// operation
+		final boolean deleted = index.deleteDocument("element:1");
+		final boolean deletedAgain = index.deleteDocument("element:1");
+		index.addDocument(createDocument("element:3", LuceneFields.FIELD_TYPE, "PROVIDER"));
+		// verification
+		assertThat(deleted, equalTo(true));
+		assertThat(deletedAgain, equalTo(false));
+		assertThat(index.getDocumentCount(), equalTo(2));
+		assertThat(index.search(new Term(LuceneFields.FIELD_TYPE, "RESOURCE")), containsInAnyOrder("element:2"));
+		assertThat(index.search(new Term(LuceneFields.FIELD_TYPE, "PROVIDER")), containsInAnyOrder("element:3"));
+		assertThat(index.search(new Term(LuceneFields.FIELD_IDENTIFIER, "element:1")), empty());
+	}
+
+	@Test
+	public void shouldClearAllDocuments() {
+		// pre-condition
+		for (int i = 0; i < 200; i++) {
+			index.addDocument(createDocument("element:" + i, LuceneFields.FIELD_TYPE, "RESOURCE",
+					LuceneFields.FIELD_URI_PATH_TEMPLATE, "/" + i));
+		}
+		// operation
+		index.deleteAll();
+		index.addDocument(createDocument("element:0", LuceneFields.FIELD_TYPE, "RESOURCE"));
+		// verification
+		assertThat(index.getDocumentCount(), equalTo(1));
+		assertThat(index.search(new Term(LuceneFields.FIELD_TYPE, "RESOURCE")), containsInAnyOrder("element:0"));
+		assertThat(index.count(new Term(LuceneFields.FIELD_URI_PATH_TEMPLATE, "/1")), equalTo(0));
+	}
+
+}
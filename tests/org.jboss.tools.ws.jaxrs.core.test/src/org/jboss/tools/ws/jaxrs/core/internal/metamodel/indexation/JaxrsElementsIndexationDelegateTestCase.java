@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.lucene.index.CorruptIndexException;
 import org.eclipse.core.resources.IResource;
@@ -37,6 +38,7 @@ import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsResource;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsResourceMethod;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsWebxmlApplication;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.search.JaxrsElementsIndexationDelegate;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.search.LuceneDocumentFactory;
 import org.jboss.tools.ws.jaxrs.core.junitrules.JaxrsMetamodelMonitor;
 import org.jboss.tools.ws.jaxrs.core.junitrules.WorkspaceSetupRule;
 import org.jboss.tools.ws.jaxrs.core.metamodel.domain.EnumElementKind;
@@ -429,5 +431,33 @@ public class JaxrsElementsIndexationDelegateTestCase {
 		assertThat(foundElements, containsInAnyOrder(expectedMatches.toArray(new IJaxrsElement[expectedMatches.size()])));
 	}
 	
+	@Test
+	public void shouldRetrieveUncommittedElementsWithinBatch() throws CoreException {
+		// pre-condition
+		final IType resourceType = metamodelMonitor.resolveType("org.jboss.tools.ws.jaxrs.sample.services.BazResource");
+		final IJaxrsResource resource = JaxrsResource.from(resourceType, metamodel.findAllHttpMethodNames()).withMetamodel(metamodel).build();
+		// operation
+		indexationService.beginBatch();
+		indexationService.indexElement(resource);
+		final Set<IJaxrsElement> foundElementsInBatch = indexationService.searchElements(LuceneDocumentFactory.getIdentifierTerm(resource));
+		indexationService.commitBatch();
+		final Set<IJaxrsElement> foundElementsAfterBatch = indexationService.searchElements(LuceneDocumentFactory.getIdentifierTerm(resource));
+		// verifications
+		assertThat(indexationService.isInBatch(), equalTo(false));
+		assertThat(foundElementsInBatch.size(), equalTo(1));
+		assertThat(foundElementsAfterBatch.size(), equalTo(1));
+	}
+
+	@Test
+	public void shouldOnlyCommitWhenOutermostBatchIsCommitted() throws CoreException {
+		// operation
+		indexationService.beginBatch();
+		indexationService.beginBatch();
+		indexationService.commitBatch();
+		// verifications
+		assertThat(indexationService.isInBatch(), equalTo(true));
+		indexationService.commitBatch();
+		assertThat(indexationService.isInBatch(), equalTo(false));
+	}
 	
 }
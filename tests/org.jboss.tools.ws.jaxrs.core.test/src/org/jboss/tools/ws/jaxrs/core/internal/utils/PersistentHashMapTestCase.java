@@ -0,0 +1,133 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.internal.utils;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PersistentHashMapTestCase {
+
+	/** A key whose hash code can be chosen, to force collisions. */
+	private static class Key {
+		private final String name;
+		private final int hash;
+
+		Key(final String name, final int hash) {
+			this.name = name;
+			this.hash = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			return obj instanceof Key && ((Key) obj).name.equals(name);
+		}
+	}
+
+	@Test
+	public void shouldNotModifyPreviousVersionOnPut() {
+		// pre-condition
+		final PersistentHashMap<String, String> map = PersistentHashMap.<String, String> empty().put("a", "1");
+		// operation
+		final PersistentHashMap<String, String> nextMap = map.put("a", "2").put("b", "3");
+		// verification
+		assertThat(map.size(), equalTo(1));
+		assertThat(map.get("a"), equalTo("1"));
+		assertThat(map.get("b"), nullValue());
+		assertThat(nextMap.size(), equalTo(2));
+		assertThat(nextMap.get("a"), equalTo("2"));
+		assertThat(nextMap.get("b"), equalTo("3"));
+	}
+
+	@Test
+	public void shouldReturnSameInstanceWhenNothingChanged() {
+		// pre-condition
+		final PersistentHashMap<String, String> map = PersistentHashMap.<String, String> empty().put("a", "1");
+		// operation
+		final PersistentHashMap<String, String> samePut = map.put("a", "1");
+		final PersistentHashMap<String, String> sameRemove = map.remove("b");
+		// verification
+		assertThat(samePut, sameInstance(map));
+		assertThat(sameRemove, sameInstance(map));
+	}
+
+	@Test
+	public void shouldHandleCollidingKeys() {
+		// pre-condition
+		final Key foo = new Key("foo", 42);
+		final Key bar = new Key("bar", 42);
+		// operation
+		final PersistentHashMap<Key, String> map = PersistentHashMap.<Key, String> empty().put(foo, "foo").put(bar,
+				"bar");
+		final PersistentHashMap<Key, String> nextMap = map.remove(foo);
+		// verification
+		assertThat(map.size(), equalTo(2));
+		assertThat(map.get(foo), equalTo("foo"));
+		assertThat(map.get(bar), equalTo("bar"));
+		assertThat(nextMap.size(), equalTo(1));
+		assertThat(nextMap.get(foo), nullValue());
+		assertThat(nextMap.get(bar), equalTo("bar"));
+	}
+
+	@Test
+	public void shouldBehaveLikeHashMap() {
+		// pre-condition
+		final Random random = new Random(0);
+		final Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+		PersistentHashMap<Integer, Integer> map = PersistentHashMap.empty();
+		// operation
+		for (int i = 0; i < 20000; i++) {
+			final Integer key = random.nextInt(5000);
+			if (random.nextBoolean()) {
+				expected.put(key, i);
+				map = map.put(key, i);
+			} else {
+				expected.remove(key);
+				map = map.remove(key);
+			}
+		}
+		// verification
+		assertThat(map.size(), equalTo(expected.size()));
+		for (Entry<Integer, Integer> entry : expected.entrySet()) {
+			assertThat(map.get(entry.getKey()), equalTo(entry.getValue()));
+		}
+		assertThat(map.values().size(), equalTo(expected.size()));
+	}
+
+	@Test
+	public void shouldShareMostNodesWithPreviousVersion() {
+		// pre-condition
+		PersistentHashMap<Integer, Integer> map = PersistentHashMap.empty();
+		for (int i = 0; i < 10000; i++) {
+			map = map.put(i, i);
+		}
+		// operation
+		final PersistentHashMap<Integer, Integer> nextMap = map.put(10000, 10000);
+		// verification
+		assertThat(nextMap.countNodesNotSharedWith(map), lessThan(10));
+		assertThat(map.countNodesNotSharedWith(map), equalTo(0));
+	}
+
+}
@@ -0,0 +1,84 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.internal.utils;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jboss.tools.ws.jaxrs.core.utils.JaxrsClassnames;
+import org.junit.Test;
+
+public class StringPoolTestCase {
+
+	private final StringPool pool = new StringPool();
+
+	@Test
+	public void shouldInternEqualStrings() {
+		// pre-condition
+		final String value = new String("application/json");
+		final String otherValue = new String("application/json");
+		// operation
+		final String internedValue = pool.intern(value);
+		final String otherInternedValue = pool.intern(otherValue);
+		// verification
+		assertThat(internedValue, sameInstance(value));
+		assertThat(otherInternedValue, sameInstance(value));
+		assertThat(pool.intern(null), nullValue());
+	}
+
+	@Test
+	public void shouldInternAnnotationNamesToConstants() {
+		// pre-condition
+		final String annotationName = new String("javax.ws.rs.Path");
+		// operation
+		final String internedName = pool.intern(annotationName);
+		// verification
+		assertThat(internedName, sameInstance(JaxrsClassnames.PATH));
+	}
+
+	@Test
+	public void shouldShareEqualLists() {
+		// pre-condition
+		final List<String> mediaTypes = new ArrayList<String>(Arrays.asList(new String("application/json"),
+				new String("application/xml")));
+		final List<String> otherMediaTypes = new ArrayList<String>(Arrays.asList(new String("application/json"),
+				new String("application/xml")));
+		// operation
+		final List<String> internedMediaTypes = pool.internList(mediaTypes);
+		final List<String> otherInternedMediaTypes = pool.internList(otherMediaTypes);
+		// verification
+		assertThat(otherInternedMediaTypes, sameInstance(internedMediaTypes));
+		assertThat(internedMediaTypes, equalTo(mediaTypes));
+		assertThat(internedMediaTypes.get(0), sameInstance(pool.intern(otherMediaTypes.get(0))));
+	}
+
+	@Test
+	public void shouldReturnUnmodifiableLists() {
+		// pre-condition
+		final List<String> internedMediaTypes = pool.internList(Arrays.asList("text/plain"));
+		// operation
+		try {
+			internedMediaTypes.add("text/html");
+			fail("Expected an UnsupportedOperationException");
+		} catch (UnsupportedOperationException e) {
+			// verification
+			assertThat(internedMediaTypes.size(), equalTo(1));
+		}
+	}
+
+}
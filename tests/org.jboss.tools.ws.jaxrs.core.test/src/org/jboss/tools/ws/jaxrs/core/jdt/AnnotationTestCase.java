@@ -0,0 +1,107 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.jdt;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.jboss.tools.ws.jaxrs.core.utils.JaxrsClassnames;
+import org.junit.Test;
+
+public class AnnotationTestCase {
+
+	private static Map<String, List<String>> elements(final String... keysAndValues) {
+		final Map<String, List<String>> elements = new HashMap<String, List<String>>();
+		for (int i = 0; i < keysAndValues.length; i += 2) {
+			elements.put(keysAndValues[i], Arrays.asList(keysAndValues[i + 1]));
+		}
+		return elements;
+	}
+
+	@Test
+	public void shouldBeEqualRegardlessOfMembersOrder() {
+		// pre-condition
+		final Map<String, List<String>> elements = elements("value", "foo", "encoded", "true");
+		final Annotation annotation = new Annotation(null, JaxrsClassnames.PATH, elements);
+		// operation
+		final Annotation otherAnnotation = new Annotation(null, new String(JaxrsClassnames.PATH),
+				new TreeMap<String, List<String>>(elements));
+		// verification
+		assertThat(otherAnnotation, equalTo(annotation));
+		assertThat(otherAnnotation.hashCode(), equalTo(annotation.hashCode()));
+		assertThat(otherAnnotation.hasChanges(annotation), is(false));
+		assertThat(otherAnnotation.getFullyQualifiedName(), sameInstance(annotation.getFullyQualifiedName()));
+		assertThat(otherAnnotation.getValues(), sameInstance(annotation.getValues()));
+	}
+
+	@Test
+	public void shouldDetectChangedValue() {
+		// pre-condition
+		final Annotation annotation = new Annotation(null, JaxrsClassnames.PATH, "foo");
+		// operation
+		final Annotation otherAnnotation = new Annotation(null, JaxrsClassnames.PATH, "bar");
+		// verification
+		assertThat(otherAnnotation.equals(annotation), is(false));
+		assertThat(otherAnnotation.hasChanges(annotation), is(true));
+	}
+
+	@Test
+	public void shouldDetectChangedName() {
+		// pre-condition
+		final Annotation annotation = new Annotation(null, JaxrsClassnames.PATH_PARAM, "foo");
+		// operation
+		final Annotation otherAnnotation = new Annotation(null, JaxrsClassnames.QUERY_PARAM, "foo");
+		// verification
+		assertThat(otherAnnotation.equals(annotation), is(false));
+	}
+
+	@Test
+	public void shouldRetrieveMemberValues() {
+		// operation
+		final Annotation annotation = new Annotation(null, JaxrsClassnames.PATH, elements("value", "foo",
+				"encoded", "true"));
+		// verification
+		assertThat(annotation.getValue(), equalTo("foo"));
+		assertThat(annotation.getValue("encoded"), equalTo("true"));
+		assertThat(annotation.getValues("unknown"), nullValue());
+		assertThat(annotation.getJavaAnnotationElements().size(), equalTo(2));
+		assertThat(annotation.getJavaAnnotationElements(), equalTo(elements("value", "foo", "encoded", "true")));
+		assertThat(annotation.toString(), equalTo("@javax.ws.rs.Path(encoded=\"true\", value=\"foo\")"));
+	}
+
+	@Test
+	public void shouldNotModifyAnnotationAfterCreation() {
+		// pre-condition
+		final Map<String, List<String>> elements = elements("value", "foo");
+		final Annotation annotation = new Annotation(null, JaxrsClassnames.PATH, elements);
+		// operation
+		elements.put("value", Arrays.asList("bar"));
+		// verification
+		assertThat(annotation.getValue(), equalTo("foo"));
+		try {
+			annotation.getJavaAnnotationElements().put("value", Arrays.asList("bar"));
+			fail("Expected an UnsupportedOperationException");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
+
+}
@@ -0,0 +1,390 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.core.jdt;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.jboss.tools.ws.jaxrs.core.junitrules.JavaElementsUtils.replaceFirstOccurrenceOfCode;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.compiler.IProblem;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JavaMethodSignature;
+import org.jboss.tools.ws.jaxrs.core.jdt.CompilationUnitsRepository.Statistics;
+import org.jboss.tools.ws.jaxrs.core.junitrules.TestBanner;
+import org.jboss.tools.ws.jaxrs.core.junitrules.TestProjectMonitor;
+import org.jboss.tools.ws.jaxrs.core.junitrules.WorkspaceSetupRule;
+import org.jboss.tools.ws.jaxrs.core.metamodel.domain.IJavaMethodSignature;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * @author xcoulon
+ *
+ */
+public class CompilationUnitsRepositoryTestCase {
+
+	@ClassRule
+	public static WorkspaceSetupRule workspaceSetupRule = new WorkspaceSetupRule("org.jboss.tools.ws.jaxrs.tests.sampleproject");
+	
+	@Rule
+	public TestBanner testWatcher = new TestBanner();
+	
+	@Rule
+	public TestProjectMonitor projectMonitor = new TestProjectMonitor("org.jboss.tools.ws.jaxrs.tests.sampleproject");
+
+	private final CompilationUnitsRepository repository = CompilationUnitsRepository.getInstance();
+	
+	@Before
+	public void setup() {
+		repository.clear();
+	}
+	
+	@After
+	public void restoreCacheBounds() {
+		repository.setCacheBounds(CompilationUnitsRepository.DEFAULT_MAXIMUM_SIZE,
+				CompilationUnitsRepository.DEFAULT_MAXIMUM_WEIGHT);
+		repository.clear();
+	}
+
+	private ICompilationUnit getCompilationUnit(final String typeName) throws CoreException {
+		return projectMonitor.resolveType(typeName).getCompilationUnit();
+	}
+
+	@Test
+	public void shouldReturnCachedAST() throws CoreException {
+		// pre-condition
+		final ICompilationUnit compilationUnit = getCompilationUnit("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource");
+		final Statistics initialStatistics = repository.getStatistics();
+		// operation
+		final CompilationUnit firstAST = repository.getAST(compilationUnit);
+		final CompilationUnit secondAST = repository.getAST(compilationUnit);
+		// verification
+		assertThat(firstAST, notNullValue());
+		assertThat(secondAST, sameInstance(firstAST));
+		final Statistics statistics = repository.getStatistics();
+		assertThat(statistics.getMissCount() - initialStatistics.getMissCount(), equalTo(1L));
+		assertThat(statistics.getHitCount() - initialStatistics.getHitCount(), equalTo(1L));
+		assertThat(statistics.getSize(), equalTo(1));
+	}
+
+	@Test
+	public void shouldEvictLeastRecentlyUsedASTIntoSoftTier() throws CoreException {
+		// pre-condition
+		repository.setCacheBounds(2, CompilationUnitsRepository.DEFAULT_MAXIMUM_WEIGHT);
+		final ICompilationUnit customerResource = getCompilationUnit("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource");
+		final ICompilationUnit bookResource = getCompilationUnit("org.jboss.tools.ws.jaxrs.sample.services.BookResource");
+		final ICompilationUnit gameResource = getCompilationUnit("org.jboss.tools.ws.jaxrs.sample.services.GameResource");
+		final Statistics initialStatistics = repository.getStatistics();
+		// operation
+		final CompilationUnit customerResourceAST = repository.getAST(customerResource);
+		repository.getAST(bookResource);
+		repository.getAST(gameResource);
+		// verification: the AST of the customer resource was evicted from the strong tier
+		final Statistics statistics = repository.getStatistics();
+		assertThat(statistics.getSize(), equalTo(2));
+		assertThat(statistics.getSoftSize(), equalTo(1));
+		assertThat(statistics.getEvictionCount() - initialStatistics.getEvictionCount(), equalTo(1L));
+		// operation: the AST is still softly reachable (it is strongly referenced by this test)
+		final CompilationUnit promotedAST = repository.getAST(customerResource);
+		// verification
+		assertThat(promotedAST, sameInstance(customerResourceAST));
+		assertThat(repository.getStatistics().getSoftHitCount() - initialStatistics.getSoftHitCount(), equalTo(1L));
+	}
+
+	@Test
+	public void shouldBoundCacheByWeight() throws CoreException {
+		// pre-condition: weight only allows for a single AST
+		repository.setCacheBounds(CompilationUnitsRepository.DEFAULT_MAXIMUM_SIZE, 1);
+		final ICompilationUnit customerResource = getCompilationUnit("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource");
+		final ICompilationUnit bookResource = getCompilationUnit("org.jboss.tools.ws.jaxrs.sample.services.BookResource");
+		// operation
+		repository.getAST(customerResource);
+		final CompilationUnit bookResourceAST = repository.getAST(bookResource);
+		// verification
+		final Statistics statistics = repository.getStatistics();
+		assertThat(statistics.getSize(), equalTo(1));
+		assertThat(statistics.getWeight(), equalTo((long) bookResourceAST.getLength()));
+	}
+
+	@Test
+	public void shouldKeepMethodSignaturesAfterASTEviction() throws CoreException {
+		// pre-condition
+		repository.setCacheBounds(1, CompilationUnitsRepository.DEFAULT_MAXIMUM_WEIGHT);
+		final IType customerType = projectMonitor.resolveType("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource");
+		final IMethod method = projectMonitor.resolveMethod(customerType, "getCustomer");
+		repository.getAST(customerType.getCompilationUnit());
+		repository.getAST(getCompilationUnit("org.jboss.tools.ws.jaxrs.sample.services.BookResource"));
+		final Statistics initialStatistics = repository.getStatistics();
+		// operation
+		final IJavaMethodSignature methodSignature = repository.getMethodSignature(method);
+		// verification: the signature was retained, no AST was parsed or even looked up
+		assertThat(methodSignature, notNullValue());
+		final Statistics statistics = repository.getStatistics();
+		assertThat(statistics.getMissCount(), equalTo(initialStatistics.getMissCount()));
+		assertThat(statistics.getSize(), is(1));
+	}
+
+	@Test
+	public void shouldParseEachASTOnceUnderContention() throws Exception {
+		// pre-condition
+		final List<ICompilationUnit> compilationUnits = Arrays.asList(
+				getCompilationUnit("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource"),
+				getCompilationUnit("org.jboss.tools.ws.jaxrs.sample.services.BookResource"),
+				getCompilationUnit("org.jboss.tools.ws.jaxrs.sample.services.GameResource"));
+		final int threadsCount = 16;
+		final CyclicBarrier startBarrier = new CyclicBarrier(threadsCount);
+		final ExecutorService executor = Executors.newFixedThreadPool(threadsCount);
+		final long initialParseCount = repository.getStatistics().getParseCount();
+		final List<Future<List<CompilationUnit>>> results = new ArrayList<Future<List<CompilationUnit>>>();
+		// operation: all threads request the same ASTs at the same time
+		try {
+			for (int i = 0; i < threadsCount; i++) {
+				results.add(executor.submit(new Callable<List<CompilationUnit>>() {
+					@Override
+					public List<CompilationUnit> call() throws Exception {
+						startBarrier.await(10, TimeUnit.SECONDS);
+						final List<CompilationUnit> asts = new ArrayList<CompilationUnit>();
+						for (ICompilationUnit compilationUnit : compilationUnits) {
+							asts.add(repository.getAST(compilationUnit));
+						}
+						return asts;
+					}
+				}));
+			}
+			// verification: all threads got the same ASTs, each one was parsed once
+			final List<CompilationUnit> expectedASTs = results.get(0).get(30, TimeUnit.SECONDS);
+			for (Future<List<CompilationUnit>> result : results) {
+				final List<CompilationUnit> asts = result.get(30, TimeUnit.SECONDS);
+				for (int i = 0; i < compilationUnits.size(); i++) {
+					assertThat(asts.get(i), notNullValue());
+					assertThat(asts.get(i), sameInstance(expectedASTs.get(i)));
+				}
+			}
+			assertThat(repository.getStatistics().getParseCount() - initialParseCount,
+					equalTo((long) compilationUnits.size()));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldRemainConsistentUnderConcurrentOperations() throws Exception {
+		// pre-condition
+		final IType customerType = projectMonitor.resolveType("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource");
+		final IMethod method = projectMonitor.resolveMethod(customerType, "getCustomer");
+		final List<ICompilationUnit> compilationUnits = Arrays.asList(customerType.getCompilationUnit(),
+				getCompilationUnit("org.jboss.tools.ws.jaxrs.sample.services.BookResource"),
+				getCompilationUnit("org.jboss.tools.ws.jaxrs.sample.services.GameResource"),
+				getCompilationUnit("org.jboss.tools.ws.jaxrs.sample.services.PurchaseOrderResource"));
+		final List<CompilationUnit> parsedASTs = new ArrayList<CompilationUnit>();
+		for (ICompilationUnit compilationUnit : compilationUnits) {
+			parsedASTs.add(JdtUtils.parse(compilationUnit, new NullProgressMonitor()));
+		}
+		// a tiny cache, to exercise the evictions too
+		repository.setCacheBounds(2, CompilationUnitsRepository.DEFAULT_MAXIMUM_WEIGHT);
+		final int threadsCount = 16;
+		final int iterations = 200;
+		final CyclicBarrier startBarrier = new CyclicBarrier(threadsCount);
+		final ExecutorService executor = Executors.newFixedThreadPool(threadsCount);
+		final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+		// operation: all threads randomly read, merge and remove the same compilation units
+		try {
+			final List<Future<?>> results = new ArrayList<Future<?>>();
+			for (int i = 0; i < threadsCount; i++) {
+				final Random random = new Random(i);
+				results.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						startBarrier.await(10, TimeUnit.SECONDS);
+						for (int j = 0; j < iterations; j++) {
+							final int index = random.nextInt(compilationUnits.size());
+							final ICompilationUnit compilationUnit = compilationUnits.get(index);
+							try {
+								switch (random.nextInt(5)) {
+								case 0:
+									repository.getAST(compilationUnit);
+									break;
+								case 1:
+									repository.getMethodSignature(method);
+									break;
+								case 2:
+									repository.mergeAST(compilationUnit, parsedASTs.get(index), true);
+									break;
+								case 3:
+									repository.mergeProblems(compilationUnit, new IProblem[0]);
+									break;
+								default:
+									repository.removeAST(compilationUnit);
+								}
+							} catch (Throwable e) {
+								failures.add(e);
+							}
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<?> result : results) {
+				result.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		// verification
+		assertThat(failures.toString(), failures.isEmpty(), is(true));
+		for (ICompilationUnit compilationUnit : compilationUnits) {
+			assertThat(repository.getAST(compilationUnit), notNullValue());
+		}
+		assertThat(repository.getMethodSignature(method), notNullValue());
+		final Statistics statistics = repository.getStatistics();
+		assertThat(statistics.getSize(), is(2));
+	}
+
+	@Test
+	public void shouldSkipMethodSignaturesResolutionWhenOnlyMethodBodiesChanged() throws CoreException {
+		// pre-condition
+		final ICompilationUnit compilationUnit = getCompilationUnit("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource");
+		repository.getAST(compilationUnit);
+		final Statistics initialStatistics = repository.getStatistics();
+		replaceFirstOccurrenceOfCode(compilationUnit, "return responseBuilder.build();",
+				"return responseBuilder.status(200).build();", false);
+		final CompilationUnit changedAST = JdtUtils.parse(compilationUnit, new NullProgressMonitor());
+		// operation
+		final Map<String, JavaMethodSignature> diffs = repository.mergeAST(compilationUnit, changedAST, true);
+		// verification
+		assertThat(diffs.isEmpty(), is(true));
+		assertThat(repository.getAST(compilationUnit), sameInstance(changedAST));
+		final Statistics statistics = repository.getStatistics();
+		assertThat(statistics.getFingerprintHitCount() - initialStatistics.getFingerprintHitCount(), equalTo(1L));
+		assertThat(statistics.getFingerprintMissCount(), equalTo(initialStatistics.getFingerprintMissCount()));
+	}
+
+	@Test
+	public void shouldResolveMethodSignaturesWhenParameterAnnotationChanged() throws CoreException {
+		// pre-condition
+		final IType customerType = projectMonitor.resolveType("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource");
+		final IMethod method = projectMonitor.resolveMethod(customerType, "getCustomer");
+		final ICompilationUnit compilationUnit = customerType.getCompilationUnit();
+		repository.getAST(compilationUnit);
+		final Statistics initialStatistics = repository.getStatistics();
+		replaceFirstOccurrenceOfCode(compilationUnit, "@PathParam(\"id\") Integer id, @Context",
+				"@PathParam(\"foo\") Integer id, @Context", false);
+		// operation
+		final Map<String, JavaMethodSignature> diffs = repository.mergeAST(compilationUnit,
+				JdtUtils.parse(compilationUnit, new NullProgressMonitor()), true);
+		// verification
+		assertThat(diffs.containsKey(method.getHandleIdentifier()), is(true));
+		final Statistics statistics = repository.getStatistics();
+		assertThat(statistics.getFingerprintMissCount() - initialStatistics.getFingerprintMissCount(), equalTo(1L));
+		assertThat(statistics.getFingerprintHitCount(), equalTo(initialStatistics.getFingerprintHitCount()));
+	}
+
+	@Test
+	public void shouldResolveMethodSignaturesAgainWhenAnotherCompilationUnitChanged() throws CoreException {
+		// pre-condition
+		final ICompilationUnit customerResource = getCompilationUnit("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource");
+		final ICompilationUnit bookResource = getCompilationUnit("org.jboss.tools.ws.jaxrs.sample.services.BookResource");
+		repository.getAST(customerResource);
+		repository.getAST(bookResource);
+		replaceFirstOccurrenceOfCode(bookResource, "@PathParam(\"id\") Integer id", "@PathParam(\"foo\") Integer id",
+				false);
+		repository.mergeAST(bookResource, JdtUtils.parse(bookResource, new NullProgressMonitor()), true);
+		final CompilationUnit customerResourceAST = JdtUtils.parse(customerResource, new NullProgressMonitor());
+		final Statistics initialStatistics = repository.getStatistics();
+		// operation: the customer resource did not change, but its bindings
+		// may depend on the declarations of the book resource
+		repository.mergeAST(customerResource, customerResourceAST, true);
+		// verification
+		final Statistics statistics = repository.getStatistics();
+		assertThat(statistics.getFingerprintMissCount() - initialStatistics.getFingerprintMissCount(), equalTo(1L));
+		assertThat(statistics.getFingerprintHitCount(), equalTo(initialStatistics.getFingerprintHitCount()));
+		// operation: nothing changed in the meantime
+		repository.mergeAST(customerResource, customerResourceAST, true);
+		// verification
+		assertThat(repository.getStatistics().getFingerprintHitCount() - initialStatistics.getFingerprintHitCount(),
+				equalTo(1L));
+	}
+
+	@Test
+	public void shouldDetectStructuralChangesOnlyWhenDeclarationsChanged() throws CoreException {
+		// pre-condition
+		final ICompilationUnit compilationUnit = getCompilationUnit("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource");
+		// operation and verifications: the first scan is always a structural change
+		assertThat(repository.hasStructuralChanges(compilationUnit, null), is(true));
+		assertThat(repository.hasStructuralChanges(compilationUnit, null), is(false));
+		// operation and verifications: a change in a method body
+		replaceFirstOccurrenceOfCode(compilationUnit, "return responseBuilder.build();",
+				"return responseBuilder.status(200).build();", false);
+		assertThat(repository.hasStructuralChanges(compilationUnit, null), is(false));
+		// operation and verifications: a change in a method signature
+		replaceFirstOccurrenceOfCode(compilationUnit, "@PathParam(\"id\") Integer id, @Context",
+				"@PathParam(\"foo\") Integer id, @Context", false);
+		assertThat(repository.hasStructuralChanges(compilationUnit,
+				JdtUtils.parse(compilationUnit, new NullProgressMonitor())), is(true));
+		assertThat(repository.hasStructuralChanges(compilationUnit, null), is(false));
+	}
+
+	@Test
+	public void shouldDetectStructuralChangesWhenAnotherCompilationUnitChanged() throws CoreException {
+		// pre-condition
+		final ICompilationUnit customerResource = getCompilationUnit("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource");
+		final ICompilationUnit bookResource = getCompilationUnit("org.jboss.tools.ws.jaxrs.sample.services.BookResource");
+		repository.getAST(bookResource);
+		assertThat(repository.hasStructuralChanges(customerResource, null), is(true));
+		assertThat(repository.hasStructuralChanges(customerResource, null), is(false));
+		// operation: the declarations of the book resource change
+		replaceFirstOccurrenceOfCode(bookResource, "@PathParam(\"id\") Integer id", "@PathParam(\"foo\") Integer id",
+				false);
+		repository.mergeAST(bookResource, JdtUtils.parse(bookResource, new NullProgressMonitor()), true);
+		// verifications: the customer resource must be analysed again, once
+		assertThat(repository.hasStructuralChanges(customerResource, null), is(true));
+		assertThat(repository.hasStructuralChanges(customerResource, null), is(false));
+	}
+
+	@Test
+	public void shouldRemoveAST() throws CoreException {
+		// pre-condition
+		final ICompilationUnit compilationUnit = getCompilationUnit("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource");
+		repository.getAST(compilationUnit);
+		// operation
+		repository.removeAST(compilationUnit);
+		// verification
+		final Statistics statistics = repository.getStatistics();
+		assertThat(statistics.getSize(), equalTo(0));
+		assertThat(statistics.getWeight(), equalTo(0L));
+	}
+
+}
@@ -83,6 +83,25 @@ public class JavaElementsUtils {
 		return new Annotation(annotation.getJavaAnnotation(), annotation.getFullyQualifiedName(), elements);
 	}
 
+	/**
+	 * Replaces the annotation with the given name in the given annotations
+	 * with a <strong>new annotation</strong> having the given values, without
+	 * notifying the metamodel. Annotations being immutable, this is the way to
+	 * simulate an element that is out of sync with its underlying java element.
+	 * 
+	 * @param annotations the annotations of a JAX-RS element
+	 * @param annotationName the fully qualified name of the annotation to replace
+	 * @param values the new values
+	 * @return the new annotation
+	 * @throws JavaModelException
+	 */
+	public static Annotation replaceAnnotation(final Map<String, Annotation> annotations,
+			final String annotationName, final String... values) throws JavaModelException {
+		final Annotation annotation = createAnnotation(annotations.get(annotationName), values);
+		annotations.put(annotationName, annotation);
+		return annotation;
+	}
+
 	/**
 	 * Removes the first occurrence of the given content (not a regexp)
 	 * 
@@ -19,6 +19,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
@@ -37,6 +38,7 @@ import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsElementFacto
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsHttpMethod;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsJavaApplication;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodelEventBus;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsNameBinding;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsParamConverterProvider;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsParameterAggregator;
@@ -179,24 +181,44 @@ public class JaxrsMetamodelMonitor extends TestProjectMonitor implements IJaxrsM
 
 	}
 
+	/**
+	 * Waits until the notifications of the changes performed so far have been
+	 * delivered, since the metamodel listeners are notified in their own
+	 * thread.
+	 */
+	public void awaitNotifications() {
+		try {
+			if (!JaxrsMetamodelEventBus.getInstance().awaitDelivery(10, TimeUnit.SECONDS)) {
+				fail("Notifications were not delivered in time");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			fail("Interrupted while waiting for notifications");
+		}
+	}
+
 	public List<JaxrsElementDelta> getElementChanges() {
 		Collections.sort(elementChanges, new JaxrsElementDeltaComparator());
 		return elementChanges;
 	}
 
 	public List<JaxrsEndpointDelta> getEndpointChanges() {
+		awaitNotifications();
 		return endpointChanges;
 	}
 
 	public List<IJaxrsEndpoint> getEndpointProblemLevelChanges() {
+		awaitNotifications();
 		return endpointProblemLevelChanges;
 	}
 
 	public List<IJaxrsMetamodel> getMetamodelProblemLevelChanges() {
+		awaitNotifications();
 		return metamodelProblemLevelChanges;
 	}
 	
 	public List<JaxrsMetamodelDelta> getMetamodelChanges() {
+		awaitNotifications();
 		return metamodelChanges;
 	}
 
@@ -205,6 +227,7 @@ public class JaxrsMetamodelMonitor extends TestProjectMonitor implements IJaxrsM
 	}
 
 	public void resetElementChangesNotifications() {
+		awaitNotifications();
 		this.elementChanges.clear();
 		this.endpointChanges.clear();
 		this.endpointProblemLevelChanges.clear();
@@ -35,6 +35,7 @@ import org.eclipse.jdt.core.IJavaModelMarker;
 import org.eclipse.ui.dialogs.IOverwriteQuery;
 import org.eclipse.ui.internal.ide.filesystem.FileSystemStructureProvider;
 import org.eclipse.ui.wizards.datatransfer.ImportOperation;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.JavaElementChangedBuildQueue;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.TestLogger;
 import org.junit.Assert;
 
@@ -171,6 +172,9 @@ public class WorkbenchTasks {
 	public static void waitForTasksToComplete(final IWorkspace workspace) {
 		// trigger a fake job with a scheduling rule to make sure any other job did complete
 		try {
+			// skip the debounce delay of the pending Java element changes
+			Job.getJobManager().wakeUp(JavaElementChangedBuildQueue.FAMILY);
+			Job.getJobManager().join(JavaElementChangedBuildQueue.FAMILY, null);
 			final TimeLimitedJob waitJob = new TimeLimitedJob();
 			waitJob.setRule(workspace.getRuleFactory().buildRule());
 			waitJob.scheduleWithTimeout(10*60);
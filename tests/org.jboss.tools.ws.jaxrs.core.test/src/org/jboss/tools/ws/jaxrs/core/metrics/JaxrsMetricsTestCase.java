@@ -0,0 +1,159 @@
+/******************************************************************************* 
+ * Copyright (c) 2008 - 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Xavier Coulon - Initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.core.metrics;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jboss.tools.ws.jaxrs.core.junitrules.TestBanner;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * @author xcoulon
+ *
+ */
+public class JaxrsMetricsTestCase {
+
+	@Rule
+	public TestBanner testWatcher = new TestBanner();
+
+	@Before
+	public void resetMetrics() {
+		JaxrsMetrics.reset();
+	}
+
+	@Test
+	public void shouldRegisterCounterOnlyOnce() {
+		// operation
+		final Counter counter = JaxrsMetrics.counter("test.counter");
+		counter.increment();
+		JaxrsMetrics.counter("test.counter").add(2);
+		// verification
+		assertThat(JaxrsMetrics.counter("test.counter"), sameInstance(counter));
+		assertThat(counter.get(), equalTo(3L));
+		assertThat(JaxrsMetrics.getCounters().get("test.counter"), sameInstance(counter));
+	}
+
+	@Test
+	public void shouldComputeHistogramStatistics() {
+		// pre-condition
+		final Histogram histogram = JaxrsMetrics.histogram("test.histogram");
+		// operation
+		for (long i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000);
+		}
+		// verification
+		assertThat(histogram.getCount(), equalTo(1000L));
+		assertThat(histogram.getMin(), equalTo(1000L));
+		assertThat(histogram.getMax(), equalTo(1000000L));
+		assertThat(histogram.getMean(), equalTo(500500d));
+		// percentiles are approximated within 12.5%
+		assertThat(histogram.getPercentile(50), allOf(greaterThanOrEqualTo(500000L), lessThanOrEqualTo(562500L)));
+		assertThat(histogram.getPercentile(90), allOf(greaterThanOrEqualTo(900000L), lessThanOrEqualTo(1000000L)));
+		assertThat(histogram.getPercentile(100), equalTo(1000000L));
+	}
+
+	@Test
+	public void shouldCountSmallAndLargeValuesInHistogram() {
+		// pre-condition
+		final Histogram histogram = JaxrsMetrics.histogram("test.histogram");
+		// operation
+		histogram.record(-1);
+		histogram.record(0);
+		histogram.record(7);
+		histogram.record(Long.MAX_VALUE);
+		// verification
+		assertThat(histogram.getCount(), equalTo(4L));
+		assertThat(histogram.getMin(), equalTo(0L));
+		assertThat(histogram.getPercentile(50), equalTo(0L));
+		assertThat(histogram.getPercentile(75), equalTo(7L));
+		assertThat(histogram.getPercentile(99), equalTo(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void shouldRecordConcurrently() throws Exception {
+		// pre-condition
+		final Histogram histogram = JaxrsMetrics.histogram("test.histogram");
+		final Counter counter = JaxrsMetrics.counter("test.counter");
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+			for (int i = 0; i < 8; i++) {
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						for (long j = 1; j <= 10000; j++) {
+							histogram.record(j);
+							counter.increment();
+						}
+						return null;
+					}
+				});
+			}
+			// operation
+			for (Future<Void> future : executor.invokeAll(tasks)) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		// verification
+		assertThat(histogram.getCount(), equalTo(80000L));
+		assertThat(histogram.getSum(), equalTo(8 * 10000L * 10001L / 2));
+		assertThat(histogram.getMin(), equalTo(1L));
+		assertThat(histogram.getMax(), equalTo(10000L));
+		assertThat(counter.get(), equalTo(80000L));
+	}
+
+	@Test
+	public void shouldResetMetrics() {
+		// pre-condition
+		JaxrsMetrics.counter("test.counter").increment();
+		JaxrsMetrics.histogram("test.histogram").record(42);
+		// operation
+		JaxrsMetrics.reset();
+		// verification
+		assertThat(JaxrsMetrics.counter("test.counter").get(), equalTo(0L));
+		assertThat(JaxrsMetrics.histogram("test.histogram").getCount(), equalTo(0L));
+		assertThat(JaxrsMetrics.histogram("test.histogram").getMax(), equalTo(0L));
+		assertThat(JaxrsMetrics.histogram("test.histogram").getPercentile(99), equalTo(0L));
+	}
+
+	@Test
+	public void shouldExportJsonSnapshot() {
+		// pre-condition
+		JaxrsMetrics.AST_CACHE_HITS.add(3);
+		JaxrsMetrics.INDEX_COMMIT_DURATION.record(1000);
+		// operation
+		final String json = JaxrsMetrics.toJson();
+		// verification
+		assertThat(json, containsString("\"jdt.astCache.hits\": 3"));
+		assertThat(json, containsString("\"index.commit.duration\": {\"unit\": \"ns\", \"count\": 1, \"sum\": 1000, \"min\": 1000, \"max\": 1000"));
+		assertThat(json, containsString("\"builder.queue.wait\": {"));
+		assertThat(json, containsString("\"metamodel.lock.global.hold\": {"));
+	}
+
+}
@@ -16,6 +16,7 @@ import static org.jboss.tools.ws.jaxrs.ui.internal.validation.ValidationUtils.de
 import static org.junit.Assert.assertThat;
 
 import java.util.Arrays;
+import java.util.Collections;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
@@ -115,5 +116,23 @@ public class JaxrsMetamodelValidatorAsYouTypeTestCase {
 		assertThat(metamodelMonitor.getMetamodelProblemLevelChanges().size(), is(1));
 	}
 
+	@Test
+	public void shouldReplaceValidationDependenciesOfChangedFile() throws CoreException, ValidationException {
+		// preconditions: a dependency recorded by a previous validation, which
+		// the current content of the file no longer has
+		metamodelMonitor.createElements("org.jboss.tools.ws.jaxrs.sample.services.BarResource");
+		final IType barType = metamodelMonitor.resolveType("org.jboss.tools.ws.jaxrs.sample.services.BarResource");
+		final IFile barFile = (IFile) barType.getResource();
+		metamodel.getValidationDependencies().addDependency(barFile, "nameBinding:foo.Stale");
+		final IDocument document = new Document(barType.getCompilationUnit().getSource());
+		final EditorValidationContext editorValidationContext = new EditorValidationContext(project, document);
+		// operation
+		metamodelValidator.validate(validatorManager, project, Collections.<IRegion> emptyList(), validationContext,
+				reporter, editorValidationContext, projectValidationContext, barFile);
+		// validation
+		assertThat(metamodel.getValidationDependencies().getDependents(Arrays.asList("nameBinding:foo.Stale"))
+				.contains(barFile), is(false));
+	}
+
 
 }
@@ -120,4 +120,23 @@ public class JaxrsMetamodelValidatorTestCase {
 		
 	}
 	
+	@Test
+	public void shouldReportMarkersOnAllChangedFiles() throws CoreException, ValidationException {
+		// preconditions
+		ResourcesUtils.replaceFirstOccurrenceOfCode("org.jboss.tools.ws.jaxrs.sample.services.FOO", javaProject, "@Retention(value=RetentionPolicy.RUNTIME)", "", true);
+		ResourcesUtils.replaceFirstOccurrenceOfCode("org.jboss.tools.ws.jaxrs.sample.services.BarResource", javaProject, "getContent1(@PathParam(\"param1\") int id)", "getContent1(@PathParam(\"param3\") int id)", true);
+		final JaxrsHttpMethod fooHttpMethod = metamodelMonitor.createHttpMethod("org.jboss.tools.ws.jaxrs.sample.services.FOO");
+		metamodelMonitor.createElements("org.jboss.tools.ws.jaxrs.sample.services.BarResource");
+		final JaxrsResource barResource = metamodel.findResource(metamodelMonitor.resolveType("org.jboss.tools.ws.jaxrs.sample.services.BarResource"));
+		deleteJaxrsMarkers(project);
+		// operation: both files are validated in a single run
+		new JaxrsMetamodelValidator().validate(toSet(fooHttpMethod.getResource(), barResource.getResource()), project,
+				validationHelper, context, validatorManager, reporter);
+		// validation
+		final IMarker[] fooMarkers = ValidationUtils.findJaxrsMarkers(fooHttpMethod);
+		assertThat(fooMarkers.length, equalTo(1));
+		assertThat(fooMarkers, havePreferenceKey(HTTP_METHOD_MISSING_RETENTION_ANNOTATION));
+		assertThat(ValidationUtils.findJaxrsMarkers(barResource).length, greaterThanOrEqualTo(1));
+	}
+	
 }
@@ -17,6 +17,11 @@ import junit.framework.TestSuite;
 
 import org.jboss.tools.ws.ui.test.dialogs.JaxrsURLTemplateParserTestCase;
 import org.jboss.tools.ws.ui.test.preferences.JBossWSRuntimePreferencePageTest;
+import org.jboss.tools.ws.ui.test.utils.JAXRSLoadTesterTestCase;
+import org.jboss.tools.ws.ui.test.utils.JAXWSTester2TestCase;
+import org.jboss.tools.ws.ui.test.utils.ResponseBodyTestCase;
+import org.jboss.tools.ws.ui.test.utils.ResponseFormatterTestCase;
+import org.jboss.tools.ws.ui.test.utils.WSDLCacheTestCase;
 
 /**
  * @author Grid Qian
@@ -28,6 +33,11 @@ public class JBossWSUIAllTests extends TestCase {
 		TestSuite suite = new TestSuite(JBossWSUIAllTests.class.getName());
 		suite.addTestSuite(JBossWSRuntimePreferencePageTest.class);
 		suite.addTestSuite(JaxrsURLTemplateParserTestCase.class);
+		suite.addTestSuite(JAXRSLoadTesterTestCase.class);
+		suite.addTestSuite(JAXWSTester2TestCase.class);
+		suite.addTestSuite(WSDLCacheTestCase.class);
+		suite.addTestSuite(ResponseBodyTestCase.class);
+		suite.addTestSuite(ResponseFormatterTestCase.class);
 		// needs to be rewritten for updated utility class
 //		suite.addTestSuite(TesterWSDLUtilsTest.class);
 
@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Red Hat, Inc. and others.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+
+package org.jboss.tools.ws.ui.test.utils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A minimal HTTP/1.1 server for the tests, built on {@link ServerSocket} only
+ * so that the test bundle does not depend on the JDK internal
+ * {@code com.sun.net.httpserver} packages. Connections are kept alive, and
+ * request bodies can be sent with a Content-Length or chunked.
+ * @author bfitzpat
+ *
+ */
+public class EmbeddedHttpServer {
+
+	/**
+	 * Answers the requests received by the server
+	 */
+	public interface Handler {
+		Response handle(Request request) throws IOException;
+	}
+
+	/**
+	 * A request received by the server
+	 */
+	public static class Request {
+		private final String method;
+		private final String path;
+		private final Map<String, String> headers;
+		private final byte[] body;
+
+		Request(String method, String path, Map<String, String> headers, byte[] body) {
+			this.method = method;
+			this.path = path;
+			this.headers = headers;
+			this.body = body;
+		}
+
+		public String getMethod() {
+			return method;
+		}
+
+		public String getPath() {
+			return path;
+		}
+
+		/**
+		 * @param name case insensitive
+		 * @return the value of the header, or null
+		 */
+		public String getHeader(String name) {
+			return headers.get(name.toLowerCase(Locale.ENGLISH));
+		}
+
+		public byte[] getBody() {
+			return body;
+		}
+
+		public String getBodyAsString() throws IOException {
+			return new String(body, "UTF-8");
+		}
+	}
+
+	/**
+	 * The response to send back
+	 */
+	public static class Response {
+		private final int status;
+		private final String contentType;
+		private final byte[] body;
+
+		public Response(int status, String contentType, byte[] body) {
+			this.status = status;
+			this.contentType = contentType;
+			this.body = body;
+		}
+	}
+
+	private final Handler handler;
+	private final ServerSocket serverSocket;
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	/**
+	 * Start a server on an ephemeral port of the loopback interface
+	 * @param handler
+	 * @throws IOException
+	 */
+	public EmbeddedHttpServer(Handler handler) throws IOException {
+		this.handler = handler;
+		this.serverSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+		executor.execute(new Runnable() {
+			public void run() {
+				accept();
+			}
+		});
+	}
+
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Stop the server and close all the connections
+	 */
+	public void stop() {
+		try {
+			serverSocket.close();
+		} catch (IOException e) {
+			// ignore
+		}
+		executor.shutdownNow();
+	}
+
+	private void accept() {
+		while (!serverSocket.isClosed()) {
+			try {
+				final Socket socket = serverSocket.accept();
+				executor.execute(new Runnable() {
+					public void run() {
+						serve(socket);
+					}
+				});
+			} catch (IOException e) {
+				// the server socket was closed
+				return;
+			}
+		}
+	}
+
+	private void serve(Socket socket) {
+		try {
+			final InputStream in = new BufferedInputStream(socket.getInputStream());
+			final OutputStream out = socket.getOutputStream();
+			Request request;
+			while ((request = readRequest(in)) != null) {
+				final Response response = handler.handle(request);
+				final StringBuilder head = new StringBuilder();
+				head.append("HTTP/1.1 ").append(response.status).append(" Status\r\n");
+				if (response.contentType != null) {
+					head.append("Content-Type: ").append(response.contentType).append("\r\n");
+				}
+				head.append("Content-Length: ").append(response.body.length).append("\r\n\r\n");
+				out.write(head.toString().getBytes("ISO-8859-1"));
+				out.write(response.body);
+				out.flush();
+			}
+		} catch (SocketException e) {
+			// the connection was closed by the client or the server was stopped
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	/*
+	 * Read the next request of the connection, or return null at the end of the stream
+	 */
+	private static Request readRequest(InputStream in) throws IOException {
+		final String requestLine = readLine(in);
+		if (requestLine == null || requestLine.length() == 0) {
+			return null;
+		}
+		final String[] parts = requestLine.split(" ");
+		final Map<String, String> headers = new HashMap<String, String>();
+		String line;
+		while ((line = readLine(in)) != null && line.length() > 0) {
+			final int colon = line.indexOf(':');
+			if (colon > 0) {
+				headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ENGLISH), line.substring(colon + 1)
+						.trim());
+			}
+		}
+		final ByteArrayOutputStream body = new ByteArrayOutputStream();
+		if ("chunked".equalsIgnoreCase(headers.get("transfer-encoding"))) {
+			int chunkSize;
+			while ((chunkSize = Integer.parseInt(readLine(in).split(";")[0].trim(), 16)) > 0) {
+				copy(in, body, chunkSize);
+				readLine(in);
+			}
+			// trailers
+			while ((line = readLine(in)) != null && line.length() > 0) {
+				// ignore
+			}
+		} else if (headers.containsKey("content-length")) {
+			copy(in, body, Integer.parseInt(headers.get("content-length")));
+		}
+		return new Request(parts[0], parts.length > 1 ? parts[1] : "/", headers, body.toByteArray());
+	}
+
+	private static void copy(InputStream in, ByteArrayOutputStream out, int length) throws IOException {
+		for (int i = 0; i < length; i++) {
+			final int b = in.read();
+			if (b == -1) {
+				throw new IOException("Unexpected end of request body");
+			}
+			out.write(b);
+		}
+	}
+
+	private static String readLine(InputStream in) throws IOException {
+		final StringBuilder line = new StringBuilder();
+		int c;
+		while ((c = in.read()) != -1) {
+			if (c == '\n') {
+				final int length = line.length();
+				return length > 0 && line.charAt(length - 1) == '\r' ? line.substring(0, length - 1) : line
+						.toString();
+			}
+			line.append((char) c);
+		}
+		return line.length() > 0 ? line.toString() : null;
+	}
+
+}
@@ -0,0 +1,180 @@
+/******************************************************************************* 
+ * Copyright (c) 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.ui.test.utils;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.jboss.tools.ws.ui.utils.JAXRSLoadTester;
+import org.jboss.tools.ws.ui.utils.LatencyHistogram;
+import org.junit.Test;
+
+/**
+ * @author bfitzpat
+ *
+ */
+public class JAXRSLoadTesterTestCase extends TestCase {
+
+	private EmbeddedHttpServer server;
+	private final AtomicInteger receivedRequests = new AtomicInteger();
+
+	@Override
+	protected void setUp() throws Exception {
+		// an embedded server that fails every 10th request
+		server = new EmbeddedHttpServer(new EmbeddedHttpServer.Handler() {
+			public EmbeddedHttpServer.Response handle(EmbeddedHttpServer.Request request) throws IOException {
+				final int status = receivedRequests.incrementAndGet() % 10 == 0 ? 500 : 200;
+				return new EmbeddedHttpServer.Response(status, "application/json", "{\"id\":1}".getBytes());
+			}
+		});
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		server.stop();
+	}
+
+	private String getAddress() {
+		return "http://127.0.0.1:" + server.getPort() + "/api/customers";
+	}
+
+	@Test
+	public void testShouldComputePercentilesWithinPrecision() {
+		// pre-conditions
+		final LatencyHistogram histogram = new LatencyHistogram(TimeUnit.HOURS.toMicros(1));
+		// operation
+		for (int i = 1; i <= 100000; i++) {
+			histogram.recordValue(i);
+		}
+		// verifications
+		assertThat(histogram.getTotalCount(), equalTo(100000L));
+		assertThat(histogram.getMaxValue(), equalTo(100000L));
+		assertTrue(Math.abs(histogram.getMean() - 50000.5) < 1);
+		assertTrue(Math.abs(histogram.getValueAtPercentile(50) - 50000) <= 50);
+		assertTrue(Math.abs(histogram.getValueAtPercentile(99) - 99000) <= 99);
+		assertTrue(Math.abs(histogram.getValueAtPercentile(99.9) - 99900) <= 100);
+	}
+
+	@Test
+	public void testShouldMergeAndResetHistograms() {
+		// pre-conditions
+		final LatencyHistogram histogram = new LatencyHistogram(1000000L);
+		final LatencyHistogram other = new LatencyHistogram(1000000L);
+		histogram.recordValue(10);
+		other.recordValue(30);
+		// operation
+		histogram.add(other);
+		// verifications
+		assertThat(histogram.getTotalCount(), equalTo(2L));
+		assertThat(histogram.getMaxValue(), equalTo(30L));
+		assertThat(histogram.getValueAtPercentile(50), equalTo(10L));
+		// operation
+		histogram.reset();
+		// verifications
+		assertThat(histogram.getTotalCount(), equalTo(0L));
+		assertThat(histogram.getValueAtPercentile(99), equalTo(0L));
+	}
+
+	@Test
+	public void testShouldReportRequestsAndErrors() throws Exception {
+		// pre-conditions
+		final JAXRSLoadTester tester = new JAXRSLoadTester(getAddress(), new HashMap<String, String>(), null,
+				"GET", null, null, null);
+		tester.setVirtualUsers(4);
+		tester.setRampUp(200, TimeUnit.MILLISECONDS);
+		tester.setDuration(1, TimeUnit.SECONDS);
+		tester.setReportInterval(250, TimeUnit.MILLISECONDS);
+		final List<JAXRSLoadTester.Snapshot> snapshots = new ArrayList<JAXRSLoadTester.Snapshot>();
+		// operation
+		final JAXRSLoadTester.Snapshot result = tester.run(new JAXRSLoadTester.Listener() {
+			public void progress(JAXRSLoadTester.Snapshot snapshot) {
+				snapshots.add(snapshot);
+			}
+		});
+		// verifications
+		assertTrue(result.getRequestCount() > 0);
+		assertThat(result.getRequestCount(), equalTo((long) receivedRequests.get()));
+		assertThat(result.getErrorCount(), equalTo(result.getRequestCount() / 10));
+		assertThat(result.getActiveUsers(), is(0));
+		assertTrue(result.getThroughput() > 0);
+		assertTrue(result.getLatencyP50() <= result.getLatencyP99());
+		assertTrue(result.getLatencyP99() <= result.getMaxLatency());
+		assertTrue(snapshots.size() >= 2);
+	}
+
+	@Test
+	public void testShouldStopBeforeEndOfDuration() throws Exception {
+		// pre-conditions
+		final JAXRSLoadTester tester = new JAXRSLoadTester(getAddress(), new HashMap<String, String>(), null,
+				"POST", "{\"name\":\"foo\"}", "admin", "admin");
+		tester.setVirtualUsers(2);
+		tester.setDuration(1, TimeUnit.HOURS);
+		tester.setReportInterval(100, TimeUnit.MILLISECONDS);
+		final long start = System.currentTimeMillis();
+		// operation
+		final JAXRSLoadTester.Snapshot result = tester.run(new JAXRSLoadTester.Listener() {
+			public void progress(JAXRSLoadTester.Snapshot snapshot) {
+				tester.stop();
+			}
+		});
+		// verifications
+		assertTrue(System.currentTimeMillis() - start < TimeUnit.MINUTES.toMillis(1));
+		assertThat(result.getActiveUsers(), is(0));
+	}
+
+	@Test
+	public void testShouldCapVirtualUsersToKeepAliveConnections() throws Exception {
+		// pre-conditions
+		final JAXRSLoadTester tester = new JAXRSLoadTester(getAddress(), new HashMap<String, String>(), null,
+				"GET", null, null, null);
+		// operation
+		tester.setVirtualUsers(JAXRSLoadTester.getMaxVirtualUsers() + 10);
+		// verifications
+		assertThat(tester.getVirtualUsers(), equalTo(JAXRSLoadTester.getMaxVirtualUsers()));
+	}
+
+	@Test
+	public void testShouldCancelUsersStillInRampUpWhenStopped() throws Exception {
+		// pre-conditions: the second user starts after 1 hour
+		final JAXRSLoadTester tester = new JAXRSLoadTester(getAddress(), new HashMap<String, String>(), null,
+				"GET", null, null, null);
+		tester.setVirtualUsers(2);
+		tester.setRampUp(2, TimeUnit.HOURS);
+		tester.setDuration(3, TimeUnit.HOURS);
+		tester.setReportInterval(200, TimeUnit.MILLISECONDS);
+		final long start = System.currentTimeMillis();
+		// operation
+		final JAXRSLoadTester.Snapshot result = tester.run(new JAXRSLoadTester.Listener() {
+			public void progress(JAXRSLoadTester.Snapshot snapshot) {
+				tester.stop();
+			}
+		});
+		final int requestsAfterStop = receivedRequests.get();
+		Thread.sleep(200);
+		// verifications: run() did not wait for the timeout of the sleeping user
+		assertTrue(System.currentTimeMillis() - start < TimeUnit.SECONDS.toMillis(10));
+		assertThat(result.getActiveUsers(), is(0));
+		assertThat(receivedRequests.get(), equalTo(requestsAfterStop));
+	}
+
+}
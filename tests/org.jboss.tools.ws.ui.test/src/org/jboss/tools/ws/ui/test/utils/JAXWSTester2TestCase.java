@@ -0,0 +1,183 @@
+/******************************************************************************* 
+ * Copyright (c) 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.ui.test.utils;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.xml.soap.SOAPMessage;
+import javax.xml.ws.Response;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.jboss.tools.ws.ui.utils.JAXWSTester2;
+import org.junit.Test;
+
+/**
+ * @author bfitzpat
+ *
+ */
+public class JAXWSTester2TestCase extends TestCase {
+
+	private static final String NS = "http://example.org/echo";
+
+	private static final long RESPONSE_DELAY_MILLIS = 2000;
+
+	private static final String WSDL = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+			+ "<definitions xmlns=\"http://schemas.xmlsoap.org/wsdl/\" xmlns:soap=\"http://schemas.xmlsoap.org/wsdl/soap/\""
+			+ " xmlns:tns=\"" + NS + "\" xmlns:xsd=\"http://www.w3.org/2001/XMLSchema\" targetNamespace=\"" + NS + "\">"
+			+ "<types><xsd:schema targetNamespace=\"" + NS + "\">"
+			+ "<xsd:element name=\"echo\" type=\"xsd:string\"/><xsd:element name=\"echoResponse\" type=\"xsd:string\"/>"
+			+ "</xsd:schema></types>"
+			+ "<message name=\"echo\"><part name=\"parameters\" element=\"tns:echo\"/></message>"
+			+ "<message name=\"echoResponse\"><part name=\"parameters\" element=\"tns:echoResponse\"/></message>"
+			+ "<portType name=\"Echo\"><operation name=\"echo\"><input message=\"tns:echo\"/>"
+			+ "<output message=\"tns:echoResponse\"/></operation></portType>"
+			+ "<binding name=\"EchoBinding\" type=\"tns:Echo\">"
+			+ "<soap:binding transport=\"http://schemas.xmlsoap.org/soap/http\" style=\"document\"/>"
+			+ "<operation name=\"echo\"><soap:operation soapAction=\"\"/><input><soap:body use=\"literal\"/></input>"
+			+ "<output><soap:body use=\"literal\"/></output></operation></binding>"
+			+ "<service name=\"EchoService\"><port name=\"EchoPort\" binding=\"tns:EchoBinding\">"
+			+ "<soap:address location=\"%s\"/></port></service></definitions>";
+
+	private static final String REQUEST = "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+			+ "<soapenv:Body><echo xmlns=\"" + NS + "\">%s</echo></soapenv:Body></soapenv:Envelope>";
+
+	private static final String RESPONSE = "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+			+ "<soapenv:Body><echoResponse xmlns=\"" + NS + "\">%s</echoResponse></soapenv:Body></soapenv:Envelope>";
+
+	private EmbeddedHttpServer server;
+	private String address;
+
+	@Override
+	protected void setUp() throws Exception {
+		// a SOAP stand-in that answers after a delay, echoing the text of the request
+		server = new EmbeddedHttpServer(new EmbeddedHttpServer.Handler() {
+			public EmbeddedHttpServer.Response handle(EmbeddedHttpServer.Request request) throws IOException {
+				if (request.getMethod().equals("GET")) {
+					return new EmbeddedHttpServer.Response(200, "text/xml", String.format(WSDL, address)
+							.getBytes("UTF-8"));
+				}
+				try {
+					Thread.sleep(RESPONSE_DELAY_MILLIS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				final String body = request.getBodyAsString();
+				final int start = body.indexOf('>', body.indexOf("<echo ")) + 1;
+				final String text = body.substring(start, body.indexOf("</echo>"));
+				return new EmbeddedHttpServer.Response(200, "text/xml; charset=utf-8", String.format(RESPONSE, text)
+						.getBytes("UTF-8"));
+			}
+		});
+		address = "http://127.0.0.1:" + server.getPort() + "/echo";
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		server.stop();
+	}
+
+	private Response<SOAPMessage> invoke(JAXWSTester2 tester, String text) throws Exception {
+		return tester.invokeAsync(address + "?wsdl", null, NS, "EchoService", "EchoPort",
+				String.format(REQUEST, text), null, null);
+	}
+
+	private static String toString(SOAPMessage message) throws Exception {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		message.writeTo(out);
+		return out.toString("UTF-8");
+	}
+
+	@Test
+	public void testShouldStayIdleWhileWaitingForSlowResponse() throws Exception {
+		// pre-conditions
+		final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		if (!threadMXBean.isCurrentThreadCpuTimeSupported()) {
+			return;
+		}
+		final JAXWSTester2 tester = new JAXWSTester2();
+		final Response<SOAPMessage> response = invoke(tester, "hello");
+		final long startCpuTime = threadMXBean.getCurrentThreadCpuTime();
+		final long startTime = System.nanoTime();
+		// operation
+		final SOAPMessage message = tester.await(new NullProgressMonitor(), response);
+		// verifications
+		final long cpuTime = threadMXBean.getCurrentThreadCpuTime() - startCpuTime;
+		final long elapsedTime = System.nanoTime() - startTime;
+		assertThat(toString(message), containsString("hello"));
+		assertTrue(elapsedTime >= TimeUnit.MILLISECONDS.toNanos(RESPONSE_DELAY_MILLIS / 2));
+		// a busy wait would use as much CPU time as the elapsed time
+		assertTrue("Waiting thread used " + TimeUnit.NANOSECONDS.toMillis(cpuTime) + "ms of CPU time in "
+				+ TimeUnit.NANOSECONDS.toMillis(elapsedTime) + "ms", cpuTime < elapsedTime / 10);
+	}
+
+	@Test
+	public void testShouldSendSeveralOperationsConcurrently() throws Exception {
+		// pre-conditions
+		final JAXWSTester2 tester = new JAXWSTester2();
+		final long startTime = System.currentTimeMillis();
+		// operation
+		final Response<SOAPMessage> first = invoke(tester, "first");
+		final Response<SOAPMessage> second = invoke(tester, "second");
+		final Response<SOAPMessage> third = invoke(tester, "third");
+		// verifications
+		assertThat(toString(tester.await(null, first)), containsString("first"));
+		assertThat(toString(tester.await(null, second)), containsString("second"));
+		assertThat(toString(tester.await(null, third)), containsString("third"));
+		assertTrue(System.currentTimeMillis() - startTime < 3 * RESPONSE_DELAY_MILLIS);
+	}
+
+	@Test
+	public void testShouldTimeOut() throws Exception {
+		// pre-conditions
+		final JAXWSTester2 tester = new JAXWSTester2();
+		tester.setTimeout(200, TimeUnit.MILLISECONDS);
+		final Response<SOAPMessage> response = invoke(tester, "hello");
+		// operation
+		try {
+			tester.await(null, response);
+			fail("Expected a timeout");
+		} catch (TimeoutException e) {
+			// verifications
+			assertTrue(response.isCancelled());
+		}
+	}
+
+	@Test
+	public void testShouldStopWaitingWhenCancelled() throws Exception {
+		// pre-conditions
+		final JAXWSTester2 tester = new JAXWSTester2();
+		final NullProgressMonitor monitor = new NullProgressMonitor();
+		final Response<SOAPMessage> response = invoke(tester, "hello");
+		monitor.setCanceled(true);
+		// operation
+		try {
+			tester.await(monitor, response);
+			fail("Expected a cancellation");
+		} catch (InterruptedException e) {
+			// verifications
+			assertTrue(response.isCancelled());
+		}
+	}
+
+}
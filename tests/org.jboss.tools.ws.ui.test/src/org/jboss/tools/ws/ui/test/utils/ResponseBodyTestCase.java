@@ -0,0 +1,124 @@
+/******************************************************************************* 
+ * Copyright (c) 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.ui.test.utils;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+
+import junit.framework.TestCase;
+
+import org.jboss.tools.ws.ui.utils.ResponseBody;
+import org.junit.Test;
+
+/**
+ * @author bfitzpat
+ *
+ */
+public class ResponseBodyTestCase extends TestCase {
+
+	private static String createText(int count) {
+		final StringBuilder text = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			// mix of 1, 2 and 3 bytes characters in UTF-8
+			text.append("{\"name\":\"caf\u00e9 \u20ac").append(i).append("\"}");
+		}
+		return text.toString();
+	}
+
+	@Test
+	public void testShouldKeepSmallBodyInMemory() throws Exception {
+		// pre-conditions
+		final String text = createText(10);
+		// operation
+		final ResponseBody body = ResponseBody.read(new ByteArrayInputStream(text.getBytes("UTF-8")), "UTF-8", 1024);
+		// verifications
+		assertThat(body.isSpooled(), equalTo(false));
+		assertThat(body.getFile(), nullValue());
+		assertThat(body.getLength(), equalTo((long) text.getBytes("UTF-8").length));
+		assertThat(body.getPage(0, ResponseBody.DEFAULT_PAGE_SIZE), equalTo(text));
+	}
+
+	@Test
+	public void testShouldCleanSpoolDirectory() throws Exception {
+		// pre-conditions
+		final File previousDirectory = ResponseBody.getSpoolDirectory();
+		final File directory = File.createTempFile("spool", "");
+		directory.delete();
+		ResponseBody.setSpoolDirectory(directory);
+		try {
+			final byte[] bytes = createText(1000).getBytes("UTF-8");
+			final ResponseBody body = ResponseBody.read(new ByteArrayInputStream(bytes), null, 1024);
+			assertThat(body.getFile().getParentFile(), equalTo(directory));
+			assertThat(body.getFile().exists(), equalTo(true));
+			// operation
+			ResponseBody.cleanSpoolDirectory();
+			// verifications
+			assertThat(body.getFile().exists(), equalTo(false));
+			assertThat(directory.list().length, equalTo(0));
+		} finally {
+			ResponseBody.setSpoolDirectory(previousDirectory);
+			directory.delete();
+		}
+	}
+
+	@Test
+	public void testShouldSpoolLargeBodyAndReadItByPages() throws Exception {
+		// pre-conditions
+		final String text = createText(1000);
+		final byte[] bytes = text.getBytes("UTF-8");
+		// operation
+		final ResponseBody body = ResponseBody.read(new ByteArrayInputStream(bytes), null, 1024);
+		// verifications
+		assertThat(body.isSpooled(), equalTo(true));
+		assertThat(body.getFile().length(), equalTo((long) bytes.length));
+		final StringBuilder pages = new StringBuilder();
+		long offset = 0;
+		while (offset < body.getLength()) {
+			final long end = body.getPageEnd(offset, 1001);
+			assertTrue(end > offset && end - offset <= 1001);
+			pages.append(body.getText(offset, end));
+			offset = end;
+		}
+		assertThat(pages.toString(), equalTo(text));
+		// operation
+		final File file = body.getFile();
+		body.dispose();
+		// verifications
+		assertThat(file.exists(), equalTo(false));
+	}
+
+	@Test
+	public void testShouldReadCharsetFromContentType() {
+		assertThat(ResponseBody.getCharset("application/json; charset=ISO-8859-1"), equalTo("ISO-8859-1"));
+		assertThat(ResponseBody.getCharset("text/xml;charset=\"utf-8\""), equalTo("utf-8"));
+		assertThat(ResponseBody.getCharset("text/plain"), nullValue());
+		assertThat(ResponseBody.getCharset(null), nullValue());
+	}
+
+	@Test
+	public void testShouldDecodeWithGivenCharset() throws Exception {
+		// pre-conditions
+		final String text = "caf\u00e9";
+		// operation
+		final ResponseBody body = ResponseBody.read(new ByteArrayInputStream(text.getBytes("ISO-8859-1")),
+				"ISO-8859-1", 1024);
+		// verifications
+		assertThat(body.getLength(), equalTo(4L));
+		assertThat(body.getPage(0, ResponseBody.DEFAULT_PAGE_SIZE), equalTo(text));
+	}
+
+}
@@ -0,0 +1,154 @@
+/******************************************************************************* 
+ * Copyright (c) 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.ui.test.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+
+import org.jboss.tools.ws.ui.utils.ResponseFormatter;
+import org.jboss.tools.ws.ui.utils.ResponseFormatter.Format;
+
+/**
+ * Measures the time to pretty print JSON and XML responses from 1 KB to
+ * 100 MB. The responses are generated while they are read and the output
+ * is discarded, so that only the formatter is measured. It also compares
+ * the time to format 1,000 and 16,000 JSON items, which should be about 16
+ * times as long (far below the 256 times of a quadratic formatter). Not
+ * part of the test suite, since it depends on the load of the machine: run
+ * it as a Java application.
+ * @author bfitzpat
+ *
+ */
+public class ResponseFormatterBenchmark {
+
+	private static final long[] SIZES = { 
+		1L << 10, 10L << 10, 100L << 10, 1L << 20, 10L << 20, 100L << 20 
+	};
+
+	private static final String JSON_ITEM = 
+			"{\"id\":42,\"name\":\"item \\\"42\\\"\",\"tags\":[\"a\",\"b\"],\"attributes\":{\"enabled\":true}},"; 
+
+	private static final String XML_ITEM = 
+			"<item id=\"42\"><name>item 42</name><tags><tag>a</tag><tag>b</tag></tags><!-- note --></item>"; 
+
+	public static void main(String[] args) throws IOException {
+		// warm up
+		run(false, 10L << 20);
+		run(true, 10L << 20);
+		System.out.println("format\tsize (KB)\ttime (ms)\tMB/s");
+		for (long size : SIZES) {
+			for (boolean xml : new boolean[] { false, true }) {
+				final long start = System.nanoTime();
+				run(xml, size);
+				final long time = System.nanoTime() - start;
+				System.out.println(String.format("%s\t%d\t%.1f\t%.1f", xml ? "XML" : "JSON",
+						size >> 10, time / 1e6, size * 1e9 / time / (1 << 20)));
+			}
+		}
+		final String small = ResponseFormatterTestCase.createJSON(1000);
+		final String large = ResponseFormatterTestCase.createJSON(16000);
+		final long smallTime = format(small);
+		final long largeTime = format(large);
+		System.out.println(String.format("16x the JSON items took %.1fx the time", (double) largeTime / smallTime));
+	}
+
+	private static long format(String text) throws IOException {
+		final long start = System.nanoTime();
+		ResponseFormatter.format(new StringReader(text), new NullWriter(), Format.JSON);
+		return System.nanoTime() - start;
+	}
+
+	private static void run(boolean xml, long size) throws IOException {
+		final Reader in = xml 
+				? new RepeatingReader("<items>", XML_ITEM, "</items>", size) 
+				: new RepeatingReader("{\"items\":[", JSON_ITEM, "{}]}", size);
+		ResponseFormatter.format(in, new NullWriter(), xml ? Format.XML : Format.JSON);
+	}
+
+	/*
+	 * Reads a head, an item repeated up to about the given size, and a tail
+	 */
+	private static class RepeatingReader extends Reader {
+
+		private final String[] parts;
+
+		private long remaining;
+
+		private int position;
+
+		/* index in parts of the one being read: head, item or tail */
+		private int phase;
+
+		RepeatingReader(String head, String item, String tail, long size) {
+			this.parts = new String[] { head, item, tail };
+			this.remaining = size;
+		}
+
+		@Override
+		public int read(char[] buffer, int offset, int length) {
+			int count = 0;
+			while (count < length) {
+				final String current = parts[phase];
+				if (phase == 1 && position == 0 && remaining <= 0) {
+					phase = 2;
+					continue;
+				}
+				if (position == current.length()) {
+					if (phase == 2) {
+						break;
+					}
+					position = 0;
+					phase = 1;
+					continue;
+				}
+				final int n = Math.min(length - count, current.length() - position);
+				current.getChars(position, position + n, buffer, offset + count);
+				position += n;
+				count += n;
+				if (phase == 1) {
+					remaining -= n;
+				}
+			}
+			return count == 0 ? -1 : count;
+		}
+
+		@Override
+		public void close() {
+			// nothing to release
+		}
+	}
+
+	private static class NullWriter extends Writer {
+
+		@Override
+		public void write(char[] buffer, int offset, int length) {
+			// discard
+		}
+
+		@Override
+		public void write(String text, int offset, int length) {
+			// discard
+		}
+
+		@Override
+		public void flush() {
+			// nothing to flush
+		}
+
+		@Override
+		public void close() {
+			// nothing to close
+		}
+	}
+}
@@ -0,0 +1,165 @@
+/******************************************************************************* 
+ * Copyright (c) 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.ui.test.utils;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+
+import junit.framework.TestCase;
+
+import org.jboss.tools.ws.ui.utils.ResponseBody;
+import org.jboss.tools.ws.ui.utils.ResponseFormatter;
+import org.jboss.tools.ws.ui.utils.ResponseFormatter.Format;
+import org.jboss.tools.ws.ui.utils.SOAPDOMParser;
+import org.junit.Test;
+
+/**
+ * @author bfitzpat
+ *
+ */
+public class ResponseFormatterTestCase extends TestCase {
+
+	@Test
+	public void testShouldSniffFormat() throws Exception {
+		assertThat(ResponseFormatter.sniff("  <?xml version=\"1.0\"?><a/>"), equalTo(Format.XML));
+		assertThat(ResponseFormatter.sniff("\n{\"a\":1}"), equalTo(Format.JSON));
+		assertThat(ResponseFormatter.sniff("[1,2]"), equalTo(Format.JSON));
+		assertThat(ResponseFormatter.sniff("Hello <b>world</b>"), equalTo(Format.TEXT));
+		assertThat(ResponseFormatter.sniff(""), equalTo(Format.TEXT));
+	}
+
+	@Test
+	public void testShouldFormatNestedJSON() throws Exception {
+		// operation
+		final String result = ResponseFormatter.format("{\"a\":1,\"b\":[true,null],\"c\":{\"d\":\"e\"}}");
+		// verifications
+		assertThat(result, equalTo("{\n" 
+				+ "    \"a\": 1,\n" 
+				+ "    \"b\": [\n" 
+				+ "        true,\n" 
+				+ "        null\n" 
+				+ "    ],\n" 
+				+ "    \"c\": {\n" 
+				+ "        \"d\": \"e\"\n" 
+				+ "    }\n" 
+				+ "}"));
+	}
+
+	@Test
+	public void testShouldKeepJSONStringsAndEmptyContainers() throws Exception {
+		// operation
+		final String result = ResponseFormatter.format("{ \"a\" : \"x\\\"{,}[ ]\", \"b\":{}, \"c\":[ ] }");
+		// verifications
+		assertThat(result, equalTo("{\n" 
+				+ "    \"a\": \"x\\\"{,}[ ]\",\n" 
+				+ "    \"b\": {},\n" 
+				+ "    \"c\": []\n" 
+				+ "}"));
+	}
+
+	@Test
+	public void testShouldFormatXML() throws Exception {
+		// operation
+		final String result = ResponseFormatter.format(
+				"<?xml version=\"1.0\"?><a x=\"1>2\"><b>text</b><!-- <c> --><d><![CDATA[<e>]]></d><f/></a>");
+		// verifications
+		assertThat(result, equalTo("<?xml version=\"1.0\"?>\n" 
+				+ "<a x=\"1>2\">\n" 
+				+ "    <b>text</b>\n" 
+				+ "    <!-- <c> -->\n" 
+				+ "    <d><![CDATA[<e>]]></d>\n" 
+				+ "    <f/>\n" 
+				+ "</a>"));
+	}
+
+	@Test
+	public void testShouldLeavePlainTextUnchanged() throws Exception {
+		assertThat(ResponseFormatter.format("Not found"), equalTo("Not found"));
+	}
+
+	@Test
+	public void testShouldDetectXMLLikeText() throws Exception {
+		assertThat(SOAPDOMParser.isXMLLike("<?xml version=\"1.0\"?>\n<a><b/></a>"), equalTo(true));
+		assertThat(SOAPDOMParser.isXMLLike("<a>text"), equalTo(false));
+		assertThat(SOAPDOMParser.isXMLLike("{\"a\":1}"), equalTo(false));
+	}
+
+	@Test
+	public void testShouldGetFormatFromContentType() throws Exception {
+		assertThat(ResponseFormatter.getFormat("application/json; charset=UTF-8"), equalTo(Format.JSON));
+		assertThat(ResponseFormatter.getFormat("application/hal+json"), equalTo(Format.JSON));
+		assertThat(ResponseFormatter.getFormat("text/xml"), equalTo(Format.XML));
+		assertThat(ResponseFormatter.getFormat("application/atom+xml"), equalTo(Format.XML));
+		assertThat(ResponseFormatter.getFormat("application/xhtml+xml"), equalTo(Format.TEXT));
+		assertThat(ResponseFormatter.getFormat("text/html"), equalTo(Format.TEXT));
+		assertThat(ResponseFormatter.getFormat(null), equalTo(Format.TEXT));
+	}
+
+	@Test
+	public void testShouldLeaveHTMLUnchanged() throws Exception {
+		// pre-conditions
+		final String html = "<html><body><pre>a\n    b</pre><br></body></html>";
+		final String xhtml = "<html><body><pre>a\n    b</pre></body></html>";
+		// operation and verifications
+		assertThat(ResponseFormatter.format(html), equalTo(html));
+		assertThat(ResponseFormatter.format(xhtml, "text/html; charset=UTF-8"), equalTo(xhtml));
+		// an error page sent instead of the announced JSON
+		assertThat(ResponseFormatter.format(xhtml, "application/json"), equalTo(xhtml));
+	}
+
+	@Test
+	public void testShouldFormatResponseBody() throws Exception {
+		// pre-conditions
+		final String json = createJSON(2000);
+		final ResponseBody body = ResponseBody.read(new ByteArrayInputStream(json.getBytes("UTF-8")), "UTF-8", 1024);
+		// operation
+		final ResponseBody formatted = body.format("application/json");
+		// verifications
+		try {
+			assertThat(formatted.isSpooled(), equalTo(true));
+			assertThat(formatted.getText(0, formatted.getLength()), equalTo(ResponseFormatter.format(json)));
+			// the raw body is kept next to the formatted copy
+			assertThat(formatted.getRaw(), sameInstance(body));
+			assertThat(body.getFile().exists(), equalTo(true));
+			assertThat(body.getText(0, body.getLength()), equalTo(json));
+		} finally {
+			formatted.dispose();
+		}
+		// the raw body is disposed along with the formatted copy
+		assertThat(body.getFile().exists(), equalTo(false));
+	}
+
+	@Test
+	public void testShouldNotFormatHTMLResponseBody() throws Exception {
+		// pre-conditions
+		final ResponseBody body = ResponseBody.fromString("<html><body><pre>a\n    b</pre></body></html>");
+		// operation and verifications
+		assertThat(body.format("text/html"), sameInstance(body));
+		assertThat(body.format(null), sameInstance(body));
+		assertThat(body.format("application/json"), sameInstance(body));
+	}
+
+	static String createJSON(int count) {
+		final StringBuilder json = new StringBuilder("{\"items\":[");
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+			json.append("{\"id\":").append(i).append(",\"name\":\"item ").append(i)
+					.append("\",\"tags\":[\"a\",\"b\"],\"attributes\":{\"enabled\":true}}");
+		}
+		return json.append("]}").toString();
+	}
+}
@@ -0,0 +1,155 @@
+/******************************************************************************* 
+ * Copyright (c) 2014 Red Hat, Inc. and others. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+
+package org.jboss.tools.ws.ui.test.utils;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import javax.wsdl.Definition;
+import javax.xml.namespace.QName;
+import javax.xml.soap.SOAPMessage;
+import javax.xml.ws.Dispatch;
+
+import junit.framework.TestCase;
+
+import org.jboss.tools.ws.ui.utils.WSDLCache;
+import org.junit.Test;
+
+/**
+ * @author bfitzpat
+ *
+ */
+public class WSDLCacheTestCase extends TestCase {
+
+	private static final String NS = "http://example.org/echo";
+
+	private static final String WSDL = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+			+ "<definitions xmlns=\"http://schemas.xmlsoap.org/wsdl/\" xmlns:soap=\"http://schemas.xmlsoap.org/wsdl/soap/\""
+			+ " xmlns:tns=\"" + NS + "\" xmlns:xsd=\"http://www.w3.org/2001/XMLSchema\" targetNamespace=\"" + NS + "\">"
+			+ "<types><xsd:schema targetNamespace=\"" + NS + "\">"
+			+ "<xsd:element name=\"echo\" type=\"xsd:string\"/><xsd:element name=\"echoResponse\" type=\"xsd:string\"/>"
+			+ "</xsd:schema></types>"
+			+ "<message name=\"echo\"><part name=\"parameters\" element=\"tns:echo\"/></message>"
+			+ "<message name=\"echoResponse\"><part name=\"parameters\" element=\"tns:echoResponse\"/></message>"
+			+ "<portType name=\"Echo\"><operation name=\"echo\"><input message=\"tns:echo\"/>"
+			+ "<output message=\"tns:echoResponse\"/></operation></portType>"
+			+ "<binding name=\"EchoBinding\" type=\"tns:Echo\">"
+			+ "<soap:binding transport=\"http://schemas.xmlsoap.org/soap/http\" style=\"document\"/>"
+			+ "<operation name=\"echo\"><soap:operation soapAction=\"\"/><input><soap:body use=\"literal\"/></input>"
+			+ "<output><soap:body use=\"literal\"/></output></operation></binding>"
+			+ "<service name=\"EchoService\"><port name=\"EchoPort\" binding=\"tns:EchoBinding\">"
+			+ "<soap:address location=\"http://localhost:8080/echo\"/></port></service></definitions>";
+
+	private File wsdlFile;
+	private URL wsdlURL;
+
+	@Override
+	protected void setUp() throws Exception {
+		wsdlFile = File.createTempFile("echo", ".wsdl");
+		write(wsdlFile, WSDL);
+		wsdlURL = wsdlFile.toURI().toURL();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		wsdlFile.delete();
+	}
+
+	private static void write(File file, String content) throws IOException {
+		final FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(content.getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+	}
+
+	@Test
+	public void testShouldReadDefinitionOnlyOnce() throws Exception {
+		// pre-conditions
+		final WSDLCache cache = new WSDLCache();
+		// operation
+		final Definition first = cache.getDefinition(wsdlURL);
+		final Definition second = cache.getDefinition(wsdlURL);
+		// verifications
+		assertThat(second, sameInstance(first));
+		assertThat(cache.getMissCount(), equalTo(1L));
+		assertThat(cache.getHitCount(), equalTo(1L));
+	}
+
+	@Test
+	public void testShouldReuseDispatch() throws Exception {
+		// pre-conditions
+		final WSDLCache cache = new WSDLCache();
+		final QName serviceName = new QName(NS, "EchoService");
+		final QName portName = new QName(NS, "EchoPort");
+		// operation
+		final Dispatch<SOAPMessage> first = cache.getDispatch(wsdlURL, serviceName, portName, false);
+		final Dispatch<SOAPMessage> second = cache.getDispatch(wsdlURL, serviceName, portName, false);
+		// verifications
+		assertThat(second, sameInstance(first));
+		// one miss for the service and one for the dispatch
+		assertThat(cache.getMissCount(), equalTo(2L));
+		assertThat(cache.getHitCount(), equalTo(1L));
+	}
+
+	@Test
+	public void testShouldEvictWhenWSDLFileChanged() throws Exception {
+		// pre-conditions
+		final WSDLCache cache = new WSDLCache();
+		final Definition first = cache.getDefinition(wsdlURL);
+		// operation
+		write(wsdlFile, WSDL);
+		wsdlFile.setLastModified(wsdlFile.lastModified() + 2000);
+		final Definition second = cache.getDefinition(wsdlURL);
+		// verifications
+		assertThat(second, not(sameInstance(first)));
+		assertThat(cache.getMissCount(), equalTo(2L));
+		assertThat(cache.getEvictionCount(), equalTo(1L));
+	}
+
+	@Test
+	public void testShouldEvictWhenTimeToLiveElapsed() throws Exception {
+		// pre-conditions
+		final WSDLCache cache = new WSDLCache();
+		cache.setTimeToLive(0, TimeUnit.MILLISECONDS);
+		final Definition first = cache.getDefinition(wsdlURL);
+		// operation
+		final Definition second = cache.getDefinition(wsdlURL);
+		// verifications
+		assertThat(second, not(sameInstance(first)));
+		assertThat(cache.getEvictionCount(), equalTo(1L));
+	}
+
+	@Test
+	public void testShouldEvictWhenInvalidated() throws Exception {
+		// pre-conditions
+		final WSDLCache cache = new WSDLCache();
+		final Definition first = cache.getDefinition(wsdlURL);
+		// operation
+		cache.invalidate(wsdlURL.toString());
+		final Definition second = cache.getDefinition(wsdlURL);
+		// verifications
+		assertThat(second, not(sameInstance(first)));
+		assertThat(cache.getMissCount(), equalTo(2L));
+		assertThat(cache.getHitCount(), equalTo(0L));
+	}
+
+}